@@ -1,9 +1,12 @@
 package com.ai;
 
+import com.ai.infrastructure.config.ChatAiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ChatAiRuntimeHints.class)
 public class ChatAiApplication {
 
 	public static void main(String[] args) {
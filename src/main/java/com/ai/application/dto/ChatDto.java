@@ -3,26 +3,43 @@ package com.ai.application.dto;
 import com.ai.domain.entity.Chat;
 import com.ai.domain.entity.NoSqlChat;
 import com.ai.domain.entity.SqlChat;
+import com.ai.domain.model.ChatActivity;
 
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * @param lastActivityAt time of the latest message; only set when listing by activity
+ * @param messageCount   number of messages; only set when listing by activity
+ */
 public record ChatDto(
         String id,
         String name,
         Instant createdAt,
-        List<ChatMessageDto> messages
+        List<ChatMessageDto> messages,
+        Instant lastActivityAt,
+        Long messageCount
 ) {
     public static ChatDto from(Chat chat, List<ChatMessageDto> messages) {
         if (chat instanceof NoSqlChat noSqlChat) {
-            return new ChatDto(noSqlChat.getId(), noSqlChat.getName(), noSqlChat.getCreatedAt(), messages);
+            return new ChatDto(noSqlChat.getId(), noSqlChat.getName(), noSqlChat.getCreatedAt(), messages, null, null);
         }
         if (chat instanceof SqlChat sqlChat) {
-            return new ChatDto(sqlChat.getId(), sqlChat.getName(), chat.getCreatedAt(), messages);
+            return new ChatDto(sqlChat.getId(), sqlChat.getName(), chat.getCreatedAt(), messages, null, null);
         }
         throw new IllegalArgumentException(
                 "Unsupported Chat implementation: " + chat.getClass().getName()
         );
     }
-}
 
+    /**
+     * Maps an activity listing entry; {@code messages} holds the latest message preview only.
+     */
+    public static ChatDto from(ChatActivity activity) {
+        List<ChatMessageDto> preview = activity.lastMessagePreview() == null
+                ? List.of()
+                : List.of(new ChatMessageDto(activity.lastMessageRole(), activity.lastMessagePreview()));
+        return new ChatDto(activity.id(), activity.name(), activity.createdAt(), preview,
+                activity.lastActivityAt(), activity.messageCount());
+    }
+}
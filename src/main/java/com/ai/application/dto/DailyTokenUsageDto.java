@@ -0,0 +1,17 @@
+package com.ai.application.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @param total    usage of all chats on {@code day}
+ * @param chats    number of chats used on {@code day}
+ * @param topChats the chats with the most tokens, most first
+ */
+public record DailyTokenUsageDto(
+        LocalDate day,
+        TokenUsageDto total,
+        int chats,
+        List<TokenUsageDto> topChats
+) {
+}
@@ -0,0 +1,23 @@
+package com.ai.application.dto;
+
+import com.ai.infrastructure.usage.TokenUsage;
+
+import java.math.BigDecimal;
+
+/**
+ * @param chatId chat the usage belongs to; {@code null} for the total of a day
+ * @param cost   at the configured prices per million tokens
+ */
+public record TokenUsageDto(
+        String chatId,
+        long promptTokens,
+        long completionTokens,
+        long totalTokens,
+        long turns,
+        BigDecimal cost
+) {
+    public static TokenUsageDto from(String chatId, TokenUsage usage, BigDecimal cost) {
+        return new TokenUsageDto(chatId, usage.promptTokens(), usage.completionTokens(), usage.totalTokens(),
+                usage.turns(), cost);
+    }
+}
@@ -3,10 +3,17 @@ package com.ai.application.service;
 import com.ai.application.dto.ChatDto;
 import com.ai.application.dto.ChatMessageDto;
 import com.ai.domain.entity.Chat;
+import com.ai.domain.model.ChatVersion;
 import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
 import com.ai.domain.model.pagination.PageMeta;
+import com.ai.infrastructure.client.StreamHedger;
 import com.ai.infrastructure.metadata.MessageMetadataAppender;
+import com.ai.infrastructure.ratelimit.TokenQuota;
+import com.ai.infrastructure.repository.AnswerCheckpointer;
 import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.repository.MessagePageCache;
+import com.ai.infrastructure.usage.TokenUsageRecorder;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -14,15 +21,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.http.ResponseEntity;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class ChatService {
@@ -31,9 +46,15 @@ public class ChatService {
 
     private final ChatClient openAiChatClient;
     private final ChatClient chatNameGeneratorClient;
+    private final ChatClient hedgeChatClient;
+    private final StreamHedger streamHedger;
     private final ChatMemory chatMemory;
     private final ChatRepository<? extends Chat> chatRepository;
     private final MessageMetadataAppender messageMetadataAppender;
+    private final TokenQuota tokenQuota;
+    private final TokenUsageRecorder tokenUsageRecorder;
+    private final MessagePageCache messagePageCache;
+    private final AnswerCheckpointer answerCheckpointer;
     private final ObjectMapper objectMapper;
 
     public static final String CHAT_CREATED = "CHAT_CREATED";
@@ -42,16 +63,28 @@ public class ChatService {
     public ChatService(
             ChatClient openAiChatClient,
             ChatClient chatNameGeneratorClient,
+            ChatClient hedgeChatClient,
+            StreamHedger streamHedger,
             ChatMemory chatMemory,
             ChatRepository<? extends Chat> chatRepository,
             MessageMetadataAppender messageMetadataAppender,
+            TokenQuota tokenQuota,
+            TokenUsageRecorder tokenUsageRecorder,
+            MessagePageCache messagePageCache,
+            AnswerCheckpointer answerCheckpointer,
             ObjectMapper objectMapper
     ) {
         this.openAiChatClient = openAiChatClient;
         this.chatNameGeneratorClient = chatNameGeneratorClient;
+        this.hedgeChatClient = hedgeChatClient;
+        this.streamHedger = streamHedger;
         this.chatMemory = chatMemory;
         this.chatRepository = chatRepository;
         this.messageMetadataAppender = messageMetadataAppender;
+        this.tokenQuota = tokenQuota;
+        this.tokenUsageRecorder = tokenUsageRecorder;
+        this.messagePageCache = messagePageCache;
+        this.answerCheckpointer = answerCheckpointer;
         this.objectMapper = objectMapper;
     }
 
@@ -62,8 +95,13 @@ public class ChatService {
      * <ul>
      *   <li>If {@code chatId} is null, a new chat is created and a {@code chat_created} SSE event is sent first.</li>
      *   <li>The user's message is added to the chat memory.</li>
-     *   <li>The assistant's response is requested from the model and streamed back chunk by chunk as SSE events.</li>
-     *   <li>All streamed chunks are accumulated and, once complete, the full assistant message is saved to chat memory.</li>
+     *   <li>The assistant's response is requested from the model and streamed back chunk by chunk as SSE events.
+     *       When hedging is enabled, a slow first token triggers a second request and the faster one is used.</li>
+     *   <li>All streamed chunks are accumulated and, once complete, the full assistant message is saved to chat memory.
+     *       While streaming, the partial answer is checkpointed to the same row so that a crash does not lose it.</li>
+     *   <li>The token usage the model reports for the turn is recorded for the chat.</li>
+     *   <li>If the subscriber goes away or the model call fails, the model stream is cancelled and the partial
+     *       assistant message is saved with {@code msg_truncated = true}.</li>
      *   <li>Finally, an {@code END_STREAM} SSE event signals completion of the stream.</li>
      * </ul>
      *
@@ -72,6 +110,20 @@ public class ChatService {
      * @return a {@link Flux} of {@link ServerSentEvent} objects representing the streamed response
      */
     public Flux<ServerSentEvent<String>> stream(String chatId, String userMessage) {
+        return stream(chatId, userMessage, null);
+    }
+
+    /**
+     * Streams an assistant response over Server-Sent Events (SSE) and charges the streamed output
+     * to the caller's daily token quota.
+     *
+     * @param chatId      existing chat identifier, or {@code null} to create a new chat
+     * @param userMessage the message from the user to process
+     * @param callerId    caller identity for quota accounting, or {@code null} to skip accounting
+     * @return a {@link Flux} of {@link ServerSentEvent} objects representing the streamed response
+     * @see #stream(String, String)
+     */
+    public Flux<ServerSentEvent<String>> stream(String chatId, String userMessage, String callerId) {
         log.info("Received user message: {}", userMessage);
 
         final String finalChatId = (chatId == null)
@@ -83,55 +135,126 @@ public class ChatService {
                 ? Flux.just(ServerSentEvent.builder(finalChatId).event(CHAT_CREATED).build())
                 : Flux.empty();
 
+        Map<String, Object> userMetadata = messageMetadataAppender.appendMetadata(Map.of());
         chatMemory.add(
                 finalChatId,
                 UserMessage.builder()
                         .text(userMessage)
-                        .metadata(messageMetadataAppender.appendMetadata(Map.of()))
+                        .metadata(userMetadata)
                         .build()
         );
         log.info("User message added to chat memory for chatId={}", finalChatId);
 
-        StringBuilder assistantResponse = new StringBuilder();
+        // StringBuffer: chunks are appended on the model thread while a cancel may read it from the subscriber side
+        StringBuffer assistantResponse = new StringBuffer();
+        AtomicBoolean assistantResponseSaved = new AtomicBoolean();
+        // usually only on the last response of the stream
+        AtomicReference<Usage> usage = new AtomicReference<>();
+
+        List<Message> messages = chatMemory.get(finalChatId);
+        AnswerCheckpointer.Checkpoint checkpoint = answerCheckpointer.start(finalChatId,
+                userMetadata.get("msg_timestamp") instanceof Instant at ? at : Instant.now());
+
+        Flux<ServerSentEvent<String>> modelStream = streamHedger
+                .hedge(
+                        () -> openAiChatClient.prompt().messages(messages)
+                                .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, finalChatId))
+                                .stream().chatResponse(),
+                        () -> hedgeChatClient.prompt().messages(messages)
+                                .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, finalChatId))
+                                .stream().chatResponse()
+                )
+                .mapNotNull(response -> {
+                    Usage reported = response.getMetadata().getUsage();
+                    if (reported != null && reported.getTotalTokens() != null && reported.getTotalTokens() > 0) {
+                        usage.set(reported);
+                    }
+                    return text(response);
+                })
+                .filter(StringUtils::hasLength)
+                .map(chunk -> {
+                    log.info("Streaming chunk: {}", chunk);
+
+                    assistantResponse.append(chunk);  // accumulate the streamed chunk
+                    checkpoint.update(assistantResponse);
+
+                    String jsonChunk = encodeToJson(chunk); // convert to JSON for SSE
+                    log.info("Encoded chunk to JSON");
+
+                    return ServerSentEvent.builder(jsonChunk).build();  // SSE emit
+                })
+                // the cancel signal travels upstream and closes the model HTTP call, so no more tokens are billed
+                .doOnCancel(() -> {
+                    log.info("Stream cancelled by subscriber for chatId={}", finalChatId);
+                    saveAssistantResponse(finalChatId, callerId, messages, assistantResponse, usage.get(), true, assistantResponseSaved, checkpoint);
+                })
+                .doOnError(e -> {
+                    log.error("Streaming failed for chatId={}", finalChatId, e);
+                    saveAssistantResponse(finalChatId, callerId, messages, assistantResponse, usage.get(), true, assistantResponseSaved, checkpoint);
+                });
 
         return createdChatEvent.concatWith(
-                openAiChatClient
-                        .prompt()
-                        .messages(chatMemory.get(finalChatId))
-                        .stream()
-                        .content()
-                        .map(chunk -> {
-                            log.info("Streaming chunk: {}", chunk);
-
-                            assistantResponse.append(chunk);  // accumulate the streamed chunk
-
-                            String jsonChunk = encodeToJson(chunk); // convert to JSON for SSE
-                            log.info("Encoded chunk to JSON");
-
-                            return ServerSentEvent.builder(jsonChunk).build();  // SSE emit
-                        })
-                        .concatWith(Flux.defer(() -> {
-                            log.info("Streaming complete");
-
-                            // Add full assistant response
-                            chatMemory.add(
-                                    finalChatId,
-                                    new AssistantMessage(
-                                            assistantResponse.toString(),
-                                            messageMetadataAppender.appendMetadata(Map.of())
-                                    )
-                            );
-                            log.info("Assistant response saved to chat memory for chatId={}", finalChatId);
-
-                            return Flux.just(
-                                    ServerSentEvent.<String>builder()
-                                            .event(END_STREAM)
-                                            .build()
-                            );
-                        }))
+                modelStream.concatWith(Flux.defer(() -> {
+                    log.info("Streaming complete");
+
+                    // Add full assistant response
+                    saveAssistantResponse(finalChatId, callerId, messages, assistantResponse, usage.get(), false, assistantResponseSaved, checkpoint);
+
+                    return Flux.just(
+                            ServerSentEvent.<String>builder()
+                                    .event(END_STREAM)
+                                    .build()
+                    );
+                }))
         );
     }
 
+    /**
+     * Saves the accumulated assistant response to chat memory, at most once per stream.
+     *
+     * <p>A cancelled or failed stream saves whatever was received so far, flagged with
+     * {@code msg_truncated}. An empty partial response is not saved. Whatever was streamed is
+     * charged to the caller's token quota.</p>
+     *
+     * <p>The turn's token usage is recorded for the chat. A stream that ends before the model
+     * reports usage (cancelled, failed, or a provider without stream usage) is recorded with token
+     * counts estimated from the prompt and the streamed text.</p>
+     *
+     * <p>The answer is saved under the key of its checkpoints, replacing the last one.</p>
+     */
+    private void saveAssistantResponse(String chatId, String callerId, List<Message> prompt,
+                                       StringBuffer assistantResponse, Usage usage,
+                                       boolean truncated, AtomicBoolean saved,
+                                       AnswerCheckpointer.Checkpoint checkpoint) {
+        if (!saved.compareAndSet(false, true)) {
+            return;
+        }
+        String text = assistantResponse.toString();
+        checkpoint.close(text.length());
+        long promptTokens;
+        long completionTokens;
+        if (usage != null) {
+            promptTokens = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+            completionTokens = usage.getCompletionTokens() == null ? 0 : usage.getCompletionTokens();
+        } else {
+            promptTokens = prompt.stream()
+                    .mapToLong(message -> message.getText() == null ? 0 : TokenQuota.estimateTokens(message.getText()))
+                    .sum();
+            completionTokens = TokenQuota.estimateTokens(text);
+        }
+        tokenQuota.record(callerId, completionTokens);
+        tokenUsageRecorder.record(chatId, promptTokens, completionTokens);
+        if (truncated && text.isEmpty()) {
+            log.info("No partial assistant response to save for chatId={}", chatId);
+            return;
+        }
+
+        Map<String, Object> metadata = new HashMap<>(messageMetadataAppender.appendMetadata(Map.of("msg_truncated", truncated)));
+        metadata.putAll(checkpoint.key());
+        chatMemory.add(chatId, new AssistantMessage(text, metadata));
+        log.info("Assistant response saved to chat memory for chatId={} (truncated={})", chatId, truncated);
+    }
+
     private String saveChat(String userMessage) {
         log.info("Starting chat creation for user message: {}", userMessage);
 
@@ -148,6 +271,13 @@ public class ChatService {
         return chatId;
     }
 
+    private static String text(ChatResponse response) {
+        if (response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getText();
+    }
+
     private String encodeToJson(String message) {
         try {
             return objectMapper.writeValueAsString(Map.of("text", message));
@@ -160,13 +290,17 @@ public class ChatService {
     /**
      * Retrieves the full chat history for the given chat ID.
      *
+     * <p>Read from the repository rather than the chat memory, whose window cache may lag behind
+     * writes of other replicas; the history must be at least as new as the version read before it
+     * (see {@link #findVersion}).</p>
+     *
      * @param chatId the unique identifier of the chat session
      * @return a list of chat messages (as DTOs) exchanged in this chat
      */
     public List<ChatMessageDto> getChatHistory(String chatId) {
         log.info("Fetching chat history for chatId: {}", chatId);
 
-        List<ChatMessageDto> history = chatMemory.get(chatId)
+        List<ChatMessageDto> history = chatRepository.findByConversationId(chatId)
                 .stream()
                 .map(ChatMessageDto::from)
                 .toList();
@@ -176,10 +310,30 @@ public class ChatService {
         return history;
     }
 
+    /**
+     * Retrieves the version of a chat's history for conditional requests. Read it before the history,
+     * so the history returned with it is never older than the version.
+     *
+     * @param chatId the unique identifier of the chat
+     * @return the version, or empty if the chat has none
+     */
+    public Optional<ChatVersion> findVersion(String chatId) {
+        return chatRepository.findVersion(chatId);
+    }
+
+    /**
+     * Retrieves the version of the chat list for conditional requests; read it before the list.
+     *
+     * @return the version, or empty if no chat was created or deleted since versions are kept
+     */
+    public Optional<ChatVersion> findListVersion() {
+        return chatRepository.findListVersion();
+    }
+
     /**
      * Retrieves all chats.
      *
-     * @return a {@link ResponseEntity} containing a list of {@link ChatDto} objects
+     * @return every chat, without messages
      */
     public List<ChatDto> findAll() {
         log.info("Fetching all chats from repository");
@@ -196,6 +350,36 @@ public class ChatService {
         return result;
     }
 
+    /**
+     * Retrieves the most recently active chats, each with its message count and a preview of its
+     * latest message in {@link ChatDto#messages()}.
+     *
+     * @param limit maximum number of chats
+     * @return chats ordered by their latest message, newest first
+     */
+    public List<ChatDto> findAllByActivity(int limit) {
+        log.info("Fetching up to {} chats by last activity", limit);
+
+        return chatRepository.findAllByActivity(limit).stream()
+                .map(ChatDto::from)
+                .toList();
+    }
+
+    /**
+     * Forks a chat, e.g. to edit an earlier prompt: the fork continues the chat's history without its
+     * {@code drop} newest messages and is then used like any other chat.
+     *
+     * @param chatId the chat to fork
+     * @param drop   number of newest messages left out, 0 to keep the whole history
+     * @param name   name of the fork, or {@code null} to keep the chat's name
+     * @return the new chat, or empty if {@code chatId} does not exist
+     */
+    public Optional<ChatDto> fork(String chatId, int drop, String name) {
+        log.info("Forking chatId={} without its {} newest messages", chatId, drop);
+
+        return chatRepository.fork(chatId, drop, name).map(chat -> ChatDto.from(chat, null));
+    }
+
     /**
      * Retrieves a paginated list of messages for the specified chat.
      *
@@ -211,5 +395,24 @@ public class ChatService {
 
         return chatPage;
     }
-}
 
+    /**
+     * Retrieves one page of messages for the specified chat, newest first. Pages behind a cursor are
+     * served from {@link MessagePageCache} once loaded; only the head page ({@code cursor == null})
+     * always reads Cassandra.
+     *
+     * @param chatId   the unique identifier of the chat
+     * @param cursor   {@code nextCursor} of the previous page, or {@code null} for the newest messages
+     * @param pageSize number of messages per page
+     * @return the requested messages and the cursor of the next page
+     */
+    public ChatPage findMessagesPage(String chatId, String cursor, int pageSize) {
+        log.info("Fetching messages for chatId={} cursor={} pageSize={}", chatId, cursor, pageSize);
+
+        if (cursor == null) {
+            return chatRepository.findByConversationId(chatId, new CursorMeta(null, pageSize));
+        }
+        return messagePageCache.get(chatId, cursor, pageSize,
+                () -> chatRepository.findByConversationId(chatId, new CursorMeta(cursor, pageSize)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.ai.application.service;
+
+import com.ai.application.dto.DailyTokenUsageDto;
+import com.ai.application.dto.TokenUsageDto;
+import com.ai.infrastructure.usage.TokenUsage;
+import com.ai.infrastructure.usage.TokenUsageAccumulator;
+import com.ai.infrastructure.usage.TokenUsageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token usage totals per chat and per day. Totals are the stored counters plus what this replica
+ * recorded but has not flushed yet, so a chat's latest turns show up immediately here; turns
+ * served by other replicas appear after their next flush.
+ */
+@Service
+public class TokenUsageService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenUsageService.class);
+
+    private static final BigDecimal MILLION = BigDecimal.valueOf(1_000_000);
+
+    private final TokenUsageRepository tokenUsageRepository;
+    private final TokenUsageAccumulator tokenUsageAccumulator;
+    private final BigDecimal promptPrice;
+    private final BigDecimal completionPrice;
+
+    public TokenUsageService(
+            TokenUsageRepository tokenUsageRepository,
+            TokenUsageAccumulator tokenUsageAccumulator,
+            @Value("${app.usage.price-per-million.prompt:0}") BigDecimal promptPrice,
+            @Value("${app.usage.price-per-million.completion:0}") BigDecimal completionPrice
+    ) {
+        this.tokenUsageRepository = tokenUsageRepository;
+        this.tokenUsageAccumulator = tokenUsageAccumulator;
+        this.promptPrice = promptPrice;
+        this.completionPrice = completionPrice;
+    }
+
+    /**
+     * Retrieves the all-time usage of a chat.
+     *
+     * @param chatId the unique identifier of the chat
+     * @return the chat's usage, zero if it never had a turn
+     */
+    public TokenUsageDto findByChat(String chatId) {
+        log.info("Fetching token usage for chatId={}", chatId);
+
+        TokenUsage usage = tokenUsageRepository.findByChat(chatId).plus(tokenUsageAccumulator.unflushed(chatId));
+        return TokenUsageDto.from(chatId, usage, cost(usage));
+    }
+
+    /**
+     * Retrieves the usage of all chats on a UTC day.
+     *
+     * @param day the day
+     * @param top number of chats to list with their own usage
+     * @return the day's total and its top chats by tokens
+     */
+    public DailyTokenUsageDto findByDay(LocalDate day, int top) {
+        log.info("Fetching token usage for {}", day);
+
+        Map<String, TokenUsage> byChat = new HashMap<>(tokenUsageRepository.findByDay(day));
+        for (String chatId : tokenUsageAccumulator.unflushedChats(day)) {
+            byChat.merge(chatId, tokenUsageAccumulator.unflushed(chatId, day), TokenUsage::plus);
+        }
+
+        TokenUsage total = byChat.values().stream().reduce(TokenUsage.ZERO, TokenUsage::plus);
+        List<TokenUsageDto> topChats = byChat.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TokenUsage> e) -> e.getValue().totalTokens()).reversed())
+                .limit(top)
+                .map(e -> TokenUsageDto.from(e.getKey(), e.getValue(), cost(e.getValue())))
+                .toList();
+        log.info("Retrieved token usage of {} chats for {}", byChat.size(), day);
+
+        return new DailyTokenUsageDto(day, TokenUsageDto.from(null, total, cost(total)), byChat.size(), topChats);
+    }
+
+    BigDecimal cost(TokenUsage usage) {
+        return promptPrice.multiply(BigDecimal.valueOf(usage.promptTokens()))
+                .add(completionPrice.multiply(BigDecimal.valueOf(usage.completionTokens())))
+                .divide(MILLION, 6, RoundingMode.HALF_UP);
+    }
+}
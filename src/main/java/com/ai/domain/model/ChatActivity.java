@@ -0,0 +1,18 @@
+package com.ai.domain.model;
+
+import java.time.Instant;
+
+/**
+ * A chat as listed by recent activity: its latest message time, number of messages and a preview of
+ * the latest message.
+ */
+public record ChatActivity(
+        String id,
+        String name,
+        Instant createdAt,
+        Instant lastActivityAt,
+        long messageCount,
+        String lastMessageRole,
+        String lastMessagePreview
+) {
+}
@@ -0,0 +1,13 @@
+package com.ai.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Version of a chat's history or of the chat list, changed by every write to it; used for
+ * {@code ETag} and {@code Last-Modified}.
+ *
+ * @param tag        opaque and unique per write
+ * @param modifiedAt time of the write
+ */
+public record ChatVersion(String tag, Instant modifiedAt) {
+}
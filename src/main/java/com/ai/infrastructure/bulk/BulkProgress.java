@@ -0,0 +1,62 @@
+package com.ai.infrastructure.bulk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk run. Feeds the {@code chat.bulk.conversations} and {@code chat.bulk.messages}
+ * counters, tagged with the direction, and logs totals with the rate since the last report and since
+ * the start.
+ */
+class BulkProgress {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkProgress.class);
+
+    private final String direction;
+    private final Counter conversationCounter;
+    private final Counter messageCounter;
+    private final AtomicLong conversations = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+
+    private long lastReportNanos = startNanos;
+    private long lastReportMessages;
+
+    BulkProgress(String direction, MeterRegistry meterRegistry) {
+        this.direction = direction;
+        this.conversationCounter = meterRegistry.counter("chat.bulk.conversations", "direction", direction);
+        this.messageCounter = meterRegistry.counter("chat.bulk.messages", "direction", direction);
+    }
+
+    void conversationDone(int messageCount) {
+        conversations.incrementAndGet();
+        messages.addAndGet(messageCount);
+        conversationCounter.increment();
+        messageCounter.increment(messageCount);
+    }
+
+    synchronized void report(String detail) {
+        long now = System.nanoTime();
+        long total = messages.get();
+        log.info("Bulk {}: {} conversations, {} messages, {} msg/s now, {} msg/s overall{}",
+                direction, conversations.get(), total,
+                rate(total - lastReportMessages, now - lastReportNanos),
+                rate(total, now - startNanos),
+                detail == null ? "" : ", " + detail);
+        lastReportNanos = now;
+        lastReportMessages = total;
+    }
+
+    BulkTransferResult result() {
+        return new BulkTransferResult(conversations.get(), messages.get(), Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private static long rate(long count, long nanos) {
+        return nanos <= 0 ? 0 : count * 1_000_000_000L / nanos;
+    }
+}
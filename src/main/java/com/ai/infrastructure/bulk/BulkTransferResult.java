@@ -0,0 +1,10 @@
+package com.ai.infrastructure.bulk;
+
+import java.time.Duration;
+
+public record BulkTransferResult(long conversations, long messages, Duration elapsed) {
+
+    public double messagesPerSecond() {
+        return elapsed.isZero() ? 0 : messages * 1_000_000_000d / elapsed.toNanos();
+    }
+}
@@ -0,0 +1,112 @@
+package com.ai.infrastructure.bulk;
+
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.repository.ChatRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Exports every conversation to a JSONL file of {@link ConversationRecord}s, in the format
+ * {@link ConversationImporter} reads.
+ *
+ * <p>Chats are listed with the repository's parallel token-range scan. Up to {@code concurrency}
+ * conversations are read at a time on the bounded-elastic scheduler, and lines are written in
+ * completion order.</p>
+ */
+public class ConversationExporter {
+
+    private final ChatRepository<NoSqlChat> chatRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+    private final double messagesPerSecond;
+    private final Duration reportInterval;
+
+    public ConversationExporter(ChatRepository<NoSqlChat> chatRepository, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry, int concurrency, double messagesPerSecond,
+                                Duration reportInterval) {
+        Assert.isTrue(concurrency > 0, "concurrency must be greater than 0");
+        this.chatRepository = chatRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.concurrency = concurrency;
+        this.messagesPerSecond = messagesPerSecond;
+        this.reportInterval = reportInterval;
+    }
+
+    public BulkTransferResult run(Path output) {
+        Assert.notNull(output, "output cannot be null");
+
+        ThroughputPacer pacer = new ThroughputPacer(messagesPerSecond);
+        BulkProgress progress = new BulkProgress("export", meterRegistry);
+        Disposable reporter = Flux.interval(reportInterval, Schedulers.boundedElastic())
+                .subscribe(tick -> progress.report(null));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            chatRepository.scanChats()
+                    .flatMap(chat -> Mono.fromCallable(() -> {
+                                List<Message> messages = chatRepository.findByConversationId(chat.getId());
+                                pacer.acquire(messages.size() + 1);
+                                return toRecord(chat, messages);
+                            })
+                            .subscribeOn(Schedulers.boundedElastic()), concurrency)
+                    // flatMap emits serially, so the writer is never used concurrently
+                    .doOnNext(record -> {
+                        write(writer, record);
+                        progress.conversationDone(record.messages().size());
+                    })
+                    .blockLast();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + output, e);
+        } finally {
+            reporter.dispose();
+        }
+
+        progress.report("finished");
+        return progress.result();
+    }
+
+    private void write(BufferedWriter writer, ConversationRecord record) {
+        try {
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.newLine();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize conversation " + record.id(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ConversationRecord toRecord(NoSqlChat chat, List<Message> newestFirst) {
+        List<ConversationRecord.MessageRecord> messages = new ArrayList<>(newestFirst.size());
+        for (Message m : newestFirst.reversed()) {
+            messages.add(new ConversationRecord.MessageRecord(
+                    m.getMetadata().get("msg_id") instanceof UUID id ? id : null,
+                    m.getMessageType().getValue(),
+                    m.getText(),
+                    m.getMetadata().get("msg_timestamp") instanceof Instant at ? at : null,
+                    Boolean.TRUE.equals(m.getMetadata().get("msg_truncated"))
+            ));
+        }
+        return new ConversationRecord(chat.getId(), chat.getName(), chat.getCreatedAt(), messages);
+    }
+}
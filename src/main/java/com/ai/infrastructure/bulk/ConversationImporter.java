@@ -0,0 +1,168 @@
+package com.ai.infrastructure.bulk;
+
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.repository.MessageIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Imports conversations from a JSONL file of {@link ConversationRecord}s through
+ * {@link ChatRepository#importChat}.
+ *
+ * <p>Lines are read and parsed on one worker thread, which is also where the
+ * {@link ThroughputPacer} sleeps. At most {@code concurrency} conversations are being written at a
+ * time, and each conversation is written as single-partition unlogged batches. Progress is checkpointed to
+ * {@link ImportCheckpoint} every {@code reportInterval} and at the end, and a run resumes after the
+ * saved line. A malformed line or a failed write stops the run; the checkpoint then stays before
+ * that line.</p>
+ */
+public class ConversationImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationImporter.class);
+
+    private final ChatRepository<NoSqlChat> chatRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+    private final int maxBatchSize;
+    private final double messagesPerSecond;
+    private final Duration reportInterval;
+
+    public ConversationImporter(ChatRepository<NoSqlChat> chatRepository, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry, int concurrency, int maxBatchSize,
+                                double messagesPerSecond, Duration reportInterval) {
+        Assert.isTrue(concurrency > 0, "concurrency must be greater than 0");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        this.chatRepository = chatRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.concurrency = concurrency;
+        this.maxBatchSize = maxBatchSize;
+        this.messagesPerSecond = messagesPerSecond;
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * @param input      JSONL file, one conversation per line
+     * @param checkpoint file holding the last line known to be imported; may be {@code null}
+     */
+    public BulkTransferResult run(Path input, Path checkpoint) {
+        Assert.notNull(input, "input cannot be null");
+
+        ImportCheckpoint progressMark = new ImportCheckpoint(checkpoint);
+        long resumeAfter = progressMark.load();
+        if (resumeAfter > 0) {
+            log.info("Resuming import of {} after line {}", input, resumeAfter);
+        }
+
+        ThroughputPacer pacer = new ThroughputPacer(messagesPerSecond);
+        BulkProgress progress = new BulkProgress("import", meterRegistry);
+        Scheduler reader = Schedulers.newSingle("bulk-import-reader");
+        Disposable reporter = Flux.interval(reportInterval, Schedulers.boundedElastic())
+                .subscribe(tick -> {
+                    progressMark.save();
+                    progress.report("checkpoint line " + progressMark.watermark());
+                });
+
+        try (Stream<String> lines = Files.lines(input)) {
+            Flux.fromStream(lines)
+                    .index((i, line) -> new Line(i + 1, line))
+                    .filter(line -> line.number() > resumeAfter && !line.text().isBlank())
+                    .map(this::parse)
+                    .doOnNext(item -> {
+                        pacer.acquire(item.messages().size() + 1);
+                        progressMark.started(item.line());
+                    })
+                    // reading, parsing and pacing stay off the driver threads that complete the writes
+                    .subscribeOn(reader)
+                    .flatMap(item -> Mono.fromFuture(() -> chatRepository.importChat(item.chat(), item.messages(), maxBatchSize))
+                            .then(Mono.fromRunnable(() -> {
+                                progressMark.completed(item.line());
+                                progress.conversationDone(item.messages().size());
+                            })), concurrency)
+                    .blockLast();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + input, e);
+        } finally {
+            reporter.dispose();
+            reader.dispose();
+            progressMark.save();
+        }
+
+        progress.report("finished at line " + progressMark.watermark());
+        return progress.result();
+    }
+
+    private Item parse(Line line) {
+        ConversationRecord record;
+        try {
+            record = objectMapper.readValue(line.text(), ConversationRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid conversation record at line " + line.number(), e);
+        }
+        if (record.id() == null || record.id().isBlank()) {
+            throw new IllegalArgumentException("Conversation record without id at line " + line.number());
+        }
+
+        List<ConversationRecord.MessageRecord> records = record.messages() == null ? List.of() : record.messages();
+        Instant createdAt = record.createdAt() != null ? record.createdAt()
+                : records.isEmpty() ? Instant.EPOCH : records.getFirst().timestamp();
+        List<UUID> derivedIds = MessageIdGenerator.sequence(records.stream()
+                .map(m -> m.timestamp() != null ? m.timestamp() : createdAt)
+                .toList());
+
+        List<Message> messages = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConversationRecord.MessageRecord m = records.get(i);
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("msg_id", m.id() != null ? m.id() : derivedIds.get(i));
+            metadata.put("msg_timestamp", m.timestamp() != null ? m.timestamp() : createdAt);
+            metadata.put("msg_truncated", m.truncated());
+            messages.add(toMessage(m, metadata, line.number()));
+        }
+        return new Item(line.number(), new NoSqlChat(record.id(), record.name(), createdAt), messages);
+    }
+
+    private static Message toMessage(ConversationRecord.MessageRecord m, Map<String, Object> metadata, long line) {
+        String content = m.content() == null ? "" : m.content();
+        return switch (m.type() == null ? "" : m.type()) {
+            case "user" -> UserMessage.builder().text(content).metadata(metadata).build();
+            case "assistant" -> new AssistantMessage(content, metadata);
+            case "system" -> SystemMessage.builder().text(content).metadata(metadata).build();
+            default -> throw new IllegalArgumentException("Unsupported message type '" + m.type() + "' at line " + line);
+        };
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record Item(long line, NoSqlChat chat, List<Message> messages) {
+    }
+}
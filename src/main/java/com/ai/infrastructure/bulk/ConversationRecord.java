@@ -0,0 +1,20 @@
+package com.ai.infrastructure.bulk;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One line of a bulk import/export JSONL file: a conversation with all its messages, oldest first.
+ *
+ * <pre>{"id":"c1","name":"Trip","createdAt":"2025-01-01T10:00:00Z","messages":[
+ *   {"type":"user","content":"hi","timestamp":"2025-01-01T10:00:01Z","truncated":false}]}</pre>
+ *
+ * <p>{@code messages[].id} is optional. When present it is used as {@code msg_id}, otherwise one is
+ * derived from the message timestamps.</p>
+ */
+public record ConversationRecord(String id, String name, Instant createdAt, List<MessageRecord> messages) {
+
+    public record MessageRecord(UUID id, String type, String content, Instant timestamp, boolean truncated) {
+    }
+}
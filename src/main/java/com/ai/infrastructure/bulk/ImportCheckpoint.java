@@ -0,0 +1,83 @@
+package com.ai.infrastructure.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which input lines of an import are durably written and persists the low-watermark: the
+ * highest line number such that it and every line before it have been written.
+ *
+ * <p>Lines complete out of order because many are in flight at once, so the watermark only moves past
+ * a line once everything before it is done. A resumed run skips lines up to the watermark; lines
+ * after it may be written again, which is harmless because imports are idempotent upserts.</p>
+ *
+ * <p>The file is replaced atomically, so a crash mid-save leaves the previous checkpoint.</p>
+ */
+public class ImportCheckpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportCheckpoint.class);
+
+    private final Path file;
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final AtomicLong highestStarted = new AtomicLong();
+
+    public ImportCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the saved watermark, or {@code 0} when there is no checkpoint yet
+     */
+    public long load() {
+        if (file == null || !Files.exists(file)) {
+            return 0;
+        }
+        try {
+            long watermark = Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+            highestStarted.set(watermark);
+            return watermark;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint " + file, e);
+        }
+    }
+
+    public void started(long line) {
+        inFlight.add(line);
+        highestStarted.accumulateAndGet(line, Math::max);
+    }
+
+    public void completed(long line) {
+        inFlight.remove(line);
+    }
+
+    public long watermark() {
+        // read the high mark first: a line started in between is then still in flight or below it
+        long highest = highestStarted.get();
+        Long lowestInFlight = inFlight.isEmpty() ? null : inFlight.first();
+        return lowestInFlight == null ? highest : Math.min(highest, lowestInFlight - 1);
+    }
+
+    public synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        long watermark = watermark();
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, Long.toString(watermark), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the next save retries; the import itself is unaffected
+            log.warn("Cannot write checkpoint {} at line {}", file, watermark, e);
+        }
+    }
+}
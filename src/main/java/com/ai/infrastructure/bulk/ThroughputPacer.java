@@ -0,0 +1,48 @@
+package com.ai.infrastructure.bulk;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces work out to a target rate. Each {@link #acquire(int)} reserves the next free time slot and
+ * sleeps until it starts, so a bulk job can be held at, say, 5 000 messages per second regardless
+ * of how many writes it keeps in flight. Idle time is not saved up, so there are no bursts after a
+ * pause. A rate of {@code 0} disables pacing.
+ */
+public class ThroughputPacer {
+
+    private final double nanosPerPermit;
+    private long nextFreeNanos = System.nanoTime();
+
+    public ThroughputPacer(double permitsPerSecond) {
+        Assert.isTrue(permitsPerSecond >= 0, "permitsPerSecond cannot be negative");
+        this.nanosPerPermit = permitsPerSecond == 0 ? 0 : 1_000_000_000d / permitsPerSecond;
+    }
+
+    /**
+     * Blocks the calling thread until {@code permits} may be used. Must not be called on an I/O thread.
+     */
+    public void acquire(int permits) {
+        Assert.isTrue(permits > 0, "permits must be greater than 0");
+        if (nanosPerPermit == 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now);
+            nextFreeNanos = start + (long) (permits * nanosPerPermit);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pacing", e);
+            }
+        }
+    }
+}
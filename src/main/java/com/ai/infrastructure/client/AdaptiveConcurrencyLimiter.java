@@ -0,0 +1,226 @@
+package com.ai.infrastructure.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD (additive increase, multiplicative decrease) concurrency limiter for model calls.
+ *
+ * <p>The limit grows by {@code 1/limit} for every successful call made while the limiter is
+ * close to saturation, and is multiplied by {@code backoffRatio} whenever a call is rate limited
+ * (HTTP 429) or slower than the configured latency threshold. Callers that cannot get a permit
+ * wait in a priority queue, so {@link Priority#INTERACTIVE} work is always served before
+ * {@link Priority#BACKGROUND} work. FIFO order is kept within a priority.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    /**
+     * How a call that held a permit ended; drives the limit adjustment.
+     */
+    public enum Outcome {
+        /** Call was fast enough, the limit may grow. */
+        SUCCESS,
+        /** Call exceeded the latency threshold, the limit shrinks. */
+        SLOW,
+        /** Provider answered with HTTP 429, the limit shrinks. */
+        RATE_LIMITED,
+        /** Call was cancelled or failed for an unrelated reason, the limit is left alone. */
+        DROPPED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxQueueSize;
+
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence)
+    );
+    private final Map<Priority, Timer> queueWaitTimers = new EnumMap<>(Priority.class);
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private long sequence;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      int maxQueueSize, MeterRegistry meterRegistry) {
+        Assert.isTrue(minLimit > 0, "minLimit must be greater than 0");
+        Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit, "initialLimit must be within [minLimit, maxLimit]");
+        Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be within (0, 1)");
+        Assert.isTrue(maxQueueSize >= 0, "maxQueueSize cannot be negative");
+        Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxQueueSize = maxQueueSize;
+
+        for (Priority priority : Priority.values()) {
+            queueWaitTimers.put(priority, Timer.builder("chat.model.limiter.queue.wait")
+                    .description("Time model calls spend waiting for a concurrency permit")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("chat.model.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("chat.model.limiter.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        Gauge.builder("chat.model.limiter.queued", this, AdaptiveConcurrencyLimiter::getQueued).register(meterRegistry);
+    }
+
+    /**
+     * Requests a permit. The returned {@link Mono} completes once a permit is available;
+     * cancelling it while queued gives up the place in the queue.
+     *
+     * @throws RejectedExecutionException (as an error signal) if the wait queue is full
+     */
+    public Mono<Permit> acquire(Priority priority) {
+        Assert.notNull(priority, "priority cannot be null");
+
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(priority, sink);
+            sink.onCancel(() -> cancel(waiter));
+
+            boolean granted = false;
+            boolean rejected = false;
+            synchronized (this) {
+                if (queue.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    granted = true;
+                } else if (queue.size() >= maxQueueSize) {
+                    rejected = true;
+                } else {
+                    waiter.sequence = sequence++;
+                    queue.add(waiter);
+                }
+            }
+
+            if (granted) {
+                waiter.grant();
+            } else if (rejected) {
+                log.warn("Model limiter queue is full, rejecting {} call", priority);
+                sink.error(new RejectedExecutionException("Model concurrency limiter queue is full"));
+            }
+        });
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    private void release(Outcome outcome) {
+        List<Waiter> granted;
+        synchronized (this) {
+            switch (outcome) {
+                case SUCCESS -> {
+                    // only grow while the limit is actually being used
+                    if (inFlight * 2 >= limit) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case SLOW, RATE_LIMITED -> limit = Math.max(minLimit, limit * backoffRatio);
+                case DROPPED -> {
+                }
+            }
+            inFlight--;
+            granted = pollGrantable();
+        }
+        if (outcome == Outcome.SLOW || outcome == Outcome.RATE_LIMITED) {
+            log.debug("Model limiter backed off to {} after {}", getLimit(), outcome);
+        }
+        granted.forEach(Waiter::grant);
+    }
+
+    // must hold the monitor
+    private List<Waiter> pollGrantable() {
+        List<Waiter> granted = new ArrayList<>();
+        while (!queue.isEmpty() && inFlight < (int) limit) {
+            granted.add(queue.poll());
+            inFlight++;
+        }
+        return granted;
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+            synchronized (this) {
+                queue.remove(waiter);
+            }
+        }
+    }
+
+    private final class Waiter {
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+
+        final Priority priority;
+        final MonoSink<Permit> sink;
+        final long enqueuedAt = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        long sequence;
+
+        Waiter(Priority priority, MonoSink<Permit> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+
+        void grant() {
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                queueWaitTimers.get(priority).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                sink.success(new Permit());
+            } else {
+                // cancelled between being polled and granted: hand the slot to the next waiter
+                release(Outcome.DROPPED);
+            }
+        }
+    }
+
+    /**
+     * A held concurrency slot. Must be released exactly once; extra calls are ignored.
+     */
+    public final class Permit {
+
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Permit() {
+        }
+
+        public void release(Outcome outcome) {
+            if (released.compareAndSet(0, 1)) {
+                AdaptiveConcurrencyLimiter.this.release(outcome);
+            }
+        }
+    }
+}
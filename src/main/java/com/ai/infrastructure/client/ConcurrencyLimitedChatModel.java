@@ -0,0 +1,130 @@
+package com.ai.infrastructure.client;
+
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Outcome;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Permit;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Priority;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link ChatModel} decorator that runs every call through an {@link AdaptiveConcurrencyLimiter}.
+ *
+ * <p>Blocking calls hold the permit for the whole call and report its duration. Streams hold the
+ * permit until the stream terminates and report the time to the first token, since the total
+ * duration of a stream depends on the length of the answer.</p>
+ */
+public class ConcurrencyLimitedChatModel implements ChatModel {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final ChatModel delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Priority priority;
+    private final Duration latencyThreshold;
+
+    public ConcurrencyLimitedChatModel(ChatModel delegate, AdaptiveConcurrencyLimiter limiter,
+                                       Priority priority, Duration latencyThreshold) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(limiter, "limiter cannot be null");
+        Assert.notNull(priority, "priority cannot be null");
+        Assert.notNull(latencyThreshold, "latencyThreshold cannot be null");
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.priority = priority;
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        Permit permit = acquireBlocking();
+        long start = System.nanoTime();
+        try {
+            ChatResponse response = delegate.call(prompt);
+            permit.release(outcomeFor(System.nanoTime() - start));
+            return response;
+        } catch (RuntimeException e) {
+            permit.release(isRateLimited(e) ? Outcome.RATE_LIMITED : Outcome.DROPPED);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a permit on the calling thread. A permit granted while the wait is interrupted is
+     * released again rather than lost, which would shrink the limit for good.
+     */
+    private Permit acquireBlocking() {
+        AtomicReference<Permit> granted = new AtomicReference<>();
+        try {
+            return limiter.acquire(priority)
+                    .doOnNext(granted::set)
+                    // granted after block() gave up, so never delivered
+                    .doOnDiscard(Permit.class, permit -> permit.release(Outcome.DROPPED))
+                    .block();
+        } catch (RuntimeException e) {
+            Permit permit = granted.get();
+            if (permit != null) {
+                permit.release(Outcome.DROPPED);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return limiter.acquire(priority).flatMapMany(permit -> {
+            long start = System.nanoTime();
+            AtomicReference<Outcome> outcome = new AtomicReference<>(Outcome.DROPPED);
+
+            return delegate.stream(prompt)
+                    .doOnNext(response -> outcome.compareAndSet(Outcome.DROPPED, outcomeFor(System.nanoTime() - start)))
+                    .doOnError(e -> {
+                        if (isRateLimited(e)) {
+                            outcome.set(Outcome.RATE_LIMITED);
+                        }
+                    })
+                    // before the terminal signal travels on, so the slot is free once the caller sees it
+                    .doOnTerminate(() -> permit.release(outcome.get()))
+                    .doOnCancel(() -> permit.release(outcome.get()));
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private Outcome outcomeFor(long latencyNanos) {
+        return latencyNanos > latencyThreshold.toNanos() ? Outcome.SLOW : Outcome.SUCCESS;
+    }
+
+    /**
+     * Detects a provider rate limit anywhere in the cause chain. Spring AI reports HTTP errors of
+     * blocking calls as AI exceptions whose message starts with the status code.
+     */
+    static boolean isRateLimited(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException e && e.getStatusCode().value() == TOO_MANY_REQUESTS) {
+                return true;
+            }
+            if (t instanceof RestClientResponseException e && e.getStatusCode().value() == TOO_MANY_REQUESTS) {
+                return true;
+            }
+            if (t.getMessage() != null && t.getMessage().startsWith(TOO_MANY_REQUESTS + " ")) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
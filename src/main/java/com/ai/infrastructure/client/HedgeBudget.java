@@ -0,0 +1,46 @@
+package com.ai.infrastructure.client;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the share of requests that may be hedged.
+ *
+ * <p>Every request deposits {@code maxHedgeRatio} credits and every hedge withdraws one, so over
+ * time at most {@code maxHedgeRatio} of the requests are hedged. The balance is capped at
+ * {@code burst} credits, which bounds how many hedges a quiet period can save up. Lock-free;
+ * credits are kept in thousandths.</p>
+ */
+public class HedgeBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public HedgeBudget(double maxHedgeRatio, int burst) {
+        Assert.isTrue(maxHedgeRatio >= 0 && maxHedgeRatio <= 1, "maxHedgeRatio must be within [0, 1]");
+        Assert.isTrue(burst >= 0, "burst cannot be negative");
+        this.depositPerRequest = Math.round(maxHedgeRatio * SCALE);
+        this.maxBalance = burst * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ai.infrastructure.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Hedges model streams to cut tail time-to-first-token.
+ *
+ * <p>The primary stream is subscribed right away. If it has not signalled within
+ * {@code hedgeDelay} and the {@link HedgeBudget} allows it, a backup stream is started. Whichever
+ * stream signals first wins and the other one is cancelled. Backup failures are ignored, so a
+ * failing hedge never hides the primary's result or error.</p>
+ */
+public class StreamHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamHedger.class);
+
+    private final boolean enabled;
+    private final Duration hedgeDelay;
+    private final HedgeBudget budget;
+    private final Counter hedgesFired;
+    private final Counter hedgesSkipped;
+    private final Counter hedgesWon;
+
+    public StreamHedger(boolean enabled, Duration hedgeDelay, HedgeBudget budget, MeterRegistry meterRegistry) {
+        Assert.notNull(hedgeDelay, "hedgeDelay cannot be null");
+        Assert.notNull(budget, "budget cannot be null");
+        Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+        this.enabled = enabled;
+        this.hedgeDelay = hedgeDelay;
+        this.budget = budget;
+        this.hedgesFired = meterRegistry.counter("chat.model.hedge", "outcome", "fired");
+        this.hedgesSkipped = meterRegistry.counter("chat.model.hedge", "outcome", "skipped");
+        this.hedgesWon = meterRegistry.counter("chat.model.hedge", "outcome", "won");
+    }
+
+    /**
+     * @param primary supplies the primary stream
+     * @param backup  supplies the hedge stream (same model or a fallback one)
+     * @return the primary stream, or the backup stream if it produced the first signal
+     */
+    public <T> Flux<T> hedge(Supplier<Flux<T>> primary, Supplier<Flux<T>> backup) {
+        if (!enabled) {
+            return Flux.defer(primary);
+        }
+
+        return Flux.defer(() -> {
+            budget.onRequest();
+
+            Flux<T> hedgeLeg = Mono.delay(hedgeDelay).flatMapMany(tick -> {
+                if (!budget.tryAcquire()) {
+                    hedgesSkipped.increment();
+                    log.debug("No first token after {}, hedge budget exhausted", hedgeDelay);
+                    return Flux.never();
+                }
+                hedgesFired.increment();
+                log.info("No first token after {}, starting hedge request", hedgeDelay);
+
+                AtomicBoolean emitted = new AtomicBoolean();
+                return backup.get()
+                        .doOnNext(value -> {
+                            if (emitted.compareAndSet(false, true)) {
+                                hedgesWon.increment();
+                            }
+                        })
+                        // a hedge that fails before its first token must not win the race with its error
+                        .onErrorResume(e -> !emitted.get(), e -> {
+                            log.warn("Hedge request failed before its first token, waiting for the primary", e);
+                            return Flux.never();
+                        });
+            });
+
+            return Flux.firstWithSignal(Flux.defer(primary), hedgeLeg);
+        });
+    }
+}
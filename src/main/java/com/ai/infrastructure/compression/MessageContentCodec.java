@@ -0,0 +1,183 @@
+package com.ai.infrastructure.compression;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses message content for the {@code msg_content_blob} column.
+ *
+ * <p>Blob layout: one byte codec id, four bytes uncompressed length (big endian), then the
+ * compressed UTF-8 bytes. The id makes every blob self-describing, so rows written with any
+ * codec stay readable after the configured codec changes. Decoding bounds every blob by its
+ * declared length and rejects one that does not inflate to exactly that many bytes.</p>
+ *
+ * <p>Content shorter than {@code threshold} UTF-8 bytes is not compressed; {@link #encode}
+ * returns {@code null} and the caller stores it as plain text.</p>
+ */
+public class MessageContentCodec {
+
+    private static final int HEADER_LENGTH = 5;
+
+    public enum Codec {
+        /** Compression disabled for writes. */
+        NONE((byte) 0),
+        LZ4((byte) 1),
+        DEFLATE((byte) 2);
+
+        private final byte id;
+
+        Codec(byte id) {
+            this.id = id;
+        }
+
+        static Codec of(byte id) {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("Unknown message content codec id " + id);
+        }
+    }
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final Codec codec;
+    private final int threshold;
+
+    public MessageContentCodec(Codec codec, int threshold) {
+        Assert.notNull(codec, "codec cannot be null");
+        Assert.isTrue(threshold >= 0, "threshold cannot be negative");
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    public static MessageContentCodec disabled() {
+        return new MessageContentCodec(Codec.NONE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the compressed blob, or {@code null} if the content should be stored as text
+     */
+    public ByteBuffer encode(String content) {
+        if (codec == Codec.NONE || content == null) {
+            return null;
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < threshold) {
+            return null;
+        }
+
+        byte[] compressed = switch (codec) {
+            case LZ4 -> lz4(raw);
+            case DEFLATE -> deflate(raw);
+            case NONE -> throw new IllegalStateException("unreachable");
+        };
+
+        ByteBuffer blob = ByteBuffer.allocate(HEADER_LENGTH + compressed.length);
+        blob.put(codec.id).putInt(raw.length).put(compressed).flip();
+        return blob;
+    }
+
+    /**
+     * Resolves the stored content of a row: the blob if present, the plain text otherwise.
+     */
+    public String decode(String text, ByteBuffer blob) {
+        if (blob == null || !blob.hasRemaining()) {
+            return text;
+        }
+        ByteBuffer in = blob.duplicate();
+        Codec stored = Codec.of(in.get());
+        int length = in.getInt();
+        if (length < 0) {
+            throw new IllegalStateException("Corrupt message content length " + length);
+        }
+        byte[] compressed = new byte[in.remaining()];
+        in.get(compressed);
+
+        byte[] raw = switch (stored) {
+            case LZ4 -> unlz4(compressed, length);
+            case DEFLATE -> inflate(compressed, length);
+            case NONE -> compressed;
+        };
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    private static byte[] lz4(byte[] raw) {
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] out = new byte[compressor.maxCompressedLength(raw.length)];
+        int length = compressor.compress(raw, 0, raw.length, out, 0, out.length);
+        byte[] result = new byte[length];
+        System.arraycopy(out, 0, result, 0, length);
+        return result;
+    }
+
+    private static byte[] unlz4(byte[] compressed, int length) {
+        LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+        byte[] raw = new byte[length];
+        int read;
+        try {
+            read = decompressor.decompress(compressed, 0, compressed.length, raw, 0, length);
+        } catch (LZ4Exception e) {
+            throw new IllegalStateException("Corrupt lz4 message content", e);
+        }
+        if (read != length) {
+            throw new IllegalStateException("Corrupt lz4 message content: " + read + " of " + length + " bytes");
+        }
+        return raw;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, length - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Corrupt deflate message content: " + read + " of " + length + " bytes");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt deflate message content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
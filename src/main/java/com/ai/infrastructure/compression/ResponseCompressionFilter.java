@@ -0,0 +1,418 @@
+package com.ai.infrastructure.compression;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compresses responses for clients that send {@code Accept-Encoding: gzip}, including the SSE
+ * stream of {@code /chats/stream}.
+ *
+ * <p>The body is buffered until {@code minSize} bytes are written: a response that ends below that
+ * is sent as is, with its {@code Content-Length}. Only {@code mimeTypes} are compressed, and never a
+ * response that already has a {@code Content-Encoding}. A streaming type such as
+ * {@code text/event-stream} is compressed from its first flush regardless of size, since its length
+ * is unknown; every flush is a sync flush, so each event reaches the client as soon as it is written
+ * instead of waiting in the deflater. Any other response ignores flushes while it is still below
+ * {@code minSize}, so a small body flushed before it ends still goes out with its length.</p>
+ *
+ * <p>An asynchronous response (SSE) is finished on the async dispatch that completes it, which is
+ * why this filter also runs on async dispatches; what that dispatch writes, such as an error event,
+ * goes through the same gzip stream.</p>
+ *
+ * <p>Bytes saved per compressed response are recorded as {@code http.response.compression.saved},
+ * and the time spent deflating as {@code http.response.compression.time}; deflating is CPU-bound,
+ * so that time is its CPU cost.</p>
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String RESPONSE_ATTRIBUTE = ResponseCompressionFilter.class.getName() + ".response";
+    private static final String GZIP = "gzip";
+
+    private final int minSize;
+    private final List<MediaType> mimeTypes;
+    private final List<MediaType> streamingTypes;
+    private final DistributionSummary saved;
+    private final Timer time;
+
+    public ResponseCompressionFilter(int minSize, List<MediaType> mimeTypes, MeterRegistry meterRegistry) {
+        Assert.isTrue(minSize >= 0, "minSize must not be negative");
+        Assert.notEmpty(mimeTypes, "mimeTypes cannot be empty");
+        this.minSize = minSize;
+        this.mimeTypes = List.copyOf(mimeTypes);
+        this.streamingTypes = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+        this.saved = DistributionSummary.builder("http.response.compression.saved")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.time = meterRegistry.timer("http.response.compression.time");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = (CompressingResponse) request.getAttribute(RESPONSE_ATTRIBUTE);
+        if (compressing == null) {
+            if (!acceptsGzip(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            compressing = new CompressingResponse(response);
+            request.setAttribute(RESPONSE_ATTRIBUTE, compressing);
+        }
+
+        chain.doFilter(request, compressing);
+
+        if (request.isAsyncStarted()) {
+            CompressingResponse started = compressing;
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    // after a timeout or error there is no final dispatch to finish the stream
+                    started.release();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            compressing.finish();
+        }
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (!name.equals(GZIP) && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].strip();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum State {UNDECIDED, IDENTITY, GZIP}
+
+    /**
+     * Holds the body back until it is known whether it gets compressed, then writes it through
+     * either as is or through a {@link GZIPOutputStream} in sync-flush mode.
+     */
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private State state = State.UNDECIDED;
+        private long declaredLength = -1;
+        private CountingOutputStream compressed;
+        private GZIPOutputStream gzip;
+        private long uncompressedBytes;
+        private long deflateNanos;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        CompressingResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        CompressingResponse.this.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        throw new UnsupportedOperationException("Non-blocking writes are not supported when compressing");
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // the length of a compressed body is not known up front
+            declaredLength = len;
+            if (state == State.IDENTITY) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flush();
+        }
+
+        @Override
+        public void resetBuffer() {
+            Assert.state(state == State.UNDECIDED, "Cannot reset the buffer after the body was started");
+            pending.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            Assert.state(state == State.UNDECIDED, "Cannot reset the response after the body was started");
+            pending.reset();
+            declaredLength = -1;
+            super.reset();
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (state == State.UNDECIDED) {
+                pending.write(b, off, len);
+                if (pending.size() >= minSize) {
+                    decide(true);
+                }
+                return;
+            }
+            if (state == State.IDENTITY) {
+                super.getOutputStream().write(b, off, len);
+                return;
+            }
+            long start = System.nanoTime();
+            gzip.write(b, off, len);
+            deflateNanos += System.nanoTime() - start;
+            uncompressedBytes += len;
+        }
+
+        private void flush() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.UNDECIDED) {
+                if (!isStreaming()) {
+                    // Jackson flushes after writing a body: hold it until finish() knows its length
+                    return;
+                }
+                decide(true);
+            }
+            if (state == State.GZIP) {
+                long start = System.nanoTime();
+                gzip.flush();
+                deflateNanos += System.nanoTime() - start;
+            }
+            super.getOutputStream().flush();
+        }
+
+        private void decide(boolean large) throws IOException {
+            if (large && compressible()) {
+                state = State.GZIP;
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                weakenETag();
+                compressed = new CountingOutputStream(super.getOutputStream());
+                gzip = new GZIPOutputStream(compressed, 8192, true);
+            } else {
+                state = State.IDENTITY;
+                if (declaredLength >= 0) {
+                    super.setContentLengthLong(declaredLength);
+                }
+            }
+            byte[] buffered = pending.toByteArray();
+            pending.reset();
+            write(buffered, 0, buffered.length);
+        }
+
+        private boolean compressible() {
+            if (getHeader(HttpHeaders.CONTENT_ENCODING) != null || getContentType() == null) {
+                return false;
+            }
+            MediaType contentType = MediaType.parseMediaType(getContentType());
+            return mimeTypes.stream().anyMatch(type -> type.includes(contentType));
+        }
+
+        private boolean isStreaming() {
+            if (getContentType() == null) {
+                return false;
+            }
+            MediaType contentType = MediaType.parseMediaType(getContentType());
+            return streamingTypes.stream().anyMatch(type -> type.includes(contentType));
+        }
+
+        // a strong ETag names the exact bytes, which change with the coding
+        private void weakenETag() {
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && etag.startsWith("\"")) {
+                super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.UNDECIDED) {
+                if (pending.size() > 0 && declaredLength < 0) {
+                    declaredLength = pending.size();
+                }
+                decide(false);
+            }
+            if (state == State.GZIP && gzip != null) {
+                long start = System.nanoTime();
+                // writes the trailer and frees the deflater; the container closes the response itself
+                gzip.close();
+                deflateNanos += System.nanoTime() - start;
+                gzip = null;
+                saved.record(Math.max(0, uncompressedBytes - compressed.count));
+                time.record(deflateNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void release() {
+            if (state == State.GZIP && gzip != null) {
+                // the response is no longer writable; closing only frees the deflater
+                compressed.discard = true;
+                try {
+                    gzip.close();
+                } catch (IOException ignored) {
+                    // nothing was written
+                }
+                gzip = null;
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+        private boolean discard;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!discard) {
+                delegate.write(b);
+                count++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!discard) {
+                delegate.write(b, off, len);
+                count += len;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discard) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            // the servlet container closes the response
+        }
+    }
+}
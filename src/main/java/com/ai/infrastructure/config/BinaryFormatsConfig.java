@@ -0,0 +1,32 @@
+package com.ai.infrastructure.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Binary representations of the REST responses, for clients that send
+ * {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile}; everyone else keeps
+ * getting JSON, which stays the first converter.
+ *
+ * <p>Both converters are built from Boot's {@link Jackson2ObjectMapperBuilder}, so they serialize
+ * exactly like the JSON converter ({@code spring.jackson.*}, ISO dates); Boot puts these beans in place
+ * of the default converters of the same type, which would use a plain mapper.</p>
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,51 @@
+package com.ai.infrastructure.config;
+
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.bulk.ConversationExporter;
+import com.ai.infrastructure.bulk.ConversationImporter;
+import com.ai.infrastructure.repository.ChatRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Runs a bulk import or export at startup when {@code app.bulk.mode} is set, e.g.
+ * {@code --app.bulk.mode=import --app.bulk.file=chats.jsonl --spring.main.web-application-type=none}.
+ */
+@Configuration
+@ConditionalOnProperty("app.bulk.mode")
+public class BulkTransferConfig {
+
+    @Bean
+    ApplicationRunner bulkTransfer(
+            ChatRepository<NoSqlChat> chatRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.bulk.mode}") String mode,
+            @Value("${app.bulk.file}") String file,
+            @Value("${app.bulk.checkpoint-file:}") String checkpointFile,
+            @Value("${app.bulk.concurrency:32}") int concurrency,
+            @Value("${app.bulk.max-batch-size:50}") int maxBatchSize,
+            @Value("${app.bulk.messages-per-second:0}") double messagesPerSecond,
+            @Value("${app.bulk.report-interval:10s}") Duration reportInterval
+    ) {
+        return args -> {
+            switch (mode.toLowerCase()) {
+                case "import" -> new ConversationImporter(chatRepository, objectMapper, meterRegistry,
+                        concurrency, maxBatchSize, messagesPerSecond, reportInterval)
+                        .run(Path.of(file), checkpointFile.isBlank() ? null : Path.of(checkpointFile));
+                case "export" -> new ConversationExporter(chatRepository, objectMapper, meterRegistry,
+                        concurrency, messagesPerSecond, reportInterval)
+                        .run(Path.of(file));
+                default -> throw new IllegalArgumentException("app.bulk.mode must be import or export but was " + mode);
+            }
+        };
+    }
+}
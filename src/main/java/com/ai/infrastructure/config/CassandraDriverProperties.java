@@ -0,0 +1,99 @@
+package com.ai.infrastructure.config;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Cassandra driver tuning under {@code app.cassandra.driver}: session-wide request timeout and pool
+ * size, plus named execution profiles. Profiles named after a
+ * {@link com.ai.infrastructure.repository.QueryProfile} are used by the repository for that class of
+ * queries; options a profile leaves unset are inherited from the default profile.
+ *
+ * @param requestTimeout           default request timeout
+ * @param poolLocalSize            connections per node in the local datacenter
+ * @param maxRequestsPerConnection in-flight requests per connection
+ * @param profiles                 execution profiles by name
+ */
+@ConfigurationProperties("app.cassandra.driver")
+public record CassandraDriverProperties(
+        Duration requestTimeout,
+        Integer poolLocalSize,
+        Integer maxRequestsPerConnection,
+        Map<String, Profile> profiles
+) {
+
+    /**
+     * @param consistency          e.g. {@code LOCAL_ONE}, {@code LOCAL_QUORUM}
+     * @param serialConsistency    e.g. {@code LOCAL_SERIAL}
+     * @param requestTimeout       per-request timeout
+     * @param pageSize             rows per page
+     * @param speculativeExecution send the request to another replica when the first one is slow;
+     *                             only applies to idempotent statements
+     */
+    public record Profile(
+            String consistency,
+            String serialConsistency,
+            Duration requestTimeout,
+            Integer pageSize,
+            SpeculativeExecution speculativeExecution
+    ) {
+    }
+
+    /**
+     * @param maxExecutions total executions including the first one
+     * @param delay         wait before each additional execution
+     */
+    public record SpeculativeExecution(int maxExecutions, Duration delay) {
+    }
+
+    public DriverConfigLoader toConfigLoader() {
+        ProgrammaticDriverConfigLoaderBuilder builder = DriverConfigLoader.programmaticBuilder();
+        applyTo(builder);
+        return builder.build();
+    }
+
+    /**
+     * Writes these settings into a driver config builder. Options not configured here keep the
+     * driver's defaults ({@code reference.conf}).
+     */
+    public void applyTo(ProgrammaticDriverConfigLoaderBuilder builder) {
+        if (requestTimeout != null) {
+            builder.withDuration(DefaultDriverOption.REQUEST_TIMEOUT, requestTimeout);
+        }
+        if (poolLocalSize != null) {
+            builder.withInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE, poolLocalSize);
+        }
+        if (maxRequestsPerConnection != null) {
+            builder.withInt(DefaultDriverOption.CONNECTION_MAX_REQUESTS, maxRequestsPerConnection);
+        }
+        if (profiles == null) {
+            return;
+        }
+        profiles.forEach((name, profile) -> {
+            builder.startProfile(name);
+            if (profile.consistency() != null) {
+                builder.withString(DefaultDriverOption.REQUEST_CONSISTENCY, profile.consistency().toUpperCase());
+            }
+            if (profile.serialConsistency() != null) {
+                builder.withString(DefaultDriverOption.REQUEST_SERIAL_CONSISTENCY, profile.serialConsistency().toUpperCase());
+            }
+            if (profile.requestTimeout() != null) {
+                builder.withDuration(DefaultDriverOption.REQUEST_TIMEOUT, profile.requestTimeout());
+            }
+            if (profile.pageSize() != null) {
+                builder.withInt(DefaultDriverOption.REQUEST_PAGE_SIZE, profile.pageSize());
+            }
+            if (profile.speculativeExecution() != null && profile.speculativeExecution().maxExecutions() > 1) {
+                builder.withString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS, "ConstantSpeculativeExecutionPolicy")
+                        .withInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX, profile.speculativeExecution().maxExecutions())
+                        .withDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY, profile.speculativeExecution().delay());
+            }
+            builder.endProfile();
+        });
+    }
+}
@@ -1,16 +1,18 @@
 package com.ai.infrastructure.config;
 
+import com.ai.infrastructure.schema.CassandraSchemaMigrator;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.CqlSessionBuilder;
+import com.datastax.oss.driver.api.core.InvalidKeyspaceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.cassandra.core.cql.CqlTemplate;
 
 import java.net.InetSocketAddress;
+import java.time.Duration;
 
 @Configuration
 @ConditionalOnProperty(
@@ -21,6 +23,15 @@ public class CassandraSchemaV1 {
 
     private static final Logger log = LoggerFactory.getLogger(CassandraSchemaV1.class);
 
+    /**
+     * Opens the session bound to the keyspace and brings the schema up to date before any other bean
+     * can use it.
+     *
+     * <p>The keyspace is only created, through a short-lived session without keyspace, when connecting
+     * to it fails because it does not exist. Schema changes are owned by {@link CassandraSchemaMigrator},
+     * which sends no DDL when the schema is already current; set
+     * {@code app.cassandra.schema.migrate-on-startup=false} when migrations run as a separate step.</p>
+     */
     @Bean(destroyMethod = "close")
     CqlSession cqlSession(
             @Value("${spring.cassandra.contact-points}") String host,
@@ -28,54 +39,45 @@ public class CassandraSchemaV1 {
             @Value("${spring.cassandra.local-datacenter}") String dc,
             @Value("${spring.cassandra.keyspace-name}") String keyspaceName,
             @Value("${spring.cassandra.username}") String username,
-            @Value("${spring.cassandra.password}") String password
+            @Value("${spring.cassandra.password}") String password,
+            @Value("${app.cassandra.schema.replication:{'class':'SimpleStrategy','replication_factor':1}}") String replication,
+            @Value("${app.cassandra.schema.migrate-on-startup:true}") boolean migrateOnStartup,
+            @Value("${app.cassandra.schema.lock-timeout:60s}") Duration lockTimeout,
+            CassandraDriverProperties driverProperties
     ) {
-        // bootstrap session (no keyspace) → create keyspace
-        try (CqlSession bootstrap = CqlSession.builder()
-                .addContactPoint(new InetSocketAddress(host, port))
-                .withLocalDatacenter(dc)
-                .build()) {
-            bootstrap.execute("""
-                        CREATE KEYSPACE IF NOT EXISTS spring_ai
-                        WITH REPLICATION = {'class':'SimpleStrategy','replication_factor':1}
-                    """);
+        CqlSession session;
+        try {
+            session = sessionBuilder(host, port, dc, username, password, driverProperties)
+                    .withKeyspace(keyspaceName)
+                    .build();
+        } catch (InvalidKeyspaceException e) {
+            log.info("Keyspace {} does not exist, creating it", keyspaceName);
+            try (CqlSession bootstrap = sessionBuilder(host, port, dc, username, password, driverProperties).build()) {
+                bootstrap.execute("CREATE KEYSPACE IF NOT EXISTS " + keyspaceName + " WITH REPLICATION = " + replication);
+            }
+            session = sessionBuilder(host, port, dc, username, password, driverProperties)
+                    .withKeyspace(keyspaceName)
+                    .build();
+        }
+
+        if (migrateOnStartup) {
+            try {
+                new CassandraSchemaMigrator(session, CassandraSchemaMigrator.loadFromClasspath(), lockTimeout).migrate();
+            } catch (RuntimeException e) {
+                session.close();
+                throw e;
+            }
         }
-        // main session bound to keyspace
+        return session;
+    }
+
+    // pool settings and execution profiles come from app.cassandra.driver
+    private static CqlSessionBuilder sessionBuilder(String host, int port, String dc, String username, String password,
+                                                    CassandraDriverProperties driverProperties) {
         return CqlSession.builder()
                 .addContactPoint(new InetSocketAddress(host, port))
                 .withLocalDatacenter(dc)
-                .withKeyspace(keyspaceName)
                 .withAuthCredentials(username, password)
-                .build();
-    }
-
-    @Bean
-    CommandLineRunner cassandraSchema(CqlTemplate cqlTemplate) {
-        return args -> {
-            log.info("Creating table ai_chat_message if not exists");
-            cqlTemplate.execute("""
-                      CREATE TABLE IF NOT EXISTS ai_chat_message(
-                        session_id text, msg_timestamp timestamp, msg_type text, msg_content text,
-                        PRIMARY KEY ((session_id), msg_timestamp)
-                      ) WITH CLUSTERING ORDER BY (msg_timestamp DESC)
-                    """);
-
-            log.info("Creating table ai_chat_memory if not exists");
-            cqlTemplate.execute("""
-                      CREATE TABLE IF NOT EXISTS ai_chat_memory(
-                        session_id text PRIMARY KEY, session_name text, created_at timestamp
-                      )
-                    """);
-
-            log.info("Creating table chats_by_created if not exists");
-            cqlTemplate.execute("""
-                      CREATE TABLE IF NOT EXISTS chats_by_created(
-                        bucket text, created_at timeuuid, session_id text, session_name text,
-                        PRIMARY KEY ((bucket), created_at, session_id)
-                      ) WITH CLUSTERING ORDER BY (created_at DESC)
-                    """);
-
-            log.info("Cassandra schema initialization complete");
-        };
+                .withConfigLoader(driverProperties.toConfigLoader());
     }
 }
@@ -0,0 +1,83 @@
+package com.ai.infrastructure.config;
+
+import com.ai.application.dto.ChatDto;
+import com.ai.application.dto.ChatMessageDto;
+import com.ai.application.dto.DailyTokenUsageDto;
+import com.ai.application.dto.TokenUsageDto;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.domain.model.pagination.OffsetMeta;
+import com.ai.domain.model.pagination.PageMeta;
+import com.ai.infrastructure.bulk.ConversationRecord;
+import com.ai.infrastructure.search.ChatSearchResult;
+import com.ai.infrastructure.websocket.ChatSocketFrame;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image ({@code mvn -Pnative package}) that Spring AOT cannot
+ * infer from the bean definitions.
+ *
+ * <ul>
+ *   <li>JSON types: the REST DTOs, including every {@link PageMeta} implementation (a sealed
+ *   interface is only reachable through its permitted records), the bulk JSONL records and the
+ *   WebSocket frames.</li>
+ *   <li>Cassandra driver policies: the driver instantiates them reflectively from class names in its
+ *   configuration, so every class our configuration can name is listed, including
+ *   {@code ConstantSpeculativeExecutionPolicy} from the {@code window-read} profile.</li>
+ *   <li>Resources: the schema migration scripts and the driver's {@code reference.conf}.</li>
+ * </ul>
+ *
+ * <p>The OpenAI client ships its own hints with Spring AI, and Netty's come from the GraalVM
+ * reachability metadata repository enabled by the Spring Boot {@code native} profile.</p>
+ */
+public class ChatAiRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> JSON_TYPES = List.of(
+            ChatDto.class,
+            ChatMessageDto.class,
+            ChatPage.class,
+            PageMeta.class,
+            OffsetMeta.class,
+            CursorMeta.class,
+            ChatSearchResult.class,
+            ConversationRecord.class,
+            TokenUsageDto.class,
+            DailyTokenUsageDto.class,
+            ChatSocketFrame.class
+    );
+
+    static final List<String> DRIVER_POLICIES = List.of(
+            "com.datastax.oss.driver.internal.core.loadbalancing.DefaultLoadBalancingPolicy",
+            "com.datastax.oss.driver.internal.core.connection.ExponentialReconnectionPolicy",
+            "com.datastax.oss.driver.internal.core.retry.DefaultRetryPolicy",
+            "com.datastax.oss.driver.internal.core.specex.NoSpeculativeExecutionPolicy",
+            "com.datastax.oss.driver.internal.core.specex.ConstantSpeculativeExecutionPolicy",
+            "com.datastax.oss.driver.internal.core.time.AtomicTimestampGenerator",
+            "com.datastax.oss.driver.internal.core.session.throttling.PassThroughRequestThrottler",
+            "com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker",
+            "com.datastax.oss.driver.internal.core.addresstranslation.PassThroughAddressTranslator",
+            "com.datastax.oss.driver.internal.core.metadata.NoopNodeStateListener",
+            "com.datastax.oss.driver.internal.core.metadata.schema.NoopSchemaChangeListener",
+            "com.datastax.oss.driver.internal.core.metrics.DefaultMetricsFactory",
+            "com.datastax.oss.driver.internal.core.metrics.DefaultMetricIdGenerator"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        JSON_TYPES.forEach(type -> bindings.registerReflectionHints(hints.reflection(), type));
+
+        DRIVER_POLICIES.forEach(name -> hints.reflection().registerType(
+                TypeReference.of(name), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+
+        hints.resources()
+                .registerPattern("db.migration/V*__*.cql")
+                .registerPattern("reference.conf");
+    }
+}
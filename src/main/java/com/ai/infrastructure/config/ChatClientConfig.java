@@ -1,9 +1,23 @@
 package com.ai.infrastructure.config;
 
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Priority;
+import com.ai.infrastructure.client.ConcurrencyLimitedChatModel;
+import com.ai.infrastructure.client.HedgeBudget;
+import com.ai.infrastructure.client.StreamHedger;
+import com.ai.infrastructure.vector.ConversationRecallAdvisor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
 
 @Configuration
 public class ChatClientConfig {
@@ -11,29 +25,100 @@ public class ChatClientConfig {
     public static final String HELPFUL_ASSISTANT_PROMPT = "You are a helpful assistant.";
     public static final String NAME_GENERATION_PROMPT = "Generate a short, descriptive chat name based on the user prompt. Respond with the name only, no explanations or extra text.";
 
+    @Value("${app.model.limiter.enabled:true}")
+    private boolean limiterEnabled;
+
+    @Value("${app.model.limiter.latency-threshold:5s}")
+    private Duration limiterLatencyThreshold;
+
     /**
-     * Creates a ChatClient bean preconfigured with the system prompt.
+     * Creates the concurrency limiter shared by all model calls, so interactive streams and
+     * background name generation compete for the same provider capacity.
+     */
+    @Bean
+    AdaptiveConcurrencyLimiter modelConcurrencyLimiter(
+            @Value("${app.model.limiter.initial-limit:10}") int initialLimit,
+            @Value("${app.model.limiter.min-limit:1}") int minLimit,
+            @Value("${app.model.limiter.max-limit:100}") int maxLimit,
+            @Value("${app.model.limiter.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${app.model.limiter.max-queue-size:500}") int maxQueueSize,
+            MeterRegistry meterRegistry
+    ) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, maxQueueSize, meterRegistry);
+    }
+
+    /**
+     * Creates a ChatClient bean preconfigured with the system prompt and, when semantic memory is
+     * enabled, the recall advisor.
      *
      * @param chatModel the OpenAI chat model to use
+     * @param modelConcurrencyLimiter limiter applied with interactive priority
+     * @param recallAdvisor present when {@code app.memory.semantic.enabled} is set
      * @return a ChatClient instance with a default system prompt
      */
     @Bean
-    ChatClient openAiChatClient(OpenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
-                .defaultSystem(HELPFUL_ASSISTANT_PROMPT)
-                .build();
+    ChatClient openAiChatClient(OpenAiChatModel chatModel, AdaptiveConcurrencyLimiter modelConcurrencyLimiter,
+                                ObjectProvider<ConversationRecallAdvisor> recallAdvisor) {
+        ChatClient.Builder builder = ChatClient.builder(limited(chatModel, modelConcurrencyLimiter, Priority.INTERACTIVE))
+                .defaultSystem(HELPFUL_ASSISTANT_PROMPT);
+        recallAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        return builder.build();
     }
 
     /**
      * Creates a ChatClient bean preconfigured with the chat-name generation system prompt.
      *
      * @param chatModel the OpenAI chat model to use
+     * @param modelConcurrencyLimiter limiter applied with background priority
      * @return a ChatClient instance with a chat-name generation system prompt
      */
     @Bean
-    ChatClient chatNameGeneratorClient(OpenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    ChatClient chatNameGeneratorClient(OpenAiChatModel chatModel, AdaptiveConcurrencyLimiter modelConcurrencyLimiter) {
+        return ChatClient.builder(limited(chatModel, modelConcurrencyLimiter, Priority.BACKGROUND))
                 .defaultSystem(NAME_GENERATION_PROMPT)
                 .build();
     }
+
+    /**
+     * Creates the ChatClient used for hedge requests. It talks to {@code fallbackModel} when one is
+     * configured, otherwise to the same model as {@code openAiChatClient}.
+     *
+     * @param chatModel the OpenAI chat model to use
+     * @param modelConcurrencyLimiter limiter applied with interactive priority
+     * @param fallbackModel optional OpenAI model name for hedge requests
+     * @param recallAdvisor present when {@code app.memory.semantic.enabled} is set, so hedges see the same prompt
+     * @return a ChatClient instance with a default system prompt
+     */
+    @Bean
+    ChatClient hedgeChatClient(
+            OpenAiChatModel chatModel,
+            AdaptiveConcurrencyLimiter modelConcurrencyLimiter,
+            @Value("${app.model.hedging.fallback-model:}") String fallbackModel,
+            ObjectProvider<ConversationRecallAdvisor> recallAdvisor
+    ) {
+        ChatClient.Builder builder = ChatClient.builder(limited(chatModel, modelConcurrencyLimiter, Priority.INTERACTIVE))
+                .defaultSystem(HELPFUL_ASSISTANT_PROMPT);
+        recallAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        if (StringUtils.hasText(fallbackModel)) {
+            builder.defaultOptions(OpenAiChatOptions.builder().model(fallbackModel).build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    StreamHedger streamHedger(
+            @Value("${app.model.hedging.enabled:false}") boolean enabled,
+            @Value("${app.model.hedging.delay:2s}") Duration delay,
+            @Value("${app.model.hedging.max-ratio:0.1}") double maxRatio,
+            @Value("${app.model.hedging.burst:10}") int burst,
+            MeterRegistry meterRegistry
+    ) {
+        return new StreamHedger(enabled, delay, new HedgeBudget(maxRatio, burst), meterRegistry);
+    }
+
+    private ChatModel limited(ChatModel chatModel, AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        return limiterEnabled
+                ? new ConcurrencyLimitedChatModel(chatModel, limiter, priority, limiterLatencyThreshold)
+                : chatModel;
+    }
 }
@@ -2,28 +2,203 @@ package com.ai.infrastructure.config;
 
 import com.ai.domain.entity.Chat;
 import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.ai.infrastructure.repository.AnswerCheckpointer;
 import com.ai.infrastructure.repository.CassandraChatMemoryRepository;
+import com.ai.infrastructure.repository.ChatActivityIndex;
+import com.ai.infrastructure.repository.ChatMemoryWarmUp;
+import com.ai.infrastructure.repository.ChatMemoryListener;
 import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.repository.MessageCompressionMigration;
+import com.ai.infrastructure.repository.MessagePageCache;
+import com.ai.infrastructure.repository.MessageTable;
+import com.ai.infrastructure.repository.MessageTableMigration;
+import com.ai.infrastructure.repository.QueryProfiles;
 import com.ai.infrastructure.repository.RedisMessageWindowChatMemory;
+import com.ai.infrastructure.repository.TokenRangeScanner;
+import com.ai.infrastructure.repository.WindowCache;
 import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.cassandra.core.cql.CqlTemplate;
 
+import java.time.Duration;
+
 @Configuration
+@EnableConfigurationProperties(CassandraDriverProperties.class)
 public class ChatMemoryConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatMemoryConfig.class);
+
+    @Bean
+    MessageContentCodec messageContentCodec(
+            @Value("${app.cassandra.compression.codec:none}") String codec,
+            @Value("${app.cassandra.compression.threshold:1024}") int threshold
+    ) {
+        return new MessageContentCodec(MessageContentCodec.Codec.valueOf(codec.toUpperCase()), threshold);
+    }
+
+    /**
+     * Profiles and per-profile query timers shared by every Cassandra repository; see {@link QueryProfiles}.
+     */
+    @Bean
+    QueryProfiles queryProfiles(CqlSession cqlSession, MeterRegistry meterRegistry) {
+        return new QueryProfiles(cqlSession, meterRegistry);
+    }
+
+    @Bean
+    TokenRangeScanner tokenRangeScanner(
+            CqlSession cqlSession,
+            @Value("${app.cassandra.scan.splits-per-range:4}") int splitsPerRange,
+            @Value("${app.cassandra.scan.parallelism:8}") int parallelism,
+            @Value("${app.cassandra.scan.page-size:500}") int pageSize,
+            QueryProfiles queryProfiles
+    ) {
+        return new TokenRangeScanner(cqlSession, splitsPerRange, parallelism, pageSize, queryProfiles);
+    }
+
+    @Bean
+    MessageTable messageTable(@Value("${app.cassandra.messages.table-version:v1}") String tableVersion) {
+        return MessageTable.valueOf(tableVersion.toUpperCase());
+    }
+
+    @Bean
+    ChatRepository<NoSqlChat> chatRepository(CqlTemplate cqlTemplate, CqlSession cqlSession,
+                                             MessageContentCodec messageContentCodec, TokenRangeScanner tokenRangeScanner,
+                                             MessageTable messageTable,
+                                             @Value("${app.chats.fork.max-depth:8}") int maxForkDepth,
+                                             QueryProfiles queryProfiles, MeterRegistry meterRegistry) {
+        return new CassandraChatMemoryRepository(cqlTemplate, cqlSession, messageContentCodec, tokenRangeScanner, messageTable, maxForkDepth, queryProfiles, meterRegistry); // implements ChatCrudRepository<NoSqlChat>
+    }
+
+    /**
+     * Copies v1 messages into ai_chat_message_v2 at startup; idempotent, see {@link MessageTableMigration}.
+     */
     @Bean
-    ChatRepository<NoSqlChat> chatRepository(CqlTemplate cqlTemplate, CqlSession cqlSession) {
-        return new CassandraChatMemoryRepository(cqlTemplate, cqlSession); // implements ChatCrudRepository<NoSqlChat>
+    @ConditionalOnProperty(value = "app.cassandra.messages.migrate-v1-to-v2", havingValue = "true")
+    ApplicationRunner messageTableMigration(CqlSession cqlSession, TokenRangeScanner tokenRangeScanner) {
+        return args -> new MessageTableMigration(cqlSession, tokenRangeScanner).run();
     }
 
+    /**
+     * Compresses existing plain-text messages once at startup; enable for a single run after turning compression on.
+     */
     @Bean
-    public <T extends Chat> ChatMemory chatMemory(ChatRepository<T> chatRepository) {
+    @ConditionalOnProperty(value = "app.cassandra.compression.migrate-existing", havingValue = "true")
+    ApplicationRunner messageCompressionMigration(CqlSession cqlSession, MessageContentCodec messageContentCodec,
+                                                  TokenRangeScanner tokenRangeScanner, MessageTable messageTable) {
+        return args -> new MessageCompressionMigration(cqlSession, messageContentCodec, tokenRangeScanner, messageTable).run();
+    }
+
+    /**
+     * Maintains chats_by_last_activity from stored messages; registered as a {@link ChatMemoryListener}.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(value = "app.chats.activity-index.enabled", havingValue = "true", matchIfMissing = true)
+    ChatActivityIndex chatActivityIndex(
+            CqlSession cqlSession,
+            MessageTable messageTable,
+            @Value("${app.chats.activity-index.max-delay:30s}") Duration maxDelay,
+            @Value("${app.chats.activity-index.preview-length:120}") int previewLength,
+            QueryProfiles queryProfiles,
+            MeterRegistry meterRegistry
+    ) {
+        return new ChatActivityIndex(cqlSession, messageTable, maxDelay, previewLength, queryProfiles, meterRegistry);
+    }
+
+    /**
+     * In-process window cache; with several replicas and no routing by chat id, a replica may serve a
+     * window missing another replica's writes for up to {@code ttl}.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "app.memory.window-cache.enabled", havingValue = "true")
+    WindowCache windowCache(
+            @Value("${app.memory.window-cache.max-conversations:10000}") int maxConversations,
+            @Value("${app.memory.window-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        return new WindowCache(maxConversations, ttl, meterRegistry);
+    }
+
+    /**
+     * Older message pages of {@code GET /chats/{chatId}/messages}; registered as a
+     * {@link ChatMemoryListener} to drop the pages of cleared conversations.
+     */
+    @Bean
+    MessagePageCache messagePageCache(
+            @Value("${app.chats.pages.cache.max-pages:10000}") int maxPages,
+            @Value("${app.chats.pages.cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        return new MessagePageCache(maxPages, ttl, meterRegistry);
+    }
+
+    /**
+     * Checkpoints streaming answers every {@code app.chats.checkpoint.every-tokens} or
+     * {@code interval}, whichever comes first, once the answer has also grown by {@code min-growth}
+     * of its last checkpoint.
+     */
+    @Bean
+    AnswerCheckpointer answerCheckpointer(
+            ChatRepository<NoSqlChat> chatRepository,
+            @Value("${app.chats.checkpoint.enabled:true}") boolean enabled,
+            @Value("${app.chats.checkpoint.every-tokens:200}") long everyTokens,
+            @Value("${app.chats.checkpoint.interval:2s}") Duration interval,
+            @Value("${app.chats.checkpoint.min-growth:0.5}") double minGrowth,
+            MeterRegistry meterRegistry
+    ) {
+        if (!enabled) {
+            return AnswerCheckpointer.disabled();
+        }
+        return new AnswerCheckpointer(chatRepository, everyTokens, interval, minGrowth, meterRegistry);
+    }
+
+    /**
+     * Each prompt is sent with the newest {@code app.memory.max-messages} messages of its conversation,
+     * not the whole history.
+     */
+    @Bean
+    public <T extends Chat> ChatMemory chatMemory(ChatRepository<T> chatRepository,
+                                                  ObjectProvider<ChatMemoryListener> listeners,
+                                                  ObjectProvider<WindowCache> windowCache,
+                                                  @Value("${app.memory.max-messages:10}") int maxMessages) {
         return RedisMessageWindowChatMemory.<T>builder()
                 .chatRepository(chatRepository)
-                .maxMessages(10)
+                .maxMessages(maxMessages)
+                .listeners(listeners.orderedStream().toList())
+                .windowCache(windowCache.getIfAvailable())
                 .build();
     }
+
+    /**
+     * Preloads recent conversation windows before the application reports ready; see {@link ChatMemoryWarmUp}.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "app.memory.warm-up.enabled", havingValue = "true")
+    ApplicationRunner chatMemoryWarmUp(
+            ChatRepository<? extends Chat> chatRepository,
+            ChatMemory chatMemory,
+            ObjectProvider<WindowCache> windowCache,
+            @Value("${app.memory.warm-up.conversations:1000}") int conversations,
+            @Value("${app.memory.warm-up.concurrency:16}") int concurrency,
+            @Value("${app.memory.warm-up.time-budget:20s}") Duration timeBudget
+    ) {
+        return args -> {
+            if (windowCache.getIfAvailable() == null) {
+                log.warn("app.memory.warm-up.enabled is set without app.memory.window-cache.enabled; skipping warm-up");
+                return;
+            }
+            new ChatMemoryWarmUp(chatRepository::findRecentConversationIds, chatMemory,
+                    conversations, concurrency, timeBudget).run();
+        };
+    }
 }
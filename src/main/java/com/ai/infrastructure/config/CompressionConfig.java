@@ -0,0 +1,37 @@
+package com.ai.infrastructure.config;
+
+import com.ai.infrastructure.compression.ResponseCompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Opt-in gzip compression of responses, {@code app.compression.enabled=true}; see
+ * {@link ResponseCompressionFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+            @Value("${app.compression.min-response-size:1KB}") DataSize minResponseSize,
+            @Value("${app.compression.mime-types:application/json,text/event-stream,text/plain}") List<String> mimeTypes,
+            MeterRegistry meterRegistry
+    ) {
+        ResponseCompressionFilter filter = new ResponseCompressionFilter(
+                (int) minResponseSize.toBytes(), MediaType.parseMediaTypes(mimeTypes), meterRegistry);
+        FilterRegistrationBean<ResponseCompressionFilter> registration = new FilterRegistrationBean<>(filter);
+        // ahead of every filter that may write the body
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
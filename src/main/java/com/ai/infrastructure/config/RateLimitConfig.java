@@ -0,0 +1,71 @@
+package com.ai.infrastructure.config;
+
+import com.ai.infrastructure.ratelimit.InMemoryDailyTokenQuota;
+import com.ai.infrastructure.ratelimit.RateLimitInterceptor;
+import com.ai.infrastructure.ratelimit.RateLimiter;
+import com.ai.infrastructure.ratelimit.RedisDailyTokenQuota;
+import com.ai.infrastructure.ratelimit.RedisTokenBucketRateLimiter;
+import com.ai.infrastructure.ratelimit.StripedTokenBucketRateLimiter;
+import com.ai.infrastructure.ratelimit.TokenQuota;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+
+/**
+ * Rate limiting and daily token quotas for {@code /chats/stream}.
+ *
+ * <p>{@code app.rate-limit.mode=memory} (default) keeps buckets and quotas per replica;
+ * {@code app.rate-limit.mode=redis} shares them across replicas.</p>
+ */
+@Configuration
+public class RateLimitConfig {
+
+    private static final String REDIS = "redis";
+
+    @Value("${app.rate-limit.mode:memory}")
+    private String mode;
+
+    @Bean
+    RateLimiter rateLimiter(
+            @Value("${app.rate-limit.capacity:20}") long capacity,
+            @Value("${app.rate-limit.refill-per-second:0.5}") double refillPerSecond,
+            @Value("${app.rate-limit.stripes:64}") int stripes,
+            @Value("${app.rate-limit.max-keys-per-stripe:10000}") int maxKeysPerStripe,
+            ObjectProvider<StringRedisTemplate> redisTemplate
+    ) {
+        if (REDIS.equals(mode)) {
+            return new RedisTokenBucketRateLimiter(redisTemplate.getObject(), capacity, refillPerSecond);
+        }
+        return new StripedTokenBucketRateLimiter(capacity, refillPerSecond, stripes, maxKeysPerStripe);
+    }
+
+    @Bean
+    TokenQuota tokenQuota(
+            @Value("${app.rate-limit.daily-token-quota:0}") long dailyTokenQuota,
+            ObjectProvider<StringRedisTemplate> redisTemplate
+    ) {
+        if (REDIS.equals(mode)) {
+            return new RedisDailyTokenQuota(redisTemplate.getObject(), dailyTokenQuota, Clock.systemUTC());
+        }
+        return new InMemoryDailyTokenQuota(dailyTokenQuota, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    WebMvcConfigurer rateLimitConfigurer(RateLimiter rateLimiter, TokenQuota tokenQuota) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RateLimitInterceptor(rateLimiter, tokenQuota))
+                        .addPathPatterns("/chats/stream");
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.ai.infrastructure.config;
+
+import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.search.ChatSearchIndex;
+import com.ai.infrastructure.search.ChatSearchIndexRebuild;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(value = "app.search.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchConfig.class);
+
+    /**
+     * Also registered as a {@link com.ai.infrastructure.repository.ChatMemoryListener}, which is how it is fed.
+     */
+    @Bean(destroyMethod = "close")
+    ChatSearchIndex chatSearchIndex(
+            @Value("${app.search.index-dir:data/search-index}") String indexDir,
+            @Value("${app.search.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.search.refresh-interval:500ms}") Duration refreshInterval,
+            @Value("${app.search.commit-interval:30s}") Duration commitInterval,
+            MeterRegistry meterRegistry
+    ) {
+        return new ChatSearchIndex(Path.of(indexDir), queueCapacity, refreshInterval, commitInterval, meterRegistry);
+    }
+
+    /**
+     * Rebuilds the index in the background at startup: {@code always}, {@code if-empty} (first start or
+     * lost index directory) or {@code never}.
+     */
+    @Bean
+    ApplicationRunner chatSearchIndexRebuild(
+            ChatRepository<?> chatRepository,
+            ChatSearchIndex chatSearchIndex,
+            @Value("${app.search.rebuild-on-startup:if-empty}") String rebuildOnStartup,
+            @Value("${app.search.rebuild-concurrency:8}") int concurrency
+    ) {
+        return args -> {
+            boolean rebuild = switch (rebuildOnStartup) {
+                case "always" -> true;
+                case "if-empty" -> chatSearchIndex.documentCount() == 0;
+                case "never" -> false;
+                default -> throw new IllegalArgumentException(
+                        "app.search.rebuild-on-startup must be always, if-empty or never but was " + rebuildOnStartup);
+            };
+            if (!rebuild) {
+                return;
+            }
+            Thread.ofPlatform().daemon().name("chat-search-rebuild").start(() -> {
+                try {
+                    new ChatSearchIndexRebuild(chatRepository, chatSearchIndex, concurrency).run();
+                } catch (RuntimeException e) {
+                    log.error("Search index rebuild failed", e);
+                }
+            });
+        };
+    }
+}
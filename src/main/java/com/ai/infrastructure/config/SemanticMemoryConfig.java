@@ -0,0 +1,74 @@
+package com.ai.infrastructure.config;
+
+import com.ai.infrastructure.vector.CachingEmbedder;
+import com.ai.infrastructure.vector.ConversationEmbeddingListener;
+import com.ai.infrastructure.vector.ConversationRecallAdvisor;
+import com.ai.infrastructure.vector.HnswVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Long-term memory: stored messages are embedded into a local HNSW vector store and the ones relevant
+ * to a new question are recalled into its prompt by {@link ConversationRecallAdvisor}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.memory.semantic.enabled", havingValue = "true")
+public class SemanticMemoryConfig {
+
+    @Bean
+    CachingEmbedder cachingEmbedder(
+            EmbeddingModel embeddingModel,
+            @Value("${app.memory.semantic.embedding.batch-size:64}") int batchSize,
+            @Value("${app.memory.semantic.embedding.cache-size:10000}") int cacheSize,
+            MeterRegistry meterRegistry
+    ) {
+        return new CachingEmbedder(embeddingModel, batchSize, cacheSize, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    HnswVectorStore conversationVectorStore(
+            CachingEmbedder cachingEmbedder,
+            @Value("${app.memory.semantic.index-file:data/vector-store.bin}") String indexFile,
+            @Value("${app.memory.semantic.flush-interval:30s}") Duration flushInterval,
+            @Value("${app.memory.semantic.hnsw.m:16}") int m,
+            @Value("${app.memory.semantic.hnsw.ef-construction:100}") int efConstruction,
+            @Value("${app.memory.semantic.hnsw.ef-search:64}") int efSearch,
+            @Value("${app.memory.semantic.exact-search-threshold:2000}") int exactSearchThreshold
+    ) {
+        Path file = StringUtils.hasText(indexFile) ? Path.of(indexFile) : null;
+        return new HnswVectorStore(cachingEmbedder, file, flushInterval, m, efConstruction, efSearch, exactSearchThreshold);
+    }
+
+    /**
+     * Also registered as a {@link com.ai.infrastructure.repository.ChatMemoryListener}, which is how it is fed.
+     */
+    @Bean(destroyMethod = "close")
+    ConversationEmbeddingListener conversationEmbeddingListener(
+            HnswVectorStore conversationVectorStore,
+            @Value("${app.memory.semantic.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.memory.semantic.embedding.batch-size:64}") int batchSize,
+            MeterRegistry meterRegistry
+    ) {
+        return new ConversationEmbeddingListener(conversationVectorStore, queueCapacity, batchSize, meterRegistry);
+    }
+
+    @Bean
+    ConversationRecallAdvisor conversationRecallAdvisor(
+            HnswVectorStore conversationVectorStore,
+            @Value("${app.memory.semantic.top-k:4}") int topK,
+            @Value("${app.memory.semantic.similarity-threshold:0.75}") double similarityThreshold,
+            @Value("${app.memory.semantic.cross-conversation:false}") boolean crossConversation
+    ) {
+        return new ConversationRecallAdvisor(conversationVectorStore, topK, similarityThreshold, crossConversation,
+                Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ai.infrastructure.config;
+
+import com.ai.infrastructure.repository.QueryProfiles;
+import com.ai.infrastructure.usage.TokenUsageAccumulator;
+import com.ai.infrastructure.usage.TokenUsageRepository;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Token usage accounting: {@link TokenUsageAccumulator} collects the usage of every turn in memory
+ * and writes it to the counter tables every {@code app.usage.flush-interval}.
+ */
+@Configuration
+public class TokenUsageConfig {
+
+    @Bean
+    TokenUsageRepository tokenUsageRepository(CqlSession cqlSession, QueryProfiles queryProfiles) {
+        return new TokenUsageRepository(cqlSession, queryProfiles);
+    }
+
+    /**
+     * Closing flushes what was recorded since the last flush.
+     */
+    @Bean(destroyMethod = "close")
+    TokenUsageAccumulator tokenUsageAccumulator(
+            TokenUsageRepository tokenUsageRepository,
+            @Value("${app.usage.flush-interval:10s}") Duration flushInterval,
+            MeterRegistry meterRegistry
+    ) {
+        return new TokenUsageAccumulator(tokenUsageRepository, Clock.systemUTC(), flushInterval, meterRegistry);
+    }
+}
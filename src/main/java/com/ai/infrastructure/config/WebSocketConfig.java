@@ -0,0 +1,57 @@
+package com.ai.infrastructure.config;
+
+import com.ai.application.service.ChatService;
+import com.ai.infrastructure.ratelimit.RateLimiter;
+import com.ai.infrastructure.ratelimit.TokenQuota;
+import com.ai.infrastructure.websocket.ChatWebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket transport for chat answers at {@code /chats/ws}, multiplexing any number of answers over
+ * one connection; see {@link ChatWebSocketHandler}.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(
+            ChatWebSocketHandler chatWebSocketHandler,
+            @Value("${app.chats.websocket.allowed-origins:http://localhost:4200}") String[] allowedOrigins
+    ) {
+        this.chatWebSocketHandler = chatWebSocketHandler;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(chatWebSocketHandler, "/chats/ws").setAllowedOrigins(allowedOrigins);
+    }
+
+    @Configuration
+    static class Handlers {
+
+        @Bean
+        ChatWebSocketHandler chatWebSocketHandler(
+                ChatService chatService,
+                RateLimiter rateLimiter,
+                TokenQuota tokenQuota,
+                ObjectMapper objectMapper,
+                @Value("${app.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                @Value("${app.chats.websocket.max-streams:16}") int maxStreams,
+                MeterRegistry meterRegistry
+        ) {
+            return new ChatWebSocketHandler(chatService, rateLimitEnabled ? rateLimiter : null,
+                    tokenQuota, objectMapper, maxStreams, meterRegistry);
+        }
+    }
+}
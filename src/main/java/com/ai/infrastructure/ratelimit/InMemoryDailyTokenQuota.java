@@ -0,0 +1,65 @@
+package com.ai.infrastructure.ratelimit;
+
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-replica {@link TokenQuota}. A {@code dailyLimit} of 0 disables enforcement but still
+ * keeps counting.
+ */
+public class InMemoryDailyTokenQuota implements TokenQuota {
+
+    private final long dailyLimit;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, LongAdder> usage = new ConcurrentHashMap<>();
+    private volatile LocalDate day;
+
+    public InMemoryDailyTokenQuota(long dailyLimit, Clock clock) {
+        Assert.isTrue(dailyLimit >= 0, "dailyLimit cannot be negative");
+        Assert.notNull(clock, "clock cannot be null");
+        this.dailyLimit = dailyLimit;
+        this.clock = clock;
+        this.day = LocalDate.now(clock);
+    }
+
+    @Override
+    public boolean isExhausted(String key) {
+        if (dailyLimit == 0 || key == null) {
+            return false;
+        }
+        rollOver();
+        LongAdder used = usage.get(key);
+        return used != null && used.sum() >= dailyLimit;
+    }
+
+    @Override
+    public void record(String key, long tokens) {
+        if (key == null || tokens <= 0) {
+            return;
+        }
+        rollOver();
+        usage.computeIfAbsent(key, k -> new LongAdder()).add(tokens);
+    }
+
+    public long used(String key) {
+        rollOver();
+        LongAdder used = usage.get(key);
+        return used == null ? 0 : used.sum();
+    }
+
+    private void rollOver() {
+        LocalDate today = LocalDate.now(clock);
+        if (!today.equals(day)) {
+            synchronized (this) {
+                if (!today.equals(day)) {
+                    usage.clear();
+                    day = today;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ai.infrastructure.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Rejects requests over the caller's rate limit or daily token quota with {@code 429} before the
+ * handler runs, so no Cassandra or model work is done for them.
+ *
+ * <p>The caller is the authenticated principal, falling back to the remote address; nothing the
+ * client sends can pick another caller's limit. The resolved identity is exposed as the
+ * {@value #CALLER_ID_ATTRIBUTE} request attribute.</p>
+ *
+ * <p>Only the initial dispatch is checked. The async dispatch that completes a streaming response
+ * belongs to the same request and keeps the attribute.</p>
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    public static final String CALLER_ID_ATTRIBUTE = "callerId";
+
+    private final RateLimiter rateLimiter;
+    private final TokenQuota tokenQuota;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, TokenQuota tokenQuota) {
+        this.rateLimiter = rateLimiter;
+        this.tokenQuota = tokenQuota;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String callerId = resolveCallerId(request);
+        request.setAttribute(CALLER_ID_ATTRIBUTE, callerId);
+
+        if (tokenQuota.isExhausted(callerId)) {
+            log.warn("Daily token quota exhausted for caller={}", callerId);
+            reject(response, 3600, "Daily token quota exhausted");
+            return false;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(callerId);
+        if (!decision.allowed()) {
+            log.warn("Rate limit exceeded for caller={}", callerId);
+            reject(response, Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000), "Rate limit exceeded");
+            return false;
+        }
+        return true;
+    }
+
+    private static String resolveCallerId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws Exception {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ai.infrastructure.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limiter keyed by caller identity.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one token from the caller's bucket.
+     *
+     * @param key caller identity
+     * @return whether the request may proceed and, if not, when to retry
+     */
+    Decision tryAcquire(String key);
+
+    record Decision(boolean allowed, Duration retryAfter) {
+
+        public static final Decision ALLOWED = new Decision(true, Duration.ZERO);
+
+        public static Decision rejected(Duration retryAfter) {
+            return new Decision(false, retryAfter);
+        }
+    }
+}
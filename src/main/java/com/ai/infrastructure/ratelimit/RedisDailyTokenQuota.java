@@ -0,0 +1,69 @@
+package com.ai.infrastructure.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Distributed {@link TokenQuota} backed by one Redis counter per caller and day. Counters expire
+ * after two days. Fails open if Redis is unavailable.
+ */
+public class RedisDailyTokenQuota implements TokenQuota {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisDailyTokenQuota.class);
+
+    private static final String KEY_PREFIX = "quota:";
+    private static final Duration RETENTION = Duration.ofDays(2);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long dailyLimit;
+    private final Clock clock;
+
+    public RedisDailyTokenQuota(StringRedisTemplate redisTemplate, long dailyLimit, Clock clock) {
+        Assert.notNull(redisTemplate, "redisTemplate cannot be null");
+        Assert.isTrue(dailyLimit >= 0, "dailyLimit cannot be negative");
+        Assert.notNull(clock, "clock cannot be null");
+        this.redisTemplate = redisTemplate;
+        this.dailyLimit = dailyLimit;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean isExhausted(String key) {
+        if (dailyLimit == 0 || key == null) {
+            return false;
+        }
+        try {
+            String used = redisTemplate.opsForValue().get(redisKey(key));
+            return used != null && Long.parseLong(used) >= dailyLimit;
+        } catch (RuntimeException e) {
+            log.warn("Redis token quota unavailable, allowing request for key={}", key, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void record(String key, long tokens) {
+        if (key == null || tokens <= 0) {
+            return;
+        }
+        try {
+            String redisKey = redisKey(key);
+            Long total = redisTemplate.opsForValue().increment(redisKey, tokens);
+            if (total != null && total == tokens) {
+                redisTemplate.expire(redisKey, RETENTION);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to record {} tokens for key={}", tokens, key, e);
+        }
+    }
+
+    private String redisKey(String key) {
+        return KEY_PREFIX + key + ":" + LocalDate.now(clock);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ai.infrastructure.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Distributed {@link RateLimiter}: the bucket lives in a Redis hash and is refilled and drained
+ * atomically by a Lua script using the Redis server clock, so all replicas share one budget.
+ * Fails open if Redis is unavailable.
+ */
+public class RedisTokenBucketRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTokenBucketRateLimiter.class);
+
+    private static final String KEY_PREFIX = "rate:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+            local allowed = 0
+            local wait_ms = 0
+            if tokens >= 1 then
+              tokens = tokens - 1
+              allowed = 1
+            else
+              wait_ms = math.ceil((1 - tokens) / refill_per_ms)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms) * 2)
+            return {allowed, wait_ms}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long capacity;
+    private final double refillPerMilli;
+
+    public RedisTokenBucketRateLimiter(StringRedisTemplate redisTemplate, long capacity, double refillPerSecond) {
+        Assert.notNull(redisTemplate, "redisTemplate cannot be null");
+        Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+        Assert.isTrue(refillPerSecond > 0, "refillPerSecond must be greater than 0");
+        this.redisTemplate = redisTemplate;
+        this.capacity = capacity;
+        this.refillPerMilli = refillPerSecond / 1000d;
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        Assert.notNull(key, "key cannot be null");
+        try {
+            List<?> result = redisTemplate.execute(
+                    TOKEN_BUCKET,
+                    List.of(KEY_PREFIX + key),
+                    Long.toString(capacity),
+                    Double.toString(refillPerMilli)
+            );
+            if (result != null && ((Number) result.get(0)).longValue() == 1) {
+                return Decision.ALLOWED;
+            }
+            long waitMillis = result == null ? 0 : ((Number) result.get(1)).longValue();
+            return Decision.rejected(Duration.ofMillis(waitMillis));
+        } catch (RuntimeException e) {
+            log.warn("Redis rate limiter unavailable, allowing request for key={}", key, e);
+            return Decision.ALLOWED;
+        }
+    }
+}
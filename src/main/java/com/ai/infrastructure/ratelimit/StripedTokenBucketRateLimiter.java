@@ -0,0 +1,102 @@
+package com.ai.infrastructure.ratelimit;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory {@link RateLimiter}. Buckets are spread over a fixed number of lock stripes by key
+ * hash, so callers only contend with the few other callers that share their stripe. Idle buckets
+ * are dropped once a stripe grows past {@code maxKeysPerStripe}.
+ */
+public class StripedTokenBucketRateLimiter implements RateLimiter {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes;
+
+    public StripedTokenBucketRateLimiter(long capacity, double refillPerSecond, int stripeCount, int maxKeysPerStripe) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+        Assert.isTrue(refillPerSecond > 0, "refillPerSecond must be greater than 0");
+        Assert.isTrue(stripeCount > 0 && Integer.bitCount(stripeCount) == 1, "stripeCount must be a power of two");
+        Assert.isTrue(maxKeysPerStripe > 0, "maxKeysPerStripe must be greater than 0");
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        Assert.notNull(key, "key cannot be null");
+
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        long now = System.nanoTime();
+
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxKeysPerStripe) {
+                    evictIdle(stripe, now);
+                }
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+
+            bucket.refill(now);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return Decision.ALLOWED;
+            }
+            long waitNanos = (long) Math.ceil((1 - bucket.tokens) / refillPerNano);
+            return Decision.rejected(Duration.ofNanos(waitNanos));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // must hold the stripe lock; a bucket that refilled completely holds no state worth keeping
+    private void evictIdle(Stripe stripe, long now) {
+        Iterator<Bucket> it = stripe.buckets.values().iterator();
+        while (it.hasNext()) {
+            Bucket bucket = it.next();
+            bucket.refill(now);
+            if (bucket.tokens >= capacity) {
+                it.remove();
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private final class Bucket {
+        double tokens;
+        long lastRefill;
+
+        Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
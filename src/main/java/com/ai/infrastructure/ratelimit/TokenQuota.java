@@ -0,0 +1,25 @@
+package com.ai.infrastructure.ratelimit;
+
+/**
+ * Daily model-token quota per caller, fed by the length of the streamed answers.
+ */
+public interface TokenQuota {
+
+    /**
+     * @param key caller identity
+     * @return true if the caller used up today's quota
+     */
+    boolean isExhausted(String key);
+
+    /**
+     * Adds tokens used by the caller to today's total. A {@code null} key is ignored.
+     */
+    void record(String key, long tokens);
+
+    /**
+     * Rough token count of a model answer; OpenAI models average about four characters per token.
+     */
+    static long estimateTokens(CharSequence text) {
+        return (text.length() + 3) / 4;
+    }
+}
@@ -0,0 +1,199 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.infrastructure.ratelimit.TokenQuota;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.util.Assert;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves the partial answer of a streaming turn while it is generated, so a crash of the instance
+ * mid-answer loses at most the text since the last checkpoint.
+ *
+ * <p>Every answer gets its message key up front ({@link ChatCrudRepository#reserveMessageKey}), and
+ * each checkpoint upserts that one row with {@code msg_truncated = true}; the final save carries the
+ * same key and replaces it. Until then history reads show the checkpoint like any truncated answer,
+ * which is what remains after a crash. A checkpoint is due once the answer has grown by {@code everyTokens}
+ * (estimated) or {@code interval} has passed since the last one, but only if it has also grown by
+ * {@code minGrowth} of its size at the last checkpoint. That keeps the text written per answer, all
+ * checkpoints plus the final save, below {@code (2 + 1 / minGrowth)} times the answer whatever its
+ * length; the measured ratio is recorded as {@code chat.answer.checkpoint.amplification}.</p>
+ *
+ * <p>Checkpoints are written off the streaming thread, at most one at a time per answer; a
+ * checkpoint that comes due while the previous one is still being written is skipped.
+ * {@link Checkpoint#close(int)} waits for a write in flight and stops further ones, so none can land
+ * after the final save.</p>
+ */
+public class AnswerCheckpointer {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerCheckpointer.class);
+
+    private final ChatRepository<?> chatRepository;
+    private final long everyTokens;
+    private final long intervalNanos;
+    private final double minGrowth;
+    private final Scheduler scheduler;
+    private final Counter writes;
+    private final Counter failures;
+    private final DistributionSummary amplification;
+
+    public AnswerCheckpointer(ChatRepository<?> chatRepository, long everyTokens, Duration interval,
+                              double minGrowth, MeterRegistry meterRegistry) {
+        this(chatRepository, everyTokens, interval, minGrowth, Schedulers.boundedElastic(), meterRegistry);
+    }
+
+    AnswerCheckpointer(ChatRepository<?> chatRepository, long everyTokens, Duration interval,
+                       double minGrowth, Scheduler scheduler, MeterRegistry meterRegistry) {
+        Assert.isTrue(everyTokens > 0, "everyTokens must be greater than 0");
+        Assert.isTrue(interval != null && interval.isPositive(), "interval must be positive");
+        Assert.isTrue(minGrowth > 0, "minGrowth must be greater than 0");
+        Assert.notNull(chatRepository, "chatRepository cannot be null");
+        this.chatRepository = chatRepository;
+        this.everyTokens = everyTokens;
+        this.intervalNanos = interval.toNanos();
+        this.minGrowth = minGrowth;
+        this.scheduler = scheduler;
+        this.writes = meterRegistry.counter("chat.answer.checkpoint", "outcome", "success");
+        this.failures = meterRegistry.counter("chat.answer.checkpoint", "outcome", "error");
+        this.amplification = DistributionSummary.builder("chat.answer.checkpoint.amplification")
+                .description("characters written per answer, checkpoints and final save, per character of the answer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Never checkpoints; the final message keeps the key assigned when it is saved.
+     */
+    public static AnswerCheckpointer disabled() {
+        return new AnswerCheckpointer();
+    }
+
+    private AnswerCheckpointer() {
+        this.chatRepository = null;
+        this.everyTokens = Long.MAX_VALUE;
+        this.intervalNanos = Long.MAX_VALUE;
+        this.minGrowth = 1;
+        this.scheduler = null;
+        this.writes = null;
+        this.failures = null;
+        this.amplification = null;
+    }
+
+    /**
+     * Starts checkpointing one answer.
+     *
+     * @param notBefore the answer's key sorts after this time, normally the time of the prompt
+     */
+    public Checkpoint start(String chatId, Instant notBefore) {
+        if (chatRepository == null) {
+            return new Checkpoint(chatId, Map.of());
+        }
+        // a different millisecond, since v1 keys messages by millisecond
+        Instant now = Instant.now();
+        Instant at = now.toEpochMilli() > notBefore.toEpochMilli() ? now : notBefore.truncatedTo(ChronoUnit.MILLIS).plusMillis(1);
+        return new Checkpoint(chatId, chatRepository.reserveMessageKey(chatId, at));
+    }
+
+    public final class Checkpoint {
+
+        private final String chatId;
+        private final Map<String, Object> key;
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final Object lock = new Object();
+        private boolean closed;
+        private volatile int checkpointedLength;
+        private volatile long checkpointedAtNanos = System.nanoTime();
+        private long writtenChars;
+
+        private Checkpoint(String chatId, Map<String, Object> key) {
+            this.chatId = chatId;
+            this.key = key;
+        }
+
+        /**
+         * Key metadata the final message must carry to replace the checkpoint; empty when disabled.
+         */
+        public Map<String, Object> key() {
+            return key;
+        }
+
+        /**
+         * Called with the answer so far after every chunk; writes a checkpoint when one is due.
+         */
+        public void update(CharSequence answer) {
+            if (chatRepository == null) {
+                return;
+            }
+            int length = answer.length();
+            int grown = length - checkpointedLength;
+            if (grown <= 0 || grown < checkpointedLength * minGrowth) {
+                return;
+            }
+            boolean due = TokenQuota.estimateTokens(answer.subSequence(checkpointedLength, length)) >= everyTokens
+                    || System.nanoTime() - checkpointedAtNanos >= intervalNanos;
+            if (!due || !writing.compareAndSet(false, true)) {
+                return;
+            }
+            String text = answer.toString();
+            checkpointedLength = length;
+            checkpointedAtNanos = System.nanoTime();
+            scheduler.schedule(() -> {
+                try {
+                    write(text);
+                } finally {
+                    writing.set(false);
+                }
+            });
+        }
+
+        private void write(String text) {
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                Map<String, Object> metadata = new HashMap<>(key);
+                metadata.put("msg_truncated", true);
+                try {
+                    chatRepository.saveAll(chatId, List.of(new AssistantMessage(text, metadata)));
+                    writtenChars += text.length();
+                    writes.increment();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("Cannot checkpoint the answer in chatId={}", chatId, e);
+                }
+            }
+        }
+
+        /**
+         * Ends checkpointing before the final save, waiting for a checkpoint being written.
+         *
+         * @param finalLength length of the answer about to be saved
+         */
+        public void close(int finalLength) {
+            if (chatRepository == null) {
+                return;
+            }
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (finalLength > 0) {
+                    amplification.record((double) (writtenChars + finalLength) / finalLength);
+                }
+            }
+        }
+    }
+}
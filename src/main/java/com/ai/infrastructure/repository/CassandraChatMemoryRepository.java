@@ -2,12 +2,17 @@ package com.ai.infrastructure.repository;
 
 import com.ai.application.dto.ChatMessageDto;
 import com.ai.domain.entity.NoSqlChat;
+import com.ai.domain.model.ChatActivity;
+import com.ai.domain.model.ChatVersion;
 import com.ai.domain.model.pagination.ChatPage;
 import com.ai.domain.model.pagination.CursorMeta;
 import com.ai.domain.model.pagination.PageMeta;
+import com.ai.infrastructure.compression.MessageContentCodec;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.*;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.messages.AssistantMessage;
@@ -15,15 +20,29 @@ import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.data.cassandra.core.cql.CqlTemplate;
+import org.springframework.data.cassandra.core.cql.RowMapper;
 import org.springframework.data.cassandra.core.cql.SessionCallback;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class CassandraChatMemoryRepository implements ChatRepository<NoSqlChat> {
 
@@ -31,158 +50,563 @@ public class CassandraChatMemoryRepository implements ChatRepository<NoSqlChat>
 
     private static final String ID_CANNOT_BE_NULL_OR_EMPTY = "id cannot be null or empty";
 
+    public static final int DEFAULT_MAX_FORK_DEPTH = 8;
+    private static final int COPY_BATCH_SIZE = 50;
+    // copies of a deleted chat's history into its forks block on reads and writes
+    private static final Executor COPY_EXECUTOR = task -> Schedulers.boundedElastic().schedule(task);
+
     private final CqlTemplate cqlTemplate;
     private final CqlSession cqlSession;
+    private final MessageContentCodec contentCodec;
+    private final TokenRangeScanner scanner;
+    private final MessageTable messageTable;
+    private final MessageIdGenerator messageIdGenerator = new MessageIdGenerator();
+    private final QueryProfiles profiles;
+    private final ChatLineage lineage;
+    private final ChatVersions versions;
+    private final int maxForkDepth;
+
+    // prepared once: preparing is a round-trip, and deleteAsync binds on driver threads where it would block
+    private final PreparedStatement insertChat;
+    private final PreparedStatement insertCreatedIndex;
+    private final PreparedStatement insertMessage;
+    private final PreparedStatement selectCreatedAt;
+    private final PreparedStatement deleteMessages;
+    private final PreparedStatement deleteChat;
+    private final PreparedStatement deleteCreatedIndex;
+
+    private final Timer createMemoryTimer;
+    private final Timer createIndexTimer;
+    private final Timer createTotalTimer;
+
+    public CassandraChatMemoryRepository(CqlTemplate cqlTemplate, CqlSession cqlSession,
+                                         MessageContentCodec contentCodec, TokenRangeScanner scanner,
+                                         MessageTable messageTable, QueryProfiles profiles, MeterRegistry meterRegistry) {
+        this(cqlTemplate, cqlSession, contentCodec, scanner, messageTable, DEFAULT_MAX_FORK_DEPTH, profiles, meterRegistry);
+    }
 
-    public CassandraChatMemoryRepository(CqlTemplate cqlTemplate, CqlSession cqlSession) {
+    /**
+     * @param maxForkDepth forks of a chat with this many ancestors copy the inherited messages instead of
+     *                     referencing them, which bounds the number of partitions a history read visits
+     */
+    public CassandraChatMemoryRepository(CqlTemplate cqlTemplate, CqlSession cqlSession,
+                                         MessageContentCodec contentCodec, TokenRangeScanner scanner,
+                                         MessageTable messageTable, int maxForkDepth, QueryProfiles profiles,
+                                         MeterRegistry meterRegistry) {
+        Assert.isTrue(maxForkDepth >= 0, "maxForkDepth cannot be negative");
         this.cqlTemplate = cqlTemplate;
         this.cqlSession = cqlSession;
+        this.contentCodec = contentCodec;
+        this.scanner = scanner;
+        this.messageTable = messageTable;
+        this.maxForkDepth = maxForkDepth;
+        this.profiles = profiles;
+        this.lineage = new ChatLineage(cqlSession, messageTable, profiles);
+        this.versions = new ChatVersions(cqlSession, profiles);
+        this.insertChat = cqlSession.prepare(
+                "INSERT INTO ai_chat_memory (session_id, session_name, created_at) VALUES (?, ?, ?)");
+        this.insertCreatedIndex = cqlSession.prepare(
+                "INSERT INTO chats_by_created (bucket, created_at, session_id, session_name) VALUES ('all', ?, ?, ?)");
+        this.insertMessage = cqlSession.prepare(
+                "INSERT INTO " + messageTable.tableName() + " " +
+                        "(session_id, " + messageTable.clusteringColumn() + ", msg_type, msg_content, msg_content_blob, msg_truncated) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)");
+        this.selectCreatedAt = cqlSession.prepare("SELECT created_at FROM ai_chat_memory WHERE session_id = ?");
+        this.deleteMessages = cqlSession.prepare("DELETE FROM " + messageTable.tableName() + " WHERE session_id = ?");
+        this.deleteChat = cqlSession.prepare("DELETE FROM ai_chat_memory WHERE session_id = ?");
+        this.deleteCreatedIndex = cqlSession.prepare(
+                "DELETE FROM chats_by_created WHERE bucket = 'all' AND created_at = ? AND session_id = ?");
+        this.createMemoryTimer = meterRegistry.timer("chat.repository.create", "step", "ai_chat_memory");
+        this.createIndexTimer = meterRegistry.timer("chat.repository.create", "step", "chats_by_created");
+        this.createTotalTimer = meterRegistry.timer("chat.repository.create", "step", "total");
     }
 
+    /**
+     * Creates a chat by writing {@code ai_chat_memory} and {@code chats_by_created} concurrently.
+     *
+     * <p>The id is a freshly generated time-based UUID that cannot collide, so plain upserts are used
+     * instead of an {@code IF NOT EXISTS} lightweight transaction (four Paxos round-trips).
+     * If either write fails the call throws, as before.</p>
+     *
+     * <p>The creation time is taken from the id, so {@link #deleteById} can rebuild the
+     * {@code chats_by_created} key without reading the chat first.</p>
+     *
+     * <p>Once both rows are written, the chat gets its first version and the chat list a new one
+     * (see {@link ChatVersions}).</p>
+     */
     @Override
     public NoSqlChat save(String chatName) {
+        UUID id = Uuids.timeBased();
         NoSqlChat noSqlChat = new NoSqlChat(
+                id.toString(),
                 chatName,
-                UUID.randomUUID().toString()
+                Instant.ofEpochMilli(Uuids.unixTimestamp(id))
         );
+        UUID createdAtTimeUuid = Uuids.startOf(noSqlChat.getCreatedAt().toEpochMilli());
 
-        boolean executed = cqlTemplate.execute(
-                "INSERT INTO ai_chat_memory (session_id, session_name, created_at) VALUES (?, ?, ?) IF NOT EXISTS",
-                noSqlChat.getId(),
-                noSqlChat.getName(),
-                noSqlChat.getCreatedAt()
-        );
-        if (!executed) {
-            log.error("Insert failed for chatId={} into ai_chat_memory", noSqlChat.getId());
+        long start = System.nanoTime();
+        CompletableFuture<Void> memoryWrite = timed(createMemoryTimer, () -> executeAsync(QueryProfile.DURABLE_WRITE,
+                insertChat.bind(noSqlChat.getId(), noSqlChat.getName(), noSqlChat.getCreatedAt())
+        ));
+        CompletableFuture<Void> indexWrite = timed(createIndexTimer, () -> executeAsync(QueryProfile.DURABLE_WRITE,
+                insertCreatedIndex.bind(createdAtTimeUuid, noSqlChat.getId(), noSqlChat.getName())
+        ));
+
+        try {
+            CompletableFuture.allOf(memoryWrite, indexWrite).join();
+            CompletableFuture.allOf(versions.chatChanged(noSqlChat.getId()), versions.listChanged()).join();
+        } catch (CompletionException e) {
+            log.error("Insert failed for chatId={} into ai_chat_memory/chats_by_created", noSqlChat.getId(), e.getCause());
             throw new IllegalStateException(
-                    "Failed to insert chat with id=" + noSqlChat.getId()
+                    "Failed to insert chat with id=" + noSqlChat.getId(), e.getCause()
             );
+        } finally {
+            createTotalTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
-        UUID createdAtTimeUuid = Uuids.startOf(noSqlChat.getCreatedAt().toEpochMilli());
-        cqlSession.execute(
-                "INSERT INTO chats_by_created (bucket, created_at, session_id, session_name) VALUES ('all', ?, ?, ?)",
-                createdAtTimeUuid,
-                noSqlChat.getId(),
-                noSqlChat.getName()
-        );
-
-        log.info("Successfully inserted chatId={} into ai_chat_memory", noSqlChat.getId());
+        log.info("Successfully inserted chatId={} into ai_chat_memory in {} µs",
+                noSqlChat.getId(), (System.nanoTime() - start) / 1000);
         return noSqlChat;
     }
 
+    private static CompletableFuture<Void> timed(Timer timer, Supplier<CompletionStage<AsyncResultSet>> write) {
+        long start = System.nanoTime();
+        return write.get().toCompletableFuture()
+                .whenComplete((rs, e) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .thenApply(rs -> null);
+    }
+
+    private <S extends Statement<S>> CompletableFuture<AsyncResultSet> executeAsync(QueryProfile profile, S statement) {
+        return profiles.timedAsync(profile, () -> cqlSession.executeAsync(profiles.apply(profile, statement)))
+                .toCompletableFuture();
+    }
+
+    private <T> List<T> query(QueryProfile profile, RowMapper<T> rowMapper, String cql, Object... args) {
+        SimpleStatement statement = profiles.apply(profile, SimpleStatement.newInstance(cql, args));
+        return profiles.timed(profile, () -> cqlTemplate.query(statement, rowMapper));
+    }
+
     @Override
     public List<Message> findByConversationId(String chatId) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
 
-        return cqlTemplate.query(
-                """
-                        SELECT msg_type, msg_content, msg_timestamp
-                        FROM ai_chat_message
-                        WHERE session_id = ?
-                        """,
-                (row, rowNum) -> {
-                    String type = row.getString("msg_type");
-                    String content = row.getString("msg_content");
-                    Instant ts = row.getInstant("msg_timestamp");
-
-                    return switch (type) {
-                        case "user" -> new UserMessage(content);
-                        case "assistant" -> new AssistantMessage(content);
-                        case "system" -> new SystemMessage(content);
-                        default -> throw new UnsupportedOperationException("Message type not supported" + type);
-                    };
-                },
-                chatId
-        );
+        // returned with the chat's version, see ChatVersions
+        return readRows(QueryProfile.CONSISTENT_READ, chatId, null, Integer.MAX_VALUE).stream().map(this::toMessage).toList();
     }
 
+    /**
+     * Reads up to {@code limit} message rows of a chat with {@code profile}, newest first, only those
+     * older than the message key {@code before} when it is set.
+     *
+     * <p>A fork continues into its ancestors as listed by {@link ChatLineage#segments}; each ancestor
+     * is only read if the newer partitions did not fill {@code limit}. Every partition is read below
+     * the oldest key already returned, so messages of an ancestor that were copied into a fork (see
+     * {@link #detachForksAsync}) are not returned twice by a replica with outdated lineage.</p>
+     */
+    private List<Row> readRows(QueryProfile profile, String chatId, Object before, int limit) {
+        String select = "SELECT msg_type, msg_content, msg_content_blob, %s, msg_truncated FROM %s WHERE session_id = ?"
+                .formatted(messageTable.clusteringColumn(), messageTable.tableName());
+        List<Row> rows = new ArrayList<>();
+        Object bound = before;
+        for (ChatLineage.Segment segment : lineage.segments(chatId)) {
+            bound = lineage.min(bound, segment.before());
+            List<Object> args = new ArrayList<>(List.of(segment.chatId()));
+            String cql = select;
+            if (bound != null) {
+                cql += " AND " + messageTable.clusteringColumn() + " < ?";
+                args.add(bound);
+            }
+            if (limit != Integer.MAX_VALUE) {
+                cql += " LIMIT ?";
+                args.add(limit - rows.size());
+            }
+            List<Row> segmentRows = query(profile, (row, rowNum) -> row, cql, args.toArray());
+            rows.addAll(segmentRows);
+            if (rows.size() >= limit) {
+                break;
+            }
+            if (!segmentRows.isEmpty()) {
+                bound = key(segmentRows.getLast());
+            }
+        }
+        return rows;
+    }
+
+    private Object key(Row row) {
+        return messageTable == MessageTable.V2 ? row.getUuid("msg_id") : row.getInstant("msg_timestamp");
+    }
+
+    /**
+     * Maps a message row to a {@link Message}, carrying the {@code msg_timestamp} and
+     * {@code msg_truncated} columns over as metadata. For {@link MessageTable#V2} rows
+     * {@code msg_id} is carried over too and {@code msg_timestamp} is derived from it.
+     */
+    private Message toMessage(Row row) {
+        String type = row.getString("msg_type");
+        String content = content(row);
+
+        Map<String, Object> metadata = new HashMap<>();
+        if (messageTable == MessageTable.V2) {
+            UUID msgId = row.getUuid("msg_id");
+            metadata.put("msg_id", msgId);
+            metadata.put("msg_timestamp", Instant.ofEpochMilli(Uuids.unixTimestamp(msgId)));
+        } else {
+            metadata.put("msg_timestamp", row.getInstant("msg_timestamp"));
+        }
+        metadata.put("msg_truncated", row.getBoolean("msg_truncated"));
+
+        return switch (type) {
+            case "user" -> UserMessage.builder().text(content).metadata(metadata).build();
+            case "assistant" -> new AssistantMessage(content, metadata);
+            case "system" -> SystemMessage.builder().text(content).metadata(metadata).build();
+            default -> throw new UnsupportedOperationException("Message type not supported" + type);
+        };
+    }
+
+    /**
+     * Reads message content from either {@code msg_content} or, for compressed rows, {@code msg_content_blob}.
+     */
+    private String content(Row row) {
+        return contentCodec.decode(row.getString("msg_content"), row.getByteBuffer("msg_content_blob"));
+    }
+
+    /**
+     * Read with {@link QueryProfile#CONSISTENT_READ}: this is the memory window, read right after the
+     * prompt was written in the same request, and must include it.
+     */
     @Override
     public List<Message> findLastNByConversationId(String chatId, int limit) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
 
-        return cqlTemplate.query(
-                """
-                        SELECT msg_type, msg_content, msg_timestamp
-                        FROM ai_chat_message
-                        WHERE session_id = ?
-                        LIMIT ?
-                        """,
-                (row, rowNum) -> {
-                    String type = row.getString("msg_type");
-                    String content = row.getString("msg_content");
-                    Instant ts = row.getInstant("msg_timestamp");
-
-                    return switch (type) {
-                        case "user" -> new UserMessage(content);
-                        case "assistant" -> new AssistantMessage(content);
-                        case "system" -> new SystemMessage(content);
-                        default -> throw new UnsupportedOperationException("Message type not supported" + type);
-                    };
-                },
-                chatId,
-                limit
-        );
+        return readRows(QueryProfile.CONSISTENT_READ, chatId, null, limit).stream().map(this::toMessage).toList();
+    }
+
+    /**
+     * Forks a chat: the new chat shares the history of {@code chatId} except its {@code drop} newest
+     * messages, which is how an earlier prompt is edited. The shared messages are not copied; the
+     * fork records its parent and fork point (see {@link ChatLineage}) and only its own messages are
+     * written to its partition, so a fork costs the same writes as {@link #save} plus one batch.
+     *
+     * <p>Forking a chat that already has {@code maxForkDepth} ancestors copies the inherited history
+     * into the new chat instead, so no history read ever visits more than {@code maxForkDepth + 1}
+     * partitions.</p>
+     *
+     * @param drop number of newest messages not carried over, 0 to fork the whole history
+     * @param name name of the fork, {@code null} to keep the parent's
+     * @return the fork, empty if {@code chatId} does not exist
+     * @throws IllegalArgumentException if the chat has fewer than {@code drop} messages
+     */
+    @Override
+    public Optional<NoSqlChat> fork(String chatId, int drop, String name) {
+        Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
+        Assert.isTrue(drop >= 0, "drop cannot be negative");
+
+        List<String> parentName = query(QueryProfile.WINDOW_READ, (row, rowNum) -> row.getString("session_name"),
+                "SELECT session_name FROM ai_chat_memory WHERE session_id = ?", chatId);
+        if (parentName.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object forkPoint;
+        if (drop == 0) {
+            forkPoint = lineage.now();
+        } else {
+            List<Row> dropped = readRows(QueryProfile.WINDOW_READ, chatId, null, drop);
+            Assert.isTrue(dropped.size() == drop,
+                    () -> "chatId=" + chatId + " has " + dropped.size() + " messages, cannot drop " + drop);
+            forkPoint = key(dropped.getLast());
+        }
+        int depth = lineage.forkOf(chatId).map(ChatLineage.Fork::depth).orElse(0) + 1;
+
+        NoSqlChat fork = save(name == null ? parentName.getFirst() : name);
+        if (depth > maxForkDepth) {
+            int copied = copyHistory(chatId, forkPoint, fork.getId());
+            log.info("Forked chatId={} into chatId={} by copying {} messages (depth {} over {})",
+                    chatId, fork.getId(), copied, depth, maxForkDepth);
+        } else {
+            lineage.record(fork.getId(), new ChatLineage.Fork(chatId, forkPoint, depth));
+            log.info("Forked chatId={} into chatId={} at depth {}", chatId, fork.getId(), depth);
+        }
+        return Optional.of(fork);
+    }
+
+    // copies the history of sourceId older than before into targetId, keeping the message keys
+    private int copyHistory(String sourceId, Object before, String targetId) {
+        List<Message> messages = readRows(QueryProfile.WINDOW_READ, sourceId, before, Integer.MAX_VALUE).stream()
+                .map(this::toMessage)
+                .toList();
+        List<CompletableFuture<AsyncResultSet>> writes = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += COPY_BATCH_SIZE) {
+            List<Message> chunk = messages.subList(from, Math.min(from + COPY_BATCH_SIZE, messages.size()));
+            writes.add(executeAsync(QueryProfile.DURABLE_WRITE, messageBatch(targetId, chunk)));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        // the content of a detached fork is unchanged, but a fork that was just created is not
+        join(versions.chatChanged(targetId));
+        return messages.size();
+    }
+
+    /**
+     * Turns the forks of {@code chatId} into plain chats by copying what they inherit into their own
+     * partitions, before the messages of {@code chatId} are deleted.
+     *
+     * <p>The lineage lookups do not block; only a chat that has forks pays for the copy, which reads
+     * whole histories and so runs on {@link #COPY_EXECUTOR} rather than a driver thread.</p>
+     */
+    private CompletableFuture<Void> detachForksAsync(String chatId) {
+        return lineage.childrenAsync(chatId).thenCompose(children -> CompletableFuture.allOf(children.stream()
+                .map(child -> lineage.forkOfAsync(child)
+                        .thenCompose(fork -> fork.isEmpty()
+                                ? CompletableFuture.<Void>completedFuture(null)
+                                : CompletableFuture.runAsync(() -> copyHistory(chatId, fork.get().forkPoint(), child), COPY_EXECUTOR))
+                        .thenCompose(copied -> lineage.detachAsync(child, chatId)))
+                .toArray(CompletableFuture[]::new)));
+    }
+
+    // the chat stops inheriting from its parent, if it is a fork
+    private CompletableFuture<Void> detachFromParentAsync(String chatId) {
+        return lineage.forkOfAsync(chatId).thenCompose(fork -> fork
+                .map(f -> lineage.detachAsync(chatId, f.parentId()))
+                .orElseGet(() -> CompletableFuture.completedFuture(null)));
     }
 
+    /**
+     * Deletes the chat, its messages and its {@code chats_by_created} row with concurrent statements.
+     *
+     * <p>For time-based ids the {@code chats_by_created} key is derived from the id itself, so no
+     * read is needed. Chats created before ids were time-based fall back to reading
+     * {@code created_at}. Deleting a chat that no longer exists is a no-op.</p>
+     *
+     * <p>Forks of the chat first get a copy of the messages they share with it, so they keep their
+     * history.</p>
+     *
+     * <p>The chat's {@code chats_by_last_activity} listing is removed by {@link ChatActivityIndex}
+     * once the conversation is reported cleared, so no read of its position is done here.</p>
+     */
     @Override
     public void deleteById(String chatId) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
 
-        this.deleteByConversationId(chatId);
+        deleteAsync(chatId).join();
+    }
 
-        Instant createdAt = cqlTemplate.queryForObject(
-                "SELECT created_at FROM ai_chat_memory WHERE session_id = ?",
-                (row, n) -> row.getInstant("created_at"),
-                chatId
-        );
-        UUID createdAtTimeUuid = Uuids.startOf(createdAt.toEpochMilli());
-        cqlSession.execute(
-                "DELETE FROM chats_by_created WHERE bucket = 'all' AND created_at = ? AND session_id = ?",
-                createdAtTimeUuid, chatId
-        );
-        cqlTemplate.execute("DELETE FROM ai_chat_memory WHERE session_id = ?", chatId);
+    /**
+     * Deletes many chats, keeping at most {@code parallelism} deletions in flight. Meant for clean-up jobs.
+     *
+     * @return number of chats deleted
+     */
+    @Override
+    public long deleteAllById(List<String> chatIds, int parallelism) {
+        Assert.notNull(chatIds, "chatIds cannot be null");
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+        chatIds.forEach(chatId -> Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY));
+
+        long start = System.nanoTime();
+        Long deleted = Flux.fromIterable(chatIds)
+                .flatMap(chatId -> Mono.fromFuture(() -> deleteAsync(chatId)).thenReturn(chatId), parallelism)
+                .count()
+                .block();
+
+        log.info("Deleted {} chats in {} ms", deleted, (System.nanoTime() - start) / 1_000_000);
+        return deleted == null ? 0 : deleted;
+    }
+
+    private CompletableFuture<Void> deleteAsync(String chatId) {
+        return detachForksAsync(chatId)
+                .thenCompose(detached -> detachFromParentAsync(chatId))
+                .thenCompose(detached -> createdAtTimeUuid(chatId))
+                .thenCompose(createdAtTimeUuid -> {
+                    CompletableFuture<AsyncResultSet> messages = executeAsync(QueryProfile.DURABLE_WRITE, deleteMessages.bind(chatId));
+                    CompletableFuture<AsyncResultSet> memory = executeAsync(QueryProfile.DURABLE_WRITE, deleteChat.bind(chatId));
+                    CompletableFuture<AsyncResultSet> index = createdAtTimeUuid == null
+                            ? CompletableFuture.completedFuture(null)
+                            : executeAsync(QueryProfile.DURABLE_WRITE, deleteCreatedIndex.bind(createdAtTimeUuid, chatId));
+
+                    return CompletableFuture.allOf(messages, memory, index);
+                })
+                .thenCompose(deleted -> CompletableFuture.allOf(versions.chatDeleted(chatId), versions.listChanged()));
+    }
+
+    /**
+     * Resolves the {@code chats_by_created} clustering key of a chat: from the id when it is a
+     * time-based UUID, otherwise by reading {@code created_at}. Completes with {@code null} if
+     * the chat does not exist.
+     */
+    private CompletableFuture<UUID> createdAtTimeUuid(String chatId) {
+        UUID timeBasedId = parseTimeBasedId(chatId);
+        if (timeBasedId != null) {
+            return CompletableFuture.completedFuture(Uuids.startOf(Uuids.unixTimestamp(timeBasedId)));
+        }
+        return executeAsync(QueryProfile.WINDOW_READ, selectCreatedAt.bind(chatId))
+                .thenApply(rs -> {
+                    Row row = rs.one();
+                    Instant createdAt = row == null ? null : row.getInstant("created_at");
+                    return createdAt == null ? null : Uuids.startOf(createdAt.toEpochMilli());
+                });
     }
 
+    private static UUID parseTimeBasedId(String chatId) {
+        try {
+            UUID uuid = UUID.fromString(chatId);
+            return uuid.version() == 1 ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Clears the messages of a chat. Its forks first get a copy of what they share with it, and a
+     * fork itself stops inheriting from its parent, so the cleared history is empty.
+     */
     @Override
     public void deleteByConversationId(String chatId) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
 
-        cqlTemplate.execute(
-                "DELETE FROM ai_chat_message WHERE session_id = ?",
-                chatId
-        );
+        join(detachForksAsync(chatId).thenCompose(detached -> detachFromParentAsync(chatId)));
+
+        SimpleStatement delete = profiles.apply(QueryProfile.DURABLE_WRITE,
+                SimpleStatement.newInstance("DELETE FROM " + messageTable.tableName() + " WHERE session_id = ?", chatId));
+        profiles.timed(QueryProfile.DURABLE_WRITE, () -> cqlTemplate.execute(delete));
+        join(versions.chatChanged(chatId));
     }
 
+    /**
+     * Writes the messages with one unlogged single-partition batch.
+     *
+     * <p>With {@link MessageTable#V2} each message is keyed by its {@code msg_id} metadata when present,
+     * otherwise by an id generated from {@code msg_timestamp} that is unique within the conversation.
+     * The chat gets a new version after the batch is written.</p>
+     */
     @Override
     public void saveAll(String chatId, List<Message> messages) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
         Assert.notEmpty(messages, "messages cannot be null or empty");
 
-        var ps = cqlSession.prepare(
-                "INSERT INTO ai_chat_message " +
-                        "(session_id, msg_timestamp, msg_type, msg_content) " +
-                        "VALUES (?, ?, ?, ?)"
-        );
+        BatchStatement batch = profiles.apply(QueryProfile.DURABLE_WRITE, messageBatch(chatId, messages));
+        profiles.timed(QueryProfile.DURABLE_WRITE, () -> cqlSession.execute(batch));
+        join(versions.chatChanged(chatId));
+    }
 
+    // waits for an asynchronous write and rethrows its failure unwrapped, like a synchronous execute
+    private static void join(CompletableFuture<?> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // a single-partition unlogged batch: one mutation on one replica set, no batch log
+    private BatchStatement messageBatch(String chatId, List<Message> messages) {
+        return messageBatch(chatId, messages, messages.stream().map(m -> clusteringKey(chatId, m)).toList());
+    }
+
+    private BatchStatement messageBatch(String chatId, List<Message> messages, List<?> keys) {
         var batch = BatchStatement.builder(DefaultBatchType.UNLOGGED); // Ignore batch log
 
-        for (Message m : messages) {
-            batch.addStatement(ps.bind(
+        for (int i = 0; i < messages.size(); i++) {
+            Message m = messages.get(i);
+            ByteBuffer blob = contentCodec.encode(m.getText());
+            BoundStatement bound = insertMessage.bind(
                     chatId,
-                    m.getMetadata().get("msg_timestamp"),
+                    keys.get(i),
                     m.getMessageType().getValue(),
-                    m.getText()
-            ));
+                    blob == null ? m.getText() : null,
+                    blob,
+                    Boolean.TRUE.equals(m.getMetadata().get("msg_truncated"))
+            );
+            // leave the unused content column unset rather than null, so no tombstone is written
+            batch.addStatement(blob == null ? bound.unset(4) : bound.unset(3));
+        }
+        return batch.build();
+    }
+
+    /**
+     * Writes a chat with a known id and creation time together with its messages, for bulk imports.
+     *
+     * <p>The chat row, its {@code chats_by_created} row and the messages, grouped into single-partition
+     * unlogged batches of at most {@code maxBatchSize}, are all written concurrently. Every write is an
+     * upsert on keys taken from the input, so importing the same chat again overwrites it in place.</p>
+     *
+     * <p>On {@link MessageTable#V1}, where messages are keyed by their millisecond timestamp, each
+     * message is keyed at least one millisecond after the one before it, so messages without a timestamp
+     * of their own or sharing one do not overwrite each other. The keys depend on the input alone, which
+     * keeps a replay in place.</p>
+     */
+    @Override
+    public CompletableFuture<Void> importChat(NoSqlChat chat, List<Message> messages, int maxBatchSize) {
+        Assert.notNull(chat, "chat cannot be null");
+        Assert.hasText(chat.getId(), ID_CANNOT_BE_NULL_OR_EMPTY);
+        Assert.notNull(chat.getCreatedAt(), "createdAt cannot be null");
+        Assert.notNull(messages, "messages cannot be null");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+
+        List<CompletableFuture<AsyncResultSet>> writes = new ArrayList<>();
+        writes.add(executeAsync(QueryProfile.DURABLE_WRITE,
+                insertChat.bind(chat.getId(), chat.getName(), chat.getCreatedAt())
+        ));
+        writes.add(executeAsync(QueryProfile.DURABLE_WRITE,
+                insertCreatedIndex.bind(Uuids.startOf(chat.getCreatedAt().toEpochMilli()), chat.getId(), chat.getName())
+        ));
+        List<?> keys = messageTable == MessageTable.V1
+                ? increasingTimestamps(messages)
+                : messages.stream().map(m -> clusteringKey(chat.getId(), m)).toList();
+        for (int from = 0; from < messages.size(); from += maxBatchSize) {
+            int to = Math.min(from + maxBatchSize, messages.size());
+            writes.add(executeAsync(QueryProfile.DURABLE_WRITE,
+                    messageBatch(chat.getId(), messages.subList(from, to), keys.subList(from, to))));
+        }
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+                .thenCompose(written -> CompletableFuture.allOf(versions.chatChanged(chat.getId()), versions.listChanged()));
+    }
+
+    private static List<Instant> increasingTimestamps(List<Message> messages) {
+        List<Instant> keys = new ArrayList<>(messages.size());
+        Instant last = null;
+        for (Message m : messages) {
+            Assert.isInstanceOf(Instant.class, m.getMetadata().get("msg_timestamp"), "msg_timestamp must be an Instant");
+            Instant at = ((Instant) m.getMetadata().get("msg_timestamp")).truncatedTo(ChronoUnit.MILLIS);
+            if (last != null && !at.isAfter(last)) {
+                at = last.plusMillis(1);
+            }
+            keys.add(at);
+            last = at;
         }
-        cqlSession.execute(batch.build());
+        return keys;
+    }
+
+    /**
+     * On {@link MessageTable#V2} the {@code msg_id} comes from the same generator as every other
+     * message of the chat, so it stays unique and sorts after the messages saved before.
+     */
+    @Override
+    public Map<String, Object> reserveMessageKey(String chatId, Instant at) {
+        Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
+        Assert.notNull(at, "at cannot be null");
+        if (messageTable == MessageTable.V1) {
+            return Map.of("msg_timestamp", at);
+        }
+        return Map.of("msg_timestamp", at, "msg_id", messageIdGenerator.next(chatId, at));
+    }
+
+    private Object clusteringKey(String chatId, Message message) {
+        Object timestamp = message.getMetadata().get("msg_timestamp");
+        if (messageTable == MessageTable.V1) {
+            return timestamp;
+        }
+        if (message.getMetadata().get("msg_id") instanceof UUID msgId) {
+            return msgId;
+        }
+        return messageIdGenerator.next(chatId, timestamp instanceof Instant instant ? instant : Instant.now());
     }
 
     @Override
     public List<NoSqlChat> findAll() {
-        return cqlTemplate.query(
-                "SELECT session_id, session_name, created_at " +
-                        "FROM chats_by_created WHERE bucket = 'all'",
+        // returned with the list's version, see ChatVersions
+        return query(QueryProfile.CONSISTENT_READ,
                 (row, rowNum) -> new NoSqlChat(
                         row.getString("session_id"),
                         row.getString("session_name"),
@@ -190,18 +614,86 @@ public class CassandraChatMemoryRepository implements ChatRepository<NoSqlChat>
                         Instant.ofEpochMilli(
                                 Uuids.unixTimestamp(row.getUuid("created_at"))
                         )
-                )
+                ),
+                "SELECT session_id, session_name, created_at " +
+                        "FROM chats_by_created WHERE bucket = 'all'"
         );
     }
 
+    @Override
+    public Optional<ChatVersion> findVersion(String chatId) {
+        Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
+
+        return versions.findChat(chatId);
+    }
+
+    @Override
+    public Optional<ChatVersion> findListVersion() {
+        return versions.findList();
+    }
+
     @Override
     public List<String> findConversationIds() {
-        return cqlTemplate.query(
-                "SELECT session_id FROM ai_chat_memory",
-                (row, rowNum) -> row.getString("session_id")
+        return scanConversationIds().collectList().block();
+    }
+
+    /**
+     * Reads chats by latest message from {@code chats_by_last_activity}, maintained by
+     * {@link ChatActivityIndex}; one partition read, no per-chat queries.
+     */
+    @Override
+    public List<ChatActivity> findAllByActivity(int limit) {
+        Assert.isTrue(limit > 0, "limit must be greater than 0");
+
+        return query(QueryProfile.WINDOW_READ,
+                (row, rowNum) -> new ChatActivity(
+                        row.getString("session_id"),
+                        row.getString("session_name"),
+                        row.getInstant("created_at"),
+                        row.getInstant("last_activity"),
+                        row.getLong("message_count"),
+                        row.getString("last_message_role"),
+                        row.getString("last_message_preview")
+                ),
+                """
+                        SELECT session_id, session_name, created_at, last_activity, message_count,
+                               last_message_role, last_message_preview
+                        FROM chats_by_last_activity
+                        WHERE bucket = 'all'
+                        LIMIT ?
+                        """,
+                limit
+        );
+    }
+
+    @Override
+    public List<String> findRecentConversationIds(int limit) {
+        Assert.isTrue(limit > 0, "limit must be greater than 0");
+
+        return query(QueryProfile.WINDOW_READ,
+                (row, rowNum) -> row.getString("session_id"),
+                "SELECT session_id FROM chats_by_created WHERE bucket = 'all' LIMIT ?",
+                limit
         );
     }
 
+    /**
+     * Streams every conversation id with a parallel token-range scan of {@code ai_chat_memory}.
+     */
+    @Override
+    public Flux<String> scanConversationIds() {
+        return scanner.scan("ai_chat_memory", "session_id", "session_id", row -> row.getString("session_id"));
+    }
+
+    /**
+     * Streams every chat with a parallel token-range scan of {@code ai_chat_memory}.
+     */
+    @Override
+    public Flux<NoSqlChat> scanChats() {
+        return scanner.scan("ai_chat_memory", "session_id", "session_id, session_name, created_at",
+                row -> new NoSqlChat(row.getString("session_id"), row.getString("session_name"), row.getInstant("created_at")));
+    }
+
     @Override
     public ChatPage findByConversationId(String chatId, PageMeta pageMeta) {
         Assert.hasText(chatId, ID_CANNOT_BE_NULL_OR_EMPTY);
@@ -209,7 +701,41 @@ public class CassandraChatMemoryRepository implements ChatRepository<NoSqlChat>
         if (!(pageMeta instanceof CursorMeta cursor)) {
             throw new IllegalArgumentException("Expected CursorMeta but got " + pageMeta.getClass().getSimpleName());
         }
-        return findMessagesByChatId(chatId, cursor.pageSize(), cursor.nextCursor());
+        // a driver paging state cannot continue into a parent, so forks page by message key on v1 too
+        return messageTable == MessageTable.V2 || lineage.forkOf(chatId).isPresent()
+                ? findMessagesBeforeKey(chatId, cursor.pageSize(), cursor.nextCursor())
+                : findMessagesByChatId(chatId, cursor.pageSize(), cursor.nextCursor());
+    }
+
+    /**
+     * Gets one page of messages by message key, newest first: from {@link MessageTable#V2}, or from a
+     * fork on either table.
+     *
+     * <p>The cursor is the key of the last message already returned ({@code msg_id}, or
+     * {@code msg_timestamp} on {@link MessageTable#V1}), so the next page is a plain key slice of the
+     * partition, continued into the parent for a fork. Unlike a driver paging state it stays valid
+     * across driver versions and is unaffected by messages written in the meantime.</p>
+     */
+    private ChatPage findMessagesBeforeKey(String chatId, int pageSize, String cursor) {
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than 0");
+        Object before = null;
+        if (cursor != null && !cursor.isBlank()) {
+            before = messageTable == MessageTable.V2 ? UUID.fromString(cursor) : Instant.parse(cursor);
+        }
+
+        // one row more than requested tells whether another page exists; the head page is returned with the chat's version
+        QueryProfile profile = before == null ? QueryProfile.CONSISTENT_READ : QueryProfile.WINDOW_READ;
+        List<Row> rows = readRows(profile, chatId, before, pageSize + 1);
+
+        int size = Math.min(rows.size(), pageSize);
+        List<ChatMessageDto> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Row r = rows.get(i);
+            items.add(new ChatMessageDto(r.getString("msg_type"), content(r)));
+        }
+        String next = rows.size() > pageSize ? key(rows.get(size - 1)).toString() : null;
+
+        return new ChatPage(items, new CursorMeta(next, pageSize));
     }
 
     /**
@@ -226,23 +752,27 @@ public class CassandraChatMemoryRepository implements ChatRepository<NoSqlChat>
     private ChatPage findMessagesByChatId(String chatId, int pageSize, String pagingState) {
         return cqlTemplate.execute((SessionCallback<ChatPage>) session -> {
             SimpleStatementBuilder builder = SimpleStatement.builder(
-                            "SELECT msg_type, msg_content " +
-                                    "FROM ai_chat_message " +
+                            "SELECT msg_type, msg_content, msg_content_blob " +
+                                    "FROM " + messageTable.tableName() + " " +
                                     "WHERE session_id = ?")
                     .addPositionalValue(chatId)
                     .setPageSize(pageSize);
 
+            // the head page is returned with the chat's version
+            QueryProfile profile = QueryProfile.CONSISTENT_READ;
             if (pagingState != null && !pagingState.isBlank()) {
                 builder.setPagingState(ByteBuffer.wrap(Base64.getDecoder().decode(pagingState)));
+                profile = QueryProfile.WINDOW_READ;
             }
 
-            ResultSet rs = session.execute(builder.build());
+            SimpleStatement statement = profiles.apply(profile, builder.build());
+            ResultSet rs = profiles.timed(profile, () -> session.execute(statement));
 
             int available = rs.getAvailableWithoutFetching();
             List<ChatMessageDto> items = new ArrayList<>(available);
             for (int i = 0; i < available; i++) {
                 Row r = rs.one();
-                items.add(new ChatMessageDto(r.getString("msg_type"), r.getString("msg_content")));
+                items.add(new ChatMessageDto(r.getString("msg_type"), content(r)));
             }
 
             // next paging state as Base64
@@ -0,0 +1,268 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code chats_by_last_activity} ordered by each chat's latest message, with its message count
+ * and a preview of that message, so the chat list is a single partition read.
+ *
+ * <p>As a {@link ChatMemoryListener} it only records stored messages in a pending entry per chat;
+ * further messages of the same chat are merged into that entry. An entry is written once a turn is
+ * complete, when an assistant message arrives, or after {@code maxDelay} for turns that never get a
+ * response. A streamed turn therefore costs one index update instead of one per stored message.</p>
+ *
+ * <p>An update reads the chat's current position from {@code chat_last_activity}, then moves the
+ * listing row (delete the old one, insert the new one) and records the new position in one logged
+ * batch, so the two tables cannot diverge. The position, like everything an update reads, is read as a
+ * {@link QueryProfile#CONSISTENT_READ}: a stale position would leave the old listing row behind. The
+ * first update of a chat counts its messages once;
+ * later updates add to the recorded count. Updates of one chat never overlap, but two replicas
+ * updating the same chat at once can lose a count increment. Chats whose {@code ai_chat_memory} row
+ * is gone (deleted meanwhile) are skipped.</p>
+ *
+ * <p>When a conversation is cleared, its listing row and position are removed the same way on the
+ * flusher, after an update of the chat still being written, so deleting a chat does not wait for
+ * reading its position.</p>
+ */
+public class ChatActivityIndex implements ChatMemoryListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatActivityIndex.class);
+
+    private record Pending(int messages, Message last, long firstNanos) {
+
+        Pending plus(Pending later) {
+            return new Pending(messages + later.messages, later.last, firstNanos);
+        }
+    }
+
+    private record ChatInfo(String name, Instant createdAt, long messageCount) {
+    }
+
+    private final CqlSession cqlSession;
+    private final QueryProfiles profiles;
+    private final long maxDelayNanos;
+    private final int previewLength;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final Counter updates;
+    private final Counter coalesced;
+    private final Counter failures;
+
+    private final PreparedStatement selectPosition;
+    private final PreparedStatement selectChat;
+    private final PreparedStatement countMessages;
+    private final PreparedStatement deleteListing;
+    private final PreparedStatement insertListing;
+    private final PreparedStatement upsertPosition;
+    private final PreparedStatement deletePosition;
+    private final long tickMillis;
+
+    public ChatActivityIndex(CqlSession cqlSession, MessageTable messageTable, Duration maxDelay, int previewLength,
+                             QueryProfiles profiles, MeterRegistry meterRegistry) {
+        Assert.notNull(cqlSession, "cqlSession cannot be null");
+        Assert.notNull(messageTable, "messageTable cannot be null");
+        Assert.isTrue(maxDelay != null && maxDelay.isPositive(), "maxDelay must be positive");
+        Assert.isTrue(previewLength > 0, "previewLength must be greater than 0");
+        this.cqlSession = cqlSession;
+        this.profiles = profiles;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.previewLength = previewLength;
+        this.updates = meterRegistry.counter("chat.activity.index.updates");
+        this.coalesced = meterRegistry.counter("chat.activity.index.coalesced");
+        this.failures = meterRegistry.counter("chat.activity.index.failures");
+        meterRegistry.gaugeMapSize("chat.activity.index.pending", List.of(), pending);
+
+        this.selectPosition = cqlSession.prepare(
+                "SELECT last_activity, session_name, created_at, message_count FROM chat_last_activity WHERE session_id = ?");
+        this.selectChat = cqlSession.prepare("SELECT session_name, created_at FROM ai_chat_memory WHERE session_id = ?");
+        this.countMessages = cqlSession.prepare("SELECT COUNT(*) FROM " + messageTable.tableName() + " WHERE session_id = ?");
+        this.deleteListing = cqlSession.prepare(
+                "DELETE FROM chats_by_last_activity WHERE bucket = 'all' AND last_activity = ? AND session_id = ?");
+        this.insertListing = cqlSession.prepare("""
+                INSERT INTO chats_by_last_activity
+                    (bucket, last_activity, session_id, session_name, created_at, message_count, last_message_role, last_message_preview)
+                VALUES ('all', ?, ?, ?, ?, ?, ?, ?)""");
+        this.upsertPosition = cqlSession.prepare(
+                "INSERT INTO chat_last_activity (session_id, last_activity, session_name, created_at, message_count) VALUES (?, ?, ?, ?, ?)");
+        this.deletePosition = cqlSession.prepare("DELETE FROM chat_last_activity WHERE session_id = ?");
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("chat-activity-index").factory());
+        this.tickMillis = Math.max(1, maxDelay.toMillis() / 4);
+        flusher.scheduleWithFixedDelay(this::flushOverdue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onMessagesAdded(String conversationId, List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Pending added = new Pending(messages.size(), messages.getLast(), System.nanoTime());
+        if (pending.merge(conversationId, added, Pending::plus) != added) {
+            coalesced.increment();
+        }
+        if (added.last().getMessageType() == MessageType.ASSISTANT) {
+            flusher.execute(() -> flush(conversationId));
+        }
+    }
+
+    @Override
+    public void onConversationCleared(String conversationId) {
+        pending.remove(conversationId);
+        flusher.execute(() -> remove(conversationId));
+    }
+
+    private void remove(String conversationId) {
+        if (!inFlight.add(conversationId)) {
+            // an update of this chat is being written; remove after it
+            flusher.schedule(() -> remove(conversationId), tickMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        execute(QueryProfile.CONSISTENT_READ, selectPosition.bind(conversationId)).thenCompose(rs -> {
+            Row position = rs.one();
+            BatchStatementBuilder batch = BatchStatement.builder(DefaultBatchType.LOGGED);
+            if (position != null && position.getInstant("last_activity") != null) {
+                batch.addStatement(deleteListing.bind(position.getInstant("last_activity"), conversationId));
+            }
+            batch.addStatement(deletePosition.bind(conversationId));
+            return execute(QueryProfile.DURABLE_WRITE, batch.build());
+        }).whenComplete((ignored, e) -> {
+            inFlight.remove(conversationId);
+            if (e != null) {
+                failures.increment();
+                log.warn("Cannot remove chatId={} from the activity index", conversationId, e);
+            }
+        });
+    }
+
+    private void flushOverdue() {
+        long now = System.nanoTime();
+        pending.forEach((conversationId, entry) -> {
+            if (now - entry.firstNanos() >= maxDelayNanos) {
+                flush(conversationId);
+            }
+        });
+    }
+
+    private void flush(String conversationId) {
+        if (!inFlight.add(conversationId)) {
+            // picked up again when the running update completes
+            return;
+        }
+        Pending entry = pending.remove(conversationId);
+        if (entry == null) {
+            inFlight.remove(conversationId);
+            return;
+        }
+        update(conversationId, entry).whenComplete((ignored, e) -> {
+            inFlight.remove(conversationId);
+            if (e != null) {
+                failures.increment();
+                log.warn("Cannot update the activity index for chatId={}", conversationId, e);
+            } else {
+                updates.increment();
+            }
+            Pending next = pending.get(conversationId);
+            if (next != null && next.last().getMessageType() == MessageType.ASSISTANT) {
+                flusher.execute(() -> flush(conversationId));
+            }
+        });
+    }
+
+    private CompletionStage<Void> update(String conversationId, Pending entry) {
+        return execute(QueryProfile.CONSISTENT_READ, selectPosition.bind(conversationId)).thenCompose(rs -> {
+            Row position = rs.one();
+            if (position != null) {
+                return write(conversationId, entry, position.getInstant("last_activity"), position.getString("session_name"),
+                        position.getInstant("created_at"), position.getLong("message_count") + entry.messages());
+            }
+            // first update of this chat: take name and creation time from the chat, and count what is stored
+            CompletableFuture<AsyncResultSet> chat = execute(QueryProfile.CONSISTENT_READ, selectChat.bind(conversationId));
+            CompletableFuture<AsyncResultSet> count = execute(QueryProfile.CONSISTENT_READ, countMessages.bind(conversationId));
+            return chat.thenCombine(count, (chatRs, countRs) -> {
+                Row chatRow = chatRs.one();
+                Row countRow = countRs.one();
+                return chatRow == null ? null : new ChatInfo(chatRow.getString("session_name"), chatRow.getInstant("created_at"),
+                        countRow == null ? entry.messages() : countRow.getLong(0));
+            }).thenCompose(info -> info == null
+                    ? CompletableFuture.completedFuture(null)
+                    : write(conversationId, entry, null, info.name(), info.createdAt(), info.messageCount()));
+        });
+    }
+
+    private CompletionStage<Void> write(String conversationId, Pending entry, Instant previousActivity,
+                                        String name, Instant createdAt, long messageCount) {
+        Instant activity = entry.last().getMetadata().get("msg_timestamp") instanceof Instant timestamp ? timestamp : Instant.now();
+        if (previousActivity != null && previousActivity.isAfter(activity)) {
+            activity = previousActivity;
+        }
+        BatchStatementBuilder batch = BatchStatement.builder(DefaultBatchType.LOGGED);
+        if (previousActivity != null && !previousActivity.equals(activity)) {
+            batch.addStatement(deleteListing.bind(previousActivity, conversationId));
+        }
+        batch.addStatement(insertListing.bind(activity, conversationId, name, createdAt, messageCount,
+                entry.last().getMessageType().getValue(), preview(entry.last().getText())));
+        batch.addStatement(upsertPosition.bind(conversationId, activity, name, createdAt, messageCount));
+        return execute(QueryProfile.DURABLE_WRITE, batch.build()).thenApply(rs -> null);
+    }
+
+    private String preview(String text) {
+        if (text == null) {
+            return null;
+        }
+        String collapsed = text.strip().replaceAll("\\s+", " ");
+        return collapsed.length() <= previewLength ? collapsed : collapsed.substring(0, previewLength).stripTrailing() + "…";
+    }
+
+    private <S extends Statement<S>> CompletableFuture<AsyncResultSet> execute(QueryProfile profile, S statement) {
+        return profiles.timedAsync(profile, () -> cqlSession.executeAsync(profiles.apply(profile, statement))).toCompletableFuture();
+    }
+
+    /**
+     * Stops the flusher and writes the remaining pending entries.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            for (String conversationId : List.copyOf(pending.keySet())) {
+                Pending entry = pending.remove(conversationId);
+                if (entry != null) {
+                    update(conversationId, entry).toCompletableFuture().get(5, TimeUnit.SECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cannot write pending activity index updates on shutdown; {} chats not updated", pending.size(), e);
+        }
+    }
+}
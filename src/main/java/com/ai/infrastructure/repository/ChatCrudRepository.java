@@ -1,8 +1,12 @@
 package com.ai.infrastructure.repository;
 
+import com.ai.domain.model.ChatVersion;
 import org.springframework.ai.chat.messages.Message;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ChatCrudRepository<T> extends ListChatCrudRepository<T>, PagingRepository {
 
@@ -15,4 +19,32 @@ public interface ChatCrudRepository<T> extends ListChatCrudRepository<T>, Paging
     List<Message> findByConversationId(String id);
 
     List<Message> findLastNByConversationId(String id, int limit);
+
+    /**
+     * Creates a chat that continues the history of chat {@code id} without its {@code drop} newest
+     * messages; the parent is left unchanged.
+     *
+     * @param name name of the new chat, {@code null} to keep the parent's
+     * @return the new chat, empty if chat {@code id} does not exist
+     */
+    Optional<T> fork(String id, int drop, String name);
+
+    /**
+     * Key metadata ({@code msg_timestamp}, plus {@code msg_id} where the message table is keyed by it)
+     * for a message that is saved more than once, such as an answer checkpointed while it streams:
+     * every save of a message carrying this metadata upserts the same row.
+     *
+     * @param at time of the message; sorts it among the chat's messages
+     */
+    Map<String, Object> reserveMessageKey(String id, Instant at);
+
+    /**
+     * Current version of the chat's history, empty for chats written before versions were kept.
+     */
+    Optional<ChatVersion> findVersion(String id);
+
+    /**
+     * Current version of the chat list, empty until a chat is created or deleted.
+     */
+    Optional<ChatVersion> findListVersion();
 }
@@ -0,0 +1,242 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fork lineage of chats: {@code chat_lineage} holds the parent and fork point of each fork,
+ * {@code chat_children} the forks of each chat.
+ *
+ * <p>A fork shares its parent's messages instead of copying them. Its history is its own partition
+ * followed by the parent's messages older than the fork point, which in turn continue in the
+ * grandparent, and so on; {@link #segments} lists the partitions to read and the bound of each.
+ * Fork points are message keys of the table in use: {@code msg_timestamp} for {@link MessageTable#V1},
+ * {@code msg_id} for {@link MessageTable#V2}. They are stored as a {@code timeuuid}, so a
+ * {@code msg_timestamp} keeps its millisecond.</p>
+ *
+ * <p>Lineage never changes after a fork is created, except that {@link #detachAsync} turns a fork into a
+ * plain chat once its inherited messages were copied. It is cached, including the absence of a
+ * parent, so resolving the chain of a plain chat costs one read per replica.</p>
+ *
+ * <p>The lookups and changes made when a chat is deleted or cleared ({@link #forkOfAsync},
+ * {@link #childrenAsync}, {@link #detachAsync}) are asynchronous, so they chain with the deletes.</p>
+ */
+public class ChatLineage {
+
+    private static final int CACHE_SIZE = 10_000;
+    // far deeper than any chain compaction allows; only guards against corrupt lineage rows
+    private static final int MAX_CHAIN_LENGTH = 1_000;
+
+    /**
+     * @param parentId  chat the fork was taken from
+     * @param forkPoint exclusive upper message key: the fork inherits the parent's messages older than it
+     * @param depth     number of ancestors
+     */
+    public record Fork(String parentId, Object forkPoint, int depth) {
+    }
+
+    /**
+     * A partition in a chat's history and the exclusive upper key of the messages it contributes,
+     * {@code null} for all of them.
+     */
+    public record Segment(String chatId, Object before) {
+    }
+
+    private static final Fork ROOT = new Fork(null, null, 0);
+
+    private final CqlSession cqlSession;
+    private final MessageTable messageTable;
+    private final QueryProfiles profiles;
+    private final Map<String, Fork> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Fork> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final PreparedStatement selectFork;
+    private final PreparedStatement insertFork;
+    private final PreparedStatement deleteFork;
+    private final PreparedStatement insertChild;
+    private final PreparedStatement deleteChild;
+    private final PreparedStatement selectChildren;
+
+    public ChatLineage(CqlSession cqlSession, MessageTable messageTable, QueryProfiles profiles) {
+        this.cqlSession = cqlSession;
+        this.messageTable = messageTable;
+        this.profiles = profiles;
+        this.selectFork = cqlSession.prepare("SELECT parent_id, fork_point, depth FROM chat_lineage WHERE session_id = ?");
+        this.insertFork = cqlSession.prepare("INSERT INTO chat_lineage (session_id, parent_id, fork_point, depth) VALUES (?, ?, ?, ?)");
+        this.deleteFork = cqlSession.prepare("DELETE FROM chat_lineage WHERE session_id = ?");
+        this.insertChild = cqlSession.prepare("INSERT INTO chat_children (parent_id, session_id) VALUES (?, ?)");
+        this.deleteChild = cqlSession.prepare("DELETE FROM chat_children WHERE parent_id = ? AND session_id = ?");
+        this.selectChildren = cqlSession.prepare("SELECT session_id FROM chat_children WHERE parent_id = ?");
+    }
+
+    /**
+     * The fork record of {@code chatId}, empty for a chat that is not a fork.
+     */
+    public Optional<Fork> forkOf(String chatId) {
+        Fork fork;
+        synchronized (cache) {
+            fork = cache.get(chatId);
+        }
+        if (fork == null) {
+            Row row = profiles.timed(QueryProfile.WINDOW_READ,
+                    () -> cqlSession.execute(profiles.apply(QueryProfile.WINDOW_READ, selectFork.bind(chatId)))).one();
+            fork = cache(chatId, row);
+        }
+        return fork == ROOT ? Optional.empty() : Optional.of(fork);
+    }
+
+    /**
+     * Like {@link #forkOf}, without blocking on a cache miss.
+     */
+    public CompletableFuture<Optional<Fork>> forkOfAsync(String chatId) {
+        Fork fork;
+        synchronized (cache) {
+            fork = cache.get(chatId);
+        }
+        CompletableFuture<Fork> resolved = fork != null
+                ? CompletableFuture.completedFuture(fork)
+                : execute(QueryProfile.WINDOW_READ, selectFork.bind(chatId)).thenApply(rs -> cache(chatId, rs.one()));
+        return resolved.thenApply(f -> f == ROOT ? Optional.empty() : Optional.of(f));
+    }
+
+    private Fork cache(String chatId, Row row) {
+        Fork fork = row == null || row.getString("parent_id") == null
+                ? ROOT
+                : new Fork(row.getString("parent_id"), fromTimeUuid(row.getUuid("fork_point")), row.getInt("depth"));
+        synchronized (cache) {
+            Fork cached = cache.putIfAbsent(chatId, fork);
+            return cached == null ? fork : cached;
+        }
+    }
+
+    /**
+     * The partitions making up the history of {@code chatId}, newest first.
+     */
+    public List<Segment> segments(String chatId) {
+        List<Segment> segments = new ArrayList<>();
+        segments.add(new Segment(chatId, null));
+        Object before = null;
+        Optional<Fork> fork = forkOf(chatId);
+        while (fork.isPresent()) {
+            Assert.state(segments.size() < MAX_CHAIN_LENGTH, () -> "Fork chain of chatId=" + chatId + " does not end");
+            before = min(before, fork.get().forkPoint());
+            segments.add(new Segment(fork.get().parentId(), before));
+            fork = forkOf(fork.get().parentId());
+        }
+        return segments;
+    }
+
+    /**
+     * Records {@code chatId} as a fork, with the lineage and child rows in one logged batch.
+     */
+    public void record(String chatId, Fork fork) {
+        BatchStatement batch = BatchStatement.builder(DefaultBatchType.LOGGED)
+                .addStatement(insertFork.bind(chatId, fork.parentId(), toTimeUuid(fork.forkPoint()), fork.depth()))
+                .addStatement(insertChild.bind(fork.parentId(), chatId))
+                .build();
+        profiles.timed(QueryProfile.DURABLE_WRITE, () -> cqlSession.execute(profiles.apply(QueryProfile.DURABLE_WRITE, batch)));
+        synchronized (cache) {
+            cache.put(chatId, fork);
+        }
+    }
+
+    /**
+     * Forks taken directly from {@code chatId}. Read with {@link QueryProfile#CONSISTENT_READ}: a fork
+     * missed here would lose its inherited history when {@code chatId} is deleted.
+     */
+    public CompletableFuture<List<String>> childrenAsync(String chatId) {
+        return execute(QueryProfile.CONSISTENT_READ, selectChildren.bind(chatId))
+                .thenCompose(rs -> collectChildren(rs, new ArrayList<>()));
+    }
+
+    private static CompletableFuture<List<String>> collectChildren(AsyncResultSet rs, List<String> children) {
+        for (Row row : rs.currentPage()) {
+            children.add(row.getString("session_id"));
+        }
+        return rs.hasMorePages()
+                ? rs.fetchNextPage().toCompletableFuture().thenCompose(next -> collectChildren(next, children))
+                : CompletableFuture.completedFuture(children);
+    }
+
+    /**
+     * Removes the lineage of a fork, once its inherited messages were copied into its own partition or
+     * its history was cleared.
+     */
+    public CompletableFuture<Void> detachAsync(String chatId, String parentId) {
+        BatchStatement batch = BatchStatement.builder(DefaultBatchType.LOGGED)
+                .addStatement(deleteFork.bind(chatId))
+                .addStatement(deleteChild.bind(parentId, chatId))
+                .build();
+        return execute(QueryProfile.DURABLE_WRITE, batch).thenAccept(rs -> {
+            synchronized (cache) {
+                cache.put(chatId, ROOT);
+            }
+        });
+    }
+
+    private <S extends Statement<S>> CompletableFuture<AsyncResultSet> execute(QueryProfile profile, S statement) {
+        return profiles.timedAsync(profile, () -> cqlSession.executeAsync(profiles.apply(profile, statement))).toCompletableFuture();
+    }
+
+    /**
+     * Orders message keys of the table in use like Cassandra orders them, oldest first.
+     */
+    public int compare(Object a, Object b) {
+        if (messageTable == MessageTable.V1) {
+            return ((Instant) a).compareTo((Instant) b);
+        }
+        UUID x = (UUID) a;
+        UUID y = (UUID) b;
+        int byTime = Long.compare(x.timestamp(), y.timestamp());
+        return byTime != 0 ? byTime : x.compareTo(y);
+    }
+
+    /**
+     * The smaller of two exclusive upper keys, where {@code null} is unbounded.
+     */
+    public Object min(Object a, Object b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    /**
+     * An exclusive upper key that takes every message written before now.
+     */
+    public Object now() {
+        long next = System.currentTimeMillis() + 1;
+        return messageTable == MessageTable.V1 ? Instant.ofEpochMilli(next) : Uuids.startOf(next);
+    }
+
+    private UUID toTimeUuid(Object key) {
+        return messageTable == MessageTable.V1 ? Uuids.startOf(((Instant) key).toEpochMilli()) : (UUID) key;
+    }
+
+    private Object fromTimeUuid(UUID uuid) {
+        return messageTable == MessageTable.V1 ? Instant.ofEpochMilli(Uuids.unixTimestamp(uuid)) : uuid;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ai.infrastructure.repository;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * Notified by {@link RedisMessageWindowChatMemory} after messages are stored or a conversation is
+ * cleared. Called on the writing thread, so implementations hand work off rather than block;
+ * exceptions are logged and never fail the write.
+ */
+public interface ChatMemoryListener {
+
+    void onMessagesAdded(String conversationId, List<Message> messages);
+
+    default void onConversationCleared(String conversationId) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.ai.infrastructure.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Preloads the windows of the most recently created conversations into the memory's
+ * {@link WindowCache}, so the first prompt of an active conversation after a deploy does not pay a
+ * full history read.
+ *
+ * <p>Runs as an {@code ApplicationRunner}: Spring Boot only reports readiness once runners have
+ * finished, so a replica takes traffic after its cache is warm. At most {@code concurrency} windows
+ * are read at a time, and whatever is not loaded within {@code timeBudget} is skipped, so a slow
+ * cluster delays readiness by the budget at most. Failed reads are skipped as well.</p>
+ */
+public class ChatMemoryWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatMemoryWarmUp.class);
+
+    private final IntFunction<List<String>> recentConversationIds;
+    private final ChatMemory chatMemory;
+    private final int conversations;
+    private final int concurrency;
+    private final Duration timeBudget;
+
+    public ChatMemoryWarmUp(IntFunction<List<String>> recentConversationIds, ChatMemory chatMemory,
+                            int conversations, int concurrency, Duration timeBudget) {
+        Assert.notNull(recentConversationIds, "recentConversationIds cannot be null");
+        Assert.notNull(chatMemory, "chatMemory cannot be null");
+        Assert.isTrue(conversations > 0, "conversations must be greater than 0");
+        Assert.isTrue(concurrency > 0, "concurrency must be greater than 0");
+        Assert.isTrue(timeBudget != null && timeBudget.isPositive(), "timeBudget must be positive");
+        this.recentConversationIds = recentConversationIds;
+        this.chatMemory = chatMemory;
+        this.conversations = conversations;
+        this.concurrency = concurrency;
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * @return number of windows loaded
+     */
+    public long run() {
+        long start = System.nanoTime();
+        Long loaded = Mono.fromCallable(() -> recentConversationIds.apply(conversations))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(id -> Mono.fromCallable(() -> chatMemory.get(id))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .onErrorResume(e -> {
+                                    log.warn("Cannot warm up the window of conversation {}", id, e);
+                                    return Mono.empty();
+                                }),
+                        concurrency)
+                .take(timeBudget)
+                .onErrorResume(e -> {
+                    log.warn("Cannot list recent conversations for warm-up", e);
+                    return Flux.empty();
+                })
+                .count()
+                .block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long count = loaded == null ? 0 : loaded;
+        if (elapsedMillis >= timeBudget.toMillis()) {
+            log.warn("Chat memory warm-up stopped at its {} budget after {} windows", timeBudget, count);
+        } else {
+            log.info("Warmed up {} conversation windows in {} ms", count, elapsedMillis);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.domain.model.ChatVersion;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versions of chat histories in {@code chat_versions} and of the chat list in
+ * {@code chat_list_version}: a time-based UUID replaced on every write, so a conditional request can
+ * be answered from one single-row read.
+ *
+ * <p>A version must only change after the write it stands for has completed. Otherwise a reader could
+ * pick up the new version together with the old content and have it revalidated as current until the
+ * next write. For the same reason versions are read with {@link QueryProfile#CONSISTENT_READ}, as is
+ * the content returned with them: a replica that missed the last write must not pair its old content
+ * with the new version read from another.</p>
+ */
+public class ChatVersions {
+
+    private final CqlSession cqlSession;
+    private final QueryProfiles profiles;
+    private final PreparedStatement selectChat;
+    private final PreparedStatement upsertChat;
+    private final PreparedStatement deleteChat;
+    private final PreparedStatement selectList;
+    private final PreparedStatement upsertList;
+
+    public ChatVersions(CqlSession cqlSession, QueryProfiles profiles) {
+        this.cqlSession = cqlSession;
+        this.profiles = profiles;
+        this.selectChat = cqlSession.prepare("SELECT version FROM chat_versions WHERE session_id = ?");
+        this.upsertChat = cqlSession.prepare("INSERT INTO chat_versions (session_id, version) VALUES (?, ?)");
+        this.deleteChat = cqlSession.prepare("DELETE FROM chat_versions WHERE session_id = ?");
+        this.selectList = cqlSession.prepare("SELECT version FROM chat_list_version WHERE bucket = 'all'");
+        this.upsertList = cqlSession.prepare("INSERT INTO chat_list_version (bucket, version) VALUES ('all', ?)");
+    }
+
+    public Optional<ChatVersion> findChat(String chatId) {
+        return find(selectChat.bind(chatId));
+    }
+
+    public Optional<ChatVersion> findList() {
+        return find(selectList.bind());
+    }
+
+    private Optional<ChatVersion> find(BoundStatement select) {
+        Row row = profiles.timed(QueryProfile.CONSISTENT_READ,
+                () -> cqlSession.execute(profiles.apply(QueryProfile.CONSISTENT_READ, select))).one();
+        if (row == null || row.getUuid("version") == null) {
+            return Optional.empty();
+        }
+        UUID version = row.getUuid("version");
+        return Optional.of(new ChatVersion(version.toString(), Instant.ofEpochMilli(Uuids.unixTimestamp(version))));
+    }
+
+    /**
+     * Gives the chat's history a new version.
+     */
+    public CompletableFuture<Void> chatChanged(String chatId) {
+        return write(upsertChat.bind(chatId, Uuids.timeBased()));
+    }
+
+    /**
+     * Forgets the version of a deleted chat.
+     */
+    public CompletableFuture<Void> chatDeleted(String chatId) {
+        return write(deleteChat.bind(chatId));
+    }
+
+    /**
+     * Gives the chat list a new version.
+     */
+    public CompletableFuture<Void> listChanged() {
+        return write(upsertList.bind(Uuids.timeBased()));
+    }
+
+    private CompletableFuture<Void> write(BoundStatement statement) {
+        return profiles.timedAsync(QueryProfile.DURABLE_WRITE,
+                        () -> cqlSession.executeAsync(profiles.apply(QueryProfile.DURABLE_WRITE, statement)))
+                .toCompletableFuture()
+                .thenApply(rs -> (Void) null);
+    }
+}
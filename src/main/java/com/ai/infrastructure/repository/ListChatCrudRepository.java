@@ -1,14 +1,51 @@
 package com.ai.infrastructure.repository;
 
+import com.ai.domain.model.ChatActivity;
 import org.springframework.ai.chat.messages.Message;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ListChatCrudRepository<T> {
 
     void saveAll(String id, List<Message> messages);
 
+    /**
+     * Deletes many chats with at most {@code parallelism} deletions in flight.
+     *
+     * @return number of chats deleted
+     */
+    long deleteAllById(List<String> ids, int parallelism);
+
     List<T> findAll();
 
+    /**
+     * Chats ordered by their latest message, newest first, with message counts and a preview of the
+     * latest message.
+     */
+    List<ChatActivity> findAllByActivity(int limit);
+
     List<String> findConversationIds();
+
+    /**
+     * Ids of the most recently created conversations, newest first.
+     */
+    List<String> findRecentConversationIds(int limit);
+
+    /**
+     * Streams every conversation id without materialising them all; order is unspecified.
+     */
+    Flux<String> scanConversationIds();
+
+    /**
+     * Streams every chat; order is unspecified.
+     */
+    Flux<T> scanChats();
+
+    /**
+     * Writes a chat that already has an id and creation time, with its messages, for bulk imports.
+     * Idempotent: importing the same chat again overwrites it.
+     */
+    CompletableFuture<Void> importChat(T chat, List<Message> messages, int maxBatchSize);
 }
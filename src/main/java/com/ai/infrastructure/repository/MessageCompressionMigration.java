@@ -0,0 +1,73 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rewrites existing plain-text message rows at or above the compression threshold
+ * into {@code msg_content_blob}. Rows are updated in place with the same primary key, so readers
+ * see either the old text or the new blob. Safe to re-run: rows already compressed have no
+ * {@code msg_content}.
+ *
+ * <p>Rows are read with a {@link TokenRangeScanner} and at most {@value #MAX_IN_FLIGHT} updates are in flight.</p>
+ */
+public class MessageCompressionMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageCompressionMigration.class);
+
+    private static final int MAX_IN_FLIGHT = 64;
+
+    private final CqlSession cqlSession;
+    private final MessageContentCodec contentCodec;
+    private final TokenRangeScanner scanner;
+    private final MessageTable messageTable;
+
+    public MessageCompressionMigration(CqlSession cqlSession, MessageContentCodec contentCodec,
+                                       TokenRangeScanner scanner, MessageTable messageTable) {
+        this.cqlSession = cqlSession;
+        this.contentCodec = contentCodec;
+        this.scanner = scanner;
+        this.messageTable = messageTable;
+    }
+
+    /**
+     * @return number of rows compressed
+     */
+    public long run() {
+        String table = messageTable.tableName();
+        String clusteringColumn = messageTable.clusteringColumn();
+        log.info("Compressing existing {} rows of at least {} bytes", table, contentCodec.getThreshold());
+
+        PreparedStatement update = cqlSession.prepare(
+                "UPDATE " + table + " SET msg_content_blob = ?, msg_content = null " +
+                        "WHERE session_id = ? AND " + clusteringColumn + " = ?"
+        );
+
+        AtomicLong scanned = new AtomicLong();
+        Long migrated = scanner.scan(table, "session_id", "session_id, " + clusteringColumn + ", msg_content",
+                        row -> {
+                            scanned.incrementAndGet();
+                            ByteBuffer blob = contentCodec.encode(row.getString("msg_content"));
+                            return blob == null
+                                    ? Optional.<BoundStatement>empty()
+                                    : Optional.of(update.bind(blob, row.getString("session_id"), row.getObject(clusteringColumn)));
+                        })
+                .flatMap(Mono::justOrEmpty)
+                .flatMap(statement -> Mono.fromCompletionStage(() -> cqlSession.executeAsync(statement)), MAX_IN_FLIGHT)
+                .count()
+                .onErrorMap(e -> new IllegalStateException("Message compression migration failed", e))
+                .block();
+
+        log.info("Compressed {} of {} {} rows", migrated, scanned.get(), table);
+        return migrated == null ? 0 : migrated;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates {@code msg_id} timeuuids that are strictly increasing per conversation.
+ *
+ * <p>The timestamp part is taken from the message time at 100 ns resolution and bumped by one tick
+ * whenever it would not be greater than the last id issued for that conversation, so messages of
+ * the same batch (or the same millisecond) never share a clustering key. The clock-sequence and
+ * node part is fixed per generator and taken from {@link Uuids#timeBased()}, which keeps ids from
+ * different application instances apart.</p>
+ *
+ * <p>The last tick is remembered for the {@code maxConversationsPerStripe} most recently used
+ * conversations of each lock stripe.</p>
+ */
+public class MessageIdGenerator {
+
+    // 100 ns intervals between the UUID epoch (1582-10-15) and the Unix epoch
+    private static final long UUID_EPOCH_OFFSET = 0x01b21dd213814000L;
+
+    private final long leastSigBits;
+    private final Stripe[] stripes;
+
+    public MessageIdGenerator() {
+        this(16, 4096);
+    }
+
+    public MessageIdGenerator(int stripeCount, int maxConversationsPerStripe) {
+        Assert.isTrue(stripeCount > 0 && Integer.bitCount(stripeCount) == 1, "stripeCount must be a power of two");
+        Assert.isTrue(maxConversationsPerStripe > 0, "maxConversationsPerStripe must be greater than 0");
+        this.leastSigBits = Uuids.timeBased().getLeastSignificantBits();
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maxConversationsPerStripe);
+        }
+    }
+
+    public UUID next(String conversationId, Instant at) {
+        Assert.notNull(conversationId, "conversationId cannot be null");
+        Assert.notNull(at, "at cannot be null");
+
+        long requested = toTicks(at);
+        Stripe stripe = stripes[spread(conversationId.hashCode()) & (stripes.length - 1)];
+
+        stripe.lock.lock();
+        try {
+            Long last = stripe.lastTicks.get(conversationId);
+            long ticks = last != null && requested <= last ? last + 1 : requested;
+            stripe.lastTicks.put(conversationId, ticks);
+            return new UUID(makeMsb(ticks), leastSigBits);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * The deterministic id used for a row copied from the v1 table: unique per conversation because
+     * v1 rows are unique per millisecond, and stable across re-runs of the copy.
+     */
+    public static UUID fromLegacyTimestamp(Instant msgTimestamp) {
+        return Uuids.startOf(msgTimestamp.toEpochMilli());
+    }
+
+    /**
+     * Deterministic, strictly increasing ids for one conversation's messages in order, used by bulk
+     * imports so that replaying the same input writes the same keys. Shares the clock-sequence and
+     * node part of {@link #fromLegacyTimestamp}.
+     */
+    public static List<UUID> sequence(List<Instant> times) {
+        Assert.notNull(times, "times cannot be null");
+        long leastSigBits = Uuids.startOf(0).getLeastSignificantBits();
+
+        List<UUID> ids = new ArrayList<>(times.size());
+        long last = Long.MIN_VALUE;
+        for (Instant at : times) {
+            Assert.notNull(at, "times cannot contain null elements");
+            long ticks = Math.max(toTicks(at), last + 1);
+            ids.add(new UUID(makeMsb(ticks), leastSigBits));
+            last = ticks;
+        }
+        return ids;
+    }
+
+    private static long toTicks(Instant at) {
+        return at.getEpochSecond() * 10_000_000L + at.getNano() / 100 + UUID_EPOCH_OFFSET;
+    }
+
+    // version 1 layout: time_low | time_mid | version + time_hi
+    private static long makeMsb(long ticks) {
+        long msb = 0L;
+        msb |= (0x00000000ffffffffL & ticks) << 32;
+        msb |= (0x0000ffff00000000L & ticks) >>> 16;
+        msb |= (0x0fff000000000000L & ticks) >>> 48;
+        msb |= 0x0000000000001000L;
+        return msb;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Long> lastTicks;
+
+        private Stripe(int maxConversations) {
+            this.lastTicks = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > maxConversations;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.domain.model.pagination.ChatPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of older message pages, bounded to {@code maxPages} by least recent use.
+ *
+ * <p>A page requested with a cursor holds the messages older than the cursor, and new messages are
+ * always newer, so a full page behind a cursor never changes. Only such pages are cached; the head
+ * page and a short last page always go to Cassandra. Pages are dropped after {@code ttl}, and at once
+ * when the conversation is cleared through this replica's chat memory, which it is notified of as a
+ * {@link ChatMemoryListener}; {@code ttl} bounds how long a conversation deleted elsewhere stays
+ * served.</p>
+ *
+ * <p>Hits and misses are counted as {@code chat.messages.page.cache} tagged with {@code result}.</p>
+ */
+public class MessagePageCache implements ChatMemoryListener {
+
+    private record Key(String conversationId, String cursor, int pageSize) {
+    }
+
+    private record Page(ChatPage page, long loadedAtNanos) {
+    }
+
+    private final int maxPages;
+    private final long ttlNanos;
+    private final Map<Key, Page> pages;
+    private final Counter hits;
+    private final Counter misses;
+
+    public MessagePageCache(int maxPages, Duration ttl, MeterRegistry meterRegistry) {
+        Assert.isTrue(maxPages > 0, "maxPages must be greater than 0");
+        Assert.isTrue(ttl != null && ttl.isPositive(), "ttl must be positive");
+        this.maxPages = maxPages;
+        this.ttlNanos = ttl.toNanos();
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Page> eldest) {
+                return size() > MessagePageCache.this.maxPages;
+            }
+        };
+        this.hits = meterRegistry.counter("chat.messages.page.cache", "result", "hit");
+        this.misses = meterRegistry.counter("chat.messages.page.cache", "result", "miss");
+    }
+
+    /**
+     * Returns the cached page behind {@code cursor}, or loads it with {@code loader} and caches it if
+     * it is full.
+     */
+    public ChatPage get(String conversationId, String cursor, int pageSize, Supplier<ChatPage> loader) {
+        Assert.hasText(cursor, "only pages behind a cursor are immutable");
+        Key key = new Key(conversationId, cursor, pageSize);
+        synchronized (this) {
+            Page cached = pages.get(key);
+            if (cached != null && System.nanoTime() - cached.loadedAtNanos() < ttlNanos) {
+                hits.increment();
+                return cached.page();
+            }
+        }
+        misses.increment();
+
+        ChatPage page = loader.get();
+        if (page.messages().size() == pageSize) {
+            ChatPage immutable = new ChatPage(List.copyOf(page.messages()), page.pageMeta());
+            synchronized (this) {
+                pages.put(key, new Page(immutable, System.nanoTime()));
+            }
+            return immutable;
+        }
+        return page;
+    }
+
+    @Override
+    public void onMessagesAdded(String conversationId, List<Message> messages) {
+        // new messages only change the head page, which is never cached
+    }
+
+    @Override
+    public synchronized void onConversationCleared(String conversationId) {
+        pages.keySet().removeIf(key -> key.conversationId().equals(conversationId));
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+}
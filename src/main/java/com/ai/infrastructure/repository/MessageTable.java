@@ -0,0 +1,33 @@
+package com.ai.infrastructure.repository;
+
+/**
+ * Versions of the message table, selected with {@code app.cassandra.messages.table-version}.
+ *
+ * <ul>
+ *   <li>{@link #V1}: {@code ai_chat_message} clustered on {@code msg_timestamp timestamp}. Two messages of
+ *   one conversation written in the same millisecond overwrite each other.</li>
+ *   <li>{@link #V2}: {@code ai_chat_message_v2} clustered on {@code msg_id timeuuid}, generated per
+ *   conversation by {@link MessageIdGenerator}, so tightly packed batches keep every message.</li>
+ * </ul>
+ */
+public enum MessageTable {
+
+    V1("ai_chat_message", "msg_timestamp"),
+    V2("ai_chat_message_v2", "msg_id");
+
+    private final String tableName;
+    private final String clusteringColumn;
+
+    MessageTable(String tableName, String clusteringColumn) {
+        this.tableName = tableName;
+        this.clusteringColumn = clusteringColumn;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public String clusteringColumn() {
+        return clusteringColumn;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Copies {@code ai_chat_message} (v1) into {@code ai_chat_message_v2}.
+ *
+ * <p>Each row keeps its type, content (plain or compressed) and truncated flag; its {@code msg_id} is
+ * {@link MessageIdGenerator#fromLegacyTimestamp}, so copying the same row twice writes the same
+ * key and the job can be re-run to catch up on v1 writes made while it was running. The v1 table is
+ * left untouched.</p>
+ *
+ * <p>Switch {@code app.cassandra.messages.table-version} to {@code v2} after a complete run, then run
+ * once more to pick up anything written to v1 in between.</p>
+ */
+public class MessageTableMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageTableMigration.class);
+
+    private static final int MAX_IN_FLIGHT = 64;
+
+    private final CqlSession cqlSession;
+    private final TokenRangeScanner scanner;
+
+    public MessageTableMigration(CqlSession cqlSession, TokenRangeScanner scanner) {
+        this.cqlSession = cqlSession;
+        this.scanner = scanner;
+    }
+
+    /**
+     * @return number of rows copied
+     */
+    public long run() {
+        log.info("Copying ai_chat_message into ai_chat_message_v2");
+        long start = System.nanoTime();
+
+        PreparedStatement insert = cqlSession.prepare(
+                "INSERT INTO ai_chat_message_v2 " +
+                        "(session_id, msg_id, msg_type, msg_content, msg_content_blob, msg_truncated) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)"
+        );
+
+        Long copied = scanner.scan("ai_chat_message", "session_id",
+                        "session_id, msg_timestamp, msg_type, msg_content, msg_content_blob, msg_truncated",
+                        row -> toInsert(insert, row))
+                .flatMap(statement -> Mono.fromCompletionStage(() -> cqlSession.executeAsync(statement)), MAX_IN_FLIGHT)
+                .count()
+                .onErrorMap(e -> new IllegalStateException("Message table migration failed", e))
+                .block();
+
+        log.info("Copied {} rows into ai_chat_message_v2 in {} ms", copied, (System.nanoTime() - start) / 1_000_000);
+        return copied == null ? 0 : copied;
+    }
+
+    private static BoundStatement toInsert(PreparedStatement insert, Row row) {
+        Instant msgTimestamp = row.getInstant("msg_timestamp");
+        String content = row.getString("msg_content");
+        ByteBuffer blob = row.getByteBuffer("msg_content_blob");
+
+        BoundStatement bound = insert.bind(
+                row.getString("session_id"),
+                MessageIdGenerator.fromLegacyTimestamp(msgTimestamp),
+                row.getString("msg_type"),
+                content,
+                blob,
+                row.getBoolean("msg_truncated")
+        );
+        // null columns stay unset so the copy writes no tombstones
+        if (content == null) {
+            bound = bound.unset(3);
+        }
+        if (blob == null) {
+            bound = bound.unset(4);
+        }
+        return bound.setIdempotent(true);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ai.infrastructure.repository;
+
+/**
+ * Classes of Cassandra queries, each run with the driver execution profile of the same name when the
+ * session defines one (see {@code app.cassandra.driver.profiles}).
+ *
+ * <ul>
+ *   <li>{@link #WINDOW_READ}: latency-critical reads on the request path, such as older history
+ *   pages. Suited to a low consistency level and speculative execution.</li>
+ *   <li>{@link #CONSISTENT_READ}: reads that must see every acknowledged {@link #DURABLE_WRITE}, such
+ *   as the memory window read right after the prompt was stored, or a version and the content it
+ *   validates. Needs a consistency level that overlaps the writes', e.g. {@code LOCAL_QUORUM} on both.</li>
+ *   <li>{@link #DURABLE_WRITE}: chat and message writes and deletes, which must not be lost.</li>
+ *   <li>{@link #BULK_SCAN}: token-range scans of whole tables by maintenance jobs; large pages and a
+ *   long timeout.</li>
+ * </ul>
+ */
+public enum QueryProfile {
+
+    WINDOW_READ("window-read"),
+    CONSISTENT_READ("consistent-read"),
+    DURABLE_WRITE("durable-write"),
+    BULK_SCAN("bulk-scan");
+
+    private final String profileName;
+
+    QueryProfile(String profileName) {
+        this.profileName = profileName;
+    }
+
+    public String profileName() {
+        return profileName;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Applies {@link QueryProfile}s to statements and times them per profile as {@code chat.cassandra.query}
+ * tagged with {@code profile} and {@code outcome}.
+ *
+ * <p>A profile is only set on a statement when the session's driver configuration defines it, so a
+ * session built without profiles (tests, tools) runs everything with the default profile.</p>
+ *
+ * <p>Statements passed to {@link #apply} are also marked idempotent. All queries of the repository
+ * are plain upserts, deletes and reads on fully specified keys, and the driver only retries or
+ * speculatively re-sends idempotent statements. Counter updates are not idempotent and go through
+ * {@link #applyNonIdempotent} instead.</p>
+ */
+public class QueryProfiles {
+
+    private final Map<QueryProfile, String> profileNames = new EnumMap<>(QueryProfile.class);
+    private final Map<QueryProfile, Timer> success = new EnumMap<>(QueryProfile.class);
+    private final Map<QueryProfile, Timer> failure = new EnumMap<>(QueryProfile.class);
+
+    public QueryProfiles(CqlSession cqlSession, MeterRegistry meterRegistry) {
+        var defined = cqlSession.getContext().getConfig().getProfiles().keySet();
+        for (QueryProfile profile : QueryProfile.values()) {
+            if (defined.contains(profile.profileName())) {
+                profileNames.put(profile, profile.profileName());
+            }
+            success.put(profile, meterRegistry.timer("chat.cassandra.query", "profile", profile.profileName(), "outcome", "success"));
+            failure.put(profile, meterRegistry.timer("chat.cassandra.query", "profile", profile.profileName(), "outcome", "error"));
+        }
+    }
+
+    public <S extends Statement<S>> S apply(QueryProfile profile, S statement) {
+        String name = profileNames.get(profile);
+        S idempotent = statement.setIdempotent(true);
+        return name == null ? idempotent : idempotent.setExecutionProfileName(name);
+    }
+
+    /**
+     * Sets the profile like {@link #apply} but marks the statement non-idempotent, so the driver never
+     * retries or speculatively re-sends it; for counter updates.
+     */
+    public <S extends Statement<S>> S applyNonIdempotent(QueryProfile profile, S statement) {
+        String name = profileNames.get(profile);
+        S nonIdempotent = statement.setIdempotent(false);
+        return name == null ? nonIdempotent : nonIdempotent.setExecutionProfileName(name);
+    }
+
+    /**
+     * Runs a blocking query and records its latency under {@code profile}.
+     */
+    public <T> T timed(QueryProfile profile, Supplier<T> query) {
+        long start = System.nanoTime();
+        try {
+            T result = query.get();
+            success.get(profile).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            failure.get(profile).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts an asynchronous query and records its latency under {@code profile} when it completes.
+     */
+    public <T> CompletionStage<T> timedAsync(QueryProfile profile, Supplier<? extends CompletionStage<T>> query) {
+        long start = System.nanoTime();
+        return query.get().whenComplete((result, e) ->
+                (e == null ? success : failure).get(profile).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+}
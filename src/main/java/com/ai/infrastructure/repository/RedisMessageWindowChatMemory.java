@@ -7,7 +7,9 @@ import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RedisMessageWindowChatMemory<T extends Chat> implements ChatMemory {
 
@@ -16,13 +18,20 @@ public class RedisMessageWindowChatMemory<T extends Chat> implements ChatMemory
     private static final int DEFAULT_MAX_MESSAGES = 20;
     private final ChatRepository<T> chatRepository;
     private final int maxMessages;
+    private final List<ChatMemoryListener> listeners;
+    // null when windows are not cached
+    private final WindowCache windowCache;
     // TODO inject redis
 
-    private RedisMessageWindowChatMemory(ChatRepository<T> chatRepository, int maxMessages) {
+    private RedisMessageWindowChatMemory(ChatRepository<T> chatRepository, int maxMessages, List<ChatMemoryListener> listeners,
+                                         WindowCache windowCache) {
         Assert.notNull(chatRepository, "chatRepository cannot be null");
         Assert.isTrue(maxMessages > 0, "maxMessages must be greater than 0");
+        Assert.noNullElements(listeners, "listeners cannot contain null elements");
         this.chatRepository = chatRepository;
         this.maxMessages = maxMessages;
+        this.listeners = List.copyOf(listeners);
+        this.windowCache = windowCache;
     }
 
     @Override
@@ -33,19 +42,44 @@ public class RedisMessageWindowChatMemory<T extends Chat> implements ChatMemory
 
         // TODO add redis handling
         this.chatRepository.saveAll(conversationId, messages);
+        if (windowCache != null) {
+            windowCache.added(conversationId, messages, maxMessages);
+        }
+        notifyListeners(listener -> listener.onMessagesAdded(conversationId, messages));
     }
 
+    /**
+     * Returns the newest {@code maxMessages} messages of the conversation, newest first.
+     */
     @Override
     public List<Message> get(String conversationId) {
         Assert.notNull(conversationId, "conversationId cannot be null");
         // TODO replace with: get from redis
-        return this.chatRepository.findByConversationId(conversationId);
+        // follows the add of the prompt, so read with a consistency that sees it (see findLastNByConversationId)
+        if (windowCache != null) {
+            return windowCache.get(conversationId, () -> this.chatRepository.findLastNByConversationId(conversationId, maxMessages));
+        }
+        return this.chatRepository.findLastNByConversationId(conversationId, maxMessages);
     }
 
     @Override
     public void clear(String conversationId) {
         Assert.notNull(conversationId, "conversationId cannot be null or empty");
         this.chatRepository.deleteById(conversationId);
+        if (windowCache != null) {
+            windowCache.evict(conversationId);
+        }
+        notifyListeners(listener -> listener.onConversationCleared(conversationId));
+    }
+
+    private void notifyListeners(Consumer<ChatMemoryListener> event) {
+        for (ChatMemoryListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("ChatMemoryListener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
     }
 
     public static <T extends Chat> Builder<T> builder() {
@@ -55,6 +89,8 @@ public class RedisMessageWindowChatMemory<T extends Chat> implements ChatMemory
     public static final class Builder<T extends Chat> {
         private ChatRepository<T> chatRepository;
         private int maxMessages = DEFAULT_MAX_MESSAGES;
+        private final List<ChatMemoryListener> listeners = new ArrayList<>();
+        private WindowCache windowCache;
 
         private Builder() {
         }
@@ -69,12 +105,30 @@ public class RedisMessageWindowChatMemory<T extends Chat> implements ChatMemory
             return this;
         }
 
+        public Builder<T> listener(ChatMemoryListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        public Builder<T> listeners(List<? extends ChatMemoryListener> listeners) {
+            this.listeners.addAll(listeners);
+            return this;
+        }
+
+        /**
+         * Caches windows in process; {@code null} (the default) reads every window from the repository.
+         */
+        public Builder<T> windowCache(WindowCache windowCache) {
+            this.windowCache = windowCache;
+            return this;
+        }
+
         public RedisMessageWindowChatMemory build() {
             if (this.chatRepository == null) {
                 throw new IllegalStateException("chatRepository must not be null");
             }
 
-            return new RedisMessageWindowChatMemory(this.chatRepository, this.maxMessages);
+            return new RedisMessageWindowChatMemory(this.chatRepository, this.maxMessages, this.listeners, this.windowCache);
         }
     }
 }
@@ -0,0 +1,127 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Full-table scan split over the token ring.
+ *
+ * <p>Each token range owned by the cluster is split into {@code splitsPerRange} sub-ranges that are
+ * queried with {@code token(pk) > ? AND token(pk) <= ?}, so the work is spread across replicas
+ * instead of funnelling through one coordinator. At most {@code parallelism} sub-ranges are read at
+ * a time and each one is paged asynchronously; the next page is fetched only once the current one
+ * has been consumed. Rows are emitted in no particular order.</p>
+ *
+ * <p>If the driver has no token metadata the scan degrades to a single paged query.</p>
+ *
+ * <p>Queries run with the {@link QueryProfile#BULK_SCAN} profile; {@code pageSize} still applies
+ * per statement.</p>
+ */
+public class TokenRangeScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRangeScanner.class);
+
+    private final CqlSession cqlSession;
+    private final int splitsPerRange;
+    private final int parallelism;
+    private final int pageSize;
+    private final QueryProfiles profiles;
+
+    public TokenRangeScanner(CqlSession cqlSession, int splitsPerRange, int parallelism, int pageSize, QueryProfiles profiles) {
+        Assert.isTrue(splitsPerRange > 0, "splitsPerRange must be greater than 0");
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than 0");
+        Assert.notNull(profiles, "profiles cannot be null");
+        this.cqlSession = cqlSession;
+        this.splitsPerRange = splitsPerRange;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        this.profiles = profiles;
+    }
+
+    /**
+     * Scans {@code table}.
+     *
+     * @param table        table to scan, e.g. {@code ai_chat_message}
+     * @param partitionKey partition key column(s) as used in {@code token(...)}, e.g. {@code session_id}
+     * @param selection    select clause, e.g. {@code session_id, msg_timestamp} or {@code DISTINCT session_id}
+     * @param mapper       maps each row; called on driver threads, so it must not block
+     */
+    public <T> Flux<T> scan(String table, String partitionKey, String selection, Function<Row, T> mapper) {
+        Assert.hasText(table, "table cannot be null or empty");
+        Assert.hasText(partitionKey, "partitionKey cannot be null or empty");
+        Assert.hasText(selection, "selection cannot be null or empty");
+        Assert.notNull(mapper, "mapper cannot be null");
+
+        return Flux.defer(() -> {
+            String query = "SELECT " + selection + " FROM " + table;
+            List<TokenRange> ranges = splits();
+            if (ranges.isEmpty()) {
+                log.warn("No token metadata available, scanning {} with a single query", table);
+                return pages(SimpleStatement.builder(query).setPageSize(pageSize).setIdempotence(true).build(), mapper);
+            }
+
+            PreparedStatement ps = cqlSession.prepare(
+                    query + " WHERE token(" + partitionKey + ") > ? AND token(" + partitionKey + ") <= ?");
+            log.debug("Scanning {} over {} token ranges with parallelism {}", table, ranges.size(), parallelism);
+            return Flux.fromIterable(ranges)
+                    .flatMap(range -> pages(ps.bind()
+                            .setToken(0, range.getStart())
+                            .setToken(1, range.getEnd())
+                            .setPageSize(pageSize)
+                            .setIdempotent(true), mapper), parallelism);
+        });
+    }
+
+    private List<TokenRange> splits() {
+        Optional<TokenMap> tokenMap = cqlSession.getMetadata().getTokenMap();
+        if (tokenMap.isEmpty()) {
+            return List.of();
+        }
+        List<TokenRange> splits = new ArrayList<>();
+        for (TokenRange range : tokenMap.get().getTokenRanges()) {
+            for (TokenRange split : range.splitEvenly(splitsPerRange)) {
+                // a range wrapping past the end of the ring cannot be expressed as one > / <= pair
+                splits.addAll(split.unwrap());
+            }
+        }
+        return splits;
+    }
+
+    private <T, S extends Statement<S>> Flux<T> pages(S statement, Function<Row, T> mapper) {
+        S profiled = profiles.apply(QueryProfile.BULK_SCAN, statement);
+        return page(() -> cqlSession.executeAsync(profiled), mapper);
+    }
+
+    private <T> Flux<T> page(Supplier<CompletionStage<AsyncResultSet>> fetch, Function<Row, T> mapper) {
+        // each page is timed on its own
+        return Mono.fromCompletionStage(() -> profiles.timedAsync(QueryProfile.BULK_SCAN, fetch)).flatMapMany(rs -> {
+            List<T> rows = new ArrayList<>(rs.remaining());
+            for (Row row : rs.currentPage()) {
+                rows.add(mapper.apply(row));
+            }
+            Flux<T> current = Flux.fromIterable(rows);
+            return rs.hasMorePages()
+                    ? current.concatWith(Flux.defer(() -> page(rs::fetchNextPage, mapper)))
+                    : current;
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.ai.infrastructure.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of conversation windows as returned by {@link RedisMessageWindowChatMemory#get},
+ * newest message first, bounded to {@code maxConversations} by least recent use.
+ *
+ * <p>Messages added through this instance are merged into a cached window, which keeps only the
+ * newest {@code maxMessages} of the result, so an active conversation keeps hitting the cache between
+ * turns without its window growing. Windows are reloaded after {@code ttl}, which bounds how long
+ * a replica can miss messages written to the same conversation by another replica.</p>
+ *
+ * <p>A load that races with an add or clear of the same conversation is returned to its caller but
+ * not cached: the writer replaces the loader's placeholder, and the loader only stores its result if
+ * its placeholder is still there.</p>
+ *
+ * <p>Hits and misses are counted as {@code chat.memory.window.cache} tagged with {@code result}.</p>
+ */
+public class WindowCache {
+
+    private static final Comparator<Message> NEWEST_FIRST =
+            Comparator.comparing((Message m) -> (Instant) m.getMetadata().get("msg_timestamp")).reversed();
+
+    private sealed interface Entry {
+    }
+
+    private record Loading() implements Entry {
+    }
+
+    private record Window(List<Message> messages, long loadedAtNanos) implements Entry {
+    }
+
+    private final int maxConversations;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public WindowCache(int maxConversations, Duration ttl, MeterRegistry meterRegistry) {
+        Assert.isTrue(maxConversations > 0, "maxConversations must be greater than 0");
+        Assert.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        this.maxConversations = maxConversations;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > WindowCache.this.maxConversations;
+            }
+        };
+        this.hits = meterRegistry.counter("chat.memory.window.cache", "result", "hit");
+        this.misses = meterRegistry.counter("chat.memory.window.cache", "result", "miss");
+    }
+
+    /**
+     * Returns the cached window, or loads it with {@code loader} and caches it.
+     */
+    public List<Message> get(String conversationId, Supplier<List<Message>> loader) {
+        Loading placeholder = new Loading();
+        synchronized (this) {
+            if (entries.get(conversationId) instanceof Window window
+                    && System.nanoTime() - window.loadedAtNanos() < ttlNanos) {
+                hits.increment();
+                return window.messages();
+            }
+            entries.put(conversationId, placeholder);
+        }
+        misses.increment();
+
+        List<Message> messages;
+        try {
+            messages = List.copyOf(loader.get());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(conversationId, placeholder);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            entries.replace(conversationId, placeholder, new Window(messages, System.nanoTime()));
+        }
+        return messages;
+    }
+
+    /**
+     * Merges newly stored messages into the cached window, if there is one, keeping its newest
+     * {@code maxMessages}. Messages without an {@link Instant} {@code msg_timestamp} cannot be placed,
+     * so the window is dropped instead.
+     */
+    public synchronized void added(String conversationId, List<Message> messages, int maxMessages) {
+        Entry entry = entries.get(conversationId);
+        if (!(entry instanceof Window window)) {
+            // a load in flight may not see these messages
+            entries.remove(conversationId);
+            return;
+        }
+        if (!messages.stream().allMatch(m -> m.getMetadata().get("msg_timestamp") instanceof Instant)
+                || !window.messages().stream().allMatch(m -> m.getMetadata().get("msg_timestamp") instanceof Instant)) {
+            entries.remove(conversationId);
+            return;
+        }
+        List<Message> merged = new ArrayList<>(messages.size() + window.messages().size());
+        merged.addAll(messages.reversed());
+        merged.addAll(window.messages());
+        // stable: on equal timestamps the new messages stay in front
+        merged.sort(NEWEST_FIRST);
+        List<Message> trimmed = merged.subList(0, Math.min(maxMessages, merged.size()));
+        entries.put(conversationId, new Window(List.copyOf(trimmed), window.loadedAtNanos()));
+    }
+
+    public synchronized void evict(String conversationId) {
+        entries.remove(conversationId);
+    }
+
+    public synchronized int size() {
+        return (int) entries.values().stream().filter(Window.class::isInstance).count();
+    }
+}
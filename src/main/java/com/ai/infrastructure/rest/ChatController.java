@@ -3,17 +3,25 @@ package com.ai.infrastructure.rest;
 import com.ai.application.dto.ChatDto;
 import com.ai.application.dto.ChatMessageDto;
 import com.ai.application.service.ChatService;
+import com.ai.domain.model.ChatVersion;
 import com.ai.domain.model.pagination.ChatPage;
 import com.ai.domain.model.pagination.PageMeta;
+import com.ai.infrastructure.ratelimit.RateLimitInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/chats")
@@ -21,43 +29,123 @@ public class ChatController {
 
     private static final Logger log = LoggerFactory.getLogger(ChatController.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatService chatService;
+    private final CacheControl olderPageCacheControl;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(
+            ChatService chatService,
+            @Value("${app.chats.pages.max-age:1d}") Duration olderPageMaxAge
+    ) {
         this.chatService = chatService;
+        // chat content is per user, so only private caches may keep it
+        this.olderPageCacheControl = CacheControl.maxAge(olderPageMaxAge).cachePrivate().immutable();
     }
 
     /**
      * Streams AI responses to the client using Server-Sent Events (SSE).
+     * Requests over the caller's rate limit or token quota are rejected by {@link RateLimitInterceptor}.
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<String>> stream(@RequestParam(required = false) String chatId, @RequestParam String userPrompt) {
-        log.info("Starting SSE stream for chatId={} with user prompt: {}", chatId, userPrompt);
-        return chatService.stream(chatId, userPrompt);
+    public Flux<ServerSentEvent<String>> stream(
+            @RequestParam(required = false) String chatId,
+            @RequestParam String userPrompt,
+            @RequestAttribute(name = RateLimitInterceptor.CALLER_ID_ATTRIBUTE, required = false) String callerId
+    ) {
+        log.info("Starting SSE stream for chatId={} caller={} with user prompt: {}", chatId, callerId, userPrompt);
+        return chatService.stream(chatId, userPrompt, callerId);
     }
 
     /**
      * Retrieves the full chat history for the given chat ID.
+     *
+     * <p>Responses carry the chat's version as {@code ETag} and {@code Last-Modified}. A request whose
+     * {@code If-None-Match} (or {@code If-Modified-Since}) still matches gets a 304 after a single-row
+     * read, without reading any message.</p>
      */
     @GetMapping("/{chatId}")
-    public List<ChatMessageDto> getChatHistory(@PathVariable String chatId) {
+    public List<ChatMessageDto> getChatHistory(@PathVariable String chatId, ServletWebRequest request) {
         log.info("Fetching chat history for chatId={}", chatId);
+        if (notModified(chatService.findVersion(chatId), request)) {
+            log.info("Chat history of chatId={} not modified", chatId);
+            return null;
+        }
         return chatService.getChatHistory(chatId);
     }
 
+    // sets ETag and Last-Modified, and answers 304 when the request's validators match
+    private static boolean notModified(Optional<ChatVersion> version, ServletWebRequest request) {
+        if (version.isEmpty()) {
+            return false;
+        }
+        if (request.getResponse() != null) {
+            // caches may keep the response but must revalidate it before every reuse
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            // the tag is the same for JSON, CBOR and Smile, so caches must key on Accept as well
+            request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(version.get().tag(), version.get().modifiedAt().toEpochMilli());
+    }
+
     /**
-     * Retrieves all chats.
+     * Retrieves all chats, with the chat list's version as {@code ETag} and {@code Last-Modified}
+     * like {@link #getChatHistory}.
      *
      * @return a {@link ResponseEntity} containing a list of {@link ChatDto} objects
      */
     @GetMapping
-    public ResponseEntity<List<ChatDto>> findAllChats() {
+    public ResponseEntity<List<ChatDto>> findAllChats(ServletWebRequest request) {
         log.info("Fetching all chats");
+        if (notModified(chatService.findListVersion(), request)) {
+            log.info("Chat list not modified");
+            return null;
+        }
 
         List<ChatDto> chats = chatService.findAll();
         return ResponseEntity.ok(chats);
     }
 
+    /**
+     * Retrieves chats ordered by their latest message ({@code GET /chats?sort=activity}), each with its
+     * message count and a preview of the latest message.
+     *
+     * @param limit maximum number of chats
+     * @return a {@link ResponseEntity} containing a list of {@link ChatDto} objects, most recently active first
+     */
+    @GetMapping(params = "sort=activity")
+    public ResponseEntity<List<ChatDto>> findChatsByActivity(@RequestParam(defaultValue = "50") int limit) {
+        log.info("Fetching chats by last activity, limit={}", limit);
+        return ResponseEntity.ok(chatService.findAllByActivity(limit));
+    }
+
+    /**
+     * Forks a chat ({@code POST /chats/{chatId}/fork?drop=2}), e.g. to edit an earlier prompt: the fork
+     * shares the chat's history without its {@code drop} newest messages, and the edited prompt is then
+     * streamed to the fork.
+     *
+     * @param drop number of newest messages left out, as listed by {@code GET /chats/{chatId}}
+     * @param name name of the fork; the chat's name when omitted
+     * @return the new chat, 404 if the chat does not exist, 400 if it has fewer than {@code drop} messages
+     */
+    @PostMapping("/{chatId}/fork")
+    public ResponseEntity<ChatDto> fork(
+            @PathVariable String chatId,
+            @RequestParam(defaultValue = "0") int drop,
+            @RequestParam(required = false) String name
+    ) {
+        log.info("Forking chatId={} with drop={}", chatId, drop);
+        if (drop < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.of(chatService.fork(chatId, drop, name));
+        } catch (IllegalArgumentException e) {
+            log.info("Cannot fork chatId={}: {}", chatId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Retrieves paginated messages for a specific chat, with pagination support.
      *
@@ -73,4 +161,41 @@ public class ChatController {
         log.info("Fetching chats - page meta: {}", pageMeta);
         return ResponseEntity.ok(chatService.findMessagesByChatId(chatId, pageMeta));
     }
+
+    /**
+     * Retrieves one page of messages, newest first, with the page given in the URL
+     * ({@code GET /chats/{chatId}/messages?size=20&cursor=...}) so that it can be cached.
+     *
+     * <p>A full page behind a cursor never changes, because new messages only ever enter the head
+     * page: it is served from a server-side page cache and marked {@code immutable}. The head page is
+     * read from Cassandra, and revalidated with the chat's version like {@link #getChatHistory}.</p>
+     *
+     * @param cursor {@code nextCursor} of the previous page, omitted for the newest messages
+     * @param size   messages per page, at most {@value #MAX_PAGE_SIZE}
+     * @return a {@link ResponseEntity} containing the page and the cursor of the next one
+     */
+    @GetMapping(value = "/{chatId}/messages", params = "size")
+    public ResponseEntity<ChatPage> findMessagesPage(
+            @PathVariable String chatId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int size,
+            ServletWebRequest request
+    ) {
+        log.info("Fetching messages page for chatId={} cursor={} size={}", chatId, cursor, size);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cursor == null || cursor.isBlank()) {
+            if (notModified(chatService.findVersion(chatId), request)) {
+                return null;
+            }
+            return ResponseEntity.ok(chatService.findMessagesPage(chatId, null, size));
+        }
+        ChatPage page = chatService.findMessagesPage(chatId, cursor, size);
+        if (page.messages().size() < size) {
+            // the oldest page: complete, but cheap to re-read and not worth pinning in caches
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(page);
+        }
+        return ResponseEntity.ok().cacheControl(olderPageCacheControl).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
 }
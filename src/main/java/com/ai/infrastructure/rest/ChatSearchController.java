@@ -0,0 +1,47 @@
+package com.ai.infrastructure.rest;
+
+import com.ai.infrastructure.search.ChatSearchIndex;
+import com.ai.infrastructure.search.ChatSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/chats")
+@ConditionalOnProperty(value = "app.search.enabled", havingValue = "true", matchIfMissing = true)
+public class ChatSearchController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchController.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ChatSearchIndex chatSearchIndex;
+
+    public ChatSearchController(ChatSearchIndex chatSearchIndex) {
+        this.chatSearchIndex = chatSearchIndex;
+    }
+
+    /**
+     * Full-text search over all chat messages.
+     *
+     * @param q     search terms, Lucene query syntax supported
+     * @param limit maximum number of chats and of messages returned, at most {@value #MAX_LIMIT}
+     * @return a {@link ResponseEntity} containing ranked chat and message hits
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ChatSearchResult> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        log.info("Searching chats for: {}", q);
+        if (q.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(chatSearchIndex.search(q, Math.min(limit, MAX_LIMIT)));
+    }
+}
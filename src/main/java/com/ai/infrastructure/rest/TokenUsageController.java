@@ -0,0 +1,58 @@
+package com.ai.infrastructure.rest;
+
+import com.ai.application.dto.DailyTokenUsageDto;
+import com.ai.application.dto.TokenUsageDto;
+import com.ai.application.service.TokenUsageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/usage")
+public class TokenUsageController {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenUsageController.class);
+
+    private static final int MAX_TOP = 100;
+
+    private final TokenUsageService tokenUsageService;
+
+    public TokenUsageController(TokenUsageService tokenUsageService) {
+        this.tokenUsageService = tokenUsageService;
+    }
+
+    /**
+     * Token usage and cost of a chat over its lifetime.
+     */
+    @GetMapping("/chats/{chatId}")
+    public TokenUsageDto findByChat(@PathVariable String chatId) {
+        log.info("Fetching token usage for chatId={}", chatId);
+        return tokenUsageService.findByChat(chatId);
+    }
+
+    /**
+     * Token usage and cost of a UTC day, with the chats that used the most tokens.
+     *
+     * @param day ISO date, e.g. {@code 2026-01-31}
+     * @param top number of chats listed, at most {@value #MAX_TOP}
+     */
+    @GetMapping("/days/{day}")
+    public ResponseEntity<DailyTokenUsageDto> findByDay(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @RequestParam(defaultValue = "10") int top
+    ) {
+        log.info("Fetching token usage for {}", day);
+        if (top < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tokenUsageService.findByDay(day, Math.min(top, MAX_TOP)));
+    }
+}
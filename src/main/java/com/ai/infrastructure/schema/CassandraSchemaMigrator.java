@@ -0,0 +1,229 @@
+package com.ai.infrastructure.schema;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned CQL scripts in {@code db.migration} ({@code V<n>__<description>.cql}) and
+ * records each applied version in {@code schema_version}.
+ *
+ * <p>When the schema is current, which is every start but the first after an upgrade, this is a
+ * single read of {@code schema_version} and no DDL is sent. Otherwise the pending scripts are
+ * applied in version order under a lightweight-transaction lock in {@code schema_version_lock}, so
+ * replicas starting together do not race on schema changes; the lock expires after
+ * {@code lockTimeout} if its holder dies.</p>
+ *
+ * <p>The keyspace is owned by the session, not by the scripts: {@code CREATE KEYSPACE} and
+ * {@code USE} statements in scripts are skipped and everything runs in the session's keyspace.
+ * Scripts are split on {@code ;} after removing {@code --} comments, so neither may appear inside a
+ * string literal. Scripts must stay idempotent ({@code IF NOT EXISTS}), because a script
+ * interrupted half-way is re-run from the start.</p>
+ */
+public class CassandraSchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(CassandraSchemaMigrator.class);
+
+    public static final String LOCATION = "classpath*:db.migration/V*__*.cql";
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.cql");
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(500);
+
+    public record Migration(int version, String description, String script) {
+
+        String checksum() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    private final CqlSession session;
+    private final List<Migration> migrations;
+    private final Duration lockTimeout;
+
+    public CassandraSchemaMigrator(CqlSession session, List<Migration> migrations, Duration lockTimeout) {
+        Assert.notNull(session, "session cannot be null");
+        Assert.notNull(migrations, "migrations cannot be null");
+        Assert.isTrue(session.getKeyspace().isPresent(), "session must be bound to a keyspace");
+        this.session = session;
+        this.migrations = migrations.stream().sorted(Comparator.comparingInt(Migration::version)).toList();
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Loads the scripts from {@link #LOCATION}.
+     */
+    public static List<Migration> loadFromClasspath() {
+        return load(new PathMatchingResourcePatternResolver(), LOCATION);
+    }
+
+    static List<Migration> load(ResourcePatternResolver resolver, String location) {
+        try {
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource resource : resolver.getResources(location)) {
+                Matcher name = FILE_NAME.matcher(resource.getFilename() == null ? "" : resource.getFilename());
+                if (!name.matches()) {
+                    continue;
+                }
+                migrations.add(new Migration(
+                        Integer.parseInt(name.group(1)),
+                        name.group(2).replace('_', ' '),
+                        resource.getContentAsString(StandardCharsets.UTF_8)));
+            }
+            return migrations;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema migrations from " + location, e);
+        }
+    }
+
+    /**
+     * Brings the schema up to the latest script.
+     *
+     * @return number of scripts applied, 0 when the schema was already current
+     */
+    public int migrate() {
+        if (migrations.isEmpty()) {
+            return 0;
+        }
+        int latest = migrations.getLast().version();
+        Map<Integer, String> applied = appliedVersions();
+        if (applied.containsKey(latest)) {
+            log.info("Cassandra schema is current at V{}", latest);
+            return 0;
+        }
+
+        createHistoryTables();
+        String owner = UUID.randomUUID().toString();
+        acquireLock(owner);
+        try {
+            // another instance may have finished while we waited for the lock
+            applied = appliedVersions();
+            int count = 0;
+            for (Migration migration : migrations) {
+                String checksum = applied.get(migration.version());
+                if (checksum != null) {
+                    if (!checksum.equals(migration.checksum())) {
+                        log.warn("Schema migration V{} changed after it was applied; the change is not re-applied", migration.version());
+                    }
+                    continue;
+                }
+                apply(migration);
+                count++;
+            }
+            return count;
+        } finally {
+            releaseLock(owner);
+        }
+    }
+
+    private Map<Integer, String> appliedVersions() {
+        Map<Integer, String> applied = new HashMap<>();
+        try {
+            for (Row row : session.execute(SimpleStatement.newInstance("SELECT version, checksum FROM schema_version")
+                    .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM))) {
+                applied.put(row.getInt("version"), row.getString("checksum"));
+            }
+        } catch (InvalidQueryException e) {
+            // schema_version does not exist yet: nothing applied
+            return Map.of();
+        }
+        return applied;
+    }
+
+    private void createHistoryTables() {
+        session.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version int PRIMARY KEY, description text, checksum text, applied_at timestamp
+                )""");
+        session.execute("CREATE TABLE IF NOT EXISTS schema_version_lock (id text PRIMARY KEY, owner text)");
+    }
+
+    private void acquireLock(String owner) {
+        // a crashed holder's lock expires after lockTimeout, so waiting twice as long always suffices
+        long deadline = System.nanoTime() + lockTimeout.toNanos() * 2;
+        while (true) {
+            boolean acquired = session.execute(SimpleStatement.newInstance(
+                    "INSERT INTO schema_version_lock (id, owner) VALUES ('migration', ?) IF NOT EXISTS USING TTL ?",
+                    owner, (int) Math.max(1, lockTimeout.toSeconds()))).wasApplied();
+            if (acquired) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for the schema migration lock");
+            }
+            log.info("Waiting for another instance to finish migrating the Cassandra schema");
+            try {
+                Thread.sleep(LOCK_POLL_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the schema migration lock", e);
+            }
+        }
+    }
+
+    private void releaseLock(String owner) {
+        try {
+            session.execute(SimpleStatement.newInstance(
+                    "DELETE FROM schema_version_lock WHERE id = 'migration' IF owner = ?", owner));
+        } catch (RuntimeException e) {
+            log.warn("Cannot release the schema migration lock; it expires after {}", lockTimeout, e);
+        }
+    }
+
+    private void apply(Migration migration) {
+        long start = System.nanoTime();
+        for (String statement : statements(migration.script())) {
+            session.execute(statement);
+        }
+        session.execute(SimpleStatement.newInstance(
+                        "INSERT INTO schema_version (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)",
+                        migration.version(), migration.description(), migration.checksum(), Instant.now())
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM));
+        log.info("Applied schema migration V{} ({}) in {} ms",
+                migration.version(), migration.description(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static List<String> statements(String script) {
+        String withoutComments = script.replaceAll("--[^\\n]*", "");
+        List<String> statements = new ArrayList<>();
+        for (String statement : withoutComments.split(";")) {
+            String trimmed = statement.strip();
+            String upper = trimmed.toUpperCase(Locale.ROOT);
+            if (trimmed.isEmpty() || upper.startsWith("USE ") || upper.startsWith("CREATE KEYSPACE")) {
+                continue;
+            }
+            statements.add(trimmed);
+        }
+        return statements;
+    }
+}
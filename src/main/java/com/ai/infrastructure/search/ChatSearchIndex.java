@@ -0,0 +1,398 @@
+package com.ai.infrastructure.search;
+
+import com.ai.infrastructure.repository.ChatMemoryListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded Lucene index over chat messages, one document per message.
+ *
+ * <p>As a {@link ChatMemoryListener} it receives every stored message and cleared conversation and
+ * puts them on a bounded queue. A single indexing thread drains the queue in batches. When the queue
+ * is full the update is dropped and counted in {@code chat.search.index.dropped}, because a write
+ * to chat memory must never wait for the index; a rebuild repairs gaps.</p>
+ *
+ * <p>Searches use a {@link SearcherManager} reopened from the writer every {@code refreshInterval}
+ * (near-real-time, without a commit), so new messages become searchable within that interval. The
+ * index is committed to disk every {@code commitInterval} and on close.</p>
+ *
+ * <p>A rebuild (see {@link ChatSearchIndexRebuild}) never empties the index. Every document is
+ * stamped with the generation current when it was written, and {@link #beginRebuild} starts a new
+ * one. The rebuild and the live path both upsert messages by their key, so neither loses what the
+ * other wrote. {@link #finishRebuild} then deletes the documents of older generations, which are
+ * the messages no longer in Cassandra. Searches see the old documents until then. A conversation
+ * cleared while the rebuild runs is deleted again at the end, in case the rebuild read it before
+ * the clear.</p>
+ */
+public class ChatSearchIndex implements ChatMemoryListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchIndex.class);
+
+    static final String DOC_ID = "doc_id";
+    static final String CHAT_ID = "chat_id";
+    static final String ROLE = "role";
+    static final String TIMESTAMP = "timestamp";
+    static final String CONTENT = "content";
+    static final String GENERATION = "generation";
+
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int MAX_BATCH = 256;
+    // chat ranking looks at this many message hits per requested chat
+    private static final int CHAT_HIT_FANOUT = 10;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final BlockingQueue<Runnable> queue;
+    private final Thread indexer;
+    private final ScheduledExecutorService maintenance;
+    private final Counter dropped;
+    private final Counter failures;
+    private final Timer searchTimer;
+    private final Set<String> clearedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile long generation;
+    private volatile boolean rebuilding;
+    private volatile boolean closed;
+
+    public ChatSearchIndex(Path indexDir, int queueCapacity, Duration refreshInterval, Duration commitInterval,
+                           MeterRegistry meterRegistry) {
+        Assert.notNull(indexDir, "indexDir cannot be null");
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+        try {
+            this.directory = FSDirectory.open(indexDir);
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open search index at " + indexDir, e);
+        }
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = meterRegistry.counter("chat.search.index.dropped");
+        this.failures = meterRegistry.counter("chat.search.index.failures");
+        this.searchTimer = meterRegistry.timer("chat.search.query");
+        meterRegistry.gauge("chat.search.index.queued", queue, BlockingQueue::size);
+
+        this.indexer = Thread.ofPlatform().daemon().name("chat-search-indexer").start(this::drainQueue);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("chat-search-refresh").factory());
+        maintenance.scheduleWithFixedDelay(this::refreshQuietly,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::commitQuietly,
+                commitInterval.toMillis(), commitInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        log.info("Opened search index at {} with {} documents", indexDir, writer.getDocStats().numDocs);
+    }
+
+    @Override
+    public void onMessagesAdded(String conversationId, List<Message> messages) {
+        enqueue(() -> addAll(conversationId, messages));
+    }
+
+    @Override
+    public void onConversationCleared(String conversationId) {
+        enqueue(() -> deleteConversation(conversationId));
+    }
+
+    private void enqueue(Runnable update) {
+        if (!queue.offer(update)) {
+            dropped.increment();
+            log.debug("Search index queue full, dropping update");
+        }
+    }
+
+    private void drainQueue() {
+        List<Runnable> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Runnable update : batch) {
+                try {
+                    update.run();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("Search index update failed", e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Indexes messages of a conversation. Messages already indexed (same chat and timestamp or
+     * {@code msg_id}) are replaced, so replays do not create duplicates.
+     */
+    public void addAll(String conversationId, List<Message> messages) {
+        try {
+            for (Message message : messages) {
+                Document doc = toDocument(conversationId, message, generation);
+                writer.updateDocument(new Term(DOC_ID, doc.get(DOC_ID)), doc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteConversation(String conversationId) {
+        if (rebuilding) {
+            clearedDuringRebuild.add(conversationId);
+        }
+        try {
+            writer.deleteDocuments(new Term(CHAT_ID, conversationId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts a rebuild: documents written from now on, by the rebuild or the live path, belong to a
+     * new generation.
+     *
+     * @return the new generation, to pass to {@link #finishRebuild}
+     */
+    public synchronized long beginRebuild() {
+        Assert.state(!rebuilding, "A rebuild is already running");
+        clearedDuringRebuild.clear();
+        rebuilding = true;
+        generation = Math.max(generation + 1, System.currentTimeMillis());
+        return generation;
+    }
+
+    /**
+     * Ends a rebuild: deletes the documents of earlier generations, which the rebuild did not find in
+     * Cassandra, and the conversations cleared while it ran.
+     */
+    public synchronized void finishRebuild(long rebuiltGeneration) {
+        Assert.state(rebuilding && rebuiltGeneration == generation, "No rebuild of generation " + rebuiltGeneration + " is running");
+        try {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuiltGeneration - 1));
+            for (String conversationId : clearedDuringRebuild) {
+                writer.deleteDocuments(new Term(CHAT_ID, conversationId));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            rebuilding = false;
+            clearedDuringRebuild.clear();
+        }
+    }
+
+    /**
+     * Ends a failed rebuild without deleting anything; older documents stay until a rebuild finishes.
+     */
+    public synchronized void abortRebuild(long rebuiltGeneration) {
+        if (rebuilding && rebuiltGeneration == generation) {
+            rebuilding = false;
+            clearedDuringRebuild.clear();
+        }
+    }
+
+    public long documentCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Makes everything indexed so far visible to searches. Normally done every refresh interval.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void commit() {
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches message content with Lucene query syntax; input that does not parse is searched as
+     * plain terms.
+     *
+     * @param limit maximum number of chats and of messages returned
+     */
+    public ChatSearchResult search(String queryText, int limit) {
+        Assert.hasText(queryText, "query cannot be null or empty");
+        Assert.isTrue(limit > 0, "limit must be greater than 0");
+
+        long start = System.nanoTime();
+        Query query = parse(queryText);
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs top = searcher.search(query, limit * CHAT_HIT_FANOUT);
+            StoredFields storedFields = searcher.storedFields();
+
+            List<ChatSearchResult.MessageHit> messages = new ArrayList<>(Math.min(limit, top.scoreDocs.length));
+            Map<String, ChatAccumulator> chats = new LinkedHashMap<>();
+            for (ScoreDoc hit : top.scoreDocs) {
+                Document doc = storedFields.document(hit.doc);
+                String chatId = doc.get(CHAT_ID);
+                // hits arrive best first, so the first hit of a chat carries its best score
+                chats.computeIfAbsent(chatId, id -> new ChatAccumulator(hit.score)).matches++;
+                if (messages.size() < limit) {
+                    messages.add(new ChatSearchResult.MessageHit(
+                            chatId,
+                            doc.get(ROLE),
+                            snippet(doc.get(CONTENT)),
+                            Instant.ofEpochMilli(doc.getField(TIMESTAMP).numericValue().longValue()),
+                            hit.score));
+                }
+            }
+
+            List<ChatSearchResult.ChatHit> chatHits = chats.entrySet().stream()
+                    .map(e -> new ChatSearchResult.ChatHit(e.getKey(), e.getValue().bestScore, e.getValue().matches))
+                    .sorted(Comparator.comparingDouble(ChatSearchResult.ChatHit::score).reversed())
+                    .limit(limit)
+                    .toList();
+
+            long tookNanos = System.nanoTime() - start;
+            searchTimer.record(tookNanos, TimeUnit.NANOSECONDS);
+            return new ChatSearchResult(chatHits, messages, tookNanos / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    log.warn("Cannot release index searcher", e);
+                }
+            }
+        }
+    }
+
+    private Query parse(String queryText) {
+        try {
+            return new QueryParser(CONTENT, analyzer).parse(queryText);
+        } catch (ParseException e) {
+            try {
+                return new QueryParser(CONTENT, analyzer).parse(QueryParser.escape(queryText));
+            } catch (ParseException escaped) {
+                throw new IllegalArgumentException("Cannot parse query: " + queryText, escaped);
+            }
+        }
+    }
+
+    private static Document toDocument(String conversationId, Message message, long generation) {
+        Object msgId = message.getMetadata().get("msg_id");
+        Object timestamp = message.getMetadata().get("msg_timestamp");
+        Instant at = timestamp instanceof Instant instant ? instant : Instant.now();
+        String key = msgId != null ? msgId.toString()
+                : timestamp != null ? at.toString()
+                : Integer.toHexString(message.getText() == null ? 0 : message.getText().hashCode());
+
+        Document doc = new Document();
+        doc.add(new StringField(DOC_ID, conversationId + "/" + key, Field.Store.YES));
+        doc.add(new StringField(CHAT_ID, conversationId, Field.Store.YES));
+        doc.add(new StringField(ROLE, message.getMessageType().getValue(), Field.Store.YES));
+        doc.add(new StoredField(TIMESTAMP, at.toEpochMilli()));
+        doc.add(new TextField(CONTENT, message.getText() == null ? "" : message.getText(), Field.Store.YES));
+        doc.add(new LongPoint(GENERATION, generation));
+        return doc;
+    }
+
+    private static String snippet(String content) {
+        if (content == null || content.length() <= SNIPPET_LENGTH) {
+            return content;
+        }
+        return content.substring(0, SNIPPET_LENGTH) + "…";
+    }
+
+    private void refreshQuietly() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index refresh failed", e);
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index commit failed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        indexer.interrupt();
+        maintenance.shutdownNow();
+        try {
+            indexer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private static final class ChatAccumulator {
+        private final float bestScore;
+        private int matches;
+
+        private ChatAccumulator(float bestScore) {
+            this.bestScore = bestScore;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ai.infrastructure.search;
+
+import com.ai.infrastructure.repository.ChatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Rebuilds {@link ChatSearchIndex} from Cassandra: lists every conversation with the repository's
+ * token-range scan and re-indexes up to {@code concurrency} conversations at a time into a new
+ * generation, then drops what the scan did not find. The index stays searchable throughout, and
+ * messages stored while the rebuild runs are indexed by the live path as usual; both upsert by
+ * message key, so nothing is duplicated or lost.
+ */
+public class ChatSearchIndexRebuild {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchIndexRebuild.class);
+
+    private final ChatRepository<?> chatRepository;
+    private final ChatSearchIndex index;
+    private final int concurrency;
+
+    public ChatSearchIndexRebuild(ChatRepository<?> chatRepository, ChatSearchIndex index, int concurrency) {
+        this.chatRepository = chatRepository;
+        this.index = index;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return number of messages indexed
+     */
+    public long run() {
+        log.info("Rebuilding search index from Cassandra");
+        long start = System.nanoTime();
+
+        long generation = index.beginRebuild();
+        Long indexed;
+        try {
+            indexed = chatRepository.scanConversationIds()
+                    .flatMap(chatId -> Mono.fromCallable(() -> {
+                                var messages = chatRepository.findByConversationId(chatId);
+                                index.addAll(chatId, messages);
+                                return (long) messages.size();
+                            })
+                            .subscribeOn(Schedulers.boundedElastic()), concurrency)
+                    .reduce(0L, Long::sum)
+                    .block();
+        } catch (RuntimeException e) {
+            // keep the older documents: the scan did not get to all of them
+            index.abortRebuild(generation);
+            throw e;
+        }
+        index.finishRebuild(generation);
+        index.commit();
+        index.refresh();
+
+        log.info("Rebuilt search index with {} messages in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+        return indexed == null ? 0 : indexed;
+    }
+}
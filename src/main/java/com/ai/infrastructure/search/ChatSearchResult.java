@@ -0,0 +1,17 @@
+package com.ai.infrastructure.search;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a full-text search: matching chats ranked by their best message, and the best matching
+ * messages themselves.
+ */
+public record ChatSearchResult(List<ChatHit> chats, List<MessageHit> messages, long tookMillis) {
+
+    public record ChatHit(String chatId, float score, int matchingMessages) {
+    }
+
+    public record MessageHit(String chatId, String role, String snippet, Instant timestamp, float score) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.ai.infrastructure.usage;
+
+/**
+ * Token totals over a number of model turns.
+ */
+public record TokenUsage(long promptTokens, long completionTokens, long turns) {
+
+    public static final TokenUsage ZERO = new TokenUsage(0, 0, 0);
+
+    public TokenUsage plus(TokenUsage other) {
+        return new TokenUsage(promptTokens + other.promptTokens, completionTokens + other.completionTokens, turns + other.turns);
+    }
+
+    public TokenUsage minus(TokenUsage other) {
+        return new TokenUsage(promptTokens - other.promptTokens, completionTokens - other.completionTokens, turns - other.turns);
+    }
+
+    public long totalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    public boolean isZero() {
+        return promptTokens == 0 && completionTokens == 0 && turns == 0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.ai.infrastructure.usage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Aggregates token usage in memory per chat and UTC day and flushes the increments to
+ * {@link TokenUsageRepository} every {@code flushInterval}, so a turn costs no Cassandra write on the
+ * streaming path.
+ *
+ * <p>Recording is lock-free: each chat and day has a {@link Tally} of {@link LongAdder}s, which
+ * stripe concurrent increments across cells. Tallies are never reset. The flusher remembers what it
+ * already wrote and sends the difference, so increments made while a flush runs are picked up by the
+ * next one. A failed write is retried on the next flush; if it timed out after being applied, that
+ * increment is counted twice.</p>
+ *
+ * <p>Tallies without increments for two flushes are removed. Their residue, from a recording that
+ * raced with the removal, is written on the next flush.</p>
+ */
+public class TokenUsageAccumulator implements TokenUsageRecorder, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenUsageAccumulator.class);
+
+    private static final int IDLE_FLUSHES_BEFORE_REMOVAL = 2;
+    private static final int WRITE_CONCURRENCY = 16;
+
+    record Key(String chatId, LocalDate day) {
+    }
+
+    static final class Tally {
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder turns = new LongAdder();
+        // written on flush only
+        volatile TokenUsage flushed = TokenUsage.ZERO;
+        int idleFlushes;
+
+        TokenUsage total() {
+            return new TokenUsage(promptTokens.sum(), completionTokens.sum(), turns.sum());
+        }
+
+        TokenUsage unflushed() {
+            return total().minus(flushed);
+        }
+    }
+
+    private final TokenUsageRepository repository;
+    private final Clock clock;
+    private final Map<Key, Tally> tallies = new ConcurrentHashMap<>();
+    private final List<Map.Entry<Key, Tally>> removed = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter flushFailures;
+
+    public TokenUsageAccumulator(TokenUsageRepository repository, Clock clock, Duration flushInterval, MeterRegistry meterRegistry) {
+        Assert.notNull(repository, "repository cannot be null");
+        Assert.notNull(clock, "clock cannot be null");
+        Assert.isTrue(flushInterval != null && flushInterval.isPositive(), "flushInterval must be positive");
+        this.repository = repository;
+        this.clock = clock;
+        this.flushFailures = meterRegistry.counter("chat.usage.flush.failures");
+        meterRegistry.gaugeMapSize("chat.usage.tallies", Tags.empty(), tallies);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("token-usage-flusher").factory());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void record(String chatId, long promptTokens, long completionTokens) {
+        if (chatId == null) {
+            return;
+        }
+        Tally tally = tallies.computeIfAbsent(new Key(chatId, LocalDate.now(clock.withZone(ZoneOffset.UTC))), key -> new Tally());
+        tally.promptTokens.add(Math.max(0, promptTokens));
+        tally.completionTokens.add(Math.max(0, completionTokens));
+        tally.turns.increment();
+    }
+
+    /**
+     * Increments of {@code chatId} recorded but not yet written, over all days.
+     */
+    public TokenUsage unflushed(String chatId) {
+        return sumUnflushed(key -> key.chatId().equals(chatId));
+    }
+
+    /**
+     * Increments of {@code chatId} on {@code day} recorded but not yet written.
+     */
+    public TokenUsage unflushed(String chatId, LocalDate day) {
+        return sumUnflushed(key -> key.equals(new Key(chatId, day)));
+    }
+
+    private TokenUsage sumUnflushed(Predicate<Key> filter) {
+        TokenUsage sum = TokenUsage.ZERO;
+        for (Map.Entry<Key, Tally> entry : tallies.entrySet()) {
+            if (filter.test(entry.getKey())) {
+                sum = sum.plus(entry.getValue().unflushed());
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Chats with increments on {@code day} not yet written.
+     */
+    public List<String> unflushedChats(LocalDate day) {
+        return tallies.entrySet().stream()
+                .filter(entry -> entry.getKey().day().equals(day) && !entry.getValue().unflushed().isZero())
+                .map(entry -> entry.getKey().chatId())
+                .toList();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Token usage flush failed", e);
+        }
+    }
+
+    /**
+     * Writes every increment recorded since the last flush and waits for the writes.
+     *
+     * @return number of chat-day rows written
+     */
+    public synchronized long flush() {
+        List<Map.Entry<Key, Tally>> toWrite = new ArrayList<>(removed);
+        removed.clear();
+        for (Map.Entry<Key, Tally> entry : tallies.entrySet()) {
+            Tally tally = entry.getValue();
+            if (!tally.unflushed().isZero()) {
+                tally.idleFlushes = 0;
+                toWrite.add(Map.entry(entry.getKey(), tally));
+            } else if (++tally.idleFlushes >= IDLE_FLUSHES_BEFORE_REMOVAL && tallies.remove(entry.getKey(), tally)) {
+                // a record() that fetched this tally before the removal may still add to it
+                removed.add(Map.entry(entry.getKey(), tally));
+            }
+        }
+
+        List<Map.Entry<Key, Tally>> failed = Flux.fromIterable(toWrite)
+                .flatMap(entry -> write(entry.getKey(), entry.getValue())
+                        .then(Mono.<Map.Entry<Key, Tally>>empty())
+                        .onErrorResume(e -> {
+                            flushFailures.increment();
+                            log.warn("Cannot write token usage of chatId={} for {}; retrying on the next flush",
+                                    entry.getKey().chatId(), entry.getKey().day(), e);
+                            return Mono.just(entry);
+                        }), WRITE_CONCURRENCY)
+                .collectList()
+                .block();
+        if (failed == null) {
+            return toWrite.size();
+        }
+        for (Map.Entry<Key, Tally> entry : failed) {
+            // live tallies are picked up again anyway; removed ones only through the residue list
+            if (tallies.get(entry.getKey()) != entry.getValue()) {
+                removed.add(entry);
+            }
+        }
+        return toWrite.size() - failed.size();
+    }
+
+    private Mono<Void> write(Key key, Tally tally) {
+        TokenUsage total = tally.total();
+        TokenUsage delta = total.minus(tally.flushed);
+        if (delta.isZero()) {
+            return Mono.empty();
+        }
+        return Mono.fromCompletionStage(() -> repository.add(key.chatId(), key.day(), delta))
+                .doOnSuccess(ignored -> tally.flushed = total);
+    }
+
+    /**
+     * Stops the periodic flush and writes what is left.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
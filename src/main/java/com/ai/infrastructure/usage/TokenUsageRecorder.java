@@ -0,0 +1,16 @@
+package com.ai.infrastructure.usage;
+
+/**
+ * Receives the token usage of each model turn.
+ */
+@FunctionalInterface
+public interface TokenUsageRecorder {
+
+    TokenUsageRecorder NONE = (chatId, promptTokens, completionTokens) -> {
+    };
+
+    /**
+     * Records one turn of a chat. Must not block: called on the streaming path.
+     */
+    void record(String chatId, long promptTokens, long completionTokens);
+}
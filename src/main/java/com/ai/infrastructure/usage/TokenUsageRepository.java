@@ -0,0 +1,88 @@
+package com.ai.infrastructure.usage;
+
+import com.ai.infrastructure.repository.QueryProfile;
+import com.ai.infrastructure.repository.QueryProfiles;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import org.springframework.util.Assert;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Token usage counters in {@code chat_token_usage} (per chat, all time) and
+ * {@code daily_token_usage} (per UTC day and chat).
+ *
+ * <p>Counter increments are not idempotent, so they are sent non-idempotent and never retried by the
+ * driver. A write that times out may or may not have been applied.</p>
+ */
+public class TokenUsageRepository {
+
+    private final CqlSession cqlSession;
+    private final QueryProfiles profiles;
+    private final PreparedStatement incrementChat;
+    private final PreparedStatement incrementDay;
+    private final PreparedStatement selectChat;
+    private final PreparedStatement selectDay;
+
+    public TokenUsageRepository(CqlSession cqlSession, QueryProfiles profiles) {
+        this.cqlSession = cqlSession;
+        this.profiles = profiles;
+        this.incrementChat = cqlSession.prepare("""
+                UPDATE chat_token_usage
+                SET prompt_tokens = prompt_tokens + ?, completion_tokens = completion_tokens + ?, turns = turns + ?
+                WHERE session_id = ?""");
+        this.incrementDay = cqlSession.prepare("""
+                UPDATE daily_token_usage
+                SET prompt_tokens = prompt_tokens + ?, completion_tokens = completion_tokens + ?, turns = turns + ?
+                WHERE day = ? AND session_id = ?""");
+        this.selectChat = cqlSession.prepare(
+                "SELECT prompt_tokens, completion_tokens, turns FROM chat_token_usage WHERE session_id = ?");
+        this.selectDay = cqlSession.prepare(
+                "SELECT session_id, prompt_tokens, completion_tokens, turns FROM daily_token_usage WHERE day = ?");
+    }
+
+    /**
+     * Adds {@code delta} to the chat's all-time and daily counters in one counter batch.
+     */
+    public CompletionStage<Void> add(String chatId, LocalDate day, TokenUsage delta) {
+        Assert.hasText(chatId, "chatId cannot be null or empty");
+        BatchStatement batch = BatchStatement.builder(DefaultBatchType.COUNTER)
+                .addStatement(incrementChat.bind(delta.promptTokens(), delta.completionTokens(), delta.turns(), chatId))
+                .addStatement(incrementDay.bind(delta.promptTokens(), delta.completionTokens(), delta.turns(),
+                        day, chatId))
+                .build();
+        BatchStatement statement = profiles.applyNonIdempotent(QueryProfile.DURABLE_WRITE, batch);
+        return profiles.timedAsync(QueryProfile.DURABLE_WRITE, () -> cqlSession.executeAsync(statement))
+                .thenApply(rs -> null);
+    }
+
+    public TokenUsage findByChat(String chatId) {
+        Assert.hasText(chatId, "chatId cannot be null or empty");
+        Row row = profiles.timed(QueryProfile.WINDOW_READ,
+                () -> cqlSession.execute(profiles.apply(QueryProfile.WINDOW_READ, selectChat.bind(chatId)))).one();
+        return row == null ? TokenUsage.ZERO : toUsage(row);
+    }
+
+    /**
+     * Usage of every chat used on {@code day}, from one partition.
+     */
+    public Map<String, TokenUsage> findByDay(LocalDate day) {
+        Assert.notNull(day, "day cannot be null");
+        Map<String, TokenUsage> usage = new LinkedHashMap<>();
+        for (Row row : profiles.timed(QueryProfile.WINDOW_READ,
+                () -> cqlSession.execute(profiles.apply(QueryProfile.WINDOW_READ, selectDay.bind(day))))) {
+            usage.put(row.getString("session_id"), toUsage(row));
+        }
+        return usage;
+    }
+
+    private static TokenUsage toUsage(Row row) {
+        return new TokenUsage(row.getLong("prompt_tokens"), row.getLong("completion_tokens"), row.getLong("turns"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.ai.infrastructure.vector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embeds texts through an {@link EmbeddingModel} with batching and a content-hash cache.
+ *
+ * <p>Texts are keyed by their SHA-256, so identical content (a repeated question, a re-indexed
+ * message) is embedded once. Misses are deduplicated and sent in calls of at most
+ * {@code maxBatchSize} texts. The cache keeps the {@code maxCacheEntries} most recently used
+ * vectors.</p>
+ */
+public class CachingEmbedder {
+
+    private final EmbeddingModel embeddingModel;
+    private final int maxBatchSize;
+    private final Map<String, float[]> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter calls;
+
+    public CachingEmbedder(EmbeddingModel embeddingModel, int maxBatchSize, int maxCacheEntries, MeterRegistry meterRegistry) {
+        Assert.notNull(embeddingModel, "embeddingModel cannot be null");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Assert.isTrue(maxCacheEntries > 0, "maxCacheEntries must be greater than 0");
+        this.embeddingModel = embeddingModel;
+        this.maxBatchSize = maxBatchSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("chat.embedding.cache", "result", "hit");
+        this.misses = meterRegistry.counter("chat.embedding.cache", "result", "miss");
+        this.calls = meterRegistry.counter("chat.embedding.calls");
+    }
+
+    public float[] embed(String text) {
+        return embedAll(List.of(text)).getFirst();
+    }
+
+    /**
+     * @return one vector per text, in input order
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        Assert.noNullElements(texts, "texts cannot contain null elements");
+
+        List<String> keys = texts.stream().map(CachingEmbedder::hash).toList();
+        Map<String, float[]> found = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        synchronized (cache) {
+            for (int i = 0; i < texts.size(); i++) {
+                float[] cached = cache.get(keys.get(i));
+                if (cached != null) {
+                    hits.increment();
+                    found.put(keys.get(i), cached);
+                } else {
+                    missing.putIfAbsent(keys.get(i), texts.get(i));
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            List<String> missingKeys = new ArrayList<>(missing.keySet());
+            List<String> missingTexts = new ArrayList<>(missing.values());
+            for (int from = 0; from < missingTexts.size(); from += maxBatchSize) {
+                int to = Math.min(from + maxBatchSize, missingTexts.size());
+                List<float[]> vectors = embeddingModel.embed(missingTexts.subList(from, to));
+                calls.increment();
+                synchronized (cache) {
+                    for (int i = from; i < to; i++) {
+                        cache.put(missingKeys.get(i), vectors.get(i - from));
+                        found.put(missingKeys.get(i), vectors.get(i - from));
+                    }
+                }
+            }
+        }
+
+        return keys.stream().map(found::get).toList();
+    }
+
+    static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
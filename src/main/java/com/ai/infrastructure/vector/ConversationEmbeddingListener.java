@@ -0,0 +1,190 @@
+package com.ai.infrastructure.vector;
+
+import com.ai.infrastructure.repository.ChatMemoryListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds stored chat messages into a {@link VectorStore} for semantic recall.
+ *
+ * <p>Like the search index it only enqueues on the caller's thread; a worker drains the queue and
+ * embeds up to {@code batchSize} messages per {@link VectorStore#add} call, so a burst of short
+ * messages costs one embedding request instead of one per message. A full queue drops the update and
+ * counts it in {@code chat.embedding.dropped}.</p>
+ *
+ * <p>Each message becomes one document with id {@code conversationId/messageKey} and metadata
+ * {@link #CONVERSATION_ID}, {@link #ROLE} and {@link #TIMESTAMP} (epoch millis). System and blank
+ * messages are skipped.</p>
+ */
+public class ConversationEmbeddingListener implements ChatMemoryListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationEmbeddingListener.class);
+
+    public static final String CONVERSATION_ID = "conversation_id";
+    public static final String ROLE = "role";
+    public static final String TIMESTAMP = "msg_timestamp";
+
+    private sealed interface Update {
+    }
+
+    private record Added(List<Document> documents) implements Update {
+    }
+
+    private record Cleared(String conversationId) implements Update {
+    }
+
+    private final VectorStore vectorStore;
+    private final int batchSize;
+    private final BlockingQueue<Update> queue;
+    private final Thread worker;
+    private final Counter dropped;
+    private final Counter failures;
+    private volatile boolean closed;
+
+    public ConversationEmbeddingListener(VectorStore vectorStore, int queueCapacity, int batchSize, MeterRegistry meterRegistry) {
+        Assert.notNull(vectorStore, "vectorStore cannot be null");
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+        this.vectorStore = vectorStore;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = meterRegistry.counter("chat.embedding.dropped");
+        this.failures = meterRegistry.counter("chat.embedding.failures");
+        meterRegistry.gauge("chat.embedding.queued", queue, BlockingQueue::size);
+        this.worker = Thread.ofPlatform().daemon().name("chat-embedding").start(this::drainQueue);
+    }
+
+    @Override
+    public void onMessagesAdded(String conversationId, List<Message> messages) {
+        List<Document> documents = messages.stream()
+                .filter(message -> message.getMessageType() != MessageType.SYSTEM && StringUtils.hasText(message.getText()))
+                .map(message -> toDocument(conversationId, message))
+                .toList();
+        if (!documents.isEmpty()) {
+            enqueue(new Added(documents));
+        }
+    }
+
+    @Override
+    public void onConversationCleared(String conversationId) {
+        enqueue(new Cleared(conversationId));
+    }
+
+    private void enqueue(Update update) {
+        if (!queue.offer(update)) {
+            dropped.increment();
+            log.debug("Embedding queue full, dropping update");
+        }
+    }
+
+    private void drainQueue() {
+        List<Update> updates = new ArrayList<>();
+        List<Document> pending = new ArrayList<>(batchSize);
+        while (!closed) {
+            try {
+                updates.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(updates);
+            // adds are merged into batches; a clear flushes what precedes it so order is kept
+            for (Update update : updates) {
+                switch (update) {
+                    case Added added -> {
+                        for (Document document : added.documents()) {
+                            pending.add(document);
+                            if (pending.size() == batchSize) {
+                                store(pending);
+                            }
+                        }
+                    }
+                    case Cleared cleared -> {
+                        store(pending);
+                        clear(cleared.conversationId());
+                    }
+                }
+            }
+            store(pending);
+            updates.clear();
+        }
+    }
+
+    private void store(List<Document> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            vectorStore.add(List.copyOf(pending));
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Embedding {} messages failed", pending.size(), e);
+        }
+        pending.clear();
+    }
+
+    private void clear(String conversationId) {
+        try {
+            vectorStore.delete(new FilterExpressionBuilder().eq(CONVERSATION_ID, conversationId).build());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Removing embeddings of conversation {} failed", conversationId, e);
+        }
+    }
+
+    /**
+     * The document id a stored message is embedded under; also used to recognise messages that are
+     * already in the prompt.
+     */
+    public static String documentId(String conversationId, Message message) {
+        Object msgId = message.getMetadata().get("msg_id");
+        Object timestamp = message.getMetadata().get("msg_timestamp");
+        String key = msgId != null ? msgId.toString()
+                : timestamp instanceof Instant instant ? instant.toString()
+                : Integer.toHexString(message.getText() == null ? 0 : message.getText().hashCode());
+        return conversationId + "/" + key;
+    }
+
+    private static Document toDocument(String conversationId, Message message) {
+        Object timestamp = message.getMetadata().get("msg_timestamp");
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(CONVERSATION_ID, conversationId);
+        metadata.put(ROLE, message.getMessageType().getValue());
+        metadata.put(TIMESTAMP, (timestamp instanceof Instant instant ? instant : Instant.now()).toEpochMilli());
+        return Document.builder()
+                .id(documentId(conversationId, message))
+                .text(message.getText())
+                .metadata(metadata)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ai.infrastructure.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Adds messages recalled from a {@link VectorStore} to the prompt, so the memory window sent with each
+ * request can stay short.
+ *
+ * <p>Works like Spring AI's {@code QuestionAnswerAdvisor}, with two differences that matter for chat
+ * memory. The query is the newest user message by {@code msg_timestamp}: the window comes out of
+ * memory newest first, so "the last user message" of the prompt is the oldest one. And messages that
+ * are already in the window are not recalled again.</p>
+ *
+ * <p>Recall is limited to the conversation given in the {@link ChatMemory#CONVERSATION_ID} advisor
+ * parameter unless {@code crossConversation} is set; without that parameter the prompt is passed on
+ * unchanged. The recalled messages go into one extra system message after the existing ones.</p>
+ */
+public class ConversationRecallAdvisor implements BaseAdvisor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationRecallAdvisor.class);
+
+    private final VectorStore vectorStore;
+    private final int topK;
+    private final double similarityThreshold;
+    private final boolean crossConversation;
+    private final int order;
+
+    public ConversationRecallAdvisor(VectorStore vectorStore, int topK, double similarityThreshold,
+                                     boolean crossConversation, int order) {
+        Assert.notNull(vectorStore, "vectorStore cannot be null");
+        Assert.isTrue(topK > 0, "topK must be greater than 0");
+        this.vectorStore = vectorStore;
+        this.topK = topK;
+        this.similarityThreshold = similarityThreshold;
+        this.crossConversation = crossConversation;
+        this.order = order;
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+        Object conversationId = request.context().get(ChatMemory.CONVERSATION_ID);
+        Prompt prompt = request.prompt();
+        UserMessage question = newestUserMessage(prompt.getInstructions());
+        if (conversationId == null || question == null || !StringUtils.hasText(question.getText())) {
+            return request;
+        }
+
+        List<Document> recalled;
+        try {
+            recalled = recall(conversationId.toString(), question.getText(), prompt.getInstructions());
+        } catch (RuntimeException e) {
+            // recall improves answers but is not required for one
+            log.warn("Semantic recall failed for conversation {}", conversationId, e);
+            return request;
+        }
+        if (recalled.isEmpty()) {
+            return request;
+        }
+
+        List<Message> messages = new ArrayList<>(prompt.getInstructions().size() + 1);
+        int insertAt = 0;
+        while (insertAt < prompt.getInstructions().size()
+                && prompt.getInstructions().get(insertAt).getMessageType() == MessageType.SYSTEM) {
+            insertAt++;
+        }
+        messages.addAll(prompt.getInstructions().subList(0, insertAt));
+        messages.add(new SystemMessage(render(recalled)));
+        messages.addAll(prompt.getInstructions().subList(insertAt, prompt.getInstructions().size()));
+
+        return request.mutate()
+                .prompt(new Prompt(messages, prompt.getOptions()))
+                .build();
+    }
+
+    private List<Document> recall(String conversationId, String query, List<Message> window) {
+        Set<String> inWindow = window.stream()
+                .map(message -> ConversationEmbeddingListener.documentId(conversationId, message))
+                .collect(Collectors.toSet());
+
+        SearchRequest.Builder search = SearchRequest.builder()
+                .query(query)
+                // ask for enough extra hits to still have topK after dropping the window
+                .topK(topK + inWindow.size())
+                .similarityThreshold(similarityThreshold);
+        if (!crossConversation) {
+            search.filterExpression(new FilterExpressionBuilder()
+                    .eq(ConversationEmbeddingListener.CONVERSATION_ID, conversationId)
+                    .build());
+        }
+
+        List<Document> found = vectorStore.similaritySearch(search.build());
+        if (found == null) {
+            return List.of();
+        }
+        return found.stream()
+                .filter(document -> !inWindow.contains(document.getId()))
+                .limit(topK)
+                .sorted(Comparator.comparingLong(ConversationRecallAdvisor::timestamp))
+                .toList();
+    }
+
+    private static String render(List<Document> recalled) {
+        StringBuilder text = new StringBuilder(
+                "Earlier messages that may be relevant to the current question, oldest first:\n");
+        for (Document document : recalled) {
+            text.append("- [")
+                    .append(document.getMetadata().getOrDefault(ConversationEmbeddingListener.ROLE, "user"))
+                    .append("] ")
+                    .append(document.getText())
+                    .append('\n');
+        }
+        return text.toString();
+    }
+
+    private static long timestamp(Document document) {
+        return document.getMetadata().get(ConversationEmbeddingListener.TIMESTAMP) instanceof Number n ? n.longValue() : 0;
+    }
+
+    static UserMessage newestUserMessage(List<Message> messages) {
+        UserMessage newest = null;
+        Instant newestAt = null;
+        for (Message message : messages) {
+            if (!(message instanceof UserMessage user)) {
+                continue;
+            }
+            Instant at = message.getMetadata().get("msg_timestamp") instanceof Instant instant ? instant : null;
+            if (newest == null) {
+                newest = user;
+                newestAt = at;
+            } else if (at == null ? newestAt == null : newestAt == null || at.isAfter(newestAt)) {
+                // a timestamp wins over none, a later timestamp over an earlier, else the later position
+                newest = user;
+                newestAt = at;
+            }
+        }
+        return newest;
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse response, AdvisorChain advisorChain) {
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ai.infrastructure.vector;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates a Spring AI {@link Filter.Expression} against a document's metadata.
+ *
+ * <p>Numbers compare by value regardless of their boxed type, because metadata read back from the
+ * store file comes out of Jackson as {@code Integer} or {@code Long} depending on magnitude.</p>
+ */
+final class FilterMatcher {
+
+    private FilterMatcher() {
+    }
+
+    static boolean matches(Filter.Expression expression, Map<String, Object> metadata) {
+        return switch (expression.type()) {
+            case AND -> matches(operand(expression.left()), metadata) && matches(operand(expression.right()), metadata);
+            case OR -> matches(operand(expression.left()), metadata) || matches(operand(expression.right()), metadata);
+            case NOT -> !matches(operand(expression.left()), metadata);
+            case EQ -> equal(actual(expression, metadata), expected(expression));
+            case NE -> !equal(actual(expression, metadata), expected(expression));
+            case GT -> inRange(expression, metadata, c -> c > 0);
+            case GTE -> inRange(expression, metadata, c -> c >= 0);
+            case LT -> inRange(expression, metadata, c -> c < 0);
+            case LTE -> inRange(expression, metadata, c -> c <= 0);
+            case IN -> in(actual(expression, metadata), expected(expression));
+            case NIN -> !in(actual(expression, metadata), expected(expression));
+            default -> throw new IllegalArgumentException("Unsupported filter operation: " + expression.type());
+        };
+    }
+
+    private static Filter.Expression operand(Filter.Operand operand) {
+        if (operand instanceof Filter.Expression expression) {
+            return expression;
+        }
+        if (operand instanceof Filter.Group group) {
+            return group.content();
+        }
+        throw new IllegalArgumentException("Expected an expression but got " + operand);
+    }
+
+    private static Object actual(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key key)) {
+            throw new IllegalArgumentException("Expected a metadata key but got " + expression.left());
+        }
+        String name = key.key();
+        // keys with special characters arrive quoted from the text filter syntax
+        if (name.length() > 1 && (name.startsWith("'") && name.endsWith("'") || name.startsWith("\"") && name.endsWith("\""))) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return metadata.get(name);
+    }
+
+    private static Object expected(Filter.Expression expression) {
+        if (!(expression.right() instanceof Filter.Value value)) {
+            throw new IllegalArgumentException("Expected a value but got " + expression.right());
+        }
+        return value.value();
+    }
+
+    private static boolean equal(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return Double.compare(a.doubleValue(), e.doubleValue()) == 0;
+        }
+        return Objects.equals(actual, expected);
+    }
+
+    // a missing value never satisfies a range condition
+    private static boolean inRange(Filter.Expression expression, Map<String, Object> metadata, IntPredicate comparison) {
+        Object actual = actual(expression, metadata);
+        return actual != null && comparison.test(compare(actual, expected(expression)));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return Double.compare(a.doubleValue(), e.doubleValue());
+        }
+        if (actual instanceof Comparable comparable && actual.getClass().isInstance(expected)) {
+            return comparable.compareTo(expected);
+        }
+        throw new IllegalArgumentException("Cannot compare " + actual + " with " + expected);
+    }
+
+    private static boolean in(Object actual, Object expected) {
+        if (!(expected instanceof Collection<?> values)) {
+            throw new IllegalArgumentException("IN and NIN expect a list but got " + expected);
+        }
+        return values.stream().anyMatch(value -> equal(actual, value));
+    }
+}
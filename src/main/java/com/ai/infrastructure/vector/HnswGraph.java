@@ -0,0 +1,298 @@
+package com.ai.infrastructure.vector;
+
+import org.springframework.util.Assert;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) over unit-length vectors,
+ * ranked by cosine similarity (dot product).
+ *
+ * <p>Nodes are numbered in insertion order and never removed; callers filter out deleted nodes with the
+ * {@code accept} predicate, which only decides what is returned, not what is traversed. Not thread
+ * safe: callers serialise {@link #add} against searches.</p>
+ */
+final class HnswGraph {
+
+    record Neighbor(int node, float similarity) {
+    }
+
+    private static final Comparator<Neighbor> CLOSEST_FIRST = Comparator.comparingDouble(n -> -n.similarity());
+    private static final Comparator<Neighbor> FURTHEST_FIRST = Comparator.comparingDouble(Neighbor::similarity);
+
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private final List<float[]> vectors = new ArrayList<>();
+    // links.get(node)[level] holds the neighbour ids of node on that level
+    private final List<int[][]> links = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswGraph(int dimensions, int m, int efConstruction) {
+        Assert.isTrue(dimensions > 0, "dimensions must be greater than 0");
+        Assert.isTrue(m > 1, "m must be greater than 1");
+        Assert.isTrue(efConstruction >= m, "efConstruction must be at least m");
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    float[] vector(int node) {
+        return vectors.get(node);
+    }
+
+    /**
+     * Adds a vector, normalised to unit length, and returns its node id.
+     */
+    int add(float[] vector) {
+        Assert.isTrue(vector.length == dimensions, "expected " + dimensions + " dimensions but got " + vector.length);
+        float[] unit = normalize(vector);
+        int node = vectors.size();
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+
+        vectors.add(unit);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[0];
+        }
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(unit, current, l);
+        }
+        List<Integer> entries = List.of(current);
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Neighbor> candidates = searchLayer(unit, entries, efConstruction, l, n -> true);
+            int maxLinks = l == 0 ? 2 * m : m;
+            List<Neighbor> selected = candidates.subList(0, Math.min(m, candidates.size()));
+            nodeLinks[l] = selected.stream().mapToInt(Neighbor::node).toArray();
+            for (Neighbor neighbor : selected) {
+                connect(neighbor.node(), node, l, maxLinks);
+            }
+            entries = candidates.stream().map(Neighbor::node).toList();
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+        return node;
+    }
+
+    /**
+     * Approximate top-{@code k} search. Only nodes passing {@code accept} are returned, so a selective
+     * predicate can yield fewer than {@code k} results.
+     */
+    List<Neighbor> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        float[] unit = normalize(query);
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(unit, current, l);
+        }
+        List<Neighbor> found = searchLayer(unit, List.of(current), Math.max(ef, k), 0, accept);
+        return found.subList(0, Math.min(k, found.size()));
+    }
+
+    /**
+     * Exact top-{@code k} over the given nodes.
+     */
+    List<Neighbor> exact(float[] query, int k, int[] nodes) {
+        float[] unit = normalize(query);
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(FURTHEST_FIRST);
+        for (int node : nodes) {
+            best.add(new Neighbor(node, dot(unit, vectors.get(node))));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(CLOSEST_FIRST);
+        return result;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = dot(query, vectors.get(current));
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : links.get(current)[level]) {
+                float similarity = dot(query, vectors.get(neighbor));
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // best-first search on one level; returns accepted nodes, closest first
+    private List<Neighbor> searchLayer(float[] query, List<Integer> entries, int ef, int level, IntPredicate accept) {
+        BitSet visited = new BitSet(vectors.size());
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+        PriorityQueue<Neighbor> frontier = new PriorityQueue<>(FURTHEST_FIRST); // bounds the search, accepted or not
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(FURTHEST_FIRST);
+
+        for (int entry : entries) {
+            visited.set(entry);
+            Neighbor n = new Neighbor(entry, dot(query, vectors.get(entry)));
+            candidates.add(n);
+            offer(frontier, n, ef);
+            if (accept.test(entry)) {
+                offer(results, n, ef);
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            Neighbor closest = candidates.poll();
+            if (frontier.size() >= ef && closest.similarity() < frontier.peek().similarity()) {
+                break;
+            }
+            for (int neighbor : links.get(closest.node())[level]) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                Neighbor n = new Neighbor(neighbor, dot(query, vectors.get(neighbor)));
+                if (frontier.size() < ef || n.similarity() > frontier.peek().similarity()) {
+                    candidates.add(n);
+                    offer(frontier, n, ef);
+                    if (accept.test(neighbor)) {
+                        offer(results, n, ef);
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> sorted = new ArrayList<>(results);
+        sorted.sort(CLOSEST_FIRST);
+        return sorted;
+    }
+
+    private static void offer(PriorityQueue<Neighbor> furthestFirst, Neighbor n, int capacity) {
+        furthestFirst.add(n);
+        if (furthestFirst.size() > capacity) {
+            furthestFirst.poll();
+        }
+    }
+
+    // adds target to node's links on level, keeping only the closest maxLinks
+    private void connect(int node, int target, int level, int maxLinks) {
+        int[] current = links.get(node)[level];
+        int[] extended = new int[current.length + 1];
+        System.arraycopy(current, 0, extended, 0, current.length);
+        extended[current.length] = target;
+        if (extended.length > maxLinks) {
+            float[] base = vectors.get(node);
+            extended = Arrays.stream(extended)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(n -> -dot(base, vectors.get(n))))
+                    .limit(maxLinks)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        links.get(node)[level] = extended;
+    }
+
+    static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[vector.length];
+        if (norm == 0) {
+            return unit;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(dimensions);
+        out.writeInt(vectors.size());
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int node = 0; node < vectors.size(); node++) {
+            for (float v : vectors.get(node)) {
+                out.writeFloat(v);
+            }
+            int[][] nodeLinks = links.get(node);
+            out.writeInt(nodeLinks.length);
+            for (int[] level : nodeLinks) {
+                out.writeInt(level.length);
+                for (int neighbor : level) {
+                    out.writeInt(neighbor);
+                }
+            }
+        }
+    }
+
+    static HnswGraph readFrom(DataInput in, int m, int efConstruction) throws IOException {
+        HnswGraph graph = new HnswGraph(in.readInt(), m, efConstruction);
+        int size = in.readInt();
+        graph.entryPoint = in.readInt();
+        graph.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            float[] vector = new float[graph.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+            graph.vectors.add(vector);
+            int[][] nodeLinks = new int[in.readInt()][];
+            for (int l = 0; l < nodeLinks.length; l++) {
+                nodeLinks[l] = new int[in.readInt()];
+                for (int i = 0; i < nodeLinks[l].length; i++) {
+                    nodeLinks[l][i] = in.readInt();
+                }
+            }
+            graph.links.add(nodeLinks);
+        }
+        return graph;
+    }
+}
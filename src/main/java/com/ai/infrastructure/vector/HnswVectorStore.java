@@ -0,0 +1,371 @@
+package com.ai.infrastructure.vector;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link VectorStore} backed by an in-memory {@link HnswGraph}, persisted to a single file.
+ *
+ * <p>Embeddings go through a {@link CachingEmbedder}. Adding a document with an id that is already
+ * stored replaces it. Deleted documents stay in the graph, hidden from results, until the store is
+ * {@link #compact() compacted}; loading a file that is more than half deleted compacts it.</p>
+ *
+ * <p>Searches with a filter expression that selects at most {@code exactSearchThreshold} documents,
+ * or for which the graph walk finds fewer than {@code topK} matches, are answered by an exact scan
+ * over the matching documents, so selective filters never lose recall.</p>
+ *
+ * <p>When {@code file} is set the store is written to it every {@code flushInterval} if it changed,
+ * and on close, through a temp file and an atomic rename.</p>
+ */
+public class HnswVectorStore implements VectorStore, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorStore.class);
+
+    private static final int FILE_VERSION = 1;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final CachingEmbedder embedder;
+    private final Path file;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int exactSearchThreshold;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService flusher;
+
+    // guarded by lock; documents, deleted and the graph are indexed by node id
+    private HnswGraph graph;
+    private final List<StoredDocument> documents = new ArrayList<>();
+    private final Map<String, Integer> nodesById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private volatile boolean dirty;
+
+    private record StoredDocument(String id, String text, Map<String, Object> metadata) {
+    }
+
+    public HnswVectorStore(CachingEmbedder embedder, Path file, Duration flushInterval,
+                           int m, int efConstruction, int efSearch, int exactSearchThreshold) {
+        Assert.notNull(embedder, "embedder cannot be null");
+        Assert.isTrue(efSearch > 0, "efSearch must be greater than 0");
+        Assert.isTrue(exactSearchThreshold >= 0, "exactSearchThreshold cannot be negative");
+        this.embedder = embedder;
+        this.file = file;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.exactSearchThreshold = exactSearchThreshold;
+
+        if (file != null && Files.exists(file)) {
+            load();
+        }
+        if (file != null) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("vector-store-flush").factory());
+            flusher.scheduleWithFixedDelay(this::flushQuietly,
+                    flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    @Override
+    public void add(List<Document> docs) {
+        Assert.notNull(docs, "documents cannot be null");
+        if (docs.isEmpty()) {
+            return;
+        }
+        // embed before taking the lock: it is the slow part and needs no shared state
+        List<float[]> vectors = embedder.embedAll(docs.stream().map(Document::getText).toList());
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < docs.size(); i++) {
+                Document doc = docs.get(i);
+                if (graph == null) {
+                    graph = new HnswGraph(vectors.get(i).length, m, efConstruction);
+                }
+                Integer previous = nodesById.get(doc.getId());
+                if (previous != null) {
+                    deleted.set(previous);
+                }
+                int node = graph.add(vectors.get(i));
+                documents.add(new StoredDocument(doc.getId(), doc.getText(), Map.copyOf(doc.getMetadata())));
+                nodesById.put(doc.getId(), node);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        lock.writeLock().lock();
+        try {
+            for (String id : idList) {
+                Integer node = nodesById.remove(id);
+                if (node != null) {
+                    deleted.set(node);
+                    dirty = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        Assert.notNull(filterExpression, "filterExpression cannot be null");
+        lock.writeLock().lock();
+        try {
+            for (int node = 0; node < documents.size(); node++) {
+                if (!deleted.get(node) && FilterMatcher.matches(filterExpression, documents.get(node).metadata())) {
+                    deleted.set(node);
+                    nodesById.remove(documents.get(node).id());
+                    dirty = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        Assert.notNull(request, "request cannot be null");
+        float[] query = embedder.embed(request.getQuery());
+        int k = request.getTopK();
+        Filter.Expression filter = request.getFilterExpression();
+
+        lock.readLock().lock();
+        try {
+            if (graph == null || k <= 0) {
+                return List.of();
+            }
+            IntPredicate accept = filter == null
+                    ? node -> !deleted.get(node)
+                    : node -> !deleted.get(node) && FilterMatcher.matches(filter, documents.get(node).metadata());
+
+            List<HnswGraph.Neighbor> neighbors;
+            int[] matching = filter == null && liveCount() > exactSearchThreshold ? null : matchingNodes(accept);
+            if (matching != null && matching.length <= exactSearchThreshold) {
+                neighbors = graph.exact(query, k, matching);
+            } else {
+                neighbors = graph.search(query, k, efSearch, accept);
+                if (neighbors.size() < k) {
+                    neighbors = graph.exact(query, k, matching != null ? matching : matchingNodes(accept));
+                }
+            }
+
+            List<Document> results = new ArrayList<>(neighbors.size());
+            for (HnswGraph.Neighbor neighbor : neighbors) {
+                if (neighbor.similarity() < request.getSimilarityThreshold()) {
+                    continue;
+                }
+                StoredDocument stored = documents.get(neighbor.node());
+                Map<String, Object> metadata = new HashMap<>(stored.metadata());
+                metadata.put("distance", 1 - neighbor.similarity());
+                results.add(Document.builder()
+                        .id(stored.id())
+                        .text(stored.text())
+                        .metadata(metadata)
+                        .score((double) neighbor.similarity())
+                        .build());
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] matchingNodes(IntPredicate accept) {
+        int[] nodes = new int[documents.size()];
+        int count = 0;
+        for (int node = 0; node < documents.size(); node++) {
+            if (accept.test(node)) {
+                nodes[count++] = node;
+            }
+        }
+        return Arrays.copyOf(nodes, count);
+    }
+
+    private int liveCount() {
+        return documents.size() - deleted.cardinality();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the live documents, dropping deleted ones for good.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (graph == null || deleted.isEmpty()) {
+                return;
+            }
+            HnswGraph rebuilt = new HnswGraph(graph.dimensions(), m, efConstruction);
+            List<StoredDocument> live = new ArrayList<>(liveCount());
+            for (int node = 0; node < documents.size(); node++) {
+                if (!deleted.get(node)) {
+                    rebuilt.add(graph.vector(node));
+                    live.add(documents.get(node));
+                }
+            }
+            graph = rebuilt;
+            documents.clear();
+            documents.addAll(live);
+            deleted.clear();
+            nodesById.clear();
+            for (int node = 0; node < documents.size(); node++) {
+                nodesById.put(documents.get(node).id(), node);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the store to its file if it changed since the last flush.
+     */
+    public void flush() {
+        if (file == null || !dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException("Cannot write vector store to " + file, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FILE_VERSION);
+        out.writeBoolean(graph != null);
+        if (graph == null) {
+            return;
+        }
+        graph.writeTo(out);
+        for (int node = 0; node < documents.size(); node++) {
+            StoredDocument doc = documents.get(node);
+            out.writeBoolean(deleted.get(node));
+            writeString(out, doc.id());
+            writeString(out, doc.text());
+            writeString(out, objectMapper.writeValueAsString(doc.metadata()));
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IllegalStateException("Unsupported vector store file version " + version + " in " + file);
+            }
+            if (in.readBoolean()) {
+                graph = HnswGraph.readFrom(in, m, efConstruction);
+                for (int node = 0; node < graph.size(); node++) {
+                    if (in.readBoolean()) {
+                        deleted.set(node);
+                    }
+                    String id = readString(in);
+                    String text = readString(in);
+                    Map<String, Object> metadata = objectMapper.readValue(readString(in), METADATA_TYPE);
+                    documents.add(new StoredDocument(id, text, metadata));
+                    if (!deleted.get(node)) {
+                        nodesById.put(id, node);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read vector store from " + file, e);
+        }
+        log.info("Loaded vector store from {} with {} documents", file, liveCount());
+        if (deleted.cardinality() > liveCount()) {
+            compact();
+        }
+    }
+
+    // writeUTF is limited to 64KB, message texts are not
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Vector store flush failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+}
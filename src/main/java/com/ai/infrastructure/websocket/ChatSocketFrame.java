@@ -0,0 +1,48 @@
+package com.ai.infrastructure.websocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One message of the chat WebSocket protocol, sent as a JSON text message.
+ *
+ * <p>{@code stream} is chosen by the client for each prompt and tags every frame of that answer, so
+ * any number of answers can be in flight on one socket.</p>
+ *
+ * <ul>
+ *   <li>{@value #PROMPT} (client): {@code data} is the user prompt; {@code chatId} is omitted to start
+ *   a new chat.</li>
+ *   <li>{@value #CANCEL} (client): stops the answer of {@code stream}; the partial answer is saved
+ *   like on a dropped SSE connection.</li>
+ *   <li>{@value #CHAT_CREATED}: {@code chatId} of the chat a prompt without one started.</li>
+ *   <li>{@value #CHUNK}: {@code data} is the next piece of the answer.</li>
+ *   <li>{@value #END}: the answer is complete; {@code data} is {@code cancelled} after a cancel.</li>
+ *   <li>{@value #ERROR}: the prompt was rejected or the answer failed; {@code data} says why. No
+ *   {@value #END} follows.</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChatSocketFrame(String type, String stream, String chatId, String data) {
+
+    public static final String PROMPT = "prompt";
+    public static final String CANCEL = "cancel";
+    public static final String CHAT_CREATED = "chat_created";
+    public static final String CHUNK = "chunk";
+    public static final String END = "end";
+    public static final String ERROR = "error";
+
+    static ChatSocketFrame chatCreated(String stream, String chatId) {
+        return new ChatSocketFrame(CHAT_CREATED, stream, chatId, null);
+    }
+
+    static ChatSocketFrame chunk(String stream, String text) {
+        return new ChatSocketFrame(CHUNK, stream, null, text);
+    }
+
+    static ChatSocketFrame end(String stream, String reason) {
+        return new ChatSocketFrame(END, stream, null, reason);
+    }
+
+    static ChatSocketFrame error(String stream, String reason) {
+        return new ChatSocketFrame(ERROR, stream, null, reason);
+    }
+}
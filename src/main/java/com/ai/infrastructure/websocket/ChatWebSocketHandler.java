@@ -0,0 +1,237 @@
+package com.ai.infrastructure.websocket;
+
+import com.ai.application.service.ChatService;
+import com.ai.infrastructure.ratelimit.RateLimiter;
+import com.ai.infrastructure.ratelimit.TokenQuota;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Carries any number of concurrent chat answers over one WebSocket, framed as {@link ChatSocketFrame}s.
+ *
+ * <p>Each prompt runs the same pipeline as {@code /chats/stream} ({@link ChatService#stream}),
+ * including quota accounting and saving the answer, and is checked against the caller's rate limit
+ * and token quota like an SSE request. As there, the caller is the authenticated principal of the
+ * handshake, falling back to the remote address.</p>
+ *
+ * <p>All answers of a socket are merged into one sequence that a single worker writes to the socket
+ * with blocking sends. Frames are only requested as fast as they are sent, so a slow client stalls
+ * its own model streams instead of queueing frames in memory: what is buffered per socket is bounded
+ * by {@value #PREFETCH} frames per answer plus {@value #PREFETCH} in front of the socket. A socket
+ * may run at most {@code maxStreams} answers at once; further prompts are rejected with an
+ * {@value ChatSocketFrame#ERROR} frame.</p>
+ *
+ * <p>Closing the socket cancels every answer still running on it.</p>
+ */
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
+    static final int PREFETCH = 32;
+
+    /**
+     * Answers in flight on one socket, by stream id, and the sink their frames are merged from.
+     */
+    private static final class Socket {
+
+        final String callerId;
+        final Map<String, Sinks.One<Boolean>> streams = new ConcurrentHashMap<>();
+        // only the container thread delivering this socket's messages emits
+        final Sinks.Many<Flux<ChatSocketFrame>> answers = Sinks.many().unicast().onBackpressureBuffer();
+        Disposable subscription;
+
+        Socket(String callerId) {
+            this.callerId = callerId;
+        }
+
+        void send(Flux<ChatSocketFrame> frames) {
+            answers.tryEmitNext(frames);
+        }
+    }
+
+    private final ChatService chatService;
+    private final RateLimiter rateLimiter;
+    private final TokenQuota tokenQuota;
+    private final ObjectMapper objectMapper;
+    private final int maxStreams;
+    private final Map<String, Socket> sockets = new ConcurrentHashMap<>();
+
+    /**
+     * @param rateLimiter {@code null} when rate limiting is disabled
+     */
+    public ChatWebSocketHandler(
+            ChatService chatService,
+            RateLimiter rateLimiter,
+            TokenQuota tokenQuota,
+            ObjectMapper objectMapper,
+            int maxStreams,
+            MeterRegistry meterRegistry
+    ) {
+        Assert.isTrue(maxStreams > 0, "maxStreams must be greater than 0");
+        this.chatService = chatService;
+        this.rateLimiter = rateLimiter;
+        this.tokenQuota = tokenQuota;
+        this.objectMapper = objectMapper;
+        this.maxStreams = maxStreams;
+        meterRegistry.gaugeMapSize("chat.websocket.sessions", Tags.empty(), sockets);
+        meterRegistry.gauge("chat.websocket.streams", sockets,
+                open -> open.values().stream().mapToInt(socket -> socket.streams.size()).sum());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Socket socket = new Socket(callerId(session));
+        socket.subscription = socket.answers.asFlux()
+                .flatMap(frames -> frames, Integer.MAX_VALUE, PREFETCH)
+                .publishOn(Schedulers.boundedElastic(), PREFETCH)
+                .subscribe(
+                        frame -> write(session, frame),
+                        e -> {
+                            log.warn("Closing WebSocket {} after a failed send", session.getId(), e);
+                            close(session, CloseStatus.SERVER_ERROR);
+                        });
+        sockets.put(session.getId(), socket);
+        log.info("WebSocket {} opened for caller={}", session.getId(), socket.callerId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Socket socket = sockets.get(session.getId());
+        if (socket == null) {
+            return;
+        }
+        ChatSocketFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), ChatSocketFrame.class);
+        } catch (JsonProcessingException e) {
+            socket.send(Flux.just(ChatSocketFrame.error(null, "Malformed frame")));
+            return;
+        }
+        if (!StringUtils.hasText(frame.stream())) {
+            socket.send(Flux.just(ChatSocketFrame.error(null, "Missing stream")));
+            return;
+        }
+        switch (String.valueOf(frame.type())) {
+            case ChatSocketFrame.PROMPT -> prompt(socket, frame);
+            case ChatSocketFrame.CANCEL -> {
+                Sinks.One<Boolean> cancel = socket.streams.get(frame.stream());
+                if (cancel != null) {
+                    cancel.tryEmitValue(true);
+                }
+            }
+            default -> socket.send(Flux.just(ChatSocketFrame.error(frame.stream(), "Unknown frame type " + frame.type())));
+        }
+    }
+
+    private void prompt(Socket socket, ChatSocketFrame frame) {
+        String stream = frame.stream();
+        if (!StringUtils.hasText(frame.data())) {
+            socket.send(Flux.just(ChatSocketFrame.error(stream, "Missing prompt")));
+            return;
+        }
+        if (socket.streams.containsKey(stream)) {
+            socket.send(Flux.just(ChatSocketFrame.error(stream, "Stream already running")));
+            return;
+        }
+        if (socket.streams.size() >= maxStreams) {
+            socket.send(Flux.just(ChatSocketFrame.error(stream, "Too many concurrent streams")));
+            return;
+        }
+        if (tokenQuota.isExhausted(socket.callerId)) {
+            socket.send(Flux.just(ChatSocketFrame.error(stream, "Daily token quota exhausted")));
+            return;
+        }
+        if (rateLimiter != null && !rateLimiter.tryAcquire(socket.callerId).allowed()) {
+            socket.send(Flux.just(ChatSocketFrame.error(stream, "Rate limit exceeded")));
+            return;
+        }
+
+        Sinks.One<Boolean> cancel = Sinks.one();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        socket.streams.put(stream, cancel);
+        socket.send(Flux.defer(() -> chatService.stream(frame.chatId(), frame.data(), socket.callerId))
+                .takeUntilOther(cancel.asMono().doOnNext(ignored -> cancelled.set(true)))
+                .map(event -> toFrame(stream, event))
+                .concatWith(Flux.defer(() -> cancelled.get()
+                        ? Flux.just(ChatSocketFrame.end(stream, "cancelled"))
+                        : Flux.empty()))
+                .onErrorResume(e -> {
+                    log.error("Answer of stream {} failed", stream, e);
+                    return Flux.just(ChatSocketFrame.error(stream, "Generation failed"));
+                })
+                .doFinally(signal -> socket.streams.remove(stream)));
+    }
+
+    private ChatSocketFrame toFrame(String stream, ServerSentEvent<String> event) {
+        if (ChatService.CHAT_CREATED.equals(event.event())) {
+            return ChatSocketFrame.chatCreated(stream, event.data());
+        }
+        if (ChatService.END_STREAM.equals(event.event())) {
+            return ChatSocketFrame.end(stream, null);
+        }
+        try {
+            // SSE chunks are {"text": "..."}; the frame carries the text itself
+            return ChatSocketFrame.chunk(stream, objectMapper.readTree(event.data()).path("text").asText());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable chunk", e);
+        }
+    }
+
+    private void write(WebSocketSession session, ChatSocketFrame frame) {
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Socket socket = sockets.remove(session.getId());
+        if (socket != null) {
+            // cancels every running answer, which saves it as truncated
+            socket.subscription.dispose();
+            log.info("WebSocket {} closed with {} streams running", session.getId(), socket.streams.size());
+        }
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Cannot close WebSocket {}", session.getId(), e);
+        }
+    }
+
+    private static String callerId(WebSocketSession session) {
+        Principal principal = session.getPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        InetSocketAddress remote = session.getRemoteAddress();
+        return remote == null ? session.getId() : remote.getAddress().getHostAddress();
+    }
+}
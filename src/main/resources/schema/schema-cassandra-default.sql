@@ -13,9 +13,24 @@ CREATE TABLE IF NOT EXISTS ai_chat_message (
       msg_timestamp  timestamp,
       msg_type           text,
       msg_content        text,
+      msg_content_blob   blob,        -- compressed content: codec id + length header, msg_content is then empty
+      msg_truncated      boolean,     -- true when the assistant answer was cut short (cancel/error)
       PRIMARY KEY ((session_id), msg_timestamp)
   ) WITH CLUSTERING ORDER BY (msg_timestamp DESC);
 
+-- v2 message table: clustered on a timeuuid generated per conversation, so messages written in the
+-- same millisecond no longer overwrite each other
+
+CREATE TABLE IF NOT EXISTS ai_chat_message_v2 (
+      session_id         text,        -- chat id
+      msg_id             timeuuid,    -- strictly increasing per conversation, also carries the message time
+      msg_type           text,
+      msg_content        text,
+      msg_content_blob   blob,
+      msg_truncated      boolean,
+      PRIMARY KEY ((session_id), msg_id)
+  ) WITH CLUSTERING ORDER BY (msg_id DESC);
+
 
 CREATE TABLE IF NOT EXISTS ai_chat_memory (
     session_id   text PRIMARY KEY,
@@ -31,4 +46,74 @@ CREATE TABLE IF NOT EXISTS chats_by_created (
     session_id    text,        -- chat id
     session_name  text,
     PRIMARY KEY ((bucket), created_at, session_id)
-) WITH CLUSTERING ORDER BY (created_at DESC);
\ No newline at end of file
+) WITH CLUSTERING ORDER BY (created_at DESC);
+-- chats ordered by their latest message, maintained by ChatActivityIndex; a chat moves by deleting
+-- its old row and inserting a new one, so chat_last_activity keeps each chat's current position
+
+CREATE TABLE IF NOT EXISTS chats_by_last_activity (
+    bucket                text,        -- constant 'all', like chats_by_created
+    last_activity         timestamp,
+    session_id            text,
+    session_name          text,
+    created_at            timestamp,
+    message_count         bigint,
+    last_message_role     text,
+    last_message_preview  text,
+    PRIMARY KEY ((bucket), last_activity, session_id)
+) WITH CLUSTERING ORDER BY (last_activity DESC, session_id ASC);
+
+CREATE TABLE IF NOT EXISTS chat_last_activity (
+    session_id     text PRIMARY KEY,
+    last_activity  timestamp,
+    session_name   text,
+    created_at     timestamp,
+    message_count  bigint
+);
+
+-- token usage counters, flushed periodically by TokenUsageAccumulator
+
+CREATE TABLE IF NOT EXISTS chat_token_usage (
+    session_id         text PRIMARY KEY,
+    prompt_tokens      counter,
+    completion_tokens  counter,
+    turns              counter
+);
+
+-- one partition per UTC day, one row per chat used that day
+CREATE TABLE IF NOT EXISTS daily_token_usage (
+    day                date,
+    session_id         text,
+    prompt_tokens      counter,
+    completion_tokens  counter,
+    turns              counter,
+    PRIMARY KEY ((day), session_id)
+);
+
+-- fork lineage, maintained by ChatLineage: a fork reads its parent's messages older than
+-- fork_point instead of copying them
+
+CREATE TABLE IF NOT EXISTS chat_lineage (
+    session_id  text PRIMARY KEY,
+    parent_id   text,
+    fork_point  timeuuid,    -- exclusive upper message key in the parent: msg_id, or msg_timestamp as a timeuuid
+    depth       int          -- number of ancestors; forks deeper than app.chats.fork.max-depth copy instead
+);
+
+CREATE TABLE IF NOT EXISTS chat_children (
+    parent_id   text,
+    session_id  text,
+    PRIMARY KEY ((parent_id), session_id)
+);
+
+-- versions for ETag/Last-Modified, replaced after every write by ChatVersions, so a conditional
+-- GET is answered without reading messages
+
+CREATE TABLE IF NOT EXISTS chat_versions (
+    session_id  text PRIMARY KEY,
+    version     timeuuid
+);
+
+CREATE TABLE IF NOT EXISTS chat_list_version (
+    bucket   text PRIMARY KEY,   -- constant 'all', like chats_by_created
+    version  timeuuid
+);
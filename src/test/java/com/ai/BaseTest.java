@@ -21,7 +21,16 @@ public abstract class BaseTest {
     @AfterEach
     protected void cleanUp() {
         cqlTemplate.execute("TRUNCATE ai_chat_message");
+        cqlTemplate.execute("TRUNCATE ai_chat_message_v2");
         cqlTemplate.execute("TRUNCATE ai_chat_memory");
         cqlTemplate.execute("TRUNCATE chats_by_created");
+        cqlTemplate.execute("TRUNCATE chats_by_last_activity");
+        cqlTemplate.execute("TRUNCATE chat_last_activity");
+        cqlTemplate.execute("TRUNCATE chat_token_usage");
+        cqlTemplate.execute("TRUNCATE daily_token_usage");
+        cqlTemplate.execute("TRUNCATE chat_lineage");
+        cqlTemplate.execute("TRUNCATE chat_children");
+        cqlTemplate.execute("TRUNCATE chat_versions");
+        cqlTemplate.execute("TRUNCATE chat_list_version");
     }
 }
@@ -0,0 +1,153 @@
+package com.ai;
+
+import com.ai.config.CassandraTestConfig;
+import com.ai.support.FakeOpenAiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.cassandra.CassandraContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the native executable against a Cassandra container and a fake OpenAI server, checks that a
+ * chat can be streamed and listed, and logs startup time and resident memory.
+ *
+ * <pre>./mvnw -Pnative -DskipTests package
+ * ./mvnw test -Dtest=NativeImageSmokeTest -Dnative.executable=target/chat-ai</pre>
+ */
+@EnabledIfSystemProperty(named = "native.executable", matches = ".+")
+class NativeImageSmokeTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeImageSmokeTest.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    CassandraContainer cassandra = new CassandraContainer(DockerImageName.parse(CassandraTestConfig.CASSANDRA_V5_0_5));
+    FakeOpenAiServer openAi;
+    Process process;
+    List<String> output = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path dataDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cassandra.start();
+        openAi = new FakeOpenAiServer("hello from native");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        openAi.close();
+        cassandra.stop();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void nativeExecutable_startsAndServesChats() throws Exception {
+        Path executable = Path.of(System.getProperty("native.executable")).toAbsolutePath();
+        assertThat(executable).isExecutable();
+        int port = freePort();
+
+        long start = System.nanoTime();
+        process = new ProcessBuilder(
+                executable.toString(),
+                "--server.port=" + port,
+                "--spring.cassandra.contact-points=" + cassandra.getHost(),
+                "--spring.cassandra.port=" + cassandra.getFirstMappedPort(),
+                "--spring.cassandra.local-datacenter=datacenter1",
+                "--spring.ai.openai.api-key=test",
+                "--spring.ai.openai.base-url=" + openAi.baseUrl(),
+                "--app.search.index-dir=" + dataDir.resolve("search-index"))
+                .redirectErrorStream(true)
+                .start();
+
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.add(line);
+                    if (line.contains("Started ChatAiApplication")) {
+                        started.complete(null);
+                    }
+                }
+                started.completeExceptionally(new IllegalStateException("process exited before startup"));
+            } catch (IOException e) {
+                started.completeExceptionally(e);
+            }
+        });
+        try {
+            started.get(STARTUP_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("native executable did not start:\n" + String.join("\n", output), e);
+        }
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+
+        HttpClient http = HttpClient.newHttpClient();
+        String base = "http://127.0.0.1:" + port;
+        HttpResponse<String> stream = http.send(HttpRequest.newBuilder(URI.create(
+                        base + "/chats/stream?userPrompt=" + URLEncoder.encode("hi there", StandardCharsets.UTF_8)))
+                .timeout(Duration.ofSeconds(30))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> chats = http.send(HttpRequest.newBuilder(URI.create(base + "/chats"))
+                .timeout(Duration.ofSeconds(30))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        log.info("Native startup: {} ms until ready, RSS {} after one chat", startupMillis, residentMemory(process.pid()));
+
+        assertThat(stream.statusCode()).isEqualTo(200);
+        assertThat(stream.body()).contains("hello from native");
+        assertThat(openAi.requests()).isPositive();
+        assertThat(chats.statusCode()).isEqualTo(200);
+        assertThat(chats.body()).startsWith("[{").contains("\"createdAt\"");
+    }
+
+    // VmRSS from /proc, so Linux only
+    private static String residentMemory(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.substring("VmRSS:".length()).strip())
+                    .findFirst()
+                    .orElse("n/a");
+        } catch (IOException e) {
+            return "n/a";
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import com.ai.domain.entity.Chat;
 import com.ai.domain.entity.NoSqlChat;
 import com.ai.domain.entity.SqlChat;
+import com.ai.domain.model.ChatActivity;
 import org.junit.jupiter.api.Test;
 
 class ChatDtoTest {
@@ -52,4 +53,18 @@ class ChatDtoTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Unsupported Chat implementation");
     }
+
+    @Test
+    void from_shouldMapActivityWithPreviewAsSingleMessage() {
+        Instant created = Instant.parse("2025-03-03T08:00:00Z");
+        Instant active = Instant.parse("2025-03-04T09:30:00Z");
+        ChatActivity activity = new ChatActivity("s1", "Trip", created, active, 7, "assistant", "Lisbon is…");
+
+        ChatDto dto = ChatDto.from(activity);
+
+        assertThat(dto.createdAt()).isEqualTo(created);
+        assertThat(dto.lastActivityAt()).isEqualTo(active);
+        assertThat(dto.messageCount()).isEqualTo(7);
+        assertThat(dto.messages()).containsExactly(new ChatMessageDto("assistant", "Lisbon is…"));
+    }
 }
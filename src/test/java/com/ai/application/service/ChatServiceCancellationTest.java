@@ -0,0 +1,128 @@
+package com.ai.application.service;
+
+import com.ai.infrastructure.client.HedgeBudget;
+import com.ai.infrastructure.client.StreamHedger;
+import com.ai.infrastructure.metadata.CassandraMessageMetadataAppender;
+import com.ai.infrastructure.ratelimit.InMemoryDailyTokenQuota;
+import com.ai.infrastructure.repository.AnswerCheckpointer;
+import com.ai.infrastructure.repository.MessagePageCache;
+import com.ai.support.FakeChatModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatServiceCancellationTest {
+
+    private final ChatMemory chatMemory = MessageWindowChatMemory.builder().build();
+    private final List<long[]> recordedUsage = new CopyOnWriteArrayList<>();
+
+    private ChatService chatService(FakeChatModel chatModel) {
+        ChatClient chatClient = ChatClient.builder(chatModel).build();
+        return new ChatService(
+                chatClient,
+                chatClient,
+                chatClient,
+                new StreamHedger(false, Duration.ZERO, new HedgeBudget(0, 0), new SimpleMeterRegistry()),
+                chatMemory,
+                null,
+                new CassandraMessageMetadataAppender(),
+                new InMemoryDailyTokenQuota(0, Clock.systemUTC()),
+                (chatId, promptTokens, completionTokens) -> recordedUsage.add(new long[]{promptTokens, completionTokens}),
+                new MessagePageCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                AnswerCheckpointer.disabled(),
+                new ObjectMapper()
+        );
+    }
+
+    @Test
+    void stream_cancelledBySubscriber_cancelsModelAndSavesPartialAnswer() {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hel", "lo", " wor", "ld")
+                .withChunkDelay(Duration.ofMillis(20));
+
+        List<ServerSentEvent<String>> events = chatService(chatModel)
+                .stream("chat-1", "hi")
+                .take(2)    // subscriber goes away after two chunks
+                .collectList()
+                .block();
+
+        assertThat(events).hasSize(2);
+        assertThat(chatModel.cancellations()).isEqualTo(1);
+
+        Message assistant = lastAssistantMessage("chat-1");
+        assertThat(assistant.getText()).isEqualTo("Hello");
+        assertThat(assistant.getMetadata()).containsEntry("msg_truncated", true);
+    }
+
+    @Test
+    void stream_modelError_savesPartialAnswerAndPropagatesError() {
+        FakeChatModel chatModel = FakeChatModel.streaming("partial ", "answer")
+                .failingWith(new IllegalStateException("model failed"));
+
+        assertThatThrownBy(() -> chatService(chatModel).stream("chat-2", "hi").collectList().block())
+                .hasMessageContaining("model failed");
+
+        Message assistant = lastAssistantMessage("chat-2");
+        assertThat(assistant.getText()).isEqualTo("partial answer");
+        assertThat(assistant.getMetadata()).containsEntry("msg_truncated", true);
+    }
+
+    @Test
+    void stream_completed_savesFullAnswerOnce() {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hello", " world");
+
+        List<ServerSentEvent<String>> events = chatService(chatModel).stream("chat-3", "hi").collectList().block();
+
+        assertThat(events.getLast().event()).isEqualTo(ChatService.END_STREAM);
+        assertThat(chatMemory.get("chat-3"))
+                .filteredOn(AssistantMessage.class::isInstance)
+                .singleElement()
+                .satisfies(m -> {
+                    assertThat(m.getText()).isEqualTo("Hello world");
+                    assertThat(m.getMetadata()).containsEntry("msg_truncated", false);
+                });
+    }
+
+    @Test
+    void stream_recordsReportedUsage() {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hello", " world").withUsage(42, 7);
+
+        List<ServerSentEvent<String>> events = chatService(chatModel).stream("chat-4", "hi").collectList().block();
+
+        // the usage-only response is not streamed to the client
+        assertThat(events).hasSize(3);
+        assertThat(recordedUsage).singleElement().isEqualTo(new long[]{42, 7});
+    }
+
+    @Test
+    void stream_cancelledBeforeUsage_recordsEstimate() {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hel", "lo", " wor", "ld")
+                .withChunkDelay(Duration.ofMillis(20))
+                .withUsage(42, 7);
+
+        chatService(chatModel).stream("chat-5", "hi there").take(2).collectList().block();
+
+        // "hi there" and "Hello" at about four characters per token
+        assertThat(recordedUsage).singleElement().isEqualTo(new long[]{2, 2});
+    }
+
+    private Message lastAssistantMessage(String chatId) {
+        return chatMemory.get(chatId).stream()
+                .filter(AssistantMessage.class::isInstance)
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.application.service;
+
+import com.ai.BaseTest;
+import com.ai.infrastructure.client.HedgeBudget;
+import com.ai.infrastructure.client.StreamHedger;
+import com.ai.infrastructure.metadata.CassandraMessageMetadataAppender;
+import com.ai.infrastructure.ratelimit.InMemoryDailyTokenQuota;
+import com.ai.infrastructure.repository.AnswerCheckpointer;
+import com.ai.infrastructure.repository.MessagePageCache;
+import com.ai.support.FakeChatModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatServiceMemoryWindowTest extends BaseTest {
+
+    @Autowired
+    ChatMemory chatMemory;
+
+    @Value("${app.memory.max-messages}")
+    int maxMessages;
+
+    @Test
+    void stream_sendsTheNewestMaxMessagesOfTheConversation() {
+        String chatId = "chat-window";
+        Instant start = Instant.now().minusSeconds(60);
+        for (int i = 0; i < maxMessages + 5; i++) {
+            cqlTemplate.execute(
+                    "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content) VALUES (?, ?, ?, ?)",
+                    chatId, start.plusSeconds(i), i % 2 == 0 ? "user" : "assistant", "message " + i
+            );
+        }
+        FakeChatModel chatModel = FakeChatModel.streaming("Hello");
+        ChatClient chatClient = ChatClient.builder(chatModel).build();
+        ChatService chatService = new ChatService(
+                chatClient,
+                chatClient,
+                chatClient,
+                new StreamHedger(false, Duration.ZERO, new HedgeBudget(0, 0), new SimpleMeterRegistry()),
+                chatMemory,
+                null,
+                new CassandraMessageMetadataAppender(),
+                new InMemoryDailyTokenQuota(0, Clock.systemUTC()),
+                (id, promptTokens, completionTokens) -> {
+                },
+                new MessagePageCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                AnswerCheckpointer.disabled(),
+                new ObjectMapper()
+        );
+
+        chatService.stream(chatId, "hi").collectList().block();
+
+        // the prompt just stored and the maxMessages - 1 messages before it
+        assertThat(chatModel.lastPrompt().getInstructions())
+                .extracting(Message::getText)
+                .hasSize(maxMessages)
+                .startsWith("hi", "message " + (maxMessages + 4))
+                .doesNotContain("message 5");
+    }
+}
@@ -1,5 +1,6 @@
 package com.ai.config;
 
+import com.ai.infrastructure.config.CassandraDriverProperties;
 import com.ai.infrastructure.metadata.CassandraMessageMetadataAppender;
 import com.ai.infrastructure.metadata.MessageMetadataAppender;
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -25,11 +26,12 @@ public class CassandraTestConfig {
     }
 
     @Bean
-    CqlSession session(CassandraContainer container) {
+    CqlSession session(CassandraContainer container, CassandraDriverProperties driverProperties) {
         return CqlSession.builder()
                 .addContactPoint(new InetSocketAddress(container.getHost(), container.getFirstMappedPort()))
                 .withLocalDatacenter("datacenter1")
                 .withKeyspace(KEYSPACE)
+                .withConfigLoader(driverProperties.toConfigLoader())
                 .build();
     }
 
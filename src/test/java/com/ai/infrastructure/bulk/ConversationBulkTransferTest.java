@@ -0,0 +1,159 @@
+package com.ai.infrastructure.bulk;
+
+import com.ai.BaseTest;
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.ai.infrastructure.repository.CassandraChatMemoryRepository;
+import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.repository.MessageTable;
+import com.ai.infrastructure.repository.QueryProfiles;
+import com.ai.infrastructure.repository.TokenRangeScanner;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversationBulkTransferTest extends BaseTest {
+
+    @Autowired
+    ChatRepository<NoSqlChat> chatRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    @TempDir
+    Path dir;
+
+    private ConversationImporter importer() {
+        return new ConversationImporter(chatRepository, objectMapper, new SimpleMeterRegistry(), 8, 3, 0, Duration.ofSeconds(1));
+    }
+
+    private ConversationExporter exporter() {
+        return new ConversationExporter(chatRepository, objectMapper, new SimpleMeterRegistry(), 8, 0, Duration.ofSeconds(1));
+    }
+
+    private Path writeInput(int conversations) throws IOException {
+        Instant base = Instant.parse("2025-01-01T10:00:00Z");
+        List<String> lines = new ArrayList<>();
+        for (int c = 0; c < conversations; c++) {
+            List<ConversationRecord.MessageRecord> messages = new ArrayList<>();
+            for (int m = 0; m < 7; m++) {
+                messages.add(new ConversationRecord.MessageRecord(
+                        null, m % 2 == 0 ? "user" : "assistant", "c" + c + "-m" + m, base.plusSeconds(c * 60L + m), false));
+            }
+            lines.add(objectMapper.writeValueAsString(new ConversationRecord("c" + c, "chat " + c, base.plusSeconds(c * 60L), messages)));
+        }
+        Path input = dir.resolve("in.jsonl");
+        Files.write(input, lines);
+        return input;
+    }
+
+    @Test
+    void import_writesChatsIndexAndMessagesInBatches() throws IOException {
+        Path input = writeInput(20);
+
+        BulkTransferResult result = importer().run(input, dir.resolve("ckpt"));
+
+        assertThat(result.conversations()).isEqualTo(20);
+        assertThat(result.messages()).isEqualTo(140);
+        assertThat(chatRepository.findAll()).hasSize(20);
+        assertThat(chatRepository.findByConversationId("c3"))
+                .extracting(Message::getText)
+                .containsExactly("c3-m6", "c3-m5", "c3-m4", "c3-m3", "c3-m2", "c3-m1", "c3-m0");
+        assertThat(Files.readString(dir.resolve("ckpt"))).isEqualTo("20");
+    }
+
+    @Test
+    void import_resumesAfterCheckpoint() throws IOException {
+        Path input = writeInput(10);
+        Files.writeString(dir.resolve("ckpt"), "6");
+
+        BulkTransferResult result = importer().run(input, dir.resolve("ckpt"));
+
+        assertThat(result.conversations()).isEqualTo(4);
+        assertThat(chatRepository.findConversationIds()).containsExactlyInAnyOrder("c6", "c7", "c8", "c9");
+    }
+
+    @Test
+    void import_malformedLine_failsAndKeepsCheckpointBeforeIt() throws IOException {
+        Path input = dir.resolve("in.jsonl");
+        Files.write(input, List.of(
+                objectMapper.writeValueAsString(new ConversationRecord("ok", "ok", Instant.now(), List.of())),
+                "{not json"
+        ));
+
+        assertThatThrownBy(() -> importer().run(input, dir.resolve("ckpt")))
+                .hasMessageContaining("line 2");
+        assertThat(Long.parseLong(Files.readString(dir.resolve("ckpt")))).isLessThan(2);
+    }
+
+    @Test
+    void export_thenImport_roundTrips() throws IOException {
+        importer().run(writeInput(5), null);
+        Path export = dir.resolve("out.jsonl");
+
+        BulkTransferResult exported = exporter().run(export);
+
+        assertThat(exported.conversations()).isEqualTo(5);
+        assertThat(exported.messages()).isEqualTo(35);
+        List<ConversationRecord> records = Files.readAllLines(export).stream()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, ConversationRecord.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertThat(records).extracting(ConversationRecord::id).containsExactlyInAnyOrder("c0", "c1", "c2", "c3", "c4");
+        ConversationRecord c2 = records.stream().filter(r -> r.id().equals("c2")).findFirst().orElseThrow();
+        assertThat(c2.messages().getFirst().content()).isEqualTo("c2-m0");
+
+        // importing the export again is idempotent
+        importer().run(export, null);
+        assertThat(chatRepository.findByConversationId("c2")).hasSize(7);
+    }
+
+    @Test
+    void import_v1_keepsMessagesWithoutOrSharingTimestamps() throws IOException {
+        CassandraChatMemoryRepository v1 = new CassandraChatMemoryRepository(cqlTemplate, cqlSession,
+                MessageContentCodec.disabled(),
+                new TokenRangeScanner(cqlSession, 4, 4, 100, queryProfiles),
+                MessageTable.V1, queryProfiles, new SimpleMeterRegistry());
+        Instant at = Instant.parse("2025-01-01T10:00:00Z");
+        Path input = dir.resolve("in.jsonl");
+        Files.write(input, List.of(objectMapper.writeValueAsString(new ConversationRecord("v1", "v1", at, List.of(
+                new ConversationRecord.MessageRecord(null, "user", "q1", null, false),
+                new ConversationRecord.MessageRecord(null, "assistant", "a1", null, false),
+                new ConversationRecord.MessageRecord(null, "user", "q2", at.plusSeconds(5), false),
+                new ConversationRecord.MessageRecord(null, "assistant", "a2", at.plusSeconds(5), false))))));
+        ConversationImporter importer = new ConversationImporter(v1, objectMapper, new SimpleMeterRegistry(), 8, 3, 0, Duration.ofSeconds(1));
+
+        importer.run(input, null);
+        importer.run(input, null);
+
+        assertThat(v1.findByConversationId("v1"))
+                .extracting(Message::getText)
+                .containsExactly("a2", "q2", "a1", "q1");
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.infrastructure.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportCheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void watermark_staysBelowOldestLineInFlight() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(dir.resolve("ckpt"));
+        checkpoint.started(1);
+        checkpoint.started(2);
+        checkpoint.started(3);
+
+        checkpoint.completed(3);
+        checkpoint.completed(1);
+        assertThat(checkpoint.watermark()).isEqualTo(1);
+
+        checkpoint.completed(2);
+        assertThat(checkpoint.watermark()).isEqualTo(3);
+    }
+
+    @Test
+    void save_thenLoad_resumesFromWatermark() {
+        Path file = dir.resolve("ckpt");
+        ImportCheckpoint first = new ImportCheckpoint(file);
+        first.started(1);
+        first.started(2);
+        first.completed(1);
+        first.save();
+
+        ImportCheckpoint resumed = new ImportCheckpoint(file);
+        assertThat(resumed.load()).isEqualTo(1);
+        assertThat(resumed.watermark()).isEqualTo(1);
+    }
+
+    @Test
+    void load_withoutFile_startsFromZero() {
+        assertThat(new ImportCheckpoint(dir.resolve("missing")).load()).isZero();
+        assertThat(new ImportCheckpoint(null).load()).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ai.infrastructure.client;
+
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Outcome;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Permit;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_grantsImmediatelyBelowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 10, meterRegistry);
+
+        Permit first = limiter.acquire(Priority.INTERACTIVE).block();
+        Permit second = limiter.acquire(Priority.INTERACTIVE).block();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_servesInteractiveBeforeBackgroundWaiters() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, 10, meterRegistry);
+        Permit held = limiter.acquire(Priority.INTERACTIVE).block();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        limiter.acquire(Priority.BACKGROUND).subscribe(p -> {
+            order.add("background");
+            p.release(Outcome.DROPPED);
+        });
+        limiter.acquire(Priority.INTERACTIVE).subscribe(p -> {
+            order.add("interactive");
+            p.release(Outcome.DROPPED);
+        });
+        assertThat(limiter.getQueued()).isEqualTo(2);
+
+        held.release(Outcome.DROPPED);
+
+        assertThat(order).containsExactly("interactive", "background");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void release_rateLimitedShrinksAndSuccessGrowsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 10, meterRegistry);
+
+        limiter.acquire(Priority.INTERACTIVE).block().release(Outcome.RATE_LIMITED);
+        assertThat(limiter.getLimit()).isEqualTo(4.0);
+
+        limiter.acquire(Priority.INTERACTIVE).block().release(Outcome.SLOW);
+        assertThat(limiter.getLimit()).isEqualTo(2.0);
+
+        // saturate the limit so that successes count as growth signals
+        Permit first = limiter.acquire(Priority.INTERACTIVE).block();
+        Permit second = limiter.acquire(Priority.INTERACTIVE).block();
+        first.release(Outcome.SUCCESS);
+        second.release(Outcome.SUCCESS);
+        assertThat(limiter.getLimit()).isGreaterThan(2.0);
+    }
+
+    @Test
+    void cancelledWaiter_leavesQueueWithoutConsumingPermit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, 10, meterRegistry);
+        Permit held = limiter.acquire(Priority.INTERACTIVE).block();
+
+        Disposable waiting = limiter.acquire(Priority.INTERACTIVE).subscribe();
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        waiting.dispose();
+        assertThat(limiter.getQueued()).isZero();
+
+        held.release(Outcome.DROPPED);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void acquire_rejectsWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, 0, meterRegistry);
+        limiter.acquire(Priority.INTERACTIVE).block();
+
+        assertThatThrownBy(() -> limiter.acquire(Priority.BACKGROUND).block())
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void grant_recordsQueueWaitPerPriority() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, 10, meterRegistry);
+        limiter.acquire(Priority.BACKGROUND).block().release(Outcome.SUCCESS);
+
+        assertThat(meterRegistry.get("chat.model.limiter.queue.wait").tag("priority", "background").timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ai.infrastructure.client;
+
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bursts streaming calls against a fake provider that answers 429 once more than
+ * {@link #CAPACITY} streams are open at the same time.
+ */
+class ConcurrencyLimitedChatModelLoadTest {
+
+    private static final int CAPACITY = 4;
+    private static final int REQUESTS = 300;
+
+    @Test
+    void burst_limiterBacksOffBelowProviderCapacity() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(32, 1, 64, 0.5, REQUESTS, meterRegistry);
+        RateLimitingChatModel provider = new RateLimitingChatModel();
+        ChatModel limited = new ConcurrencyLimitedChatModel(provider, limiter, Priority.INTERACTIVE, Duration.ofSeconds(1));
+
+        AtomicInteger rejectedFirstHalf = new AtomicInteger();
+        AtomicInteger rejectedSecondHalf = new AtomicInteger();
+
+        Flux.range(0, REQUESTS)
+                .flatMap(i -> limited.stream(new Prompt("hi"))
+                        .then()
+                        .onErrorResume(WebClientResponseException.class, e -> {
+                            (i < REQUESTS / 2 ? rejectedFirstHalf : rejectedSecondHalf).incrementAndGet();
+                            return Mono.empty();
+                        }), REQUESTS)
+                .blockLast(Duration.ofSeconds(30));
+
+        assertThat(provider.maxObservedConcurrency.get()).isGreaterThan(CAPACITY); // the burst did hit the provider limit
+        assertThat(limiter.getLimit()).isLessThan(32.0);
+        assertThat(rejectedSecondHalf.get()).isLessThan(rejectedFirstHalf.get());
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(meterRegistry.get("chat.model.limiter.queue.wait").tag("priority", "interactive").timer().count())
+                .isEqualTo(REQUESTS);
+    }
+
+    private static class RateLimitingChatModel implements ChatModel {
+
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger maxObservedConcurrency = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.defer(() -> {
+                int current = open.incrementAndGet();
+                maxObservedConcurrency.accumulateAndGet(current, Math::max);
+                if (current > CAPACITY) {
+                    open.decrementAndGet();
+                    return Flux.error(new WebClientResponseException(429, "Too Many Requests", null, null, null));
+                }
+                return Flux.just("a", "b")
+                        .delayElements(Duration.ofMillis(5))
+                        .map(text -> new ChatResponse(List.of(new Generation(new AssistantMessage(text)))))
+                        .doFinally(signal -> open.decrementAndGet());
+            });
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.infrastructure.client;
+
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Outcome;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Permit;
+import com.ai.infrastructure.client.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitedChatModelTest {
+
+    @Test
+    void call_interruptedWhileWaiting_neverKeepsThePermit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, 10, new SimpleMeterRegistry());
+        ChatModel limited = new ConcurrencyLimitedChatModel(new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                return new ChatResponse(List.of(new Generation(new AssistantMessage("hi"))));
+            }
+        }, limiter, Priority.BACKGROUND, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 200; i++) {
+            Permit held = limiter.acquire(Priority.INTERACTIVE).block();
+            Thread caller = new Thread(() -> {
+                try {
+                    limited.call(new Prompt("hi"));
+                } catch (RuntimeException e) {
+                    // interrupted before the permit arrived
+                }
+            });
+            caller.start();
+            while (limiter.getQueued() == 0 && caller.isAlive()) {
+                Thread.onSpinWait();
+            }
+            // the permit is handed over while the caller is being interrupted
+            held.release(Outcome.DROPPED);
+            caller.interrupt();
+            caller.join();
+
+            assertThat(limiter.getInFlight()).isZero();
+        }
+    }
+}
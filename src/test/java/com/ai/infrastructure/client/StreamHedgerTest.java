@@ -0,0 +1,118 @@
+package com.ai.infrastructure.client;
+
+import com.ai.support.FakeChatModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamHedgerTest {
+
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(50);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void hedge_slowPrimary_usesBackupAndCancelsPrimary() {
+        FakeChatModel primary = FakeChatModel.streaming("slow").withFirstTokenDelay(Duration.ofSeconds(5));
+        FakeChatModel backup = FakeChatModel.streaming("fast", " answer");
+
+        List<String> result = hedger(new HedgeBudget(1, 10)).hedge(() -> text(primary), () -> text(backup))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result).containsExactly("fast", " answer");
+        assertThat(primary.cancellations()).isEqualTo(1);
+        assertThat(meterRegistry.counter("chat.model.hedge", "outcome", "won").count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedge_fastPrimary_neverStartsBackup() {
+        FakeChatModel primary = FakeChatModel.streaming("fast");
+        FakeChatModel backup = FakeChatModel.streaming("unused");
+
+        List<String> result = hedger(new HedgeBudget(1, 10)).hedge(() -> text(primary), () -> text(backup))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result).containsExactly("fast");
+        assertThat(backup.streams()).isZero();
+    }
+
+    @Test
+    void hedge_primaryWinsRace_cancelsBackup() {
+        FakeChatModel primary = FakeChatModel.streaming("primary").withFirstTokenDelay(Duration.ofMillis(100));
+        FakeChatModel backup = FakeChatModel.streaming("backup").withFirstTokenDelay(Duration.ofSeconds(5));
+
+        List<String> result = hedger(new HedgeBudget(1, 10)).hedge(() -> text(primary), () -> text(backup))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result).containsExactly("primary");
+        assertThat(backup.streams()).isEqualTo(1);
+        assertThat(backup.cancellations()).isEqualTo(1);
+    }
+
+    @Test
+    void hedge_exhaustedBudget_waitsForPrimary() {
+        FakeChatModel primary = FakeChatModel.streaming("primary").withFirstTokenDelay(Duration.ofMillis(150));
+        FakeChatModel backup = FakeChatModel.streaming("backup");
+
+        List<String> result = hedger(new HedgeBudget(0, 0)).hedge(() -> text(primary), () -> text(backup))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result).containsExactly("primary");
+        assertThat(backup.streams()).isZero();
+        assertThat(meterRegistry.counter("chat.model.hedge", "outcome", "skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedge_failingBackup_doesNotHidePrimary() {
+        FakeChatModel primary = FakeChatModel.streaming("primary").withFirstTokenDelay(Duration.ofMillis(150));
+        FakeChatModel backup = FakeChatModel.streaming().failingWith(new IllegalStateException("backup down"));
+
+        List<String> result = hedger(new HedgeBudget(1, 10)).hedge(() -> text(primary), () -> text(backup))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result).containsExactly("primary");
+    }
+
+    @Test
+    void hedge_primaryErrorBeforeDelay_isPropagated() {
+        FakeChatModel primary = FakeChatModel.streaming().failingWith(new IllegalStateException("primary down"));
+        FakeChatModel backup = FakeChatModel.streaming("backup");
+
+        assertThatThrownBy(() -> hedger(new HedgeBudget(1, 10)).hedge(() -> text(primary), () -> text(backup))
+                .blockLast(Duration.ofSeconds(2)))
+                .hasMessageContaining("primary down");
+    }
+
+    @Test
+    void budget_capsHedgeRate() {
+        HedgeBudget budget = new HedgeBudget(0.1, 1);
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                hedges++;
+            }
+        }
+        assertThat(hedges).isBetween(95, 101);
+    }
+
+    private StreamHedger hedger(HedgeBudget budget) {
+        return new StreamHedger(true, HEDGE_DELAY, budget, meterRegistry);
+    }
+
+    private static Flux<String> text(FakeChatModel chatModel) {
+        return chatModel.stream(new Prompt("hi")).map(response -> response.getResult().getOutput().getText());
+    }
+}
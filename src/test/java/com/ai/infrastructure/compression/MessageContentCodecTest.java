@@ -0,0 +1,131 @@
+package com.ai.infrastructure.compression;
+
+import com.ai.infrastructure.compression.MessageContentCodec.Codec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageContentCodecTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageContentCodecTest.class);
+
+    private static final String ASSISTANT_ANSWER = """
+            ## Summary
+
+            Here is a step-by-step explanation of how the Spring `ChatClient` streams a response:
+
+            1. The client builds a `Prompt` from the system message and the conversation history.
+            2. The model returns a `Flux<ChatResponse>` that emits one chunk per generated token group.
+            3. Each chunk is mapped to a Server-Sent Event and flushed to the browser.
+
+            ```java
+            chatClient.prompt().messages(history).stream().content().subscribe(System.out::print);
+            ```
+            """.repeat(8);
+
+    @ParameterizedTest
+    @EnumSource(value = Codec.class, names = {"LZ4", "DEFLATE"})
+    void encode_thenDecode_roundTrips(Codec codec) {
+        MessageContentCodec contentCodec = new MessageContentCodec(codec, 16);
+
+        ByteBuffer blob = contentCodec.encode(ASSISTANT_ANSWER);
+
+        assertThat(blob).isNotNull();
+        assertThat(contentCodec.decode(null, blob)).isEqualTo(ASSISTANT_ANSWER);
+    }
+
+    @Test
+    void encode_belowThreshold_keepsPlainText() {
+        MessageContentCodec contentCodec = new MessageContentCodec(Codec.LZ4, 1024);
+
+        assertThat(contentCodec.encode("hi")).isNull();
+        assertThat(contentCodec.decode("hi", null)).isEqualTo("hi");
+    }
+
+    @Test
+    void decode_readsBlobsWrittenWithAnotherCodec() {
+        ByteBuffer deflated = new MessageContentCodec(Codec.DEFLATE, 0).encode(ASSISTANT_ANSWER);
+
+        assertThat(MessageContentCodec.disabled().decode(null, deflated)).isEqualTo(ASSISTANT_ANSWER);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Codec.class, names = {"LZ4", "DEFLATE"})
+    void encode_halvesStoredBytesOfTypicalAnswer(Codec codec) {
+        int rawBytes = ASSISTANT_ANSWER.getBytes(StandardCharsets.UTF_8).length;
+
+        ByteBuffer blob = new MessageContentCodec(codec, 0).encode(ASSISTANT_ANSWER);
+
+        assertThat(blob.remaining()).isLessThan(rawBytes / 2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Codec.class, names = {"LZ4", "DEFLATE"})
+    void decode_rejectsBlobShorterThanDeclaredLength(Codec codec) {
+        ByteBuffer blob = new MessageContentCodec(codec, 0).encode(ASSISTANT_ANSWER);
+        ByteBuffer truncated = ByteBuffer.allocate(blob.remaining() / 2);
+        truncated.put(blob.duplicate().limit(truncated.capacity())).flip();
+
+        assertThatThrownBy(() -> MessageContentCodec.disabled().decode(null, truncated))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Stored bytes and encode/decode latency of a typical answer per codec, logged; only that the
+     * content round-trips is asserted. {@code NONE} stores plain text, so its row is the UTF-8
+     * conversion the driver does for the text column. Opt-in:
+     *
+     * <pre>./mvnw test -Dtest=MessageContentCodecTest -Dbenchmark=true</pre>
+     */
+    @ParameterizedTest
+    @EnumSource(Codec.class)
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_bytesAndLatency(Codec codec) {
+        MessageContentCodec contentCodec = new MessageContentCodec(codec, 0);
+        int rawBytes = ASSISTANT_ANSWER.getBytes(StandardCharsets.UTF_8).length;
+        int iterations = 50_000;
+
+        ByteBuffer blob = null;
+        String decoded = null;
+        for (int i = 0; i < iterations; i++) { // warm-up
+            blob = encode(contentCodec);
+            decoded = decode(codec, contentCodec, blob);
+        }
+
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blob = encode(contentCodec);
+        }
+        long encodeNanos = (System.nanoTime() - encodeStart) / iterations;
+
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decoded = decode(codec, contentCodec, blob);
+        }
+        long decodeNanos = (System.nanoTime() - decodeStart) / iterations;
+
+        log.info("{}: {} -> {} bytes ({}%), encode {} µs, decode {} µs", codec, rawBytes, blob.remaining(),
+                blob.remaining() * 100 / rawBytes, encodeNanos / 1000.0, decodeNanos / 1000.0);
+        assertThat(decoded).isEqualTo(ASSISTANT_ANSWER);
+    }
+
+    private static ByteBuffer encode(MessageContentCodec contentCodec) {
+        ByteBuffer blob = contentCodec.encode(ASSISTANT_ANSWER);
+        return blob != null ? blob : ByteBuffer.wrap(ASSISTANT_ANSWER.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(Codec codec, MessageContentCodec contentCodec, ByteBuffer blob) {
+        return codec == Codec.NONE
+                ? new String(blob.array(), StandardCharsets.UTF_8)
+                : contentCodec.decode(null, blob);
+    }
+}
@@ -0,0 +1,152 @@
+package com.ai.infrastructure.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCompressionFilterTest {
+
+    private static final String HISTORY = "{\"role\":\"assistant\",\"content\":\"Each chunk is flushed to the browser.\"},".repeat(50);
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ResponseCompressionFilter filter = new ResponseCompressionFilter(1024,
+            List.of(MediaType.APPLICATION_JSON, MediaType.TEXT_EVENT_STREAM), meterRegistry);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chats/c1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return request;
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (request, response) -> {
+            response.setContentType(contentType);
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void largeJson_isGzipped() throws Exception {
+        filter.doFilter(request("gzip, deflate, br"), response, writing("application/json", HISTORY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(HISTORY);
+        assertThat(response.getContentAsByteArray().length).isLessThan(HISTORY.length() / 4);
+        assertThat(meterRegistry.summary("http.response.compression.saved").totalAmount())
+                .isEqualTo(HISTORY.length() - response.getContentAsByteArray().length);
+        assertThat(meterRegistry.timer("http.response.compression.time").count()).isEqualTo(1);
+    }
+
+    @Test
+    void bodyBelowThreshold_isSentAsIsWithItsLength() throws Exception {
+        filter.doFilter(request("gzip"), response, writing("application/json", "{\"id\":\"c1\"}"));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":\"c1\"}");
+        assertThat(response.getContentLength()).isEqualTo(11);
+    }
+
+    @Test
+    void smallJsonFlushedBeforeTheEnd_isSentAsIsWithItsLength() throws Exception {
+        filter.doFilter(request("gzip"), response, (request, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write("{\"id\":\"c1\"}".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            res.flushBuffer();
+            assertThat(((ServletResponseWrapper) res).getResponse().isCommitted()).isFalse();
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":\"c1\"}");
+        assertThat(response.getContentLength()).isEqualTo(11);
+    }
+
+    @Test
+    void gzipRefusedOrTypeNotListed_isSentAsIs() throws Exception {
+        filter.doFilter(request("gzip;q=0, identity"), response, writing("application/json", HISTORY));
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+        MockHttpServletResponse image = new MockHttpServletResponse();
+        filter.doFilter(request("gzip"), image, writing("image/png", HISTORY));
+        assertThat(image.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(image.getContentAsString()).isEqualTo(HISTORY);
+    }
+
+    @Test
+    void eventStream_eachFlushedEventIsReadableAtOnce() throws Exception {
+        String event = "data:Hello\n\n";
+        byte[][] flushed = new byte[1][];
+
+        filter.doFilter(request("gzip"), response, (request, res) -> {
+            res.setContentType("text/event-stream");
+            res.getOutputStream().write(event.getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            flushed[0] = ((MockHttpServletResponse) ((ServletResponseWrapper) res).getResponse())
+                    .getContentAsByteArray();
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(inflatePartial(flushed[0])).isEqualTo(event);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(event);
+    }
+
+    @Test
+    void eventStream_errorWrittenOnAsyncDispatch_isPartOfTheGzipStream() throws Exception {
+        String event = "data:Hello\n\n";
+        String error = "event:error\ndata:Generation failed\n\n";
+        MockHttpServletRequest request = request("gzip");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType("text/event-stream");
+            res.getOutputStream().write(event.getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            req.startAsync();
+        });
+        // the stream fails, and the async dispatch completing it writes the error
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> {
+            res.getOutputStream().write(error.getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(event + error);
+    }
+
+    // inflates what a sync flush emitted so far, without the trailer a complete gzip stream ends with
+    private static String inflatePartial(byte[] gzip) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(Arrays.copyOfRange(gzip, 10, gzip.length)); // 10-byte gzip header
+        byte[] out = new byte[4096];
+        int length = inflater.inflate(out);
+        inflater.end();
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ai.infrastructure.config;
+
+import com.ai.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the context with the shipped {@code application.yml}, so a mis-indented key fails the build
+ * instead of silently falling back to a default.
+ */
+class ApplicationPropertiesTest extends BaseTest {
+
+    @Autowired
+    Environment environment;
+
+    @Test
+    void applicationYml_bindsNestedKeys() {
+        assertThat(environment.getProperty("app.cassandra.compression.codec")).isEqualTo("none");
+        assertThat(environment.getProperty("app.cassandra.messages.table-version")).isEqualTo("v1");
+        assertThat(environment.getProperty("app.chats.websocket.allowed-origins")).isEqualTo("http://localhost:4200");
+        assertThat(environment.getProperty("app.chats.websocket.max-streams", Integer.class)).isEqualTo(16);
+    }
+}
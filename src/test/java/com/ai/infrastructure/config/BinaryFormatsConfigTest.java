@@ -0,0 +1,122 @@
+package com.ai.infrastructure.config;
+
+import com.ai.application.dto.ChatDto;
+import com.ai.application.dto.ChatMessageDto;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryFormatsConfigTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryFormatsConfigTest.class);
+
+    BinaryFormatsConfig config = new BinaryFormatsConfig();
+    ObjectMapper json = builder().build();
+    ObjectMapper cbor = config.cborHttpMessageConverter(builder()).getObjectMapper();
+    ObjectMapper smile = config.smileHttpMessageConverter(builder()).getObjectMapper();
+
+    ChatPage page = new ChatPage(
+            IntStream.range(0, 50)
+                    .mapToObj(i -> new ChatMessageDto(i % 2 == 0 ? "user" : "assistant",
+                            "Message " + i + ": how does the ChatClient stream a response to the browser?"))
+                    .toList(),
+            new CursorMeta(UUID.randomUUID().toString(), 50));
+
+    // what Boot's auto-configured builder sets by default
+    private static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Test
+    void converters_supportTheirMediaTypes() {
+        AbstractJackson2HttpMessageConverter cborConverter = config.cborHttpMessageConverter(builder());
+        AbstractJackson2HttpMessageConverter smileConverter = config.smileHttpMessageConverter(builder());
+
+        assertThat(cborConverter.getSupportedMediaTypes()).contains(MediaType.APPLICATION_CBOR);
+        assertThat(smileConverter.getSupportedMediaTypes()).contains(new MediaType("application", "x-jackson-smile"));
+    }
+
+    @Test
+    void chatPage_encodesToTheSameTreeAsJson() throws IOException {
+        var expected = json.readTree(json.writeValueAsBytes(page));
+
+        assertThat(cbor.readTree(cbor.writeValueAsBytes(page))).isEqualTo(expected);
+        assertThat(smile.readTree(smile.writeValueAsBytes(page))).isEqualTo(expected);
+    }
+
+    @Test
+    void chatDto_roundTrips() throws IOException {
+        ChatDto chat = new ChatDto("c1", "Streaming", Instant.parse("2026-01-01T10:00:00Z"),
+                List.of(new ChatMessageDto("user", "hi")), null, null);
+
+        assertThat(cbor.readValue(cbor.writeValueAsBytes(chat), ChatDto.class)).isEqualTo(chat);
+        assertThat(smile.readValue(smile.writeValueAsBytes(chat), ChatDto.class)).isEqualTo(chat);
+    }
+
+    @Test
+    void chatPage_binaryFormatsAreSmallerThanJson() throws IOException {
+        int jsonBytes = json.writeValueAsBytes(page).length;
+
+        assertThat(cbor.writeValueAsBytes(page).length).isLessThan(jsonBytes);
+        assertThat(smile.writeValueAsBytes(page).length).isLessThan(jsonBytes);
+    }
+
+    /**
+     * Serialize and parse throughput of a 50-message page per format, logged; only that each format
+     * parses back to the same tree is asserted. Opt-in, since it runs for about 20 seconds:
+     *
+     * <pre>./mvnw test -Dtest=BinaryFormatsConfigTest -Dbenchmark=true</pre>
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_throughput() throws IOException {
+        Duration warmUp = Duration.ofSeconds(2);
+        Duration measure = Duration.ofSeconds(3);
+        int jsonBytes = json.writeValueAsBytes(page).length;
+        var expected = json.readTree(json.writeValueAsBytes(page));
+        for (ObjectMapper format : List.of(json, cbor, smile)) {
+            byte[] bytes = format.writeValueAsBytes(page);
+            run(() -> format.readTree(format.writeValueAsBytes(page)), warmUp);
+
+            long serialized = run(() -> format.writeValueAsBytes(page), measure);
+            long parsed = run(() -> format.readTree(bytes), measure);
+
+            log.info("{}: {} bytes ({}% of JSON), serialize {} ops/s, parse {} ops/s",
+                    format.getFactory().getFormatName(), bytes.length, bytes.length * 100 / jsonBytes,
+                    serialized * 1000 / measure.toMillis(), parsed * 1000 / measure.toMillis());
+            assertThat(format.readTree(bytes)).isEqualTo(expected);
+        }
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+    // runs the operation back to back for the duration, returns how often it ran
+    private static long run(Operation operation, Duration duration) throws IOException {
+        long end = System.nanoTime() + duration.toNanos();
+        long count = 0;
+        while (System.nanoTime() < end) {
+            operation.run();
+            count++;
+        }
+        return count;
+    }
+}
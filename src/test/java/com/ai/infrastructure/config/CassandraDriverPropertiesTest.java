@@ -0,0 +1,51 @@
+package com.ai.infrastructure.config;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CassandraDriverPropertiesTest {
+
+    @Test
+    void toConfigLoader_definesProfilesThatInheritFromDefault() {
+        CassandraDriverProperties properties = new CassandraDriverProperties(Duration.ofSeconds(3), 2, 512, Map.of(
+                "window-read", new CassandraDriverProperties.Profile("local_one", null, Duration.ofMillis(800), null,
+                        new CassandraDriverProperties.SpeculativeExecution(2, Duration.ofMillis(40))),
+                "bulk-scan", new CassandraDriverProperties.Profile("LOCAL_ONE", null, Duration.ofSeconds(30), 5000, null)
+        ));
+
+        DriverConfig config = properties.toConfigLoader().getInitialConfig();
+
+        DriverExecutionProfile defaults = config.getDefaultProfile();
+        assertThat(defaults.getDuration(DefaultDriverOption.REQUEST_TIMEOUT)).isEqualTo(Duration.ofSeconds(3));
+        assertThat(defaults.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).isEqualTo(2);
+        assertThat(defaults.getInt(DefaultDriverOption.CONNECTION_MAX_REQUESTS)).isEqualTo(512);
+
+        DriverExecutionProfile windowRead = config.getProfile("window-read");
+        assertThat(windowRead.getString(DefaultDriverOption.REQUEST_CONSISTENCY)).isEqualTo("LOCAL_ONE");
+        assertThat(windowRead.getDuration(DefaultDriverOption.REQUEST_TIMEOUT)).isEqualTo(Duration.ofMillis(800));
+        assertThat(windowRead.getString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS)).isEqualTo("ConstantSpeculativeExecutionPolicy");
+        assertThat(windowRead.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX)).isEqualTo(2);
+        assertThat(windowRead.getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY)).isEqualTo(Duration.ofMillis(40));
+
+        DriverExecutionProfile bulkScan = config.getProfile("bulk-scan");
+        assertThat(bulkScan.getInt(DefaultDriverOption.REQUEST_PAGE_SIZE)).isEqualTo(5000);
+        // not set on the profile, so inherited
+        assertThat(bulkScan.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).isEqualTo(2);
+        assertThat(bulkScan.getString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS)).isEqualTo("NoSpeculativeExecutionPolicy");
+    }
+
+    @Test
+    void toConfigLoader_withoutSettings_keepsDriverDefaults() {
+        DriverConfig config = new CassandraDriverProperties(null, null, null, null).toConfigLoader().getInitialConfig();
+
+        assertThat(config.getProfiles()).containsOnlyKeys(DriverExecutionProfile.DEFAULT_NAME);
+        assertThat(config.getDefaultProfile().getString(DefaultDriverOption.REQUEST_CONSISTENCY)).isEqualTo("LOCAL_ONE");
+    }
+}
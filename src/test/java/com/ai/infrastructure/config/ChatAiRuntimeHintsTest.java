@@ -0,0 +1,39 @@
+package com.ai.infrastructure.config;
+
+import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.domain.model.pagination.OffsetMeta;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatAiRuntimeHintsTest {
+
+    RuntimeHints hints = new RuntimeHints();
+
+    ChatAiRuntimeHintsTest() {
+        new ChatAiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersEveryPageMetaImplementationForJson() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(OffsetMeta.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(CursorMeta.class)).accepts(hints);
+    }
+
+    @Test
+    void registersConfiguredDriverPolicies() {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.datastax.oss.driver.internal.core.specex.ConstantSpeculativeExecutionPolicy"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    void registersMigrationScripts() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("db.migration/V1__create_chat_schema.cql")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("reference.conf")).accepts(hints);
+    }
+}
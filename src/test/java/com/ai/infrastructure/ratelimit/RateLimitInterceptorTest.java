@@ -0,0 +1,83 @@
+package com.ai.infrastructure.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private final InMemoryDailyTokenQuota tokenQuota = new InMemoryDailyTokenQuota(100, Clock.systemUTC());
+    private final RateLimitInterceptor interceptor =
+            new RateLimitInterceptor(new StripedTokenBucketRateLimiter(1, 0.001, 4, 100), tokenQuota);
+
+    @Test
+    void preHandle_exposesCallerIdFromPrincipal() throws Exception {
+        MockHttpServletRequest request = request("alice");
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), new Object())).isTrue();
+        assertThat(request.getAttribute(RateLimitInterceptor.CALLER_ID_ATTRIBUTE)).isEqualTo("alice");
+    }
+
+    @Test
+    void preHandle_rejectsOverRateLimitWith429() throws Exception {
+        interceptor.preHandle(request("alice"), new MockHttpServletResponse(), new Object());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("alice"), response, new Object())).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isNotBlank();
+    }
+
+    @Test
+    void preHandle_rejectsExhaustedQuotaWith429() throws Exception {
+        tokenQuota.record("bob", TokenQuota.estimateTokens("x".repeat(400)));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("bob"), response, new Object())).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void preHandle_ignoresClientIdHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chats/stream");
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-Client-Id", "alice");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertThat(request.getAttribute(RateLimitInterceptor.CALLER_ID_ATTRIBUTE)).isEqualTo("10.0.0.7");
+    }
+
+    @Test
+    void preHandle_asyncDispatch_takesNoSecondToken() throws Exception {
+        MockHttpServletRequest request = request("alice");
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), new Object())).isTrue();
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(request.getAttribute(RateLimitInterceptor.CALLER_ID_ATTRIBUTE)).isEqualTo("alice");
+    }
+
+    @Test
+    void preHandle_fallsBackToRemoteAddress() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chats/stream");
+        request.setRemoteAddr("10.0.0.7");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertThat(request.getAttribute(RateLimitInterceptor.CALLER_ID_ATTRIBUTE)).isEqualTo("10.0.0.7");
+    }
+
+    private static MockHttpServletRequest request(String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chats/stream");
+        request.setUserPrincipal(() -> user);
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketRateLimiterTest {
+
+    @Test
+    void tryAcquire_allowsBurstThenRejectsWithRetryAfter() {
+        StripedTokenBucketRateLimiter limiter = new StripedTokenBucketRateLimiter(3, 1, 4, 100);
+
+        assertThat(limiter.tryAcquire("alice").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("alice").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("alice").allowed()).isTrue();
+
+        RateLimiter.Decision rejected = limiter.tryAcquire("alice");
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfter()).isPositive();
+    }
+
+    @Test
+    void tryAcquire_keepsCallersIndependent() {
+        StripedTokenBucketRateLimiter limiter = new StripedTokenBucketRateLimiter(1, 0.001, 1, 100);
+
+        assertThat(limiter.tryAcquire("alice").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("alice").allowed()).isFalse();
+        assertThat(limiter.tryAcquire("bob").allowed()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_concurrentCallersNeverExceedCapacity() throws InterruptedException {
+        StripedTokenBucketRateLimiter limiter = new StripedTokenBucketRateLimiter(100, 0.001, 16, 100);
+        AtomicInteger allowed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (limiter.tryAcquire("shared").allowed()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.domain.entity.NoSqlChat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerCheckpointerTest extends BaseTest {
+
+    @Autowired
+    ChatRepository<NoSqlChat> chatRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AnswerCheckpointer checkpointer(long everyTokens, double minGrowth) {
+        // writes on the calling thread, so every due checkpoint is written before update returns
+        return new AnswerCheckpointer(chatRepository, everyTokens, Duration.ofHours(1), minGrowth,
+                Schedulers.immediate(), meterRegistry);
+    }
+
+    private String prompt(String chatId, Instant at) {
+        chatRepository.saveAll(chatId, List.of(UserMessage.builder().text("hi").metadata(Map.of("msg_timestamp", at)).build()));
+        return chatId;
+    }
+
+    private List<Message> assistantMessages(String chatId) {
+        return chatRepository.findByConversationId(chatId).stream()
+                .filter(AssistantMessage.class::isInstance)
+                .toList();
+    }
+
+    @Test
+    void checkpoints_upsertOneRow_thatTheFinalSaveReplaces() {
+        Instant promptAt = Instant.now();
+        String chatId = prompt(chatRepository.save("checkpoints").getId(), promptAt);
+        AnswerCheckpointer.Checkpoint checkpoint = checkpointer(1, 0.5).start(chatId, promptAt);
+        StringBuilder answer = new StringBuilder();
+
+        for (String chunk : List.of("Hello", " world", ", how", " are you", " doing today?")) {
+            answer.append(chunk);
+            checkpoint.update(answer);
+        }
+
+        assertThat(assistantMessages(chatId)).singleElement().satisfies(m -> {
+            assertThat(answer.toString()).startsWith(m.getText());
+            assertThat(m.getMetadata()).containsEntry("msg_truncated", true);
+        });
+
+        checkpoint.close(answer.length());
+        Map<String, Object> metadata = new HashMap<>(Map.of("msg_truncated", false, "msg_timestamp", Instant.now()));
+        metadata.putAll(checkpoint.key());
+        chatRepository.saveAll(chatId, List.of(new AssistantMessage(answer.toString(), metadata)));
+
+        assertThat(assistantMessages(chatId)).singleElement().satisfies(m -> {
+            assertThat(m.getText()).isEqualTo("Hello world, how are you doing today?");
+            assertThat(m.getMetadata()).containsEntry("msg_truncated", false);
+        });
+        // newest first: the answer sorts after its prompt
+        assertThat(chatRepository.findByConversationId(chatId).getFirst()).isInstanceOf(AssistantMessage.class);
+    }
+
+    @Test
+    void writeAmplification_staysBounded_forLongAnswers() {
+        Instant promptAt = Instant.now();
+        String chatId = prompt(chatRepository.save("long").getId(), promptAt);
+        AnswerCheckpointer.Checkpoint checkpoint = checkpointer(1, 0.5).start(chatId, promptAt);
+        StringBuilder answer = new StringBuilder();
+
+        for (int i = 0; i < 2_000; i++) {
+            answer.append("tok ");
+            checkpoint.update(answer);
+        }
+        checkpoint.close(answer.length());
+
+        // each checkpoint is at least 1.5 times the previous one: 2 + 1 / 0.5 at most
+        assertThat(meterRegistry.summary("chat.answer.checkpoint.amplification").max()).isLessThanOrEqualTo(4.0);
+        assertThat(meterRegistry.counter("chat.answer.checkpoint", "outcome", "success").count()).isLessThan(25);
+    }
+
+    @Test
+    void close_stopsFurtherCheckpoints() {
+        Instant promptAt = Instant.now();
+        String chatId = prompt(chatRepository.save("closed").getId(), promptAt);
+        AnswerCheckpointer.Checkpoint checkpoint = checkpointer(1, 0.5).start(chatId, promptAt);
+
+        checkpoint.close(0);
+        checkpoint.update("Hello world");
+
+        assertThat(assistantMessages(chatId)).isEmpty();
+    }
+
+    @Test
+    void disabled_neverWritesAndKeepsNoKey() {
+        AnswerCheckpointer.Checkpoint checkpoint = AnswerCheckpointer.disabled().start("c1", Instant.now());
+
+        checkpoint.update("Hello world");
+        checkpoint.close(11);
+
+        assertThat(checkpoint.key()).isEmpty();
+    }
+}
@@ -7,6 +7,7 @@ import com.ai.domain.model.pagination.CursorMeta;
 import com.ai.domain.model.pagination.OffsetMeta;
 import com.ai.domain.model.pagination.PageMeta;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,6 +29,9 @@ class CassandraChatRepositoryTest extends BaseTest {
     @Autowired
     CassandraChatMemoryRepository chatRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     void saveChat_shouldPersistAndBeRetrievable() {
         // given
@@ -77,6 +82,15 @@ class CassandraChatRepositoryTest extends BaseTest {
         );
     }
 
+    @Test
+    void saveChat_recordsLatencyPerWriteStep() {
+        chatRepository.save("timed-chat");
+
+        assertThat(meterRegistry.get("chat.repository.create").tag("step", "ai_chat_memory").timer().count()).isPositive();
+        assertThat(meterRegistry.get("chat.repository.create").tag("step", "chats_by_created").timer().count()).isPositive();
+        assertThat(meterRegistry.get("chat.repository.create").tag("step", "total").timer().count()).isPositive();
+    }
+
     @Test
     void findByConversationId_returnsMessagesOrderedAndMapped() {
         // given: create a chat
@@ -169,6 +183,18 @@ class CassandraChatRepositoryTest extends BaseTest {
                 .hasMessageContaining("cannot be null or empty");
     }
 
+    @Test
+    void findRecentConversationIds_returnsNewestFirst() throws InterruptedException {
+        NoSqlChat first = chatRepository.save("first");
+        Thread.sleep(5);
+        NoSqlChat second = chatRepository.save("second");
+        Thread.sleep(5);
+        NoSqlChat third = chatRepository.save("third");
+
+        assertThat(chatRepository.findRecentConversationIds(2)).containsExactly(third.getId(), second.getId());
+        assertThat(chatRepository.findRecentConversationIds(10)).containsExactly(third.getId(), second.getId(), first.getId());
+    }
+
     @Test
     void deleteById_removesChatAndItsMessages() {
         // given: a chat
@@ -196,6 +222,54 @@ class CassandraChatRepositoryTest extends BaseTest {
         assertThat(chatIds).isEmpty();
     }
 
+    @Test
+    void deleteById_missingChat_isNoOp() {
+        // when / then: deleting a chat that never existed does not throw
+        chatRepository.deleteById("missing-chat");
+        chatRepository.deleteById(UUID.randomUUID().toString());
+
+        assertThat(chatRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void deleteById_legacyId_readsCreatedAtAndRemovesIndexRow() {
+        // given: a chat created before ids were time-based
+        String legacyId = UUID.randomUUID().toString();
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_memory (session_id, session_name, created_at) VALUES (?, ?, ?)",
+                legacyId, "legacy", createdAt
+        );
+        cqlTemplate.execute(
+                "INSERT INTO chats_by_created (bucket, created_at, session_id, session_name) VALUES ('all', ?, ?, ?)",
+                Uuids.startOf(createdAt.toEpochMilli()), legacyId, "legacy"
+        );
+
+        // when
+        chatRepository.deleteById(legacyId);
+
+        // then
+        assertThat(chatRepository.findAll()).isEmpty();
+        assertThat(chatRepository.findConversationIds()).isEmpty();
+    }
+
+    @Test
+    void deleteAllById_removesEveryChat() {
+        // given
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(chatRepository.save("bulk-" + i).getId());
+        }
+
+        // when
+        long deleted = chatRepository.deleteAllById(ids, 8);
+
+        // then
+        assertThat(deleted).isEqualTo(50);
+        assertThat(chatRepository.findAll()).isEmpty();
+        assertThat(chatRepository.findConversationIds()).isEmpty();
+    }
+
     @Test
     void saveAll_persistsMessages_andFindByConversationIdReturnsThem() {
         // given: a chat
@@ -0,0 +1,149 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.domain.model.ChatActivity;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatActivityIndexTest extends BaseTest {
+
+    @Autowired
+    CassandraChatMemoryRepository chatRepository;
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ChatActivityIndex index;
+    Instant t0 = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        index = new ChatActivityIndex(cqlSession, MessageTable.V1, Duration.ofMillis(300), 10, queryProfiles, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    // stores the messages like ChatMemory.add does, then notifies the index
+    private void add(String chatId, Message... messages) {
+        chatRepository.saveAll(chatId, List.of(messages));
+        index.onMessagesAdded(chatId, List.of(messages));
+    }
+
+    private Message user(String text, Instant at) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", at)).build();
+    }
+
+    private Message assistant(String text, Instant at) {
+        return new AssistantMessage(text, Map.of("msg_timestamp", at));
+    }
+
+    private List<ChatActivity> listing(Set<String> chatIds) {
+        return chatRepository.findAllByActivity(100).stream()
+                .filter(activity -> chatIds.contains(activity.id()))
+                .toList();
+    }
+
+    private double updates() {
+        return meterRegistry.counter("chat.activity.index.updates").count();
+    }
+
+    @Test
+    void aTurnIsIndexedOnceWithCountAndPreview() throws InterruptedException {
+        NoSqlChat chat = chatRepository.save("Trip");
+
+        add(chat.getId(), user("where should I go", t0));
+        add(chat.getId(), assistant("Lisbon is lovely in spring", t0.plusSeconds(1)));
+        await(() -> updates() == 1);
+
+        List<ChatActivity> listed = listing(Set.of(chat.getId()));
+        assertThat(listed).hasSize(1);
+        ChatActivity activity = listed.getFirst();
+        assertThat(activity.name()).isEqualTo("Trip");
+        assertThat(activity.createdAt()).isEqualTo(chat.getCreatedAt());
+        assertThat(activity.lastActivityAt()).isEqualTo(t0.plusSeconds(1));
+        assertThat(activity.messageCount()).isEqualTo(2);
+        assertThat(activity.lastMessageRole()).isEqualTo("assistant");
+        assertThat(activity.lastMessagePreview()).isEqualTo("Lisbon is…");
+        assertThat(meterRegistry.counter("chat.activity.index.coalesced").count()).isEqualTo(1);
+    }
+
+    @Test
+    void chatsAreListedByLatestMessage_andMoveWhenActive() throws InterruptedException {
+        NoSqlChat older = chatRepository.save("older");
+        NoSqlChat newer = chatRepository.save("newer");
+        add(older.getId(), user("q", t0), assistant("a", t0.plusSeconds(1)));
+        add(newer.getId(), user("q", t0.plusSeconds(2)), assistant("a", t0.plusSeconds(3)));
+        await(() -> updates() == 2);
+        assertThat(listing(Set.of(older.getId(), newer.getId()))).extracting(ChatActivity::id)
+                .containsExactly(newer.getId(), older.getId());
+
+        // when: the older chat gets a new turn
+        add(older.getId(), user("q2", t0.plusSeconds(4)), assistant("a2", t0.plusSeconds(5)));
+        await(() -> updates() == 3);
+
+        // then: it moves to the top, without a leftover row at its old position
+        List<ChatActivity> listed = listing(Set.of(older.getId(), newer.getId()));
+        assertThat(listed).extracting(ChatActivity::id).containsExactly(older.getId(), newer.getId());
+        assertThat(listed.getFirst().messageCount()).isEqualTo(4);
+    }
+
+    @Test
+    void aTurnWithoutResponseIsIndexedAfterMaxDelay() throws InterruptedException {
+        NoSqlChat chat = chatRepository.save("pending");
+
+        add(chat.getId(), user("anyone there?", t0));
+        await(() -> updates() == 1);
+
+        assertThat(listing(Set.of(chat.getId()))).singleElement()
+                .extracting(ChatActivity::lastMessageRole).isEqualTo("user");
+    }
+
+    @Test
+    void deletingTheChatRemovesItFromTheListing() throws InterruptedException {
+        NoSqlChat chat = chatRepository.save("to delete");
+        add(chat.getId(), user("q", t0), assistant("a", t0.plusSeconds(1)));
+        await(() -> updates() == 1);
+
+        // deletes like ChatMemory.clear does, then notifies the index
+        chatRepository.deleteById(chat.getId());
+        index.onConversationCleared(chat.getId());
+
+        await(() -> listing(Set.of(chat.getId())).isEmpty());
+        await(() -> cqlTemplate.queryForList("SELECT session_id FROM chat_last_activity WHERE session_id = ?", chat.getId()).isEmpty());
+    }
+}
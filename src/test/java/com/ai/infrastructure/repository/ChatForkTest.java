@@ -0,0 +1,166 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.application.dto.ChatMessageDto;
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatForkTest extends BaseTest {
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    Instant t0 = Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS);
+
+    private CassandraChatMemoryRepository repository(MessageTable messageTable, int maxForkDepth) {
+        return new CassandraChatMemoryRepository(cqlTemplate, cqlSession, MessageContentCodec.disabled(),
+                new TokenRangeScanner(cqlSession, 4, 4, 100, queryProfiles),
+                messageTable, maxForkDepth, queryProfiles, new SimpleMeterRegistry());
+    }
+
+    private Message user(String text, int second) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", t0.plusSeconds(second))).build();
+    }
+
+    private Message assistant(String text, int second) {
+        return new AssistantMessage(text, Map.of("msg_timestamp", t0.plusSeconds(second)));
+    }
+
+    private static List<String> texts(List<Message> messages) {
+        return messages.stream().map(Message::getText).toList();
+    }
+
+    private long rows(MessageTable messageTable, String chatId) {
+        return cqlSession.execute("SELECT COUNT(*) FROM " + messageTable.tableName() + " WHERE session_id = ?", chatId)
+                .one().getLong(0);
+    }
+
+    private NoSqlChat chatWithTwoTurns(CassandraChatMemoryRepository repository) {
+        NoSqlChat chat = repository.save("recipes");
+        repository.saveAll(chat.getId(), List.of(user("q1", 0), assistant("a1", 1), user("q2", 2), assistant("a2", 3)));
+        return chat;
+    }
+
+    @Test
+    void fork_sharesHistoryWithoutCopying() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+
+        // edit q2: leave out q2 and a2
+        NoSqlChat fork = repository.fork(chat.getId(), 2, null).orElseThrow();
+        assertThat(fork.getName()).isEqualTo("recipes");
+        assertThat(rows(MessageTable.V2, fork.getId())).isZero();
+        assertThat(texts(repository.findByConversationId(fork.getId()))).containsExactly("a1", "q1");
+
+        repository.saveAll(fork.getId(), List.of(user("q2 edited", 10), assistant("a2'", 11)));
+
+        assertThat(rows(MessageTable.V2, fork.getId())).isEqualTo(2);
+        assertThat(texts(repository.findByConversationId(fork.getId()))).containsExactly("a2'", "q2 edited", "a1", "q1");
+        assertThat(texts(repository.findLastNByConversationId(fork.getId(), 3))).containsExactly("a2'", "q2 edited", "a1");
+        // the parent is unchanged
+        assertThat(texts(repository.findByConversationId(chat.getId()))).containsExactly("a2", "q2", "a1", "q1");
+    }
+
+    @Test
+    void fork_ofFork_resolvesThroughTheChain() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+        NoSqlChat fork = repository.fork(chat.getId(), 0, "branch").orElseThrow();
+        repository.saveAll(fork.getId(), List.of(user("q3", 10), assistant("a3", 11)));
+
+        // drop a3, q3 and a2: the grandchild reaches past its parent's own messages into the root
+        NoSqlChat grandchild = repository.fork(fork.getId(), 3, null).orElseThrow();
+        repository.saveAll(chat.getId(), List.of(user("late", 20)));
+
+        assertThat(grandchild.getName()).isEqualTo("branch");
+        assertThat(texts(repository.findByConversationId(grandchild.getId()))).containsExactly("q2", "a1", "q1");
+        assertThat(texts(repository.findByConversationId(fork.getId()))).containsExactly("a3", "q3", "a2", "q2", "a1", "q1");
+    }
+
+    @Test
+    void fork_beyondMaxDepth_copiesHistory() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 1);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+        NoSqlChat fork = repository.fork(chat.getId(), 0, null).orElseThrow();
+
+        NoSqlChat copy = repository.fork(fork.getId(), 1, null).orElseThrow();
+
+        assertThat(rows(MessageTable.V2, copy.getId())).isEqualTo(3);
+        assertThat(texts(repository.findByConversationId(copy.getId()))).containsExactly("q2", "a1", "q1");
+    }
+
+    @Test
+    void fork_unknownChatOrTooManyDropped() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+
+        assertThat(repository.fork("missing", 0, null)).isEmpty();
+        assertThatThrownBy(() -> repository.fork(chat.getId(), 5, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deleteById_parentOfFork_keepsForkHistory() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+        NoSqlChat fork = repository.fork(chat.getId(), 2, null).orElseThrow();
+        repository.saveAll(fork.getId(), List.of(user("q2 edited", 10)));
+
+        repository.deleteById(chat.getId());
+
+        assertThat(repository.findByConversationId(chat.getId())).isEmpty();
+        assertThat(texts(repository.findByConversationId(fork.getId()))).containsExactly("q2 edited", "a1", "q1");
+        assertThat(rows(MessageTable.V2, fork.getId())).isEqualTo(3);
+    }
+
+    @Test
+    void deleteByConversationId_fork_clearsInheritedHistoryToo() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V2, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+        NoSqlChat fork = repository.fork(chat.getId(), 2, null).orElseThrow();
+        repository.saveAll(fork.getId(), List.of(user("q2 edited", 10)));
+
+        repository.deleteByConversationId(fork.getId());
+
+        assertThat(repository.findByConversationId(fork.getId())).isEmpty();
+        assertThat(repository.findLastNByConversationId(fork.getId(), 10)).isEmpty();
+        // the parent keeps its history, and a fresh repository sees no lineage either
+        assertThat(texts(repository.findByConversationId(chat.getId()))).containsExactly("a2", "q2", "a1", "q1");
+        assertThat(repository(MessageTable.V2, 8).findByConversationId(fork.getId())).isEmpty();
+    }
+
+    @Test
+    void findByConversationId_v1Fork_pagesByKeyIntoParent() {
+        CassandraChatMemoryRepository repository = repository(MessageTable.V1, 8);
+        NoSqlChat chat = chatWithTwoTurns(repository);
+        NoSqlChat fork = repository.fork(chat.getId(), 2, null).orElseThrow();
+        repository.saveAll(fork.getId(), List.of(user("q2 edited", 10), assistant("a2'", 11)));
+
+        ChatPage first = repository.findByConversationId(fork.getId(), new CursorMeta(null, 3));
+        CursorMeta next = (CursorMeta) first.pageMeta();
+        ChatPage second = repository.findByConversationId(fork.getId(), new CursorMeta(next.nextCursor(), 3));
+
+        assertThat(first.messages()).extracting(ChatMessageDto::content).containsExactly("a2'", "q2 edited", "a1");
+        assertThat(second.messages()).extracting(ChatMessageDto::content).containsExactly("q1");
+        assertThat(((CursorMeta) second.pageMeta()).nextCursor()).isNull();
+    }
+}
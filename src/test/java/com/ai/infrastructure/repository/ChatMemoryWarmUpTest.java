@@ -0,0 +1,90 @@
+package com.ai.infrastructure.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMemoryWarmUpTest {
+
+    WindowCache cache = new WindowCache(1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    Set<String> read = ConcurrentHashMap.newKeySet();
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    volatile Duration readLatency = Duration.ofMillis(5);
+
+    // a memory that caches through the WindowCache and whose repository read is slow
+    ChatMemory chatMemory = new ChatMemory() {
+        @Override
+        public void add(String conversationId, List<Message> messages) {
+        }
+
+        @Override
+        public List<Message> get(String conversationId) {
+            return cache.get(conversationId, () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(readLatency.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (conversationId.equals("broken")) {
+                    inFlight.decrementAndGet();
+                    throw new IllegalStateException("read failed");
+                }
+                read.add(conversationId);
+                inFlight.decrementAndGet();
+                return List.of();
+            });
+        }
+
+        @Override
+        public void clear(String conversationId) {
+        }
+    };
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "c" + i).toList();
+    }
+
+    @Test
+    void loadsRecentWindowsWithBoundedConcurrency() {
+        ChatMemoryWarmUp warmUp = new ChatMemoryWarmUp(limit -> ids(limit), chatMemory, 50, 4, Duration.ofSeconds(10));
+
+        long loaded = warmUp.run();
+
+        assertThat(loaded).isEqualTo(50);
+        assertThat(read).hasSize(50);
+        assertThat(cache.size()).isEqualTo(50);
+        assertThat(maxInFlight.get()).isBetween(1, 4);
+    }
+
+    @Test
+    void stopsAtTheTimeBudget() {
+        readLatency = Duration.ofMillis(100);
+        ChatMemoryWarmUp warmUp = new ChatMemoryWarmUp(limit -> ids(limit), chatMemory, 1000, 2, Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        long loaded = warmUp.run();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(loaded).isLessThan(1000);
+    }
+
+    @Test
+    void skipsWindowsThatFailToLoad() {
+        ChatMemoryWarmUp warmUp = new ChatMemoryWarmUp(limit -> List.of("c1", "broken", "c2"), chatMemory, 3, 2, Duration.ofSeconds(10));
+
+        assertThat(warmUp.run()).isEqualTo(2);
+        assertThat(read).containsExactlyInAnyOrder("c1", "c2");
+    }
+}
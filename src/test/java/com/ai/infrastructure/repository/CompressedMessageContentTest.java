@@ -0,0 +1,94 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedMessageContentTest extends BaseTest {
+
+    private static final String LONG_ANSWER = "The quick brown fox jumps over the lazy dog. ".repeat(50);
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    private TokenRangeScanner scanner() {
+        return new TokenRangeScanner(cqlSession, 4, 4, 100, queryProfiles);
+    }
+
+    private CassandraChatMemoryRepository repository() {
+        return new CassandraChatMemoryRepository(
+                cqlTemplate, cqlSession, new MessageContentCodec(MessageContentCodec.Codec.LZ4, 256), scanner(), MessageTable.V1, queryProfiles, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void saveAll_compressesLargeMessagesOnly_andReadsDecompress() {
+        CassandraChatMemoryRepository repository = repository();
+        Instant now = Instant.now();
+
+        repository.saveAll("c1", List.of(
+                UserMessage.builder().text("short question").metadata(Map.of("msg_timestamp", now)).build(),
+                new AssistantMessage(LONG_ANSWER, Map.of("msg_timestamp", now.plusMillis(10)))
+        ));
+
+        List<Map<String, Object>> rows = cqlTemplate.queryForList(
+                "SELECT msg_type, msg_content, msg_content_blob FROM ai_chat_message WHERE session_id = ?", "c1");
+        assertThat(rows).anySatisfy(row -> {
+            assertThat(row.get("msg_type")).isEqualTo("assistant");
+            assertThat(row.get("msg_content")).isNull();
+            assertThat(row.get("msg_content_blob")).isNotNull();
+        });
+        assertThat(rows).anySatisfy(row -> {
+            assertThat(row.get("msg_type")).isEqualTo("user");
+            assertThat(row.get("msg_content")).isEqualTo("short question");
+            assertThat(row.get("msg_content_blob")).isNull();
+        });
+
+        List<Message> messages = repository.findByConversationId("c1");
+        assertThat(messages.get(0).getText()).isEqualTo(LONG_ANSWER);
+        assertThat(messages.get(1).getText()).isEqualTo("short question");
+
+        ChatPage page = repository.findByConversationId("c1", new CursorMeta(null, 1));
+        assertThat(page.messages().getFirst().content()).isEqualTo(LONG_ANSWER);
+    }
+
+    @Test
+    void migration_compressesExistingPlainTextRows() {
+        Instant now = Instant.now();
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content) VALUES (?, ?, ?, ?)",
+                "c2", now, "assistant", LONG_ANSWER
+        );
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content) VALUES (?, ?, ?, ?)",
+                "c2", now.plusMillis(1), "user", "tiny"
+        );
+
+        long migrated = new MessageCompressionMigration(
+                cqlSession, new MessageContentCodec(MessageContentCodec.Codec.LZ4, 256), scanner(), MessageTable.V1).run();
+
+        assertThat(migrated).isEqualTo(1);
+        assertThat(cqlTemplate.queryForObject(
+                "SELECT msg_content FROM ai_chat_message WHERE session_id = ? AND msg_timestamp = ?", String.class, "c2", now
+        )).isNull();
+        assertThat(repository().findByConversationId("c2"))
+                .extracting(Message::getText)
+                .containsExactly("tiny", LONG_ANSWER);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ai.infrastructure.repository;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageIdGeneratorTest {
+
+    @Test
+    void next_sameInstant_yieldsStrictlyIncreasingIds() {
+        MessageIdGenerator generator = new MessageIdGenerator();
+        Instant at = Instant.parse("2025-01-01T10:00:00Z");
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(generator.next("c1", at));
+        }
+
+        assertThat(new HashSet<>(ids)).hasSize(1000);
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i).timestamp()).isGreaterThan(ids.get(i - 1).timestamp());
+        }
+        assertThat(ids).allSatisfy(id -> {
+            assertThat(id.version()).isEqualTo(1);
+            assertThat(Uuids.unixTimestamp(id)).isEqualTo(at.toEpochMilli());
+        });
+    }
+
+    @Test
+    void next_keepsMessageTime_forDistinctInstants() {
+        MessageIdGenerator generator = new MessageIdGenerator();
+        Instant at = Instant.parse("2025-01-01T10:00:00.123Z");
+
+        UUID id = generator.next("c1", at);
+
+        assertThat(Uuids.unixTimestamp(id)).isEqualTo(at.toEpochMilli());
+        // an older instant in another conversation is not pushed forward
+        assertThat(Uuids.unixTimestamp(generator.next("c2", at.minusSeconds(60))))
+                .isEqualTo(at.minusSeconds(60).toEpochMilli());
+    }
+
+    @Test
+    void next_concurrentCallers_neverCollide() throws InterruptedException {
+        MessageIdGenerator generator = new MessageIdGenerator(4, 16);
+        Instant at = Instant.now();
+        // ids are unique per conversation, the partition they key
+        var ids = ConcurrentHashMap.<String>newKeySet();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String conversationId = "c" + (i % 3);
+                        ids.add(conversationId + "/" + generator.next(conversationId, at));
+                    }
+                });
+            }
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(ids).hasSize(16_000);
+    }
+
+    @Test
+    void fromLegacyTimestamp_isDeterministic() {
+        Instant at = Instant.parse("2025-01-01T10:00:00.123Z");
+
+        assertThat(MessageIdGenerator.fromLegacyTimestamp(at)).isEqualTo(MessageIdGenerator.fromLegacyTimestamp(at));
+        assertThat(Uuids.unixTimestamp(MessageIdGenerator.fromLegacyTimestamp(at))).isEqualTo(at.toEpochMilli());
+    }
+}
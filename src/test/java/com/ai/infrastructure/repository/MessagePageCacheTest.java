@@ -0,0 +1,76 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.application.dto.ChatMessageDto;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessagePageCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MessagePageCache cache = new MessagePageCache(2, Duration.ofMinutes(1), meterRegistry);
+    AtomicInteger loads = new AtomicInteger();
+
+    private ChatPage page(int size) {
+        List<ChatMessageDto> messages = IntStream.range(0, size)
+                .mapToObj(i -> new ChatMessageDto("user", "m" + i))
+                .toList();
+        return new ChatPage(messages, new CursorMeta("next", 2));
+    }
+
+    private ChatPage load(ChatPage page) {
+        loads.incrementAndGet();
+        return page;
+    }
+
+    @Test
+    void get_fullPage_isLoadedOnce() {
+        ChatPage full = page(2);
+
+        cache.get("c1", "cursor", 2, () -> load(full));
+        ChatPage second = cache.get("c1", "cursor", 2, () -> load(full));
+
+        assertThat(second.messages()).containsExactlyElementsOf(full.messages());
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.counter("chat.messages.page.cache", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shortPage_isNotCached() {
+        cache.get("c1", "cursor", 2, () -> load(page(1)));
+        cache.get("c1", "cursor", 2, () -> load(page(1)));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void onConversationCleared_evictsOnlyThatConversation() {
+        cache.get("c1", "cursor", 2, () -> load(page(2)));
+        cache.get("c2", "cursor", 2, () -> load(page(2)));
+
+        cache.onConversationCleared("c1");
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get("c2", "cursor", 2, () -> load(page(2)));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_expiredPage_isReloaded() {
+        MessagePageCache shortLived = new MessagePageCache(2, Duration.ofNanos(1), meterRegistry);
+
+        shortLived.get("c1", "cursor", 2, () -> load(page(2)));
+        shortLived.get("c1", "cursor", 2, () -> load(page(2)));
+
+        assertThat(loads).hasValue(2);
+    }
+}
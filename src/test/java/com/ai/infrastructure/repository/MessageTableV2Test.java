@@ -0,0 +1,127 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.application.dto.ChatMessageDto;
+import com.ai.domain.model.pagination.ChatPage;
+import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageTableV2Test extends BaseTest {
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    private CassandraChatMemoryRepository repository() {
+        return new CassandraChatMemoryRepository(cqlTemplate, cqlSession, MessageContentCodec.disabled(),
+                new TokenRangeScanner(cqlSession, 4, 4, 100, queryProfiles), MessageTable.V2, queryProfiles, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void saveAll_sameMillisecond_keepsEveryMessageInOrder() {
+        CassandraChatMemoryRepository repository = repository();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(UserMessage.builder().text("m" + i).metadata(Map.of("msg_timestamp", now)).build());
+        }
+        repository.saveAll("c1", batch);
+
+        List<Message> messages = repository.findByConversationId("c1");
+        assertThat(messages).hasSize(20);
+        // newest first
+        assertThat(messages.getFirst().getText()).isEqualTo("m19");
+        assertThat(messages.getLast().getText()).isEqualTo("m0");
+        assertThat(messages).allSatisfy(m -> {
+            assertThat(m.getMetadata().get("msg_id")).isInstanceOf(UUID.class);
+            assertThat(m.getMetadata().get("msg_timestamp")).isEqualTo(now);
+        });
+    }
+
+    @Test
+    void saveAll_honoursExplicitMsgId() {
+        CassandraChatMemoryRepository repository = repository();
+        UUID msgId = MessageIdGenerator.fromLegacyTimestamp(Instant.now());
+
+        repository.saveAll("c1", List.of(new AssistantMessage("first", Map.of("msg_id", msgId))));
+        repository.saveAll("c1", List.of(new AssistantMessage("replaced", Map.of("msg_id", msgId))));
+
+        assertThat(repository.findByConversationId("c1"))
+                .extracting(Message::getText)
+                .containsExactly("replaced");
+    }
+
+    @Test
+    void findByConversationId_pagesWithKeyCursor() {
+        CassandraChatMemoryRepository repository = repository();
+        Instant now = Instant.now();
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(UserMessage.builder().text("m" + i).metadata(Map.of("msg_timestamp", now)).build());
+        }
+        repository.saveAll("c1", batch);
+
+        ChatPage first = repository.findByConversationId("c1", new CursorMeta(null, 2));
+        CursorMeta firstMeta = (CursorMeta) first.pageMeta();
+        ChatPage second = repository.findByConversationId("c1", new CursorMeta(firstMeta.nextCursor(), 2));
+        CursorMeta secondMeta = (CursorMeta) second.pageMeta();
+        ChatPage third = repository.findByConversationId("c1", new CursorMeta(secondMeta.nextCursor(), 2));
+
+        assertThat(first.messages()).extracting(ChatMessageDto::content).containsExactly("m4", "m3");
+        assertThat(second.messages()).extracting(ChatMessageDto::content).containsExactly("m2", "m1");
+        assertThat(third.messages()).extracting(ChatMessageDto::content).containsExactly("m0");
+        assertThat(((CursorMeta) third.pageMeta()).nextCursor()).isNull();
+    }
+
+    @Test
+    void migration_copiesV1Rows_andIsIdempotent() {
+        Instant t1 = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content, msg_truncated) VALUES (?, ?, ?, ?, ?)",
+                "c1", t1, "user", "hello", false
+        );
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content, msg_truncated) VALUES (?, ?, ?, ?, ?)",
+                "c1", t1.plusMillis(5), "assistant", "partial", true
+        );
+        MessageTableMigration migration = new MessageTableMigration(cqlSession, new TokenRangeScanner(cqlSession, 4, 4, 100, queryProfiles));
+
+        assertThat(migration.run()).isEqualTo(2);
+        assertThat(migration.run()).isEqualTo(2);
+
+        List<Message> messages = repository().findByConversationId("c1");
+        assertThat(messages).extracting(Message::getText).containsExactly("partial", "hello");
+        assertThat(messages.getFirst().getMetadata())
+                .containsEntry("msg_truncated", true)
+                .containsEntry("msg_timestamp", t1.plusMillis(5));
+    }
+
+    @Test
+    void deleteByConversationId_removesV2Messages() {
+        CassandraChatMemoryRepository repository = repository();
+        repository.saveAll("c1", List.of(UserMessage.builder().text("x").metadata(Map.of("msg_timestamp", Instant.now())).build()));
+
+        repository.deleteByConversationId("c1");
+
+        assertThat(repository.findByConversationId("c1")).isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.compression.MessageContentCodec;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryProfilesTest extends BaseTest {
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Test
+    void apply_setsDefinedProfileAndIdempotence() {
+        QueryProfiles profiles = new QueryProfiles(cqlSession, new SimpleMeterRegistry());
+
+        SimpleStatement statement = profiles.apply(QueryProfile.WINDOW_READ, SimpleStatement.newInstance("SELECT * FROM ai_chat_memory"));
+
+        assertThat(statement.getExecutionProfileName()).isEqualTo("window-read");
+        assertThat(statement.isIdempotent()).isTrue();
+    }
+
+    @Test
+    void applyNonIdempotent_setsProfileButNoIdempotence() {
+        QueryProfiles profiles = new QueryProfiles(cqlSession, new SimpleMeterRegistry());
+
+        SimpleStatement statement = profiles.applyNonIdempotent(QueryProfile.DURABLE_WRITE,
+                SimpleStatement.newInstance("UPDATE chat_token_usage SET turns = turns + 1 WHERE session_id = 'c1'"));
+
+        assertThat(statement.getExecutionProfileName()).isEqualTo("durable-write");
+        assertThat(statement.isIdempotent()).isFalse();
+    }
+
+    @Test
+    void repository_recordsLatencyPerProfile() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueryProfiles scanProfiles = new QueryProfiles(cqlSession, meterRegistry);
+        CassandraChatMemoryRepository repository = new CassandraChatMemoryRepository(cqlTemplate, cqlSession,
+                MessageContentCodec.disabled(), new TokenRangeScanner(cqlSession, 2, 2, 100, scanProfiles),
+                MessageTable.V1, scanProfiles, meterRegistry);
+
+        NoSqlChat chat = repository.save("profiled");
+        repository.saveAll(chat.getId(), List.of(
+                UserMessage.builder().text("hello").metadata(Map.of("msg_timestamp", Instant.now())).build()));
+        assertThat(repository.findLastNByConversationId(chat.getId(), 10)).hasSize(1);
+        assertThat(repository.findByConversationId(chat.getId())).hasSize(1);
+        assertThat(repository.scanConversationIds().collectList().block()).contains(chat.getId());
+
+        // two rows and two versions for the chat, the message and its version
+        assertThat(count(meterRegistry, "durable-write")).isEqualTo(6);
+        assertThat(count(meterRegistry, "consistent-read")).isEqualTo(2);
+        // the chat's lineage, read once and then cached
+        assertThat(count(meterRegistry, "window-read")).isEqualTo(1);
+        assertThat(count(meterRegistry, "bulk-scan")).isPositive();
+    }
+
+    private static long count(SimpleMeterRegistry meterRegistry, String profile) {
+        return meterRegistry.get("chat.cassandra.query").tags("profile", profile, "outcome", "success").timer().count();
+    }
+}
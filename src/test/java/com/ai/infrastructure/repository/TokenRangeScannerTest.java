@@ -0,0 +1,83 @@
+package com.ai.infrastructure.repository;
+
+import com.ai.BaseTest;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenRangeScannerTest extends BaseTest {
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Test
+    void scan_returnsEveryRowExactlyOnce_acrossSplitsAndPages() {
+        // given: more partitions than splits and pages
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            String id = "scan-" + i;
+            expected.add(id);
+            cqlTemplate.execute(
+                    "INSERT INTO ai_chat_memory (session_id, session_name, created_at) VALUES (?, ?, ?)",
+                    id, "name-" + i, Instant.now()
+            );
+        }
+        TokenRangeScanner scanner = new TokenRangeScanner(cqlSession, 8, 4, 7, new QueryProfiles(cqlSession, new SimpleMeterRegistry()));
+
+        // when
+        List<String> ids = scanner.scan("ai_chat_memory", "session_id", "session_id", row -> row.getString("session_id"))
+                .collectList()
+                .block();
+
+        // then
+        assertThat(ids).hasSize(300);
+        assertThat(new HashSet<>(ids)).isEqualTo(expected);
+    }
+
+    @Test
+    void scan_distinctPartitionKeys_ofClusteredTable() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            cqlTemplate.execute(
+                    "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content) VALUES (?, ?, ?, ?)",
+                    "c1", now.plusMillis(i), "user", "m" + i
+            );
+        }
+        cqlTemplate.execute(
+                "INSERT INTO ai_chat_message (session_id, msg_timestamp, msg_type, msg_content) VALUES (?, ?, ?, ?)",
+                "c2", now, "user", "m"
+        );
+
+        List<String> ids = new TokenRangeScanner(cqlSession, 2, 2, 100, new QueryProfiles(cqlSession, new SimpleMeterRegistry()))
+                .scan("ai_chat_message", "session_id", "DISTINCT session_id", row -> row.getString("session_id"))
+                .collectList()
+                .block();
+
+        assertThat(ids).containsExactlyInAnyOrder("c1", "c2");
+    }
+
+    @Test
+    void scan_emptyTable_completesEmpty() {
+        assertThat(new TokenRangeScanner(cqlSession, 4, 4, 100, new QueryProfiles(cqlSession, new SimpleMeterRegistry()))
+                .scan("chats_by_created", "bucket", "session_id", row -> row.getString("session_id"))
+                .collectList()
+                .block()).isEmpty();
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSettings() {
+        assertThatThrownBy(() -> new TokenRangeScanner(cqlSession, 0, 1, 1, new QueryProfiles(cqlSession, new SimpleMeterRegistry())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenRangeScanner(cqlSession, 1, 0, 1, new QueryProfiles(cqlSession, new SimpleMeterRegistry())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
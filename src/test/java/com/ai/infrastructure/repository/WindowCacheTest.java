@@ -0,0 +1,129 @@
+package com.ai.infrastructure.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    WindowCache cache = new WindowCache(2, Duration.ofMinutes(1), meterRegistry);
+    AtomicInteger loads = new AtomicInteger();
+    Instant t0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private Message user(String text, Instant at) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", at)).build();
+    }
+
+    private List<Message> load(List<Message> window) {
+        loads.incrementAndGet();
+        return window;
+    }
+
+    @Test
+    void get_loadsOnce_thenHits() {
+        List<Message> window = List.of(user("hi", t0));
+
+        cache.get("c1", () -> load(window));
+        List<Message> second = cache.get("c1", () -> load(window));
+
+        assertThat(second).containsExactlyElementsOf(window);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.counter("chat.memory.window.cache", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void added_mergesNewMessagesNewestFirst() {
+        cache.get("c1", () -> load(List.of(user("q1", t0))));
+
+        cache.added("c1", List.of(
+                new AssistantMessage("a1", Map.of("msg_timestamp", t0.plusSeconds(1))),
+                user("q2", t0.plusSeconds(2))), 10);
+
+        assertThat(cache.get("c1", () -> load(List.of())))
+                .extracting(Message::getText)
+                .containsExactly("q2", "a1", "q1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void added_keepsNewestMaxMessages() {
+        cache.get("c1", () -> load(List.of(user("a1", t0.plusSeconds(1)), user("q1", t0))));
+
+        cache.added("c1", List.of(user("q2", t0.plusSeconds(2)), user("a2", t0.plusSeconds(3))), 3);
+
+        assertThat(cache.get("c1", () -> load(List.of())))
+                .extracting(Message::getText)
+                .containsExactly("a2", "q2", "a1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void added_withoutTimestamp_dropsTheWindow() {
+        cache.get("c1", () -> load(List.of(user("q1", t0))));
+
+        cache.added("c1", List.of(new UserMessage("no timestamp")), 10);
+
+        cache.get("c1", () -> load(List.of()));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadRacingWithAdd_isNotCached() {
+        cache.get("c1", () -> {
+            // another thread stores a message while this load reads the old history
+            cache.added("c1", List.of(user("q2", t0.plusSeconds(1))), 10);
+            return load(List.of(user("q1", t0)));
+        });
+
+        cache.get("c1", () -> load(List.of(user("q2", t0.plusSeconds(1)), user("q1", t0))));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondCapacity() {
+        cache.get("c1", () -> load(List.of()));
+        cache.get("c2", () -> load(List.of()));
+        cache.get("c1", () -> load(List.of()));
+        cache.get("c3", () -> load(List.of()));
+
+        cache.get("c1", () -> load(List.of()));
+        cache.get("c2", () -> load(List.of()));
+
+        // c1, c2, c3 loaded once; c2 evicted by c3 and loaded again
+        assertThat(loads).hasValue(4);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredWindowIsReloaded() throws InterruptedException {
+        WindowCache shortLived = new WindowCache(10, Duration.ofMillis(20), meterRegistry);
+        shortLived.get("c1", () -> load(List.of()));
+
+        Thread.sleep(40);
+        shortLived.get("c1", () -> load(List.of()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evict_forcesReload() {
+        cache.get("c1", () -> load(List.of(user("q1", t0))));
+
+        cache.evict("c1");
+        cache.get("c1", () -> load(List.of()));
+
+        assertThat(loads).hasValue(2);
+    }
+}
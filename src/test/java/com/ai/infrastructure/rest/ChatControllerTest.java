@@ -4,16 +4,24 @@ import com.ai.BaseTest;
 import com.ai.application.dto.ChatDto;
 import com.ai.application.dto.ChatMessageDto;
 import com.ai.application.service.ChatService;
+import com.ai.domain.entity.NoSqlChat;
 import com.ai.domain.model.pagination.ChatPage;
 import com.ai.domain.model.pagination.CursorMeta;
+import com.ai.infrastructure.repository.ChatRepository;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
 import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,10 +31,28 @@ class ChatControllerTest extends BaseTest {
     @Autowired
     ChatController chatController;
 
+    @Autowired
+    ChatRepository<NoSqlChat> chatRepository;
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private static UserMessage user(String text, Instant at) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", at)).build();
+    }
+
+    private ServletWebRequest request(String... ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chats");
+        for (String etag : ifNoneMatch) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        response = new MockHttpServletResponse();
+        return new ServletWebRequest(request, response);
+    }
+
     @Test
     void stream_shouldReturnEventsFromRealCassandra() {
         List<ServerSentEvent<String>> events =
-                chatController.stream(null, "hi")
+                chatController.stream(null, "hi", null)
                         .collectList()   // gather all emitted SSEs
                         .block();        // wait for completion
 
@@ -55,7 +81,7 @@ class ChatControllerTest extends BaseTest {
         );
 
         // call controller directly
-        List<ChatMessageDto> result = chatController.getChatHistory(chatId);
+        List<ChatMessageDto> result = chatController.getChatHistory(chatId, request());
 
         // assert messages come back DESC by timestamp
         assertThat(result).hasSize(3);
@@ -84,7 +110,7 @@ class ChatControllerTest extends BaseTest {
         );
 
         // call controller
-        ResponseEntity<List<ChatDto>> resp = chatController.findAllChats();
+        ResponseEntity<List<ChatDto>> resp = chatController.findAllChats(request());
         assertThat(resp.getStatusCode().is2xxSuccessful()).isTrue();
 
         List<ChatDto> body = resp.getBody();
@@ -96,6 +122,42 @@ class ChatControllerTest extends BaseTest {
         assertThat(body.get(1).name()).isEqualTo("First Chat");
     }
 
+    @Test
+    void getChatHistory_unchangedSinceETag_returnsNotModified() {
+        String chatId = chatRepository.save("etag").getId();
+        chatRepository.saveAll(chatId, List.of(user("hello", Instant.now())));
+
+        assertThat(chatController.getChatHistory(chatId, request())).hasSize(1);
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotBlank();
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+
+        assertThat(chatController.getChatHistory(chatId, request(etag))).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        chatRepository.saveAll(chatId, List.of(user("again", Instant.now().plusSeconds(1))));
+
+        assertThat(chatController.getChatHistory(chatId, request(etag))).hasSize(2);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void findAllChats_changesETagWhenChatIsCreatedOrDeleted() {
+        String chatId = chatRepository.save("first").getId();
+        chatController.findAllChats(request());
+        String etag = response.getHeader(HttpHeaders.ETAG);
+
+        assertThat(chatController.findAllChats(request(etag))).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        chatRepository.deleteById(chatId);
+
+        assertThat(chatController.findAllChats(request(etag)).getBody()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
     @Test
     void shouldReturnPaginatedMessagesFromController() {
         String chatId = "s1";
@@ -146,4 +208,36 @@ class ChatControllerTest extends BaseTest {
         assertThat(page4.messages()).hasSize(1);
         assertThat(page4.messages().getFirst().content()).isEqualTo("Message-1");
     }
+
+    @Test
+    void findMessagesPage_olderFullPagesAreImmutable() {
+        String chatId = chatRepository.save("pages").getId();
+        Instant base = Instant.now();
+        for (int i = 1; i <= 5; i++) {
+            chatRepository.saveAll(chatId, List.of(user("Message-" + i, base.plusSeconds(i))));
+        }
+
+        ResponseEntity<ChatPage> head = chatController.findMessagesPage(chatId, null, 2, request());
+        assertThat(head.getBody().messages()).extracting(ChatMessageDto::content).containsExactly("Message-5", "Message-4");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        String cursor = ((CursorMeta) head.getBody().pageMeta()).nextCursor();
+
+        ResponseEntity<ChatPage> older = chatController.findMessagesPage(chatId, cursor, 2, request());
+        assertThat(older.getBody().messages()).extracting(ChatMessageDto::content).containsExactly("Message-3", "Message-2");
+        assertThat(older.getHeaders().getCacheControl()).contains("immutable", "private");
+        assertThat(older.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        cursor = ((CursorMeta) older.getBody().pageMeta()).nextCursor();
+
+        ResponseEntity<ChatPage> last = chatController.findMessagesPage(chatId, cursor, 2, request());
+        assertThat(last.getBody().messages()).extracting(ChatMessageDto::content).containsExactly("Message-1");
+        assertThat(last.getHeaders().getCacheControl()).isEqualTo("no-cache");
+    }
+
+    @Test
+    void findMessagesPage_rejectsPageSizeOutOfRange() {
+        String chatId = chatRepository.save("pages").getId();
+
+        assertThat(chatController.findMessagesPage(chatId, null, 0, request()).getStatusCode().value()).isEqualTo(400);
+        assertThat(chatController.findMessagesPage(chatId, null, 101, request()).getStatusCode().value()).isEqualTo(400);
+    }
 }
@@ -0,0 +1,100 @@
+package com.ai.infrastructure.schema;
+
+import com.ai.BaseTest;
+import com.datastax.oss.driver.api.core.CqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testcontainers.cassandra.CassandraContainer;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CassandraSchemaMigratorTest extends BaseTest {
+
+    private static final String KEYSPACE = "migrator_test";
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    CassandraContainer container;
+
+    CqlSession session;
+
+    @BeforeEach
+    void createKeyspace() {
+        cqlSession.execute("DROP KEYSPACE IF EXISTS " + KEYSPACE);
+        cqlSession.execute("CREATE KEYSPACE " + KEYSPACE
+                + " WITH REPLICATION = {'class':'SimpleStrategy','replication_factor':1}");
+        session = CqlSession.builder()
+                .addContactPoint(new InetSocketAddress(container.getHost(), container.getFirstMappedPort()))
+                .withLocalDatacenter("datacenter1")
+                .withKeyspace(KEYSPACE)
+                .build();
+    }
+
+    @AfterEach
+    void dropKeyspace() {
+        session.close();
+        cqlSession.execute("DROP KEYSPACE IF EXISTS " + KEYSPACE);
+    }
+
+    private List<String> tables() {
+        return session.execute("SELECT table_name FROM system_schema.tables WHERE keyspace_name = ?", KEYSPACE)
+                .all().stream()
+                .map(row -> row.getString("table_name"))
+                .toList();
+    }
+
+    @Test
+    void migrate_appliesEveryScriptOnce_thenOnlyReadsTheVersion() {
+        List<CassandraSchemaMigrator.Migration> migrations = CassandraSchemaMigrator.loadFromClasspath();
+        CassandraSchemaMigrator migrator = new CassandraSchemaMigrator(session, migrations, Duration.ofSeconds(30));
+
+        // when
+        int first = migrator.migrate();
+        int second = migrator.migrate();
+
+        // then
+        assertThat(migrations).isNotEmpty();
+        assertThat(first).isEqualTo(migrations.size());
+        assertThat(second).isZero();
+        assertThat(tables()).contains("ai_chat_memory", "ai_chat_message", "ai_chat_message_v2", "chats_by_created", "schema_version");
+        assertThat(session.execute("SELECT version FROM schema_version").all()).hasSize(migrations.size());
+        // the lock is released after migrating
+        assertThat(session.execute("SELECT owner FROM schema_version_lock").all()).isEmpty();
+    }
+
+    @Test
+    void migrate_appliesOnlyScriptsNewerThanTheRecordedVersion() {
+        List<CassandraSchemaMigrator.Migration> migrations = CassandraSchemaMigrator.loadFromClasspath();
+        new CassandraSchemaMigrator(session, migrations.subList(0, 1), Duration.ofSeconds(30)).migrate();
+
+        int applied = new CassandraSchemaMigrator(session, migrations, Duration.ofSeconds(30)).migrate();
+
+        assertThat(applied).isEqualTo(migrations.size() - 1);
+    }
+
+    @Test
+    void statements_skipKeyspaceStatementsAndComments() {
+        String script = """
+                -- Keyspace
+                CREATE KEYSPACE IF NOT EXISTS spring_ai
+                WITH REPLICATION = {'class':'SimpleStrategy','replication_factor':1};
+                USE spring_ai;
+
+                -- a table
+                CREATE TABLE IF NOT EXISTS t (id text PRIMARY KEY);
+                ALTER TABLE t ADD IF NOT EXISTS v int;
+                """;
+
+        assertThat(CassandraSchemaMigrator.statements(script)).containsExactly(
+                "CREATE TABLE IF NOT EXISTS t (id text PRIMARY KEY)",
+                "ALTER TABLE t ADD IF NOT EXISTS v int");
+    }
+}
@@ -0,0 +1,55 @@
+package com.ai.infrastructure.search;
+
+import com.ai.BaseTest;
+import com.ai.domain.entity.NoSqlChat;
+import com.ai.infrastructure.repository.ChatRepository;
+import com.ai.infrastructure.rest.ChatSearchController;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatSearchIndexRebuildTest extends BaseTest {
+
+    @Autowired
+    ChatRepository<NoSqlChat> chatRepository;
+
+    @Autowired
+    ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    ChatSearchController chatSearchController;
+
+    @Test
+    void rebuild_indexesEverythingStoredInCassandra() {
+        Instant now = Instant.now();
+        NoSqlChat first = chatRepository.save("first");
+        NoSqlChat second = chatRepository.save("second");
+        chatRepository.saveAll(first.getId(), List.of(
+                UserMessage.builder().text("tell me about tombstones").metadata(Map.of("msg_timestamp", now)).build(),
+                new AssistantMessage("Tombstones mark deleted data until compaction.", Map.of("msg_timestamp", now.plusMillis(1)))
+        ));
+        chatRepository.saveAll(second.getId(), List.of(
+                UserMessage.builder().text("unrelated question").metadata(Map.of("msg_timestamp", now)).build()
+        ));
+
+        long indexed = new ChatSearchIndexRebuild(chatRepository, chatSearchIndex, 4).run();
+
+        assertThat(indexed).isEqualTo(3);
+        ChatSearchResult result = chatSearchController.search("tombstones", 10).getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.chats()).extracting(ChatSearchResult.ChatHit::chatId).containsExactly(first.getId());
+        assertThat(result.messages()).hasSize(2);
+    }
+
+    @Test
+    void search_blankQuery_isBadRequest() {
+        assertThat(chatSearchController.search(" ", 10).getStatusCode().value()).isEqualTo(400);
+    }
+}
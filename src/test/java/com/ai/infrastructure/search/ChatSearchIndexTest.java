@@ -0,0 +1,167 @@
+package com.ai.infrastructure.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    ChatSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChatSearchIndex(dir, 100, Duration.ofMillis(50), Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    private static Message user(String text, Instant at) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", at)).build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void listenerUpdates_becomeSearchableAfterRefresh() throws InterruptedException {
+        Instant now = Instant.now();
+        index.onMessagesAdded("c1", List.of(
+                user("How do I configure Cassandra compaction?", now),
+                new AssistantMessage("Use the leveled compaction strategy for read-heavy tables.",
+                        Map.of("msg_timestamp", now.plusMillis(1)))
+        ));
+        index.onMessagesAdded("c2", List.of(user("Recipe for banana bread", now)));
+
+        await(() -> index.search("compaction", 10).messages().size() == 2);
+
+        ChatSearchResult result = index.search("compaction", 10);
+        assertThat(result.chats()).extracting(ChatSearchResult.ChatHit::chatId).containsExactly("c1");
+        assertThat(result.chats().getFirst().matchingMessages()).isEqualTo(2);
+        assertThat(result.messages()).allSatisfy(hit -> assertThat(hit.chatId()).isEqualTo("c1"));
+    }
+
+    @Test
+    void search_ranksChatsByBestMessage() {
+        Instant now = Instant.now();
+        index.addAll("weak", List.of(user("lucene is mentioned once among many many other unrelated words here", now)));
+        index.addAll("strong", List.of(user("lucene lucene lucene", now)));
+        index.refresh();
+
+        ChatSearchResult result = index.search("lucene", 10);
+
+        assertThat(result.chats()).extracting(ChatSearchResult.ChatHit::chatId).containsExactly("strong", "weak");
+    }
+
+    @Test
+    void addAll_sameMessageTwice_isIndexedOnce() {
+        Instant now = Instant.now();
+        index.addAll("c1", List.of(user("duplicate me", now)));
+        index.addAll("c1", List.of(user("duplicate me", now)));
+        index.refresh();
+
+        assertThat(index.search("duplicate", 10).messages()).hasSize(1);
+    }
+
+    @Test
+    void conversationCleared_removesItsDocuments() throws InterruptedException {
+        index.addAll("c1", List.of(user("secret plans", Instant.now())));
+        index.refresh();
+        assertThat(index.search("secret", 10).messages()).hasSize(1);
+
+        index.onConversationCleared("c1");
+
+        await(() -> index.search("secret", 10).messages().isEmpty());
+    }
+
+    @Test
+    void rebuild_keepsTheIndexSearchableAndLiveMessages_thenDropsWhatItDidNotFind() {
+        Instant now = Instant.now();
+        index.addAll("gone", List.of(user("stale message", now)));
+        index.addAll("c1", List.of(user("rebuilt message", now)));
+
+        long generation = index.beginRebuild();
+        index.addAll("c1", List.of(user("rebuilt message", now)));
+        // stored while the rebuild runs, after the rebuild read c2
+        index.addAll("c2", List.of(user("live message", now)));
+        index.refresh();
+        assertThat(index.search("stale", 10).messages()).hasSize(1);
+
+        index.finishRebuild(generation);
+        index.refresh();
+
+        assertThat(index.search("stale", 10).messages()).isEmpty();
+        assertThat(index.search("message", 10).chats())
+                .extracting(ChatSearchResult.ChatHit::chatId)
+                .containsExactlyInAnyOrder("c1", "c2");
+    }
+
+    @Test
+    void rebuild_conversationClearedWhileRunning_isNotBroughtBack() {
+        long generation = index.beginRebuild();
+        index.deleteConversation("c1");
+        // the rebuild read c1 before it was cleared
+        index.addAll("c1", List.of(user("cleared message", Instant.now())));
+
+        index.finishRebuild(generation);
+        index.refresh();
+
+        assertThat(index.search("cleared", 10).messages()).isEmpty();
+    }
+
+    @Test
+    void rebuild_aborted_keepsOlderDocuments() {
+        index.addAll("c1", List.of(user("older message", Instant.now())));
+
+        index.abortRebuild(index.beginRebuild());
+        index.refresh();
+
+        assertThat(index.search("older", 10).messages()).hasSize(1);
+    }
+
+    @Test
+    void search_invalidSyntax_fallsBackToPlainTerms() {
+        index.addAll("c1", List.of(user("what about (parentheses", Instant.now())));
+        index.refresh();
+
+        assertThat(index.search("(parentheses", 10).messages()).hasSize(1);
+    }
+
+    @Test
+    void index_survivesReopen() throws IOException {
+        index.addAll("c1", List.of(user("persisted text", Instant.now())));
+        index.close();
+
+        index = new ChatSearchIndex(dir, 100, Duration.ofMillis(50), Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+        assertThat(index.documentCount()).isEqualTo(1);
+        assertThat(index.search("persisted", 10).messages()).hasSize(1);
+    }
+}
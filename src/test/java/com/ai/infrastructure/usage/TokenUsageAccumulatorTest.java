@@ -0,0 +1,129 @@
+package com.ai.infrastructure.usage;
+
+import com.ai.BaseTest;
+import com.ai.infrastructure.repository.QueryProfiles;
+import com.datastax.oss.driver.api.core.CqlSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenUsageAccumulatorTest extends BaseTest {
+
+    @Autowired
+    CqlSession cqlSession;
+
+    @Autowired
+    QueryProfiles queryProfiles;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TokenUsageRepository repository;
+    TokenUsageAccumulator accumulator;
+    LocalDate day = LocalDate.of(2026, 3, 14);
+
+    @BeforeEach
+    void setUp() {
+        repository = new TokenUsageRepository(cqlSession, queryProfiles);
+        Clock clock = Clock.fixed(Instant.parse("2026-03-14T23:59:00Z"), ZoneOffset.UTC);
+        // flushed explicitly by the tests
+        accumulator = new TokenUsageAccumulator(repository, clock, Duration.ofHours(1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accumulator.close();
+    }
+
+    @Test
+    void flush_writesTotalsByChatAndDay() {
+        accumulator.record("c1", 100, 20);
+        accumulator.record("c1", 150, 30);
+        accumulator.record("c2", 10, 5);
+
+        assertThat(repository.findByChat("c1")).isEqualTo(TokenUsage.ZERO);
+        assertThat(accumulator.flush()).isEqualTo(2);
+
+        assertThat(repository.findByChat("c1")).isEqualTo(new TokenUsage(250, 50, 2));
+        assertThat(repository.findByDay(day)).isEqualTo(Map.of(
+                "c1", new TokenUsage(250, 50, 2),
+                "c2", new TokenUsage(10, 5, 1)));
+        assertThat(accumulator.unflushed("c1")).isEqualTo(TokenUsage.ZERO);
+    }
+
+    @Test
+    void flush_writesOnlyIncrementsSinceTheLastFlush() {
+        accumulator.record("c1", 100, 20);
+        accumulator.flush();
+        accumulator.record("c1", 1, 2);
+
+        assertThat(accumulator.unflushed("c1")).isEqualTo(new TokenUsage(1, 2, 1));
+        assertThat(accumulator.flush()).isEqualTo(1);
+        assertThat(accumulator.flush()).isZero();
+
+        assertThat(repository.findByChat("c1")).isEqualTo(new TokenUsage(101, 22, 2));
+    }
+
+    @Test
+    void concurrentRecords_areAllCounted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        accumulator.record("c1", 3, 1);
+                        if (i % 250 == 0) {
+                            accumulator.flush();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        accumulator.flush();
+
+        assertThat(repository.findByChat("c1")).isEqualTo(new TokenUsage(24_000, 8_000, 8_000));
+    }
+
+    @Test
+    void idleTallies_areRemovedAndRecreated() {
+        accumulator.record("c1", 10, 1);
+        accumulator.flush();
+        accumulator.flush();
+        accumulator.flush();
+
+        assertThat(meterRegistry.get("chat.usage.tallies").gauge().value()).isZero();
+
+        accumulator.record("c1", 5, 5);
+        accumulator.flush();
+        assertThat(repository.findByChat("c1")).isEqualTo(new TokenUsage(15, 6, 2));
+    }
+
+    @Test
+    void close_flushesWhatIsLeft() {
+        accumulator.record("c1", 7, 3);
+
+        accumulator.close();
+
+        assertThat(repository.findByChat("c1")).isEqualTo(new TokenUsage(7, 3, 1));
+    }
+}
@@ -0,0 +1,145 @@
+package com.ai.infrastructure.vector;
+
+import com.ai.support.FakeChatModel;
+import com.ai.support.FakeEmbeddingModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.document.Document;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationRecallAdvisorTest {
+
+    FakeEmbeddingModel embeddingModel = new FakeEmbeddingModel(256);
+    FakeChatModel chatModel = FakeChatModel.streaming("ok");
+    HnswVectorStore store;
+    ConversationEmbeddingListener listener;
+    ChatClient chatClient;
+
+    Instant t0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        store = new HnswVectorStore(new CachingEmbedder(embeddingModel, 16, 1000, meterRegistry),
+                null, Duration.ofMinutes(1), 8, 32, 32, 100);
+        listener = new ConversationEmbeddingListener(store, 100, 16, meterRegistry);
+        chatClient = ChatClient.builder(chatModel)
+                .defaultSystem("You are a helpful assistant.")
+                .defaultAdvisors(new ConversationRecallAdvisor(store, 2, 0.3, false, 0))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.close();
+        store.close();
+    }
+
+    private Message user(String text, Instant at) {
+        return UserMessage.builder().text(text).metadata(Map.of("msg_timestamp", at)).build();
+    }
+
+    private Message assistant(String text, Instant at) {
+        return new AssistantMessage(text, Map.of("msg_timestamp", at));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Message> send(List<Message> window, String conversationId) {
+        chatClient.prompt()
+                .messages(window)
+                .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId))
+                .call()
+                .content();
+        return chatModel.lastPrompt().getInstructions();
+    }
+
+    @Test
+    void recallsRelevantOlderMessagesOfTheSameConversation() throws InterruptedException {
+        listener.onMessagesAdded("c1", List.of(
+                user("my cat is called Miso", t0),
+                assistant("Nice name for a cat!", t0.plusSeconds(1)),
+                user("how long do I bake banana bread", t0.plusSeconds(2))
+        ));
+        listener.onMessagesAdded("c2", List.of(user("my cat is called Rex", t0)));
+        await(() -> store.size() == 4);
+
+        // memory hands the window out newest first
+        List<Message> window = List.of(
+                user("what is my cat called", t0.plusSeconds(10)),
+                assistant("About an hour.", t0.plusSeconds(3))
+        );
+        List<Message> sent = send(window, "c1");
+
+        assertThat(sent).hasSize(4);
+        assertThat(sent.get(0).getText()).isEqualTo("You are a helpful assistant.");
+        assertThat(sent.get(1)).isInstanceOf(SystemMessage.class);
+        assertThat(sent.get(1).getText()).contains("Miso").doesNotContain("Rex").doesNotContain("banana");
+        assertThat(sent.subList(2, 4)).containsExactlyElementsOf(window);
+    }
+
+    @Test
+    void doesNotRecallMessagesAlreadyInTheWindow() throws InterruptedException {
+        Message question = user("what is my cat called", t0.plusSeconds(10));
+        listener.onMessagesAdded("c1", List.of(question));
+        await(() -> store.size() == 1);
+
+        List<Message> sent = send(List.of(question), "c1");
+
+        assertThat(sent).extracting(Message::getMessageType).containsExactly(MessageType.SYSTEM, MessageType.USER);
+    }
+
+    @Test
+    void clearedConversationIsNotRecalled() throws InterruptedException {
+        listener.onMessagesAdded("c1", List.of(user("my cat is called Miso", t0)));
+        await(() -> store.size() == 1);
+
+        listener.onConversationCleared("c1");
+        await(() -> store.size() == 0);
+
+        assertThat(send(List.of(user("what is my cat called", t0.plusSeconds(10))), "c1")).hasSize(2);
+    }
+
+    @Test
+    void newestUserMessage_usesTimestampNotPosition() {
+        Message newest = user("second question", t0.plusSeconds(5));
+        List<Message> newestFirst = List.of(newest, assistant("first answer", t0.plusSeconds(1)), user("first question", t0));
+
+        assertThat(ConversationRecallAdvisor.newestUserMessage(newestFirst)).isSameAs(newest);
+    }
+
+    @Test
+    void withoutConversationId_promptIsUnchanged() {
+        store.add(List.of(Document.builder()
+                .id("c1/x").text("my cat is called Miso")
+                .metadata(Map.of(ConversationEmbeddingListener.CONVERSATION_ID, "c1")).build()));
+
+        chatClient.prompt().messages(user("what is my cat called", t0)).call().content();
+
+        assertThat(chatModel.lastPrompt().getInstructions()).hasSize(2);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ai.infrastructure.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static float[] randomVector(SplittableRandom random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    @Test
+    void search_findsMostOfTheExactNeighbours() {
+        SplittableRandom random = new SplittableRandom(7);
+        HnswGraph graph = new HnswGraph(32, 16, 100);
+        for (int i = 0; i < 2000; i++) {
+            graph.add(randomVector(random, 32));
+        }
+        int[] all = IntStream.range(0, graph.size()).toArray();
+
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random, 32);
+            List<Integer> exact = graph.exact(query, 10, all).stream().map(HnswGraph.Neighbor::node).toList();
+            List<Integer> approximate = graph.search(query, 10, 64, n -> true).stream().map(HnswGraph.Neighbor::node).toList();
+            expected += exact.size();
+            found += (int) approximate.stream().filter(exact::contains).count();
+        }
+
+        assertThat((double) found / expected).isGreaterThan(0.9);
+    }
+
+    @Test
+    void search_onlyReturnsAcceptedNodes() {
+        SplittableRandom random = new SplittableRandom(7);
+        HnswGraph graph = new HnswGraph(8, 4, 20);
+        for (int i = 0; i < 200; i++) {
+            graph.add(randomVector(random, 8));
+        }
+
+        List<HnswGraph.Neighbor> result = graph.search(randomVector(random, 8), 5, 50, n -> n % 2 == 0);
+
+        assertThat(result).isNotEmpty().allSatisfy(n -> assertThat(n.node() % 2).isZero());
+        assertThat(result).isSortedAccordingTo((a, b) -> Float.compare(b.similarity(), a.similarity()));
+    }
+
+    @Test
+    void writeTo_readFrom_roundTrips() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        HnswGraph graph = new HnswGraph(16, 8, 40);
+        for (int i = 0; i < 300; i++) {
+            graph.add(randomVector(random, 16));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        graph.writeTo(new DataOutputStream(bytes));
+
+        HnswGraph read = HnswGraph.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 8, 40);
+
+        float[] query = randomVector(random, 16);
+        assertThat(read.size()).isEqualTo(300);
+        assertThat(read.search(query, 5, 40, n -> true)).isEqualTo(graph.search(query, 5, 40, n -> true));
+    }
+}
@@ -0,0 +1,127 @@
+package com.ai.infrastructure.vector;
+
+import com.ai.support.FakeEmbeddingModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswVectorStoreTest {
+
+    @TempDir
+    Path dir;
+
+    FakeEmbeddingModel embeddingModel = new FakeEmbeddingModel(256);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    HnswVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private HnswVectorStore open() {
+        CachingEmbedder embedder = new CachingEmbedder(embeddingModel, 16, 1000, meterRegistry);
+        return new HnswVectorStore(embedder, dir.resolve("store.bin"), Duration.ofMinutes(1), 8, 32, 32, 0);
+    }
+
+    private static Document doc(String id, String text, String conversationId) {
+        return Document.builder().id(id).text(text).metadata(Map.of("conversation_id", conversationId)).build();
+    }
+
+    private List<String> search(String query, int topK) {
+        return store.similaritySearch(SearchRequest.builder().query(query).topK(topK).build())
+                .stream().map(Document::getId).toList();
+    }
+
+    @Test
+    void similaritySearch_ranksBySharedWords() {
+        store.add(List.of(
+                doc("a", "cassandra compaction strategy", "c1"),
+                doc("b", "banana bread recipe", "c1"),
+                doc("c", "cassandra repair schedule", "c2")
+        ));
+
+        assertThat(search("which compaction strategy for cassandra", 2)).containsExactly("a", "c");
+    }
+
+    @Test
+    void similaritySearch_appliesFilterExpression() {
+        store.add(List.of(
+                doc("a", "cassandra compaction strategy", "c1"),
+                doc("c", "cassandra repair schedule", "c2")
+        ));
+
+        List<Document> result = store.similaritySearch(SearchRequest.builder()
+                .query("cassandra compaction")
+                .topK(5)
+                .filterExpression(new FilterExpressionBuilder().eq("conversation_id", "c2").build())
+                .build());
+
+        assertThat(result).extracting(Document::getId).containsExactly("c");
+        assertThat(result.getFirst().getScore()).isGreaterThan(0).isLessThan(1);
+    }
+
+    @Test
+    void add_sameIdReplacesDocument() {
+        store.add(List.of(doc("a", "first version", "c1")));
+        store.add(List.of(doc("a", "second version", "c1")));
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.similaritySearch(SearchRequest.builder().query("version").topK(5).build()))
+                .extracting(Document::getText).containsExactly("second version");
+    }
+
+    @Test
+    void delete_byIdAndByFilter() {
+        store.add(List.of(
+                doc("a", "alpha", "c1"),
+                doc("b", "beta", "c1"),
+                doc("c", "gamma", "c2")
+        ));
+
+        store.delete(List.of("a"));
+        store.delete(new FilterExpressionBuilder().eq("conversation_id", "c2").build());
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(search("alpha beta gamma", 5)).containsExactly("b");
+    }
+
+    @Test
+    void close_persistsAndReopenRestores() {
+        store.add(List.of(doc("a", "cassandra compaction", "c1"), doc("b", "banana bread", "c1")));
+        store.delete(List.of("b"));
+        store.close();
+
+        store = open();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(search("compaction", 5)).containsExactly("a");
+    }
+
+    @Test
+    void embeddings_areBatchedAndCachedByContent() {
+        store.add(List.of(doc("a", "same text", "c1"), doc("b", "same text", "c2"), doc("c", "other text", "c1")));
+        store.add(List.of(doc("d", "same text", "c3")));
+
+        assertThat(embeddingModel.calls()).isEqualTo(1);
+        assertThat(embeddingModel.texts()).isEqualTo(2);
+        assertThat(meterRegistry.counter("chat.embedding.cache", "result", "hit").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.ai.infrastructure.websocket;
+
+import com.ai.application.service.ChatService;
+import com.ai.infrastructure.client.HedgeBudget;
+import com.ai.infrastructure.client.StreamHedger;
+import com.ai.infrastructure.metadata.CassandraMessageMetadataAppender;
+import com.ai.infrastructure.ratelimit.InMemoryDailyTokenQuota;
+import com.ai.infrastructure.repository.AnswerCheckpointer;
+import com.ai.infrastructure.repository.MessagePageCache;
+import com.ai.support.FakeChatModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatWebSocketHandlerTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    RecordingSession session = new RecordingSession();
+
+    private ChatWebSocketHandler handler(FakeChatModel chatModel, int maxStreams) {
+        ChatClient chatClient = ChatClient.builder(chatModel).build();
+        ChatService chatService = new ChatService(
+                chatClient,
+                chatClient,
+                chatClient,
+                new StreamHedger(false, Duration.ZERO, new HedgeBudget(0, 0), new SimpleMeterRegistry()),
+                MessageWindowChatMemory.builder().build(),
+                null,
+                new CassandraMessageMetadataAppender(),
+                new InMemoryDailyTokenQuota(0, Clock.systemUTC()),
+                (chatId, promptTokens, completionTokens) -> {
+                },
+                new MessagePageCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                AnswerCheckpointer.disabled(),
+                objectMapper
+        );
+        ChatWebSocketHandler handler = new ChatWebSocketHandler(chatService, null,
+                new InMemoryDailyTokenQuota(0, Clock.systemUTC()), objectMapper, maxStreams, new SimpleMeterRegistry());
+        handler.afterConnectionEstablished(session);
+        return handler;
+    }
+
+    private void send(ChatWebSocketHandler handler, String type, String stream, String chatId, String data) throws Exception {
+        handler.handleMessage(session, new TextMessage(objectMapper.writeValueAsString(
+                new ChatSocketFrame(type, stream, chatId, data))));
+    }
+
+    @Test
+    void prompts_areMultiplexedOverOneSocket() throws Exception {
+        ChatWebSocketHandler handler = handler(FakeChatModel.streaming("Hel", "lo").withChunkDelay(Duration.ofMillis(10)), 4);
+
+        send(handler, ChatSocketFrame.PROMPT, "a", "chat-a", "hi");
+        send(handler, ChatSocketFrame.PROMPT, "b", "chat-b", "hi");
+
+        session.await(frames -> frames.stream().filter(f -> f.type().equals(ChatSocketFrame.END)).count() == 2);
+        for (String stream : List.of("a", "b")) {
+            List<ChatSocketFrame> frames = session.frames(stream);
+            assertThat(frames).extracting(ChatSocketFrame::type)
+                    .containsExactly(ChatSocketFrame.CHUNK, ChatSocketFrame.CHUNK, ChatSocketFrame.END);
+            assertThat(frames.get(0).data() + frames.get(1).data()).isEqualTo("Hello");
+        }
+    }
+
+    @Test
+    void cancel_stopsOnlyThatStream() throws Exception {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hel", "lo", " wor", "ld").withChunkDelay(Duration.ofMillis(50));
+        ChatWebSocketHandler handler = handler(chatModel, 4);
+
+        send(handler, ChatSocketFrame.PROMPT, "a", "chat-a", "hi");
+        session.await(frames -> !frames.isEmpty());
+        send(handler, ChatSocketFrame.CANCEL, "a", null, null);
+
+        session.await(frames -> frames.stream().anyMatch(f -> f.type().equals(ChatSocketFrame.END)));
+        assertThat(session.frames("a").getLast()).isEqualTo(ChatSocketFrame.end("a", "cancelled"));
+        assertThat(chatModel.cancellations()).isEqualTo(1);
+    }
+
+    @Test
+    void prompt_overMaxStreams_isRejected() throws Exception {
+        ChatWebSocketHandler handler = handler(FakeChatModel.streaming("Hel", "lo").withChunkDelay(Duration.ofMillis(100)), 1);
+
+        send(handler, ChatSocketFrame.PROMPT, "a", "chat-a", "hi");
+        send(handler, ChatSocketFrame.PROMPT, "b", "chat-b", "hi");
+
+        session.await(frames -> frames.stream().anyMatch(f -> f.type().equals(ChatSocketFrame.END)));
+        assertThat(session.frames("b")).containsExactly(ChatSocketFrame.error("b", "Too many concurrent streams"));
+    }
+
+    @Test
+    void close_cancelsRunningStreams() throws Exception {
+        FakeChatModel chatModel = FakeChatModel.streaming("Hel", "lo", " wor", "ld").withChunkDelay(Duration.ofMillis(50));
+        ChatWebSocketHandler handler = handler(chatModel, 4);
+
+        send(handler, ChatSocketFrame.PROMPT, "a", "chat-a", "hi");
+        session.await(frames -> !frames.isEmpty());
+        handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+
+        assertThat(chatModel.cancellations()).isEqualTo(1);
+    }
+
+    private class RecordingSession implements WebSocketSession {
+
+        private final List<ChatSocketFrame> sent = new CopyOnWriteArrayList<>();
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        List<ChatSocketFrame> frames(String stream) {
+            return sent.stream().filter(frame -> stream.equals(frame.stream())).toList();
+        }
+
+        void await(Predicate<List<ChatSocketFrame>> condition) throws InterruptedException {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!condition.test(sent) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(condition).accepts(sent);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            sent.add(objectMapper.readValue(((TextMessage) message).getPayload(), ChatSocketFrame.class));
+        }
+
+        @Override
+        public String getId() {
+            return "socket-1";
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/chats/ws");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return new InetSocketAddress("127.0.0.1", 50000);
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ai.support;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ChatModel} stand-in for tests: streams a fixed list of chunks with a controllable
+ * first-token and per-chunk latency, and can fail after the chunks were emitted. Can end the stream
+ * with a usage-only response like OpenAI does with {@code stream_options.include_usage}. Keeps the
+ * last prompt it received.
+ */
+public class FakeChatModel implements ChatModel {
+
+    private final List<String> chunks;
+    private Duration firstTokenDelay = Duration.ZERO;
+    private Duration chunkDelay = Duration.ZERO;
+    private RuntimeException failure;
+    private DefaultUsage usage;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+    private volatile Prompt lastPrompt;
+
+    private FakeChatModel(List<String> chunks) {
+        this.chunks = chunks;
+    }
+
+    public static FakeChatModel streaming(String... chunks) {
+        return new FakeChatModel(List.of(chunks));
+    }
+
+    public FakeChatModel withFirstTokenDelay(Duration firstTokenDelay) {
+        this.firstTokenDelay = firstTokenDelay;
+        return this;
+    }
+
+    public FakeChatModel withChunkDelay(Duration chunkDelay) {
+        this.chunkDelay = chunkDelay;
+        return this;
+    }
+
+    public FakeChatModel failingWith(RuntimeException failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    public FakeChatModel withUsage(int promptTokens, int completionTokens) {
+        this.usage = new DefaultUsage(promptTokens, completionTokens);
+        return this;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        calls.incrementAndGet();
+        lastPrompt = prompt;
+        if (failure != null) {
+            throw failure;
+        }
+        return response(String.join("", chunks));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        streams.incrementAndGet();
+        lastPrompt = prompt;
+        Flux<ChatResponse> responses = Flux.fromIterable(chunks)
+                .delayElements(chunkDelay)
+                .map(FakeChatModel::response);
+        if (usage != null) {
+            responses = responses.concatWith(Flux.just(new ChatResponse(
+                    List.of(new Generation(new AssistantMessage(""))),
+                    ChatResponseMetadata.builder().usage(usage).build())));
+        }
+        if (failure != null) {
+            responses = responses.concatWith(Flux.error(failure));
+        }
+        return responses
+                .delaySubscription(firstTokenDelay)
+                .doOnCancel(cancellations::incrementAndGet);
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public int streams() {
+        return streams.get();
+    }
+
+    public int cancellations() {
+        return cancellations.get();
+    }
+
+    public Prompt lastPrompt() {
+        return lastPrompt;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ai.support;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deterministic {@link EmbeddingModel} for tests: a hashed bag of words, so texts sharing words are
+ * similar and identical texts embed identically. Counts calls and embedded texts.
+ */
+public class FakeEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger texts = new AtomicInteger();
+
+    public FakeEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        calls.incrementAndGet();
+        texts.addAndGet(request.getInstructions().size());
+        List<Embedding> embeddings = new ArrayList<>();
+        for (int i = 0; i < request.getInstructions().size(); i++) {
+            embeddings.add(new Embedding(vector(request.getInstructions().get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return vector(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public float[] vector(String text) {
+        float[] vector = new float[dimensions];
+        for (String word : text.toLowerCase(Locale.ROOT).split("\\W+")) {
+            if (!word.isEmpty()) {
+                vector[Math.floorMod(word.hashCode(), dimensions)] += 1;
+            }
+        }
+        return vector;
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public int texts() {
+        return texts.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal OpenAI-compatible HTTP server for tests that run the application out of process: answers
+ * {@code POST /v1/chat/completions} with a fixed reply, streamed as server-sent events when the
+ * request asks for {@code "stream": true}.
+ */
+public class FakeOpenAiServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final String reply;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public FakeOpenAiServer(String reply) throws IOException {
+        this.reply = reply;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::completions);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    private void completions(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        boolean stream = request.replace(" ", "").contains("\"stream\":true");
+        String body = stream ? streamed() : completion();
+        exchange.getResponseHeaders().set("Content-Type", stream ? "text/event-stream" : "application/json");
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String completion() {
+        return """
+                {"id":"fake-1","object":"chat.completion","created":0,"model":"fake",
+                 "choices":[{"index":0,"message":{"role":"assistant","content":"%s"},"finish_reason":"stop"}],
+                 "usage":{"prompt_tokens":1,"completion_tokens":1,"total_tokens":2}}
+                """.formatted(reply).replace("\n", "");
+    }
+
+    private String streamed() {
+        return "data: {\"id\":\"fake-1\",\"object\":\"chat.completion.chunk\",\"created\":0,\"model\":\"fake\","
+                + "\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"" + reply + "\"},\"finish_reason\":null}]}\n\n"
+                + "data: {\"id\":\"fake-1\",\"object\":\"chat.completion.chunk\",\"created\":0,\"model\":\"fake\","
+                + "\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}\n\n"
+                + "data: [DONE]\n\n";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}